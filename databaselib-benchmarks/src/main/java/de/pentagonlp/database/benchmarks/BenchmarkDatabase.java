@@ -0,0 +1,78 @@
+package de.pentagonlp.database.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import de.pentagonlp.database.drivers.SqlLiteConnection;
+
+/**
+ * Temporary Sqlite database shared by the database benchmarks
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class BenchmarkDatabase {
+
+	private final File file;
+	private final SqlLiteConnection connection;
+
+	/**
+	 * Creates a temporary database with a table {@code bench} of the given
+	 * size.<br>
+	 * Each row has an integer key, a text, an integer, a floating point and a
+	 * nullable column.
+	 * 
+	 * @param rows Number of rows to insert
+	 * 
+	 * @throws Exception
+	 * 
+	 */
+	BenchmarkDatabase(int rows) throws Exception {
+		file = File.createTempFile("databaselib-benchmark", ".db");
+		connection = new SqlLiteConnection(file.getAbsolutePath());
+		connection.open();
+
+		connection.getFirstRow("CREATE TABLE bench (ID INTEGER PRIMARY KEY, Name TEXT NOT NULL, "
+				+ "Amount INTEGER NOT NULL, Price REAL NOT NULL, Note TEXT)");
+		if (rows > 0)
+			connection.executeBatch("INSERT INTO bench (ID, Name, Amount, Price, Note) VALUES (?, ?, ?, ?, ?)",
+					rows(0, rows));
+	}
+
+	/**
+	 * Creates parameters for {@code INSERT INTO bench} statements
+	 * 
+	 * @param first ID of the first row
+	 * @param count Number of rows
+	 * 
+	 * @return Parameters of {@code count} rows with consecutive IDs
+	 * 
+	 */
+	static ArrayList<Object[]> rows(int first, int count) {
+		ArrayList<Object[]> rows = new ArrayList<>(count);
+		for (int id = first; id < first + count; id++)
+			rows.add(new Object[] { id, "name-" + id, id * 7L, id * 0.25, id % 3 == 0 ? null : "note" });
+		return rows;
+	}
+
+	SqlLiteConnection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * Closes the connection and deletes the database file
+	 * 
+	 * @throws Exception
+	 * 
+	 */
+	void delete() throws Exception {
+		try {
+			connection.close();
+		} finally {
+			if (!file.delete() && file.exists())
+				throw new IOException("Could not delete " + file);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package de.pentagonlp.database.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks writing many rows, through single statements and through
+ * {@link de.pentagonlp.database.DatabaseConnection#executeBatch(String, Iterable)
+ * executeBatch}. Results are given per row.
+ * 
+ * @author PentagonLP
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkWriteBenchmark {
+
+	private static final int ROWS = 1000;
+	private static final String INSERT = "INSERT INTO bench (ID, Name, Amount, Price, Note) VALUES (?, ?, ?, ?, ?)";
+
+	private final ArrayList<Object[]> rows = BenchmarkDatabase.rows(0, ROWS);
+
+	private BenchmarkDatabase database;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		database = new BenchmarkDatabase(0);
+	}
+
+	@Setup(Level.Invocation)
+	public void clear() throws Exception {
+		database.getConnection().getFirstRow("DELETE FROM bench");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.delete();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int[] executeBatch() throws Exception {
+		return database.getConnection().executeBatch(INSERT, rows);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void singleStatementsInTransaction() throws Exception {
+		database.getConnection().getFirstRow("BEGIN");
+		for (Object[] row : rows)
+			database.getConnection().getFirstRow(INSERT, row);
+		database.getConnection().getFirstRow("COMMIT");
+	}
+
+}
@@ -0,0 +1,95 @@
+package de.pentagonlp.database.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.pentagonlp.database.DataElement;
+
+/**
+ * Benchmarks converting {@link DataElement DataElements}, both holding text as
+ * read from drivers without native types and holding native values
+ * 
+ * @author PentagonLP
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataElementBenchmark {
+
+	// Not final, so the JIT can not fold the conversions
+	private String intText = "123456";
+	private String doubleText = "1234.5678";
+	private String booleanText = "1";
+	private long longValue = 123456L;
+	private double doubleValue = 1234.5678;
+
+	private DataElement intString = new DataElement(intText);
+	private DataElement doubleString = new DataElement(doubleText);
+	private DataElement booleanString = new DataElement(booleanText);
+	private DataElement nativeLong = new DataElement(longValue);
+	private DataElement nativeDouble = new DataElement(doubleValue);
+
+	@Benchmark
+	public int toIntFromString() {
+		return intString.toInt();
+	}
+
+	@Benchmark
+	public long toLongFromString() {
+		return intString.toLong();
+	}
+
+	@Benchmark
+	public double toDoubleFromString() {
+		return doubleString.toDouble();
+	}
+
+	@Benchmark
+	public boolean toBooleanFromString() {
+		return booleanString.toBoolean();
+	}
+
+	@Benchmark
+	public int toIntFromLong() {
+		return nativeLong.toInt();
+	}
+
+	@Benchmark
+	public long toLongFromLong() {
+		return nativeLong.toLong();
+	}
+
+	@Benchmark
+	public double toDoubleFromDouble() {
+		return nativeDouble.toDouble();
+	}
+
+	@Benchmark
+	public String toStringFromLong() {
+		return nativeLong.toString();
+	}
+
+	@Benchmark
+	public DataElement createFromString() {
+		return new DataElement(intText);
+	}
+
+	@Benchmark
+	public DataElement createFromLong() {
+		return new DataElement(longValue);
+	}
+
+}
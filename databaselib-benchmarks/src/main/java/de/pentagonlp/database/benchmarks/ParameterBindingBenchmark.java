@@ -0,0 +1,75 @@
+package de.pentagonlp.database.benchmarks;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.pentagonlp.database.DataElement;
+
+/**
+ * Benchmarks binding parameters of different types to a statement which does
+ * not touch any table, so the cost of binding and of a round trip dominate
+ * 
+ * @author PentagonLP
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParameterBindingBenchmark {
+
+	private static final String SQL = "SELECT ? AS A, ? AS B, ? AS C, ? AS D, ? AS E, ? AS F, ? AS G, ? AS H";
+
+	private final Object[] strings = { "a", "b", "c", "d", "e", "f", "g", "h" };
+	private final Object[] numbers = { 1, 2L, 3.5, 4, 5L, 6.25, 7, 8L };
+	private final Object[] mixed = { 1, "text", 2.5, null, true, 42L, "more text", null };
+
+	private BenchmarkDatabase database;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		database = new BenchmarkDatabase(0);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.delete();
+	}
+
+	@Benchmark
+	public HashMap<String, DataElement> noParameters() throws Exception {
+		return database.getConnection()
+				.getFirstRow("SELECT 1 AS A, 2 AS B, 3 AS C, 4 AS D, 5 AS E, 6 AS F, 7 AS G, 8 AS H");
+	}
+
+	@Benchmark
+	public HashMap<String, DataElement> stringParameters() throws Exception {
+		return database.getConnection().getFirstRow(SQL, strings);
+	}
+
+	@Benchmark
+	public HashMap<String, DataElement> numericParameters() throws Exception {
+		return database.getConnection().getFirstRow(SQL, numbers);
+	}
+
+	@Benchmark
+	public HashMap<String, DataElement> mixedParameters() throws Exception {
+		return database.getConnection().getFirstRow(SQL, mixed);
+	}
+
+}
@@ -0,0 +1,82 @@
+package de.pentagonlp.database.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.pentagonlp.database.DataElement;
+import de.pentagonlp.database.ResultTable;
+
+/**
+ * Benchmarks reading results: whole tables of different sizes and point
+ * lookups by primary key
+ * 
+ * @author PentagonLP
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+	/**
+	 * Number of rows in the table; small results are dominated by per query
+	 * overhead, large results by decoding rows
+	 * 
+	 */
+	@Param({ "10", "10000" })
+	public int rows;
+
+	private BenchmarkDatabase database;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		database = new BenchmarkDatabase(rows);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		database.delete();
+	}
+
+	@Benchmark
+	public ArrayList<HashMap<String, DataElement>> getTable() throws Exception {
+		return database.getConnection().getTable("SELECT * FROM bench");
+	}
+
+	@Benchmark
+	public ResultTable getResultTable() throws Exception {
+		return database.getConnection().getResultTable("SELECT * FROM bench");
+	}
+
+	@Benchmark
+	public long forEachRow() throws Exception {
+		return database.getConnection().forEachRow("SELECT * FROM bench", row -> {
+		});
+	}
+
+	@Benchmark
+	public HashMap<String, DataElement> getFirstRow() throws Exception {
+		return database.getConnection().getFirstRow("SELECT * FROM bench WHERE ID=?",
+				ThreadLocalRandom.current().nextInt(rows));
+	}
+
+}
@@ -0,0 +1,14 @@
+/**
+ * JMH benchmarks for the query and decode hot paths of DatabaseLib. All
+ * database benchmarks run against a temporary Sqlite file, so the numbers
+ * mostly reflect the overhead of the library and the JDBC driver rather than
+ * network latency.<br>
+ * <br>
+ * Run all benchmarks with {@code java -jar target/benchmarks.jar}, or a subset
+ * by passing a regular expression, e.g.
+ * {@code java -jar target/benchmarks.jar QueryBenchmark}.
+ * 
+ * @author PentagonLP
+ * 
+ */
+package de.pentagonlp.database.benchmarks;
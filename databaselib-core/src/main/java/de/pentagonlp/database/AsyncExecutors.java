@@ -0,0 +1,81 @@
+package de.pentagonlp.database;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the default executor for asynchronous queries, created on first use.
+ * Uses one virtual thread per task if the JVM supports them (Java 21+), so
+ * thousands of queries can wait for the database without occupying as many
+ * platform threads. Falls back to a cached pool of daemon threads otherwise.<br>
+ * Also holds the scheduler for background keepalives and reconnects.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class AsyncExecutors {
+
+	private static final ExecutorService DEFAULT = create();
+
+	private AsyncExecutors() {
+	}
+
+	/**
+	 * Gets the default executor
+	 * 
+	 * @return The shared default {@link ExecutorService}
+	 * 
+	 */
+	static ExecutorService getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Gets the scheduler for background keepalives and reconnects, created on
+	 * first use
+	 * 
+	 * @return The shared {@link ScheduledExecutorService}
+	 * 
+	 */
+	static ScheduledExecutorService getScheduler() {
+		return Scheduler.INSTANCE;
+	}
+
+	private static ExecutorService create() {
+		try {
+			// Looked up reflectively to stay compatible with Java 8
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			AtomicInteger counter = new AtomicInteger();
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "DatabaseLib-async-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	private static final class Scheduler {
+
+		private static final ScheduledExecutorService INSTANCE = create();
+
+		private static ScheduledExecutorService create() {
+			AtomicInteger counter = new AtomicInteger();
+			// Two threads, so a slow reconnect does not delay all keepalives
+			ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(2, runnable -> {
+				Thread thread = new Thread(runnable, "DatabaseLib-keepalive-" + counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler.setRemoveOnCancelPolicy(true);
+			return scheduler;
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+package de.pentagonlp.database;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for reconnect attempts. The jitter spreads
+ * the attempts of many clients, so a restarted database server is not hit by
+ * all of them at once.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class Backoff {
+
+	private Backoff() {
+	}
+
+	/**
+	 * Gets the delay before a reconnect attempt. The delay doubles with every
+	 * failed attempt up to {@code maximum}; a random half of it is jitter.
+	 * 
+	 * @param initial Delay after the first failed attempt
+	 * @param maximum Upper bound of the delay
+	 * @param attempt Number of failed attempts so far, at least {@code 1}
+	 * 
+	 * @return A delay between half of the capped exponential delay and the
+	 *         capped exponential delay, in the unit of {@code initial}
+	 * 
+	 */
+	static long delay(long initial, long maximum, int attempt) {
+		long capped = initial;
+		for (int i = 1; i < attempt && capped < maximum; i++)
+			capped = capped > maximum / 2 ? maximum : capped * 2;
+		capped = Math.min(capped, maximum);
+		if (capped <= 1)
+			return Math.max(capped, 0);
+		long half = capped / 2;
+		return half + ThreadLocalRandom.current().nextLong(capped - half + 1);
+	}
+
+}
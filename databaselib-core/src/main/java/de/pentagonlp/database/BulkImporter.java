@@ -0,0 +1,304 @@
+package de.pentagonlp.database;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.pentagonlp.database.exceptions.NotConnectedException;
+
+/**
+ * Streams rows from a {@link FileFormat} into a table. Rows are parsed while
+ * the input is read, written in batches through
+ * {@link DatabaseConnection#insertRows(String, String[], java.util.List)} and
+ * committed in chunks, so memory usage does not depend on the size of the
+ * input.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class BulkImporter {
+
+	private final DatabaseConnection connection;
+	private final String table;
+	private final ImportSettings settings;
+
+	/**
+	 * Creates a {@link BulkImporter}
+	 * 
+	 * @param connection The connection to write the rows through
+	 * @param table      Name of the table
+	 * @param settings   Settings of the import
+	 * 
+	 */
+	BulkImporter(DatabaseConnection connection, String table, ImportSettings settings) {
+		this.connection = connection;
+		this.table = table;
+		this.settings = settings;
+	}
+
+	/**
+	 * Import all rows of a file
+	 * 
+	 * @param file The file
+	 * 
+	 * @return The final {@link ImportProgress}
+	 * 
+	 * @throws IOException           If the file can not be read or parsed
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	ImportProgress run(Path file) throws IOException, SQLException, NotConnectedException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return run(channel, channel.size());
+		}
+	}
+
+	/**
+	 * Import all rows of the input
+	 * 
+	 * @param channel    The input
+	 * @param totalBytes Size of the input in bytes, or {@code -1} if unknown
+	 * 
+	 * @return The final {@link ImportProgress}
+	 * 
+	 * @throws IOException           If the input can not be read or parsed
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	ImportProgress run(ReadableByteChannel channel, long totalBytes)
+			throws IOException, SQLException, NotConnectedException {
+		CountingChannel counting = new CountingChannel(channel);
+		Reader reader = Channels.newReader(counting, settings.getCharset().newDecoder(), settings.getBufferSize());
+		int bufferSize = settings.getBufferSize();
+		RowSource rows = settings.getFormat() == FileFormat.CSV
+				? new CsvSource(new CsvRecordReader(reader, bufferSize, settings.getDelimiter()))
+				: new NdjsonSource(new NdjsonRecordReader(reader, bufferSize));
+
+		int batchSize = settings.getBatchSize() > 0 ? settings.getBatchSize() : connection.getBatchSize();
+		int transactionSize = settings.getTransactionSize();
+		ImportListener listener = settings.getListener();
+		long start = System.nanoTime();
+
+		String[] columns = rows.columns();
+		if (columns == null)
+			return new ImportProgress(0, counting.bytes, totalBytes, System.nanoTime() - start);
+
+		// Rows are written as part of a transaction of the caller
+		boolean ownTransactions = !connection.isInTransaction();
+		ArrayList<Object[]> batch = new ArrayList<>(batchSize);
+		long written = 0;
+		long uncommitted = 0;
+		if (ownTransactions)
+			connection.begin();
+		try {
+			Object[] row;
+			do {
+				row = rows.next(columns);
+				if (row != null)
+					batch.add(row);
+				if (batch.size() == batchSize || row == null && !batch.isEmpty()) {
+					connection.insertRows(table, columns, batch);
+					written += batch.size();
+					uncommitted += batch.size();
+					batch.clear();
+
+					if (ownTransactions && (uncommitted >= transactionSize || row == null)) {
+						connection.commit();
+						uncommitted = 0;
+						if (row != null)
+							connection.begin();
+					}
+					if (listener != null)
+						listener.onProgress(new ImportProgress(written, counting.bytes, totalBytes,
+								System.nanoTime() - start));
+				}
+			} while (row != null);
+			if (ownTransactions && connection.isInTransaction())
+				connection.commit();
+		} catch (IOException | SQLException | NotConnectedException | RuntimeException e) {
+			if (ownTransactions && connection.isInTransaction())
+				try {
+					connection.rollback();
+				} catch (SQLException rollbackError) {
+					e.addSuppressed(rollbackError);
+				}
+			throw e;
+		}
+		return new ImportProgress(written, counting.bytes, totalBytes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Build an {@code INSERT} statement with placeholders for one or more rows
+	 * 
+	 * @param connection The connection quoting the column names
+	 * @param table      Name of the table
+	 * @param columns    Names of the columns, not quoted yet
+	 * @param rows       Number of rows in the {@code VALUES} clause
+	 * 
+	 * @return The SQL text of the statement
+	 * 
+	 * @see DatabaseConnection#insertStatement(String, String[], int)
+	 * 
+	 */
+	static String insertStatement(DatabaseConnection connection, String table, String[] columns, int rows) {
+		StringBuilder placeholders = new StringBuilder("(");
+		for (int i = 0; i < columns.length; i++)
+			placeholders.append(i == 0 ? "?" : ", ?");
+		placeholders.append(')');
+
+		StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0)
+				sql.append(", ");
+			sql.append(connection.quoteIdentifier(columns[i]));
+		}
+		sql.append(") VALUES ").append(placeholders);
+		for (int i = 1; i < rows; i++)
+			sql.append(", ").append(placeholders);
+		return sql.toString();
+	}
+
+	/**
+	 * Rows of the input in the format of the import
+	 * 
+	 */
+	private abstract class RowSource {
+
+		/**
+		 * Determine the columns to write to
+		 * 
+		 * @return The columns, or {@code null} if the input is empty
+		 * 
+		 */
+		abstract String[] columns() throws IOException;
+
+		/**
+		 * Read the next row
+		 * 
+		 * @param columns The columns to write to
+		 * 
+		 * @return The values of the row in the order of {@code columns}, or
+		 *         {@code null} at the end of the input
+		 * 
+		 */
+		abstract Object[] next(String[] columns) throws IOException;
+
+	}
+
+	private final class CsvSource extends RowSource {
+
+		private final CsvRecordReader reader;
+
+		private CsvSource(CsvRecordReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		String[] columns() throws IOException {
+			String[] columns = settings.getColumns();
+			if (settings.hasHeader()) {
+				String[] header = reader.next();
+				if (header == null)
+					return null;
+				if (columns == null)
+					columns = header;
+			}
+			if (columns == null)
+				throw new IllegalArgumentException("CSV input without header line requires columns");
+			return columns;
+		}
+
+		@Override
+		Object[] next(String[] columns) throws IOException {
+			String[] fields = reader.next();
+			if (fields != null && fields.length != columns.length)
+				throw reader.error(fields.length + " fields instead of " + columns.length);
+			return fields;
+		}
+
+	}
+
+	private final class NdjsonSource extends RowSource {
+
+		private final NdjsonRecordReader reader;
+		/**
+		 * First record, read to take the columns from its keys
+		 * 
+		 */
+		private LinkedHashMap<String, Object> first;
+
+		private NdjsonSource(NdjsonRecordReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		String[] columns() throws IOException {
+			String[] columns = settings.getColumns();
+			if (columns != null)
+				return columns;
+			first = reader.next();
+			if (first == null)
+				return null;
+			return first.keySet().toArray(new String[first.size()]);
+		}
+
+		@Override
+		Object[] next(String[] columns) throws IOException {
+			Map<String, Object> record = first != null ? first : reader.next();
+			first = null;
+			if (record == null)
+				return null;
+			// Missing keys are NULL
+			Object[] values = new Object[columns.length];
+			for (int i = 0; i < columns.length; i++)
+				values[i] = record.get(columns[i]);
+			return values;
+		}
+
+	}
+
+	/**
+	 * Counts the bytes read through a channel, to report the progress
+	 * 
+	 */
+	private static final class CountingChannel implements ReadableByteChannel {
+
+		private final ReadableByteChannel channel;
+		private long bytes = 0;
+
+		private CountingChannel(ReadableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int read(ByteBuffer destination) throws IOException {
+			int read = channel.read(destination);
+			if (read > 0)
+				bytes += read;
+			return read;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return channel.isOpen();
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,87 @@
+package de.pentagonlp.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe hit, miss and eviction counters of a cache
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class CacheStatistics {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	void recordHit() {
+		hits.increment();
+	}
+
+	void recordMiss() {
+		misses.increment();
+	}
+
+	void recordEviction() {
+		evictions.increment();
+	}
+
+	/**
+	 * Gets the number of lookups which were answered from the cache
+	 * 
+	 * @return The number of cache hits
+	 * 
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of lookups which were not answered from the cache
+	 * 
+	 * @return The number of cache misses
+	 * 
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of entries removed from the cache to make room for new ones
+	 * 
+	 * @return The number of evictions
+	 * 
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Gets the ratio of hits to all lookups
+	 * 
+	 * @return The hit ratio between {@code 0} and {@code 1}; {@code 0} if there
+	 *         were no lookups yet
+	 * 
+	 */
+	public double getHitRatio() {
+		long hits = getHits();
+		long lookups = hits + getMisses();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * Resets all counters to {@code 0}
+	 * 
+	 */
+	public void reset() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions();
+	}
+
+}
@@ -0,0 +1,155 @@
+package de.pentagonlp.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Column names and {@link ValueType ValueTypes} of a result, shared by all of
+ * its {@link Row Rows}. Built once per {@link ResultSet}, so each {@link Row}
+ * only has to store its values.<br>
+ * Columns are indexed starting at {@code 0}.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public final class ColumnSchema {
+
+	private final String[] names;
+	private final ValueType[] types;
+	private final HashMap<String, Integer> indices;
+
+	/**
+	 * Creates a {@link ColumnSchema} with given column names, all read as
+	 * {@link ValueType#STRING}
+	 * 
+	 * @param names The column names in order
+	 * 
+	 */
+	public ColumnSchema(String... names) {
+		this(names, filled(names.length, ValueType.STRING));
+	}
+
+	/**
+	 * Creates a {@link ColumnSchema} with given column names and types
+	 * 
+	 * @param names The column names in order
+	 * @param types The {@link ValueType ValueTypes} to read the columns with, in
+	 *              the same order
+	 * 
+	 */
+	public ColumnSchema(String[] names, ValueType[] types) {
+		if (names.length != types.length)
+			throw new IllegalArgumentException("Number of column names and types differs");
+		this.names = names.clone();
+		this.types = types.clone();
+		this.indices = new HashMap<>((int) (names.length / 0.75f) + 1);
+		// If a name is used more than once, the first column with that name wins
+		for (int column = names.length - 1; column >= 0; column--)
+			indices.put(names[column], column);
+	}
+
+	/**
+	 * Creates the {@link ColumnSchema} of a {@link ResultSet}, choosing the
+	 * {@link ValueType ValueTypes} through {@link ValueType#of(ResultSetMetaData, int)}
+	 * 
+	 * @param result The {@link ResultSet}
+	 * 
+	 * @return The {@link ColumnSchema} of {@code result}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	public static ColumnSchema of(ResultSet result) throws SQLException {
+		ResultSetMetaData metadata = result.getMetaData();
+		String[] names = new String[metadata.getColumnCount()];
+		ValueType[] types = new ValueType[names.length];
+		for (int column = 0; column < names.length; column++) {
+			names[column] = metadata.getColumnName(column + 1);
+			types[column] = ValueType.of(metadata, column + 1);
+		}
+		return new ColumnSchema(names, types);
+	}
+
+	/**
+	 * Gets the number of columns
+	 * 
+	 * @return The number of columns
+	 * 
+	 */
+	public int getColumnCount() {
+		return names.length;
+	}
+
+	/**
+	 * Gets the name of a column
+	 * 
+	 * @param column Index of the column, starting at {@code 0}
+	 * 
+	 * @return The name of the column
+	 * 
+	 */
+	public String getColumnName(int column) {
+		return names[column];
+	}
+
+	/**
+	 * Gets the {@link ValueType} a column is read with
+	 * 
+	 * @param column Index of the column, starting at {@code 0}
+	 * 
+	 * @return The {@link ValueType} of the column
+	 * 
+	 */
+	public ValueType getValueType(int column) {
+		return types[column];
+	}
+
+	/**
+	 * Gets the index of a column
+	 * 
+	 * @param name The name of the column
+	 * 
+	 * @return The index of the column starting at {@code 0}, or {@code -1} if
+	 *         there is no column with that name
+	 * 
+	 */
+	public int indexOf(String name) {
+		Integer index = indices.get(name);
+		return index == null ? -1 : index;
+	}
+
+	private static ValueType[] filled(int length, ValueType type) {
+		ValueType[] types = new ValueType[length];
+		Arrays.fill(types, type);
+		return types;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(names);
+	}
+
+	/**
+	 * Two {@link ColumnSchema ColumnSchemas} are equal if they have the same
+	 * column names and {@link ValueType ValueTypes} in the same order
+	 * 
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof ColumnSchema))
+			return false;
+		ColumnSchema schema = (ColumnSchema) other;
+		return Arrays.equals(names, schema.names) && Arrays.equals(types, schema.types);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(names) + Arrays.hashCode(types);
+	}
+
+}
@@ -0,0 +1,40 @@
+package de.pentagonlp.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Creates and destroys physical {@link Connection Connections} to a database.
+ * Used by {@link ConnectionPool} to open connections on demand and to close
+ * them again once they are evicted.
+ * 
+ * @author PentagonLP
+ * 
+ */
+@FunctionalInterface
+public interface ConnectionFactory {
+
+	/**
+	 * Opens a new {@link Connection} to the database
+	 * 
+	 * @return The newly opened {@link Connection}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	Connection create() throws SQLException;
+
+	/**
+	 * Closes a {@link Connection} opened through {@link #create()} and frees all
+	 * resources associated with it
+	 * 
+	 * @param connection The {@link Connection} to close
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	default void destroy(Connection connection) throws SQLException {
+		connection.close();
+	}
+
+}
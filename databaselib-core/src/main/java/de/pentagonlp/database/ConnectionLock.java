@@ -0,0 +1,101 @@
+package de.pentagonlp.database;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gives one thread at a time exclusive use of a single connection. The owning
+ * thread may lock it again, e.g. to run statements while iterating over a
+ * cursor of its own. Unlike a {@link ReentrantLock}, it may be unlocked by
+ * another thread, as cursors can be closed by a different thread than the one
+ * which opened them.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class ConnectionLock {
+
+	private final ReentrantLock mutex = new ReentrantLock();
+	private final Condition unlocked = mutex.newCondition();
+
+	private Thread owner;
+	private int holds = 0;
+
+	/**
+	 * Lock, waiting while another thread holds the lock
+	 * 
+	 * @param timeout Maximum time to wait in milliseconds
+	 * 
+	 * @throws SQLTimeoutException If the lock was not unlocked in time
+	 * @throws SQLException        If the current thread was interrupted
+	 * 
+	 */
+	void lock(long timeout) throws SQLException {
+		Thread current = Thread.currentThread();
+		long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+		mutex.lock();
+		try {
+			while (holds > 0 && owner != current) {
+				if (nanos <= 0)
+					throw new SQLTimeoutException("Timed out after " + timeout + "ms waiting for the connection");
+				nanos = unlocked.awaitNanos(nanos);
+			}
+			owner = current;
+			holds++;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for the connection", e);
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Lock if no other thread holds the lock
+	 * 
+	 * @return {@code true} if locked
+	 * 
+	 */
+	boolean tryLock() {
+		Thread current = Thread.currentThread();
+		mutex.lock();
+		try {
+			if (holds > 0 && owner != current)
+				return false;
+			owner = current;
+			holds++;
+			return true;
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+	/**
+	 * Undo one {@link #lock(long)} of a thread. May be called from any thread.
+	 * Does nothing if the lock is not held by {@code owner}.
+	 * 
+	 * @param owner The thread which locked
+	 * 
+	 * @return The number of holds left; {@code -1} if the lock was not held by
+	 *         {@code owner}
+	 * 
+	 */
+	int unlock(Thread owner) {
+		mutex.lock();
+		try {
+			if (holds == 0 || this.owner != owner)
+				return -1;
+			if (--holds == 0) {
+				this.owner = null;
+				unlocked.signal();
+			}
+			return holds;
+		} finally {
+			mutex.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,501 @@
+package de.pentagonlp.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of physical {@link Connection Connections} to a database. Connections
+ * are created through a {@link ConnectionFactory} and handed out exclusively to
+ * one user at a time until they are {@link #release(Connection) released}
+ * again.<br>
+ * <br>
+ * Idle connections are reused last-in-first-out, so rarely used connections
+ * age out through the idle timeout. A background task evicts idle and expired
+ * connections, validates connections which were idle for a while and refills
+ * the pool to its minimum size.
+ * 
+ * @author PentagonLP
+ * 
+ * @see PoolSettings
+ * 
+ */
+public class ConnectionPool implements AutoCloseable {
+
+	/**
+	 * Connections used within this time are not validated again on borrow
+	 * 
+	 */
+	private static final long VALIDATION_BYPASS = 500;
+
+	private final ConnectionFactory factory;
+	private final PoolSettings settings;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition available = lock.newCondition();
+
+	/**
+	 * Idle connections, most recently used first
+	 * 
+	 */
+	private final ArrayDeque<PooledConnection> idle = new ArrayDeque<>();
+	private final IdentityHashMap<Connection, PooledConnection> borrowed = new IdentityHashMap<>();
+
+	/**
+	 * Number of open connections, including the ones currently being created
+	 * 
+	 */
+	private int total = 0;
+	private boolean closed = false;
+
+	private final ScheduledExecutorService maintenance;
+
+	/**
+	 * Creates a new {@link ConnectionPool} and opens
+	 * {@link PoolSettings#getMinimumSize()} connections right away
+	 * 
+	 * @param factory  Used to open new connections
+	 * @param settings Settings of the pool; copied, later changes have no effect
+	 * 
+	 * @throws SQLException If one of the initial connections could not be opened
+	 * 
+	 */
+	public ConnectionPool(ConnectionFactory factory, PoolSettings settings) throws SQLException {
+		this.factory = factory;
+		this.settings = new PoolSettings(settings);
+
+		if (this.settings.getMinimumSize() > this.settings.getMaximumSize())
+			throw new IllegalArgumentException("Minimum pool size is greater than the maximum pool size");
+
+		try {
+			fill();
+		} catch (SQLException e) {
+			close();
+			throw e;
+		}
+
+		if (this.settings.getEvictionInterval() > 0) {
+			maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "DatabaseLib-pool-maintenance");
+				thread.setDaemon(true);
+				return thread;
+			});
+			maintenance.scheduleWithFixedDelay(this::maintain, this.settings.getEvictionInterval(),
+					this.settings.getEvictionInterval(), TimeUnit.MILLISECONDS);
+		} else
+			maintenance = null;
+	}
+
+	/**
+	 * Borrows a {@link Connection} from the pool. If no idle connection is
+	 * available and the pool is at its maximum size, waits up to
+	 * {@link PoolSettings#getMaxWait()} for one to be released.<br>
+	 * The connection has to be given back through {@link #release(Connection)}.
+	 * 
+	 * @return A {@link Connection} exclusive to the caller until it is released
+	 * 
+	 * @throws SQLTimeoutException If no connection became available in time
+	 * @throws SQLException        If the pool is closed or a new connection
+	 *                             could not be opened
+	 * 
+	 */
+	public Connection borrow() throws SQLException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getMaxWait());
+
+		while (true) {
+			PooledConnection candidate = null;
+
+			lock.lock();
+			try {
+				while (true) {
+					if (closed)
+						throw new SQLException("Connection pool is closed");
+
+					candidate = idle.pollFirst();
+					if (candidate != null)
+						break;
+
+					if (total < settings.getMaximumSize()) {
+						total++;
+						break;
+					}
+
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0)
+						throw new SQLTimeoutException("Timed out after " + settings.getMaxWait()
+								+ "ms waiting for a free connection (" + total + " in use)");
+					try {
+						available.awaitNanos(remaining);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new SQLException("Interrupted while waiting for a free connection", e);
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+
+			if (candidate == null)
+				candidate = open();
+			else if (isExpired(candidate, System.currentTimeMillis()) || !validate(candidate)) {
+				discard(candidate);
+				continue;
+			}
+
+			lock.lock();
+			try {
+				if (closed) {
+					total--;
+					destroy(candidate);
+					throw new SQLException("Connection pool is closed");
+				}
+				borrowed.put(candidate.connection, candidate);
+			} finally {
+				lock.unlock();
+			}
+			return candidate.connection;
+		}
+	}
+
+	/**
+	 * Gives a {@link Connection} obtained through {@link #borrow()} back to the
+	 * pool. Closed or expired connections are discarded instead of reused.
+	 * 
+	 * @param connection The {@link Connection} to give back
+	 * 
+	 * @return {@code false} if {@code connection} was not borrowed from this pool
+	 * 
+	 */
+	public boolean release(Connection connection) {
+		PooledConnection entry;
+		boolean reuse;
+		// A slow driver must not block other threads waiting for the lock
+		boolean connectionClosed = isClosed(connection);
+
+		lock.lock();
+		try {
+			entry = borrowed.remove(connection);
+			if (entry == null)
+				return false;
+
+			long now = System.currentTimeMillis();
+			reuse = !closed && !isExpired(entry, now) && !connectionClosed;
+			if (reuse) {
+				entry.lastUsed = now;
+				entry.lastValidated = now;
+				idle.addFirst(entry);
+			} else
+				total--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+
+		if (!reuse)
+			destroy(entry);
+		return true;
+	}
+
+	/**
+	 * Closes all idle connections and stops the background maintenance.
+	 * Connections in use are closed as soon as they are released.
+	 * 
+	 */
+	@Override
+	public void close() {
+		ArrayList<PooledConnection> toClose;
+
+		lock.lock();
+		try {
+			closed = true;
+			toClose = new ArrayList<>(idle);
+			total -= idle.size();
+			idle.clear();
+			available.signalAll();
+		} finally {
+			lock.unlock();
+		}
+
+		if (maintenance != null)
+			maintenance.shutdownNow();
+		for (PooledConnection entry : toClose)
+			destroy(entry);
+	}
+
+	/**
+	 * Gets the number of open connections, idle or in use
+	 * 
+	 * @return The number of open connections
+	 * 
+	 */
+	public int getTotalConnections() {
+		lock.lock();
+		try {
+			return total;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of idle connections
+	 * 
+	 * @return The number of idle connections
+	 * 
+	 */
+	public int getIdleConnections() {
+		lock.lock();
+		try {
+			return idle.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of connections currently borrowed
+	 * 
+	 * @return The number of connections currently in use
+	 * 
+	 */
+	public int getActiveConnections() {
+		lock.lock();
+		try {
+			return borrowed.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the settings this pool was created with
+	 * 
+	 * @return A copy of the settings of this pool
+	 * 
+	 */
+	public PoolSettings getSettings() {
+		return new PoolSettings(settings);
+	}
+
+	/**
+	 * Evicts idle and expired connections, validates connections idle for longer
+	 * than {@link PoolSettings#getKeepaliveInterval()} and refills the pool to
+	 * its minimum size. Run periodically in the background.
+	 * 
+	 */
+	private void maintain() {
+		ArrayList<PooledConnection> evicted = new ArrayList<>();
+		ArrayList<PooledConnection> probed = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		long keepalive = settings.getKeepaliveInterval();
+
+		lock.lock();
+		try {
+			// Oldest idle connections are at the end of the deque
+			Iterator<PooledConnection> iterator = idle.descendingIterator();
+			while (iterator.hasNext()) {
+				PooledConnection entry = iterator.next();
+				boolean idleTooLong = settings.getIdleTimeout() > 0 && total > settings.getMinimumSize()
+						&& now - entry.lastUsed > settings.getIdleTimeout();
+				if (idleTooLong || isExpired(entry, now)) {
+					iterator.remove();
+					total--;
+					evicted.add(entry);
+				} else if (keepalive > 0 && now - entry.lastValidated >= keepalive) {
+					// Taken out of the idle connections, so it is not borrowed while probed
+					iterator.remove();
+					probed.add(entry);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		for (PooledConnection entry : evicted)
+			destroy(entry);
+		for (PooledConnection entry : probed)
+			keepalive(entry);
+
+		try {
+			fill();
+		} catch (SQLException e) {
+			// Try again next time
+		}
+	}
+
+	/**
+	 * Validates a connection taken out of the idle connections and puts it back,
+	 * or closes it if it is dead. Its slot is refilled by {@link #fill()}.
+	 * 
+	 * @param entry The connection to validate
+	 * 
+	 */
+	private void keepalive(PooledConnection entry) {
+		boolean alive;
+		try {
+			alive = entry.connection.isValid(settings.getValidationTimeout());
+		} catch (SQLException e) {
+			alive = false;
+		}
+
+		lock.lock();
+		try {
+			if (alive && !closed) {
+				entry.lastValidated = System.currentTimeMillis();
+				// Least recently used end, it has not been used after all
+				idle.addLast(entry);
+				available.signal();
+				return;
+			}
+		} finally {
+			lock.unlock();
+		}
+		discard(entry);
+	}
+
+	/**
+	 * Opens connections until the pool has reached its minimum size
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	private void fill() throws SQLException {
+		while (true) {
+			lock.lock();
+			try {
+				if (closed || total >= settings.getMinimumSize())
+					return;
+				total++;
+			} finally {
+				lock.unlock();
+			}
+
+			PooledConnection entry = open();
+
+			lock.lock();
+			try {
+				if (closed) {
+					total--;
+					destroy(entry);
+					return;
+				}
+				idle.addLast(entry);
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Opens a new connection for a slot already counted in {@link #total}. Frees
+	 * the slot again if opening fails.
+	 * 
+	 * @return The new connection
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	private PooledConnection open() throws SQLException {
+		try {
+			return new PooledConnection(factory.create());
+		} catch (SQLException | RuntimeException e) {
+			lock.lock();
+			try {
+				total--;
+				available.signal();
+			} finally {
+				lock.unlock();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes a connection taken out of the idle connections and frees its slot
+	 * 
+	 * @param entry The connection to discard
+	 * 
+	 */
+	private void discard(PooledConnection entry) {
+		lock.lock();
+		try {
+			total--;
+			available.signal();
+		} finally {
+			lock.unlock();
+		}
+		destroy(entry);
+	}
+
+	/**
+	 * Closes a connection through the {@link ConnectionFactory}
+	 * 
+	 * @param entry The connection to close
+	 * 
+	 */
+	private void destroy(PooledConnection entry) {
+		try {
+			factory.destroy(entry.connection);
+		} catch (SQLException e) {
+			// Connection is discarded anyway
+		}
+	}
+
+	private boolean isExpired(PooledConnection entry, long now) {
+		return settings.getMaxLifetime() > 0 && now - entry.created > settings.getMaxLifetime();
+	}
+
+	private static boolean isClosed(Connection connection) {
+		try {
+			return connection.isClosed();
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
+	private boolean validate(PooledConnection entry) {
+		if (!settings.isValidateOnBorrow() || System.currentTimeMillis() - entry.lastUsed < VALIDATION_BYPASS)
+			return true;
+		try {
+			return entry.connection.isValid(settings.getValidationTimeout());
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * A physical connection managed by the pool
+	 * 
+	 */
+	private static class PooledConnection {
+
+		private final Connection connection;
+		private final long created;
+		private long lastUsed;
+		/**
+		 * Last time the connection was known to be alive, i.e. it was given back
+		 * or validated in the background
+		 * 
+		 */
+		private long lastValidated;
+
+		private PooledConnection(Connection connection) {
+			this.connection = connection;
+			this.created = System.currentTimeMillis();
+			this.lastUsed = created;
+			this.lastValidated = created;
+		}
+
+	}
+
+}
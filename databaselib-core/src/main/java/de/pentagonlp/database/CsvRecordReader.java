@@ -0,0 +1,101 @@
+package de.pentagonlp.database;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+
+/**
+ * Parses {@link FileFormat#CSV} records. Quoted fields may contain the
+ * delimiter, line breaks and doubled quotes; an empty field without quotes is
+ * read as {@code null}.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class CsvRecordReader extends TextRecordReader {
+
+	private final char delimiter;
+	private final StringBuilder field = new StringBuilder();
+	private final ArrayList<String> fields = new ArrayList<>();
+
+	/**
+	 * Creates a {@link CsvRecordReader}
+	 * 
+	 * @param reader     The input
+	 * @param bufferSize Size of the buffer in characters
+	 * @param delimiter  Character separating the fields
+	 * 
+	 */
+	CsvRecordReader(Reader reader, int bufferSize, char delimiter) {
+		super(reader, bufferSize);
+		this.delimiter = delimiter;
+	}
+
+	/**
+	 * Read the next record. Empty lines are skipped.
+	 * 
+	 * @return The fields of the record, or {@code null} at the end of the input
+	 * 
+	 * @throws IOException
+	 * 
+	 */
+	String[] next() throws IOException {
+		int c;
+		// Skip empty lines
+		while ((c = peek()) == '\r' || c == '\n')
+			read();
+		if (c < 0)
+			return null;
+
+		fields.clear();
+		while (true) {
+			boolean quoted = peek() == '"';
+			String value = quoted ? readQuoted() : readUnquoted();
+			fields.add(value);
+
+			c = read();
+			if (c == delimiter)
+				continue;
+			if (c == '\r' && peek() == '\n')
+				read();
+			else if (c != '\n' && c != '\r' && c >= 0)
+				throw error("Unexpected character '" + (char) c + "' after quoted field");
+			return fields.toArray(new String[fields.size()]);
+		}
+	}
+
+	/**
+	 * Read an unquoted field up to the next delimiter or line break, which is
+	 * not consumed
+	 * 
+	 */
+	private String readUnquoted() throws IOException {
+		field.setLength(0);
+		int c;
+		while ((c = peek()) >= 0 && c != delimiter && c != '\n' && c != '\r')
+			field.append((char) read());
+		return field.length() == 0 ? null : field.toString();
+	}
+
+	/**
+	 * Read a quoted field including its quotes
+	 * 
+	 */
+	private String readQuoted() throws IOException {
+		read();
+		field.setLength(0);
+		while (true) {
+			int c = read();
+			if (c < 0)
+				throw error("Unterminated quoted field");
+			if (c == '"') {
+				if (peek() != '"')
+					return field.toString();
+				// Escaped quote
+				read();
+			}
+			field.append((char) c);
+		}
+	}
+
+}
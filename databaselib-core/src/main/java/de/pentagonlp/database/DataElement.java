@@ -1,19 +1,45 @@
 package de.pentagonlp.database;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+
 /**
- * Wrapper class for {@link String} to cast to different data types. Used to
- * wrap around values fetched from the database.
+ * Wrapper class for values fetched from the database to cast to different data
+ * types.<br>
+ * Values are stored in the type they were read from the database with, so
+ * numeric columns are never converted into a {@link String} and back. Integer
+ * and floating point values are stored as primitives.
  * 
  * @author PentagonLP
  * 
  */
 public class DataElement {
 
+	private static final byte OBJECT = 0;
+	private static final byte LONG = 1;
+	private static final byte DOUBLE = 2;
+	private static final byte FLOAT = 3;
+
+	/**
+	 * The value itself, if it is neither stored as {@code long} nor as
+	 * {@code double}
+	 * 
+	 */
+	private final Object value;
 	/**
-	 * The value itself, stored as a {@link String}
+	 * The value as {@code long}, or the bits of the value as {@code double} or
+	 * {@code float}
 	 * 
 	 */
-	private final String value;
+	private final long bits;
+	/**
+	 * How the value is stored; {@link #OBJECT}, {@link #LONG}, {@link #DOUBLE}
+	 * or {@link #FLOAT}
+	 * 
+	 */
+	private final byte kind;
 
 	/**
 	 * Creates a new {@link DataElement} with a given {@link String} to interpret
@@ -22,121 +48,354 @@ public class DataElement {
 	 * 
 	 */
 	public DataElement(String value) {
+		this(value, 0, OBJECT);
+	}
+
+	/**
+	 * Creates a new {@link DataElement} storing a {@code long}
+	 * 
+	 * @param value The {@code long} to store
+	 * 
+	 */
+	public DataElement(long value) {
+		this(null, value, LONG);
+	}
+
+	/**
+	 * Creates a new {@link DataElement} storing a {@code double}
+	 * 
+	 * @param value The {@code double} to store
+	 * 
+	 */
+	public DataElement(double value) {
+		this(null, Double.doubleToRawLongBits(value), DOUBLE);
+	}
+
+	/**
+	 * Creates a new {@link DataElement} storing a {@code float}
+	 * 
+	 * @param value The {@code float} to store
+	 * 
+	 */
+	public DataElement(float value) {
+		this(null, Float.floatToRawIntBits(value), FLOAT);
+	}
+
+	private DataElement(Object value, long bits, byte kind) {
 		this.value = value;
+		this.bits = bits;
+		this.kind = kind;
+	}
+
+	/**
+	 * Creates a new {@link DataElement} storing a value of any type. Integral
+	 * {@link Number Numbers} are stored as {@code long}, {@link Double} as
+	 * {@code double} and {@link Float} as {@code float}.
+	 * 
+	 * @param value The value to store; may be {@code null}
+	 * 
+	 * @return The {@link DataElement}
+	 * 
+	 */
+	public static DataElement of(Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+			return new DataElement(((Number) value).longValue());
+		if (value instanceof Double)
+			return new DataElement(((Double) value).doubleValue());
+		if (value instanceof Float)
+			return new DataElement(((Float) value).floatValue());
+		return new DataElement(value, 0, OBJECT);
 	}
 
 	/**
-	 * Tests whether the stored {@link String} is {@code null}
+	 * Tests whether the stored value is {@code null}
 	 * 
-	 * @return {@code true} if the stored {@link String} is {@code null}
+	 * @return {@code true} if the stored value is {@code null}
 	 * 
 	 */
 	public boolean isNull() {
-		return value == null;
+		return kind == OBJECT && value == null;
 	}
 
 	/**
-	 * Returns the stored {@link String}
+	 * Returns the stored value as it was read from the database
 	 * 
-	 * @return The stored {@link String}
+	 * @return The stored value; {@code long}, {@code double} and {@code float}
+	 *         values are boxed
+	 * 
+	 */
+	public Object getValue() {
+		switch (kind) {
+		case LONG:
+			return bits;
+		case DOUBLE:
+			return Double.longBitsToDouble(bits);
+		case FLOAT:
+			return Float.intBitsToFloat((int) bits);
+		default:
+			return value;
+		}
+	}
+
+	/**
+	 * Returns the stored value as a {@link String}. Only builds a new
+	 * {@link String} if the value is not stored as one already.<br>
+	 * Floating point numbers are formatted like {@link Double#toString(double)}
+	 * and {@link Float#toString(float)}, so integral values keep their
+	 * {@code .0} and large values use the exponent form, like
+	 * {@link java.sql.ResultSet#getString(int) ResultSet.getString(int)} does
+	 * for SQLite.
+	 * 
+	 * @return The stored value as a {@link String}
 	 * 
 	 */
 	@Override
 	public String toString() {
-		return value;
+		switch (kind) {
+		case LONG:
+			return Long.toString(bits);
+		case DOUBLE:
+			return Double.toString(Double.longBitsToDouble(bits));
+		case FLOAT:
+			return Float.toString(Float.intBitsToFloat((int) bits));
+		default:
+			if (value == null || value instanceof String)
+				return (String) value;
+			if (value instanceof byte[])
+				return new String((byte[]) value, StandardCharsets.UTF_8);
+			if (value instanceof BigDecimal)
+				return ((BigDecimal) value).toPlainString();
+			if (value instanceof Timestamp) {
+				// Same format as the database, which omits empty fractional seconds
+				String timestamp = value.toString();
+				return timestamp.endsWith(".0") ? timestamp.substring(0, timestamp.length() - 2) : timestamp;
+			}
+			return value.toString();
+		}
 	}
 
 	/**
-	 * Parses the stored {@link String} to a {@code byte}
+	 * Casts the stored value to a {@code byte}
+	 * 
+	 * @return The stored value as a {@code byte}
 	 * 
-	 * @return The stored {@link String} as a {@code byte}
+	 * @throws NumberFormatException If the value is not an integer or out of range
 	 * 
 	 * @see Byte#parseByte(String)
 	 * 
 	 */
 	public byte toByte() {
-		return Byte.parseByte(value);
+		if (kind != OBJECT)
+			return (byte) narrow(Byte.MIN_VALUE, Byte.MAX_VALUE);
+		return Byte.parseByte(toString());
 	}
 
 	/**
-	 * Parses the stored {@link String} to an {@code int}
+	 * Casts the stored value to an {@code int}
+	 * 
+	 * @return The stored value as an {@code int}
 	 * 
-	 * @return The stored {@link String} as an {@code int}
+	 * @throws NumberFormatException If the value is not an integer or out of range
 	 * 
 	 * @see Integer#parseInt(String)
 	 * 
 	 */
 	public int toInt() {
-		return Integer.parseInt(value);
+		if (kind != OBJECT)
+			return (int) narrow(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		return Integer.parseInt(toString());
 	}
 
 	/**
-	 * Parses the stored {@link String} to a {@code long}
+	 * Casts the stored value to a {@code long}
 	 * 
-	 * @return The stored {@link String} as a {@code long}
+	 * @return The stored value as a {@code long}
+	 * 
+	 * @throws NumberFormatException If the value is not an integer or out of range
 	 * 
 	 * @see Long#parseLong(String)
 	 * 
 	 */
 	public long toLong() {
-		return Long.parseLong(value);
+		if (kind != OBJECT)
+			return narrow(Long.MIN_VALUE, Long.MAX_VALUE);
+		return Long.parseLong(toString());
 	}
 
 	/**
-	 * Parses the stored {@link String} to a {@code float}
+	 * Casts the stored value to a {@code float}
 	 * 
-	 * @return The stored {@link String} as a {@code float}
+	 * @return The stored value as a {@code float}
 	 * 
 	 * @see Float#parseFloat(String)
 	 * 
 	 */
 	public float toFloat() {
-		return Float.parseFloat(value);
+		if (kind == LONG)
+			return bits;
+		if (kind == DOUBLE)
+			return (float) Double.longBitsToDouble(bits);
+		if (kind == FLOAT)
+			return Float.intBitsToFloat((int) bits);
+		if (value instanceof BigDecimal)
+			return ((BigDecimal) value).floatValue();
+		return Float.parseFloat(toString());
 	}
 
 	/**
-	 * Parses the stored {@link String} to a {@code double}
+	 * Casts the stored value to a {@code double}
 	 * 
-	 * @return The stored {@link String} as a {@code double}
+	 * @return The stored value as a {@code double}
 	 * 
 	 * @see Double#parseDouble(String)
 	 * 
 	 */
 	public double toDouble() {
-		return Double.parseDouble(value);
+		if (kind == LONG)
+			return bits;
+		if (kind == DOUBLE)
+			return Double.longBitsToDouble(bits);
+		if (kind == FLOAT)
+			return Float.intBitsToFloat((int) bits);
+		if (value instanceof BigDecimal)
+			return ((BigDecimal) value).doubleValue();
+		return Double.parseDouble(toString());
 	}
 
 	/**
-	 * Parses the stored {@link String} to a {@code boolean}<br>
+	 * Casts the stored value to a {@code boolean}<br>
 	 * Uses {@link Boolean#parseBoolean(String)}, but also interprets {@code 1} as
 	 * {@code true} and {@code 0} as {@code false}.
 	 * 
-	 * @return The stored {@link String} as a {@code boolean}
+	 * @return The stored value as a {@code boolean}
 	 * 
 	 */
 	public boolean toBoolean() {
-		return Boolean.parseBoolean(value) || (!isNull() && value.equals("1"));
+		if (kind == LONG)
+			return bits == 1;
+		if (kind != OBJECT)
+			return toDouble() == 1;
+		if (value instanceof Boolean)
+			return (Boolean) value;
+		String value = toString();
+		return Boolean.parseBoolean(value) || (value != null && value.equals("1"));
+	}
+
+	/**
+	 * Casts the stored value to a {@link BigDecimal}
+	 * 
+	 * @return The stored value as a {@link BigDecimal}, or {@code null} if the
+	 *         value is {@code null}
+	 * 
+	 * @throws NumberFormatException If the value is not a number
+	 * 
+	 */
+	public BigDecimal toBigDecimal() {
+		if (kind == LONG)
+			return BigDecimal.valueOf(bits);
+		if (kind == DOUBLE)
+			return BigDecimal.valueOf(Double.longBitsToDouble(bits));
+		if (kind == FLOAT)
+			return new BigDecimal(Float.toString(Float.intBitsToFloat((int) bits)));
+		if (value == null || value instanceof BigDecimal)
+			return (BigDecimal) value;
+		return new BigDecimal(toString());
+	}
+
+	/**
+	 * Casts the stored value to a {@code byte[]}. {@link String Strings} are
+	 * encoded in UTF-8.
+	 * 
+	 * @return The stored value as a {@code byte[]}, or {@code null} if the value
+	 *         is {@code null}
+	 * 
+	 */
+	public byte[] toBytes() {
+		if (value instanceof byte[])
+			return ((byte[]) value).clone();
+		String value = toString();
+		return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Casts the stored value to a {@link Timestamp}. Integers are interpreted as
+	 * milliseconds since the epoch, {@link String Strings} in the format
+	 * {@code yyyy-[m]m-[d]d hh:mm:ss[.f...]}.
+	 * 
+	 * @return The stored value as a {@link Timestamp}, or {@code null} if the
+	 *         value is {@code null}
+	 * 
+	 * @see Timestamp#valueOf(String)
+	 * 
+	 */
+	public Timestamp toTimestamp() {
+		if (kind == LONG)
+			return new Timestamp(bits);
+		if (value == null || value instanceof Timestamp)
+			return (Timestamp) value;
+		if (value instanceof Date)
+			return new Timestamp(((Date) value).getTime());
+		return Timestamp.valueOf(toString());
+	}
+
+	/**
+	 * Narrows the stored number into a smaller range. Floating point numbers
+	 * have to be integral.
+	 * 
+	 * @param min Smallest allowed value
+	 * @param max Largest allowed value
+	 * 
+	 * @return The stored number as {@code long}
+	 * 
+	 * @throws NumberFormatException If the value has a fraction or is out of range
+	 * 
+	 */
+	private long narrow(long min, long max) {
+		if (kind != LONG) {
+			double number = toDouble();
+			// Long.MAX_VALUE rounds up to 2^63 as double, which is out of range
+			if (!isIntegral(number) || number < min || number > max || number >= 0x1p63)
+				throw new NumberFormatException("Value not an integer or out of range. Value:\"" + toString() + "\"");
+			return (long) number;
+		}
+		if (bits < min || bits > max)
+			throw new NumberFormatException("Value out of range. Value:\"" + bits + "\"");
+		return bits;
+	}
+
+	/**
+	 * Tests whether a floating point number has no fraction
+	 * 
+	 * @param number The number
+	 * 
+	 * @return {@code false} for numbers with a fraction, infinity and NaN
+	 * 
+	 */
+	private static boolean isIntegral(double number) {
+		return number == Math.rint(number) && !Double.isInfinite(number);
 	}
 
 	/**
-	 * Tests whether the stored {@link String} equals another {@link String}
+	 * Tests whether the stored value as a {@link String} equals another
+	 * {@link String}
 	 * 
-	 * @param s Another String to compare to the stored {@link String}.
+	 * @param s Another String to compare to the stored value.
 	 * 
-	 * @return Whether stored {@link String} equals another {@link String}
+	 * @return Whether the stored value as a {@link String} equals another
+	 *         {@link String}
 	 * 
 	 */
 	public boolean equals(String s) {
-		return value.equals(s);
+		return toString().equals(s);
 	}
 
 	/**
-	 * Tests whether the parsed version of the stored {@link String} equals to a
+	 * Tests whether the stored value cast to the given type equals to a
 	 * given {@code byte}
 	 * 
 	 * @param b The {@code byte} to compare to
 	 * 
-	 * @return Whether the parsed version of the stored {@link String} equals to the
+	 * @return Whether the stored value cast to the given type equals to the
 	 *         {@code byte}
 	 * 
 	 */
@@ -145,12 +404,12 @@ public class DataElement {
 	}
 
 	/**
-	 * Tests whether the parsed version of the stored {@link String} equals to a
+	 * Tests whether the stored value cast to the given type equals to a
 	 * given {@code int}
 	 * 
 	 * @param i The {@code int} to compare to
 	 * 
-	 * @return Whether the parsed version of the stored {@link String} equals to the
+	 * @return Whether the stored value cast to the given type equals to the
 	 *         {@code int}
 	 * 
 	 */
@@ -159,12 +418,12 @@ public class DataElement {
 	}
 
 	/**
-	 * Tests whether the parsed version of the stored {@link String} equals to a
+	 * Tests whether the stored value cast to the given type equals to a
 	 * given {@code long}
 	 * 
 	 * @param l The {@code long} to compare to
 	 * 
-	 * @return Whether the parsed version of the stored {@link String} equals to the
+	 * @return Whether the stored value cast to the given type equals to the
 	 *         {@code long}
 	 * 
 	 */
@@ -173,12 +432,12 @@ public class DataElement {
 	}
 
 	/**
-	 * Tests whether the parsed version of the stored {@link String} equals to a
+	 * Tests whether the stored value cast to the given type equals to a
 	 * given {@code float}
 	 * 
 	 * @param f The {@code float} to compare to
 	 * 
-	 * @return Whether the parsed version of the stored {@link String} equals to the
+	 * @return Whether the stored value cast to the given type equals to the
 	 *         {@code float}
 	 * 
 	 */
@@ -187,12 +446,12 @@ public class DataElement {
 	}
 
 	/**
-	 * Tests whether the parsed version of the stored {@link String} equals to a
+	 * Tests whether the stored value cast to the given type equals to a
 	 * given {@code double}
 	 * 
 	 * @param d The {@code double} to compare to
 	 * 
-	 * @return Whether the parsed version of the stored {@link String} equals to the
+	 * @return Whether the stored value cast to the given type equals to the
 	 *         {@code double}
 	 * 
 	 */
@@ -201,12 +460,12 @@ public class DataElement {
 	}
 
 	/**
-	 * Tests whether the parsed version of the stored {@link String} equals to a
+	 * Tests whether the stored value cast to the given type equals to a
 	 * given {@code boolean}
 	 * 
 	 * @param b The {@code boolean} to compare to
 	 * 
-	 * @return Whether the parsed version of the stored {@link String} equals to the
+	 * @return Whether the stored value cast to the given type equals to the
 	 *         {@code boolean}
 	 * 
 	 */
@@ -4,17 +4,59 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 import de.pentagonlp.database.exceptions.CouldNotReadDatabaseConfigException;
 import de.pentagonlp.database.exceptions.InvalidConnectionDetailsException;
 import de.pentagonlp.database.exceptions.NoConectionStatusChangeException;
 import de.pentagonlp.database.exceptions.NotConnectedException;
+import de.pentagonlp.database.exceptions.RowMappingException;
+import de.pentagonlp.database.exceptions.TransactionStateException;
+import de.pentagonlp.database.exceptions.UncheckedSQLException;
+import de.pentagonlp.database.metrics.QueryEvent;
+import de.pentagonlp.database.metrics.QueryListener;
 
 /**
  * Super class for all database connections. Handels SQL queries, auto
@@ -25,9 +67,215 @@ import de.pentagonlp.database.exceptions.NotConnectedException;
  */
 public abstract class DatabaseConnection {
 
-	private Connection con;
+	private volatile Connection con;
 
-	private boolean autoReconnect = false;
+	private volatile boolean autoReconnect = false;
+
+	/**
+	 * Default time after which an idle single connection is validated in the
+	 * background; {@code 0}, as the single connection is only validated if
+	 * enabled through {@link #setKeepaliveInterval(long)}
+	 * 
+	 */
+	public static final long DEFAULT_KEEPALIVE_INTERVAL = 0;
+	/**
+	 * Default delay before retrying after the first failed reconnect
+	 * 
+	 */
+	public static final long DEFAULT_RECONNECT_INITIAL_DELAY = 250;
+	/**
+	 * Default upper bound of the delay between reconnect attempts
+	 * 
+	 */
+	public static final long DEFAULT_RECONNECT_MAX_DELAY = 30_000;
+
+	private volatile long keepaliveInterval = DEFAULT_KEEPALIVE_INTERVAL;
+	private volatile long reconnectInitialDelay = DEFAULT_RECONNECT_INITIAL_DELAY;
+	private volatile long reconnectMaxDelay = DEFAULT_RECONNECT_MAX_DELAY;
+
+	private final AtomicReference<ScheduledFuture<?>> keepalive = new AtomicReference<>();
+	/**
+	 * Whether the connection was closed on purpose, so it must not be reopened in
+	 * the background
+	 * 
+	 */
+	private volatile boolean closedByUser = true;
+	/**
+	 * Set while the current thread closes and reopens the connection as part of
+	 * a reconnect
+	 * 
+	 */
+	private final ThreadLocal<Boolean> reconnecting = new ThreadLocal<>();
+	private final AtomicInteger failedReconnects = new AtomicInteger();
+	/**
+	 * {@link System#nanoTime()} before which no reconnect is attempted after a
+	 * failed one
+	 * 
+	 */
+	private volatile long nextReconnect;
+	private final AtomicBoolean reconnectScheduled = new AtomicBoolean();
+	/**
+	 * {@link System#nanoTime()} the single connection was last known to be alive
+	 * 
+	 */
+	private volatile long lastActive = System.nanoTime();
+
+	/**
+	 * Default time a statement waits for the single connection, and a state
+	 * change waits for running statements
+	 * 
+	 */
+	public static final long DEFAULT_LOCK_TIMEOUT = 30_000;
+
+	private volatile long lockTimeout = DEFAULT_LOCK_TIMEOUT;
+
+	/**
+	 * Held while the connection is opened, closed or reopened, so state changes
+	 * happen one at a time
+	 * 
+	 */
+	private final ReentrantLock stateLock = new ReentrantLock();
+	/**
+	 * Set while a state change waits for running statements or is in progress;
+	 * statements starting in the meantime wait for {@link #stateLock}
+	 * 
+	 */
+	private volatile boolean draining = false;
+	/**
+	 * Number of running statements, open cursors and transactions
+	 * 
+	 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+	/**
+	 * Number of running statements, cursors being iterated by
+	 * {@link #forEachRow(String, RowConsumer, Object...)} and transactions of the
+	 * current thread. A thread which is already running a statement never waits
+	 * for a state change, as the state change would wait for it in turn.
+	 * 
+	 */
+	private final ThreadLocal<int[]> statementDepth = ThreadLocal.withInitial(() -> new int[1]);
+	private final ReentrantLock drainLock = new ReentrantLock();
+	private final Condition drained = drainLock.newCondition();
+	/**
+	 * Gives one thread at a time exclusive use of the single connection
+	 * 
+	 */
+	private final ConnectionLock connectionLock = new ConnectionLock();
+	/**
+	 * Threads holding the {@link #connectionLock} for a borrowed single
+	 * connection, as the lock may be given back by another thread
+	 * 
+	 */
+	private final ConcurrentHashMap<Connection, Thread> lockedConnections = new ConcurrentHashMap<>();
+	/**
+	 * Pools of borrowed pooled connections, as the pool may be replaced by a
+	 * reconnect before they are given back
+	 * 
+	 */
+	private final ConcurrentHashMap<Connection, ConnectionPool> borrowedConnections = new ConcurrentHashMap<>();
+	/**
+	 * Connections with an open {@link RowCursor}, if the driver can not run other
+	 * statements on them meanwhile
+	 * 
+	 * @see #isStreamingExclusive()
+	 * 
+	 */
+	private final Set<Connection> streamingConnections = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Settings used to create a {@link ConnectionPool} on {@link #open()};
+	 * {@code null} if a single connection is used
+	 * 
+	 */
+	private volatile PoolSettings poolSettings;
+	private volatile ConnectionPool pool;
+
+	/**
+	 * Default maximum number of prepared statements cached per connection
+	 * 
+	 */
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+	private volatile int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+	private final CacheStatistics statementCacheStatistics = new CacheStatistics();
+
+	private volatile int fetchSize = 0;
+
+	/**
+	 * Default number of rows sent to the database at once by
+	 * {@link #executeBatch(String, Iterable)}
+	 * 
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Default number of bytes the rows of a {@link SpillingResultTable} may use
+	 * on the heap
+	 * 
+	 */
+	public static final long DEFAULT_SPILL_THRESHOLD = 64L * 1024 * 1024;
+
+	private volatile long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+	/**
+	 * Directory of the temporary files of {@link SpillingResultTable
+	 * SpillingResultTables}; {@code null} for the default temporary directory
+	 * 
+	 */
+	private volatile Path spillDirectory;
+
+	/**
+	 * Runs asynchronous queries; {@code null} to use
+	 * {@link AsyncExecutors#getDefault()}
+	 * 
+	 */
+	private volatile Executor asyncExecutor;
+
+	private volatile QueryCache queryCache;
+
+	private final CopyOnWriteArrayList<QueryListener> queryListeners = new CopyOnWriteArrayList<>();
+
+	private final ParameterConverters parameterConverters = new ParameterConverters();
+
+	/**
+	 * Passed as isolation level to keep the default isolation level of the
+	 * connection
+	 * 
+	 */
+	private static final int KEEP_ISOLATION = -1;
+
+	/**
+	 * The transaction of each thread, pinning the connection all of its
+	 * statements run on
+	 * 
+	 */
+	private final ThreadLocal<Transaction> transaction = new ThreadLocal<>();
+	private final AtomicInteger activeTransactions = new AtomicInteger();
+	/**
+	 * Statement caches of all open physical connections
+	 * 
+	 */
+	private final ConcurrentHashMap<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+
+	/**
+	 * Opens connections through {@link #createConnection()} and frees their
+	 * statement caches when they are closed
+	 * 
+	 */
+	private final ConnectionFactory connectionFactory = new ConnectionFactory() {
+
+		@Override
+		public Connection create() throws SQLException {
+			return createConnection();
+		}
+
+		@Override
+		public void destroy(Connection connection) throws SQLException {
+			destroyConnection(connection);
+		}
+
+	};
 
 	/**
 	 * Construct {@link DatabaseConnection} Object<br>
@@ -51,36 +299,162 @@ public abstract class DatabaseConnection {
 	}
 
 	/**
-	 * Open connection to database
+	 * Open connection to database. Safe to call while other threads run
+	 * statements; only one thread at a time opens, closes or reopens the
+	 * connection.<br>
+	 * Starts validating the single connection in the background if a
+	 * keepalive interval was set through {@link #setKeepaliveInterval(long)}.
 	 * 
 	 * @throws NoConectionStatusChangeException
 	 * @throws SQLException
 	 * 
 	 */
 	public void open() throws NoConectionStatusChangeException, SQLException {
-		if (isConnected() == false) {
-			con = createConnection();
-		} else {
-			throw new NoConectionStatusChangeException("Already Connected!");
+		beginStateChange();
+		try {
+			if (isConnected() == false) {
+				PoolSettings poolSettings = this.poolSettings;
+				if (poolSettings != null)
+					pool = new ConnectionPool(connectionFactory, poolSettings);
+				else {
+					con = createConnection();
+					lastActive = System.nanoTime();
+				}
+				try {
+					onOpen();
+				} catch (SQLException | RuntimeException e) {
+					closeConnections();
+					throw e;
+				}
+			} else {
+				throw new NoConectionStatusChangeException("Already Connected!");
+			}
+			if (reconnecting.get() == null) {
+				closedByUser = false;
+				startKeepalive();
+			}
+		} finally {
+			endStateChange();
 		}
 	}
 
+	/**
+	 * Called by {@link #open()} after the connection or pool has been opened.
+	 * Subclasses managing additional connections open them here, so they are
+	 * opened as part of the same state change. If this throws, the connection is
+	 * closed again.
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	protected void onOpen() throws SQLException {
+	}
+
+	/**
+	 * Called by {@link #close()} before the connection or pool is closed, once
+	 * all running statements have finished. Subclasses managing additional
+	 * connections close them here.
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	protected void onClose() throws SQLException {
+	}
+
+	/**
+	 * Open a new physical connection to the database. Called once per
+	 * {@link #open()}, or whenever the {@link ConnectionPool} needs another
+	 * connection if pooling is enabled.
+	 * 
+	 * @return The new {@link Connection}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
 	protected abstract Connection createConnection() throws SQLException;
 
 	/**
-	 * Close connection to database
+	 * Close connection to database. Waits for running statements, open cursors
+	 * and transactions of other threads to finish, up to
+	 * {@link #getLockTimeout()}.
 	 * 
 	 * @throws NoConectionStatusChangeException
 	 * @throws SQLException
 	 * 
 	 */
 	public void close() throws NoConectionStatusChangeException, SQLException {
-		if (isConnected() == true) {
-			con.close();
-			con = null;
-		} else {
-			throw new NoConectionStatusChangeException("Not Connected!");
+		if (transaction.get() != null)
+			throw new TransactionStateException("Cannot close the connection while a transaction is active");
+		beginStateChange();
+		try {
+			if (reconnecting.get() == null) {
+				// Also stops reconnecting in the background
+				closedByUser = true;
+				stopKeepalive();
+			}
+			if (isConnected() == true) {
+				try {
+					onClose();
+				} finally {
+					closeConnections();
+				}
+			} else {
+				throw new NoConectionStatusChangeException("Not Connected!");
+			}
+		} finally {
+			endStateChange();
+		}
+	}
+
+	/**
+	 * Close the pool or the single connection
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	private void closeConnections() throws SQLException {
+		ConnectionPool pool = this.pool;
+		Connection connection = con;
+		this.pool = null;
+		con = null;
+		if (pool != null)
+			pool.close();
+		if (connection != null)
+			connectionFactory.destroy(connection);
+	}
+
+	/**
+	 * Start a state change: Take the {@link #stateLock}, keep new statements from
+	 * starting and wait for running ones, unless this is a nested state change,
+	 * e.g. {@link #close()} as part of {@link #reconnect()}
+	 * 
+	 */
+	private void beginStateChange() {
+		stateLock.lock();
+		if (stateLock.getHoldCount() > 1)
+			return;
+		draining = true;
+
+		// Statements of the current thread would wait for this thread
+		int own = statementDepth.get()[0];
+		long nanos = TimeUnit.MILLISECONDS.toNanos(lockTimeout);
+		drainLock.lock();
+		try {
+			while (inFlight.get() > own && nanos > 0)
+				nanos = drained.awaitNanos(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			drainLock.unlock();
 		}
+		// After the timeout, statements still running fail once the connection is
+		// closed
+	}
+
+	private void endStateChange() {
+		if (stateLock.getHoldCount() == 1)
+			draining = false;
+		stateLock.unlock();
 	}
 
 	/**
@@ -107,18 +481,18 @@ public abstract class DatabaseConnection {
 		try {
 			String line = reader.readLine();
 
-			while (line != null) {
-				// Ignore Comments
-				if (line.startsWith("#"))
+			for (; line != null; line = reader.readLine()) {
+				// Ignore comments and empty lines
+				if (line.startsWith("#") || line.trim().isEmpty())
 					continue;
 
-				String split[] = line.split("=");
+				// Values may contain '=' themselves
+				String split[] = line.split("=", 2);
 				if (split.length != 2)
 					throw new CouldNotReadDatabaseConfigException(
 							String.format("Line '%s' does not follow pattern 'NAME=VALUE'", line));
 
 				result.put(split[0], new DataElement(split[1]));
-				line = reader.readLine();
 			}
 		} finally {
 			reader.close();
@@ -170,182 +544,2579 @@ public abstract class DatabaseConnection {
 	}
 
 	/**
-	 * Reconnect to Database
+	 * Reconnect to Database. Waits for running statements, open cursors and
+	 * transactions of other threads to finish, up to {@link #getLockTimeout()};
+	 * statements started in the meantime wait for the new connection.<br>
+	 * Not possible while a transaction is active, as its changes would be lost.
 	 * 
+	 * @throws TransactionStateException If the current thread has an active
+	 *                                   transaction, or a transaction of another
+	 *                                   thread did not end in time
 	 * @throws SQLException
 	 * 
 	 */
 	public void reconnect() throws SQLException {
-		if (isConnected()) {
-			try {
-				close();
-				open();
-			} catch (NoConectionStatusChangeException e) {
-				// Cannot happen
-				e.printStackTrace();
-			}
-		}
-	}
-
-	protected void connectionDetailsUpdate() throws InvalidConnectionDetailsException {
+		if (transaction.get() != null)
+			throw new TransactionStateException("Cannot reconnect while a transaction is active");
+		boolean connected;
+		beginStateChange();
 		try {
-			reconnect();
-		} catch (SQLException e) {
-			throw new InvalidConnectionDetailsException("Unable to auto reconnect with the set connection values");
+			if (activeTransactions.get() > 0)
+				throw new TransactionStateException("Cannot reconnect while a transaction is active");
+			connected = isConnected();
+			if (connected) {
+				reconnecting.set(Boolean.TRUE);
+				try {
+					close();
+					open();
+				} catch (NoConectionStatusChangeException e) {
+					// Cannot happen
+					e.printStackTrace();
+				} finally {
+					reconnecting.remove();
+				}
+			}
+		} finally {
+			endStateChange();
 		}
+		if (connected)
+			fireReconnect();
 	}
 
 	/**
-	 * Connected to Database?
-	 * 
-	 * @return Connection status to database as {@code boolean}
+	 * Starts validating the single connection in the background, if enabled
+	 * through {@link #setKeepaliveInterval(long)}
 	 * 
 	 */
-	public boolean isConnected() {
-		return !(con == null);
+	private void startKeepalive() {
+		long interval = keepaliveInterval;
+		if (interval <= 0 || keepalive.get() != null)
+			return;
+		ScheduledFuture<?> future = AsyncExecutors.getScheduler().scheduleWithFixedDelay(this::keepalive, interval,
+				interval, TimeUnit.MILLISECONDS);
+		if (!keepalive.compareAndSet(null, future))
+			future.cancel(false);
+	}
+
+	private void stopKeepalive() {
+		ScheduledFuture<?> future = keepalive.getAndSet(null);
+		if (future != null)
+			future.cancel(false);
 	}
 
 	/**
-	 * Fetch all rows of result from database
-	 * 
-	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
-	 * @param params Parameters in Order to replace the {@code ?} symbols in
-	 *               {@code sql}
-	 * 
-	 * @return {@link ArrayList} of rows; Each row is represented in a
-	 *         {@link HashMap} mapping column names to values in form of
-	 *         {@link DataElement DataElements}.
-	 * @throws SQLException
-	 * @throws NotConnectedException
+	 * Validates the single connection if it was idle for the keepalive interval
+	 * and reconnects in the background if it is dead. Pooled connections are
+	 * validated by the {@link ConnectionPool} itself.
 	 * 
 	 */
-	public ArrayList<HashMap<String, DataElement>> getTable(String sql, Object... params)
-			throws SQLException, NotConnectedException {
-
-		ArrayList<HashMap<String, DataElement>> result = new ArrayList<>();
-
-		if (!isConnected())
-			if (autoReconnect) {
-				try {
-					open();
-				} catch (NoConectionStatusChangeException e) {
-					e.printStackTrace();
-				}
-			} else
-				throw new NotConnectedException("Failed to run \"" + sql + "\"");
+	private void keepalive() {
+		if (!isConnected()) {
+			// A reconnect failed and no request came in since
+			if (autoReconnect && !closedByUser)
+				scheduleReconnect();
+			return;
+		}
 
-		PreparedStatement statement = con.prepareStatement(sql);
+		Connection connection = con;
+		if (connection == null || activeTransactions.get() > 0
+				|| System.nanoTime() - lastActive < TimeUnit.MILLISECONDS.toNanos(keepaliveInterval))
+			return;
 
+		// A connection in use is alive anyway
+		if (!connectionLock.tryLock())
+			return;
+		boolean valid;
 		try {
-			for (int i = 0; i < params.length; i++) {
-				if (params[i]==null) {
-					statement.setString(i + 1, null);
-					continue;
-				}
-				statement.setString(i + 1, params[i].toString());
-			}
-
-			// TODO dejank this; somehow fetch type of result, eg. "update" or "select"
-			if (!sql.toLowerCase().startsWith("select")) {
-				statement.execute();
-				return result;
-			}
-
-			ResultSet sqlresult = statement.executeQuery();
-
-			try {
-
-				if (!sqlresult.isBeforeFirst())
-					return result;
-
-				while (sqlresult.next()) {
-					HashMap<String, DataElement> currentrow = new HashMap<>();
+			valid = connection.isValid(PoolSettings.DEFAULT_VALIDATION_TIMEOUT);
+		} catch (SQLException e) {
+			valid = false;
+		} finally {
+			connectionLock.unlock(Thread.currentThread());
+		}
+		if (valid)
+			lastActive = System.nanoTime();
+		else if (autoReconnect && connection == con)
+			scheduleReconnect();
+	}
 
-					for (int collumid = 1; collumid <= sqlresult.getMetaData().getColumnCount(); collumid++)
-						currentrow.put(sqlresult.getMetaData().getColumnName(collumid),
-								new DataElement(sqlresult.getString(collumid)));
+	/**
+	 * Reconnects in the background once the backoff delay of previous failed
+	 * attempts is over
+	 * 
+	 */
+	private void scheduleReconnect() {
+		if (!reconnectScheduled.compareAndSet(false, true))
+			return;
+		long delay = failedReconnects.get() > 0 ? Math.max(nextReconnect - System.nanoTime(), 0) : 0;
+		try {
+			AsyncExecutors.getScheduler().schedule(this::backgroundReconnect, delay, TimeUnit.NANOSECONDS);
+		} catch (RejectedExecutionException e) {
+			reconnectScheduled.set(false);
+		}
+	}
 
-					result.add(currentrow);
+	private void backgroundReconnect() {
+		reconnectScheduled.set(false);
+		if (!autoReconnect || closedByUser)
+			return;
+		try {
+			if (isConnected())
+				reconnect();
+			else {
+				reconnecting.set(Boolean.TRUE);
+				try {
+					open();
+				} finally {
+					reconnecting.remove();
 				}
-
-			} finally {
-				sqlresult.close();
+				fireReconnect();
 			}
-		} finally {
-			statement.close();
+			failedReconnects.set(0);
+		} catch (NoConectionStatusChangeException e) {
+			// Opened by another thread in the meantime
+		} catch (SQLException | RuntimeException e) {
+			reconnectFailed();
+			scheduleReconnect();
 		}
-
-		return result;
-
 	}
 
 	/**
-	 * Fetch all rows of result from database
-	 * 
-	 * @param sql SQL command; Use of {@code ?} instead of non constant Parameters
-	 *            is not permitted
-	 * 
-	 * @return {@link ArrayList} of rows; Each row is represented in a
-	 *         {@link HashMap} mapping column names to values in form of
-	 *         {@link DataElement DataElements}.
-	 * @throws SQLException
-	 * @throws NotConnectedException
+	 * Delays the next reconnect attempt exponentially, with jitter
 	 * 
 	 */
-	public ArrayList<HashMap<String, DataElement>> getTable(String sql) throws SQLException, NotConnectedException {
-		return getTable(sql, new Object[] {});
+	private void reconnectFailed() {
+		int attempts = failedReconnects.incrementAndGet();
+		nextReconnect = System.nanoTime() + TimeUnit.MILLISECONDS
+				.toNanos(Backoff.delay(reconnectInitialDelay, reconnectMaxDelay, attempts));
 	}
 
 	/**
-	 * Fetch only first row of result from database
+	 * Reconnects in the background if a statement failed because the single
+	 * connection broke, instead of waiting for the next keepalive
 	 * 
-	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
-	 * @param params Parameters in Order to replace the {@code ?} symbols in
-	 *               {@code sql}
-	 * 
-	 * @return First row of result, represented in a {@link HashMap} mapping column
-	 *         names to values in form of {@link DataElement DataElements}.
-	 * @throws SQLException
-	 * @throws NotConnectedException
+	 * @param e          The error of the statement
+	 * @param connection The connection the statement ran on
 	 * 
 	 */
-	public HashMap<String, DataElement> getFirstRow(String sql, Object... params)
-			throws SQLException, NotConnectedException {
+	private void checkConnectionError(Throwable e, Connection connection) {
+		if (!autoReconnect || pool != null || connection != con || !(e instanceof SQLException))
+			return;
+		String state = ((SQLException) e).getSQLState();
+		boolean broken;
+		try {
+			// SQL state class 08: connection exception
+			broken = state != null && state.startsWith("08") || connection.isClosed();
+		} catch (SQLException closedError) {
+			broken = true;
+		}
+		if (broken)
+			scheduleReconnect();
+	}
 
-		ArrayList<HashMap<String, DataElement>> table = getTable(sql, params);
+	protected void connectionDetailsUpdate() throws InvalidConnectionDetailsException {
+		try {
+			reconnect();
+		} catch (SQLException e) {
+			throw new InvalidConnectionDetailsException("Unable to auto reconnect with the set connection values");
+		}
+	}
 
-		if (table.isEmpty())
+	/**
+	 * Connected to Database?
+	 * 
+	 * @return Connection status to database as {@code boolean}
+	 * 
+	 */
+	public boolean isConnected() {
+		return !(con == null && pool == null);
+	}
+
+	/**
+	 * Get a connection to run a statement on. Has to be given back through
+	 * {@link #releaseConnection(Connection)} afterwards.
+	 * 
+	 * @param readOnly Whether the statement only reads
+	 * 
+	 * @return The connection of the transaction of the current thread, or a
+	 *         connection obtained through {@link #borrowConnection(boolean)}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	Connection acquireConnection(boolean readOnly) throws SQLException {
+		Transaction current = transaction.get();
+		Connection connection = current != null ? current.connection : borrowConnection(readOnly);
+		if (streamingConnections.contains(connection)) {
+			releaseConnection(connection);
+			throw streamingCursorOpen();
+		}
+		return connection;
+	}
+
+	/**
+	 * Create the error thrown if a statement would run on a connection which is
+	 * busy with a streaming {@link RowCursor}
+	 * 
+	 * @return The {@link SQLException}
+	 * 
+	 * @see #isStreamingExclusive()
+	 * 
+	 */
+	private static SQLException streamingCursorOpen() {
+		return new SQLException("A cursor is still streaming rows from this connection; "
+				+ "Close it before running other statements, or use a connection pool");
+	}
+
+	/**
+	 * Get a connection regardless of the transaction of the current thread. Has
+	 * to be given back through {@link #giveBackConnection(Connection)}
+	 * afterwards.<br>
+	 * Subclasses may override this together with
+	 * {@link #giveBackConnection(Connection)} to run reads on other connections
+	 * than writes.
+	 * 
+	 * @param readOnly Whether only reading statements will be run on the
+	 *                 connection; {@code false} for transactions
+	 * 
+	 * @return The single connection, or a connection borrowed from the pool
+	 * 
+	 * @throws SQLException
+	 * @throws java.sql.SQLTimeoutException If the single connection was not given
+	 *                                      back by another thread within
+	 *                                      {@link #getLockTimeout()}
+	 * 
+	 */
+	protected Connection borrowConnection(boolean readOnly) throws SQLException {
+		ConnectionPool pool = this.pool;
+		if (pool != null) {
+			Connection connection = pool.borrow();
+			borrowedConnections.put(connection, pool);
+			return connection;
+		}
+
+		// A JDBC connection and its statement cache must not be used by several
+		// threads at once
+		Thread current = Thread.currentThread();
+		connectionLock.lock(lockTimeout);
+		Connection connection = con;
+		if (connection == null) {
+			connectionLock.unlock(current);
+			throw new SQLNonTransientConnectionException("Not connected", "08003");
+		}
+		lockedConnections.put(connection, current);
+		return connection;
+	}
+
+	/**
+	 * Give back a connection obtained through {@link #borrowConnection(boolean)}.
+	 * Pooled connections go back to the pool they were borrowed from, even if
+	 * the connection was reopened in the meantime.
+	 * 
+	 * @param connection The connection to give back
+	 * 
+	 */
+	protected void giveBackConnection(Connection connection) {
+		ConnectionPool owner = borrowedConnections.remove(connection);
+		if (owner != null) {
+			owner.release(connection);
+			return;
+		}
+		// Only locks taken for this connection are given back. Atomic, so a
+		// thread locking in the meantime keeps its entry.
+		lockedConnections.computeIfPresent(connection,
+				(locked, thread) -> connectionLock.unlock(thread) > 0 ? thread : null);
+	}
+
+	/**
+	 * Close a physical connection and free its statement cache. Subclasses
+	 * managing additional connections have to close them through this method.
+	 * 
+	 * @param connection The connection to close
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	protected final void destroyConnection(Connection connection) throws SQLException {
+		StatementCache cache = statementCaches.remove(connection);
+		if (cache != null)
+			cache.clear();
+		connection.close();
+	}
+
+	/**
+	 * Get the statement cache of a physical connection, creating it if necessary
+	 * 
+	 * @param connection The connection
+	 * 
+	 * @return The {@link StatementCache} of the connection, or {@code null} if
+	 *         statement caching is disabled
+	 * 
+	 */
+	private StatementCache getStatementCache(Connection connection) {
+		int size = statementCacheSize;
+		if (size <= 0)
 			return null;
+		return statementCaches.computeIfAbsent(connection,
+				c -> new StatementCache(c, size, statementCacheStatistics));
+	}
 
-		return table.get(0);
+	/**
+	 * Give back a connection obtained through {@link #acquireConnection(boolean)}
+	 * 
+	 * @param connection The connection to give back
+	 * 
+	 */
+	void releaseConnection(Connection connection) {
+		lastActive = System.nanoTime();
+		Transaction current = transaction.get();
+		// Stays pinned until the transaction ends
+		if (current != null && current.connection == connection)
+			return;
+		giveBackConnection(connection);
 	}
 
 	/**
-	 * Fetch only first row of result from database
+	 * Register a statement, cursor or transaction as running, so state changes
+	 * wait for it. Waits while a state change is in progress, and makes sure the
+	 * connection is open afterwards.<br>
+	 * Has to be followed by {@link #exitStatement()}.
 	 * 
-	 * @param sql SQL command; Use of {@code ?} instead of non constant Parameters
-	 *            is not permitted
+	 * @param sql The statement about to be run, for error messages
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException If not connected and auto reconnect is
+	 *                               inactive
+	 * 
+	 */
+	void enterStatement(String sql) throws SQLException, NotConnectedException {
+		int[] depth = statementDepth.get();
+		if (depth[0] > 0) {
+			// Nested in a statement of this thread, which state changes wait for
+			ensureConnected(sql);
+			depth[0]++;
+			inFlight.incrementAndGet();
+			return;
+		}
+
+		while (true) {
+			// Opening waits for the state lock itself
+			ensureConnected(sql);
+
+			inFlight.incrementAndGet();
+			if (!draining) {
+				if (isConnected()) {
+					depth[0] = 1;
+					return;
+				}
+				// Closed in the meantime
+				finishStatement();
+				continue;
+			}
+			finishStatement();
+			// Wait until the state change is over
+			stateLock.lock();
+			stateLock.unlock();
+		}
+	}
+
+	/**
+	 * Unregister a statement registered through {@link #enterStatement(String)}
+	 * on the same thread
+	 * 
+	 */
+	void exitStatement() {
+		statementDepth.get()[0]--;
+		finishStatement();
+	}
+
+	/**
+	 * Unregister a running statement, cursor or transaction, waking up a waiting
+	 * state change
+	 * 
+	 */
+	private void finishStatement() {
+		inFlight.decrementAndGet();
+		if (draining) {
+			drainLock.lock();
+			try {
+				drained.signalAll();
+			} finally {
+				drainLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Make sure the connection is open before running a statement, opening it if
+	 * auto reconnect is active
+	 * 
+	 * @param sql The statement about to be run, for the error message
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException If not connected and auto reconnect is
+	 *                               inactive
+	 * 
+	 */
+	private void ensureConnected(String sql) throws SQLException, NotConnectedException {
+		if (!isConnected() && draining) {
+			// Closed by a reconnect in progress, wait for the new connection
+			stateLock.lock();
+			stateLock.unlock();
+		}
+		if (!isConnected())
+			if (autoReconnect) {
+				// The changes of the transaction are gone with the old connection
+				if (activeTransactions.get() > 0)
+					throw new TransactionStateException(
+							"Connection was lost during a transaction, failed to run \"" + sql + "\"");
+				// Fail fast instead of hitting the database with every request
+				int failed = failedReconnects.get();
+				if (failed > 0 && System.nanoTime() - nextReconnect < 0)
+					throw new NotConnectedException(
+							"Reconnecting after " + failed + " failed attempts, failed to run \"" + sql + "\"");
+				try {
+					open();
+					failedReconnects.set(0);
+				} catch (NoConectionStatusChangeException e) {
+					// Opened by another thread in the meantime
+					return;
+				} catch (SQLException | RuntimeException e) {
+					reconnectFailed();
+					throw e;
+				}
+				fireReconnect();
+			} else
+				throw new NotConnectedException("Failed to run \"" + sql + "\"");
+	}
+
+	/**
+	 * Bind parameters to the {@code ?} symbols of a statement
+	 * 
+	 * @param statement The statement
+	 * @param params    Parameters in order
 	 * 
-	 * @return First row of result, represented in a {@link HashMap} mapping column
-	 *         names to values in form of {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * 
+	 */
+	private void bindParameters(PreparedStatement statement, Object[] params) throws SQLException {
+		boolean convert = !parameterConverters.isEmpty();
+		for (int i = 0; i < params.length; i++) {
+			Object param = params[i];
+			if (convert && param != null)
+				param = parameterConverters.convert(param);
+			bindParameter(statement, i + 1, param);
+		}
+	}
+
+	/**
+	 * Bind a single parameter with the setter matching its Java type, so numbers
+	 * are not sent as text and compared to numeric columns through implicit
+	 * conversions:
+	 * <ul>
+	 * <li>{@code null}: {@link PreparedStatement#setNull(int, int) setNull} with
+	 * {@link Types#NULL}; use {@link NullValue} for a typed {@code NULL}</li>
+	 * <li>{@link Integer}, {@link Short}, {@link Byte}, {@link Long}:
+	 * {@link PreparedStatement#setInt(int, int) setInt} or
+	 * {@link PreparedStatement#setLong(int, long) setLong}</li>
+	 * <li>{@link Double}, {@link Float}: {@link PreparedStatement#setDouble(int, double)
+	 * setDouble} or {@link PreparedStatement#setFloat(int, float) setFloat}</li>
+	 * <li>{@link BigDecimal}, {@link BigInteger}:
+	 * {@link PreparedStatement#setBigDecimal(int, BigDecimal) setBigDecimal}</li>
+	 * <li>{@link Boolean}: {@link PreparedStatement#setBoolean(int, boolean)
+	 * setBoolean}</li>
+	 * <li>{@code byte[]}: {@link PreparedStatement#setBytes(int, byte[])
+	 * setBytes}</li>
+	 * <li>{@link Timestamp}, {@link java.util.Date}, {@link Instant},
+	 * {@link LocalDateTime}: {@link PreparedStatement#setTimestamp(int, Timestamp)
+	 * setTimestamp}</li>
+	 * <li>{@link java.sql.Date}, {@link LocalDate}:
+	 * {@link PreparedStatement#setDate(int, java.sql.Date) setDate}</li>
+	 * <li>{@link Time}, {@link LocalTime}: {@link PreparedStatement#setTime(int, Time)
+	 * setTime}</li>
+	 * <li>{@link DataElement}: bound by its stored value</li>
+	 * <li>anything else: {@link PreparedStatement#setString(int, String)
+	 * setString} with {@link Object#toString()}</li>
+	 * </ul>
+	 * Parameters of types with a converter registered in
+	 * {@link #getParameterConverters()} are converted before. Drivers override
+	 * this if their database stores some types differently.
+	 * 
+	 * @param statement The statement
+	 * @param index     Index of the parameter, starting at {@code 1}
+	 * @param param     The parameter; may be {@code null}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	protected void bindParameter(PreparedStatement statement, int index, Object param) throws SQLException {
+		if (param == null)
+			statement.setNull(index, Types.NULL);
+		else if (param instanceof String)
+			statement.setString(index, (String) param);
+		else if (param instanceof Integer || param instanceof Short || param instanceof Byte)
+			statement.setInt(index, ((Number) param).intValue());
+		else if (param instanceof Long)
+			statement.setLong(index, (Long) param);
+		else if (param instanceof Double)
+			statement.setDouble(index, (Double) param);
+		else if (param instanceof Float)
+			statement.setFloat(index, (Float) param);
+		else if (param instanceof BigDecimal)
+			statement.setBigDecimal(index, (BigDecimal) param);
+		else if (param instanceof BigInteger)
+			statement.setBigDecimal(index, new BigDecimal((BigInteger) param));
+		else if (param instanceof Boolean)
+			statement.setBoolean(index, (Boolean) param);
+		else if (param instanceof byte[])
+			statement.setBytes(index, (byte[]) param);
+		else if (param instanceof Timestamp)
+			statement.setTimestamp(index, (Timestamp) param);
+		else if (param instanceof java.sql.Date)
+			statement.setDate(index, (java.sql.Date) param);
+		else if (param instanceof Time)
+			statement.setTime(index, (Time) param);
+		else if (param instanceof java.util.Date)
+			statement.setTimestamp(index, new Timestamp(((java.util.Date) param).getTime()));
+		else if (param instanceof Instant)
+			statement.setTimestamp(index, Timestamp.from((Instant) param));
+		else if (param instanceof LocalDateTime)
+			statement.setTimestamp(index, Timestamp.valueOf((LocalDateTime) param));
+		else if (param instanceof LocalDate)
+			statement.setDate(index, java.sql.Date.valueOf((LocalDate) param));
+		else if (param instanceof LocalTime)
+			statement.setTime(index, Time.valueOf((LocalTime) param));
+		else if (param instanceof NullValue)
+			statement.setNull(index, ((NullValue) param).getSqlType());
+		else if (param instanceof DataElement)
+			bindParameter(statement, index, ((DataElement) param).getValue());
+		else
+			statement.setString(index, param.toString());
+	}
+
+	/**
+	 * Fetch all rows of result from database
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link ArrayList} of rows; Each row is represented in a
+	 *         {@link HashMap} mapping column names to values in form of
+	 *         {@link DataElement DataElements}.
 	 * @throws SQLException
 	 * @throws NotConnectedException
 	 * 
 	 */
-	public HashMap<String, DataElement> getFirstRow(String sql) throws SQLException, NotConnectedException {
-		return getFirstRow(sql, new Object[] {});
+	public ArrayList<HashMap<String, DataElement>> getTable(String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		return query(sql, params, (statement, sqlresult, updateCount) -> {
+			ArrayList<HashMap<String, DataElement>> result = new ArrayList<>();
+			if (sqlresult == null)
+				return result;
+
+			RowReader<HashMap<String, DataElement>> reader = RowReader.hashMaps(createSchema(sqlresult));
+			while (sqlresult.next())
+				result.add(reader.read(sqlresult));
+			return result;
+		});
 	}
 
-	public boolean autoReconnectActive() {
-		return autoReconnect;
+	/**
+	 * Run a statement on a (cached) prepared statement and read its result
+	 * 
+	 * @param <R>     Type of the result representation
+	 * @param sql     SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params  Parameters in Order to replace the {@code ?} symbols in
+	 *                {@code sql}
+	 * @param handler Reads the result
+	 * 
+	 * @return The result as read by {@code handler}
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	<R> R query(String sql, Object[] params, ResultHandler<R> handler)
+			throws SQLException, NotConnectedException {
+		return query(sql, params, Statement.NO_GENERATED_KEYS, handler);
 	}
 
-	public void setAutoReconnect(boolean autoReconnect) {
-		this.autoReconnect = autoReconnect;
+	/**
+	 * Run a statement on a (cached) prepared statement and read its result.
+	 * Whether the statement produced a result is taken from
+	 * {@link PreparedStatement#execute()}, so any statement returning rows can be
+	 * read, e.g. {@code WITH}, {@code SHOW}, {@code PRAGMA} or {@code EXPLAIN}.
+	 * 
+	 * @param <R>               Type of the result representation
+	 * @param sql               SQL Command; Use {@code ?} instead of non constant
+	 *                          Parameters
+	 * @param params            Parameters in Order to replace the {@code ?}
+	 *                          symbols in {@code sql}
+	 * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or
+	 *                          {@link Statement#NO_GENERATED_KEYS}
+	 * @param handler           Reads the result
+	 * 
+	 * @return The result as read by {@code handler}
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	private <R> R query(String sql, Object[] params, int autoGeneratedKeys, ResultHandler<R> handler)
+			throws SQLException, NotConnectedException {
+
+		enterStatement(sql);
+		try {
+			return query(sql, params, autoGeneratedKeys, handler, acquireConnection(SqlTables.isReadOnly(sql)), true);
+		} finally {
+			exitStatement();
+		}
 	}
 
-	public Connection getConnection() {
-		return con;
+	/**
+	 * Run a statement on a connection acquired through
+	 * {@link #acquireConnection(boolean)}, as described in
+	 * {@link #query(String, Object[], int, ResultHandler)}, and release the
+	 * connection afterwards if {@code release} is {@code true}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	<R> R query(String sql, Object[] params, int autoGeneratedKeys, ResultHandler<R> handler,
+			Connection connection, boolean release) throws SQLException {
+		boolean timed = !queryListeners.isEmpty();
+		long start = timed ? System.nanoTime() : 0;
+		long prepared = start, executed = start;
+		long rows = 0;
+		Throwable error = null;
+
+		try {
+			StatementCache cache = getStatementCache(connection);
+			PreparedStatement statement;
+			if (cache != null)
+				statement = cache.prepare(sql, autoGeneratedKeys);
+			else if (autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS)
+				statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			else
+				statement = connection.prepareStatement(sql);
+			boolean succeeded = false;
+
+			try {
+				bindParameters(statement, params);
+				if (timed)
+					prepared = executed = System.nanoTime();
+
+				boolean hasResult;
+				try {
+					hasResult = statement.execute();
+				} catch (SQLException | RuntimeException e) {
+					// A failed write may still have changed rows
+					if (SqlTables.writtenTable(sql) != null)
+						invalidateQueryCache(sql);
+					throw e;
+				}
+				if (timed)
+					executed = System.nanoTime();
+
+				R result;
+				if (hasResult) {
+					// Writes returning rows, e.g. INSERT ... RETURNING
+					if (SqlTables.writtenTable(sql) != null)
+						invalidateQueryCache(sql);
+
+					ResultSet sqlresult = statement.getResultSet();
+					try {
+						result = handler.handle(statement, sqlresult, -1);
+					} finally {
+						sqlresult.close();
+					}
+					if (result instanceof Collection)
+						rows = ((Collection<?>) result).size();
+				} else {
+					invalidateQueryCache(sql);
+					int updateCount = statement.getUpdateCount();
+					rows = Math.max(updateCount, 0);
+					result = handler.handle(statement, null, updateCount);
+				}
+
+				succeeded = true;
+				return result;
+			} finally {
+				if (cache == null)
+					statement.close();
+				else if (succeeded)
+					cache.release(statement);
+				else
+					cache.invalidate(sql, autoGeneratedKeys, statement);
+			}
+		} catch (SQLException | RuntimeException e) {
+			error = e;
+			checkConnectionError(e, connection);
+			throw e;
+		} finally {
+			if (release)
+				releaseConnection(connection);
+			if (timed)
+				fireQuery(sql, start, prepared, executed, System.nanoTime(), rows, error);
+		}
+	}
+
+	/**
+	 * Run a data modifying statement, e.g. {@code INSERT}, {@code UPDATE} or
+	 * {@code DELETE}
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return The number of affected rows, {@code 0} for statements not
+	 *         affecting rows and {@code -1} if the statement returned a result
+	 *         instead
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public int executeUpdate(String sql, Object... params) throws SQLException, NotConnectedException {
+		return query(sql, params, (statement, sqlresult, updateCount) -> updateCount);
+	}
+
+	/**
+	 * Run an {@code INSERT} statement and fetch the keys the database generated
+	 * for the new rows, e.g. {@code AUTO_INCREMENT} ids, in the same round trip
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link ArrayList} of the generated key of each inserted row, in
+	 *         form of {@link DataElement DataElements}; empty if no keys were
+	 *         generated
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public ArrayList<DataElement> insertReturningKeys(String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		return query(sql, params, Statement.RETURN_GENERATED_KEYS, (statement, sqlresult, updateCount) -> {
+			ArrayList<DataElement> keys = new ArrayList<>();
+			try (ResultSet generated = statement.getGeneratedKeys()) {
+				if (generated == null)
+					return keys;
+				ValueType type = getValueType(generated.getMetaData(), 1);
+				while (generated.next())
+					keys.add(type.readElement(generated, 1));
+			}
+			return keys;
+		});
+	}
+
+	/**
+	 * Pass the timings of a statement to all {@link QueryListener QueryListeners}.
+	 * Timestamps not reached because the statement failed early are expected to
+	 * equal the previous timestamp.
+	 * 
+	 * @param sql      SQL text of the statement
+	 * @param start    {@link System#nanoTime()} before preparing the statement
+	 * @param prepared {@link System#nanoTime()} after binding the parameters
+	 * @param executed {@link System#nanoTime()} after executing the statement
+	 * @param end      {@link System#nanoTime()} after reading the result
+	 * @param rows     Number of rows returned or affected
+	 * @param error    The error the statement failed with, or {@code null}
+	 * 
+	 */
+	private void fireQuery(String sql, long start, long prepared, long executed, long end, long rows,
+			Throwable error) {
+		// A failing phase is attributed the time up to the failure
+		if (error != null) {
+			if (prepared == start)
+				prepared = executed = end;
+			else if (executed == prepared)
+				executed = end;
+		}
+		QueryEvent event = new QueryEvent(sql, prepared - start, executed - prepared, end - executed, rows, error);
+		for (QueryListener listener : queryListeners) {
+			try {
+				listener.onQuery(event);
+			} catch (RuntimeException e) {
+				// Listeners must not break queries
+			}
+		}
+	}
+
+	/**
+	 * Notify all {@link QueryListener QueryListeners} about a reconnect
+	 * 
+	 */
+	private void fireReconnect() {
+		for (QueryListener listener : queryListeners) {
+			try {
+				listener.onReconnect(this);
+			} catch (RuntimeException e) {
+				// Listeners must not break reconnects
+			}
+		}
+	}
+
+
+	/**
+	 * Fetch all rows of result from database
+	 * 
+	 * @param sql SQL command; Use of {@code ?} instead of non constant Parameters
+	 *            is not permitted
+	 * 
+	 * @return {@link ArrayList} of rows; Each row is represented in a
+	 *         {@link HashMap} mapping column names to values in form of
+	 *         {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public ArrayList<HashMap<String, DataElement>> getTable(String sql) throws SQLException, NotConnectedException {
+		return getTable(sql, new Object[] {});
+	}
+
+	/**
+	 * Fetch all rows of result from database, mapping each row directly into an
+	 * object. Columns fill the record components or fields of the same name,
+	 * ignoring case and underscores; records are created through their canonical
+	 * constructor, other classes through their no argument constructor and their
+	 * setters or fields.<br>
+	 * The mapping is resolved once per class and result columns, so no
+	 * intermediate {@link HashMap HashMaps} are created and no reflection is
+	 * used per row.
+	 * 
+	 * @param <T>    The class to map rows into
+	 * @param type   The class to map rows into
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link ArrayList} of rows, each mapped into an object of
+	 *         {@code type}
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * @throws RowMappingException   If {@code type} can not be instantiated or a
+	 *                               value does not fit into its property
+	 * 
+	 */
+	public <T> ArrayList<T> getTable(Class<T> type, String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		return query(sql, params, (statement, sqlresult, updateCount) -> {
+			ArrayList<T> result = new ArrayList<>();
+			if (sqlresult == null)
+				return result;
+
+			RowReader<T> reader = RowMappers.forClass(type, createSchema(sqlresult));
+			while (sqlresult.next())
+				result.add(reader.read(sqlresult));
+			return result;
+		});
+	}
+
+	/**
+	 * Fetch only first row of result from database, mapped into an object as
+	 * described in {@link #getTable(Class, String, Object...)}
+	 * 
+	 * @param <T>    The class to map the row into
+	 * @param type   The class to map the row into
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return First row of result mapped into an object of {@code type}, or
+	 *         {@code null} if there are no rows
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * @throws RowMappingException   If {@code type} can not be instantiated or a
+	 *                               value does not fit into its property
+	 * 
+	 */
+	public <T> T getFirstRow(Class<T> type, String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		ArrayList<T> table = getTable(type, sql, params);
+
+		if (table.isEmpty())
+			return null;
+
+		return table.get(0);
+	}
+
+	/**
+	 * Fetch only first row of result from database
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return First row of result, represented in a {@link HashMap} mapping column
+	 *         names to values in form of {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public HashMap<String, DataElement> getFirstRow(String sql, Object... params)
+			throws SQLException, NotConnectedException {
+
+		ArrayList<HashMap<String, DataElement>> table = getTable(sql, params);
+
+		if (table.isEmpty())
+			return null;
+
+		return table.get(0);
+	}
+
+	/**
+	 * Fetch only first row of result from database
+	 * 
+	 * @param sql SQL command; Use of {@code ?} instead of non constant Parameters
+	 *            is not permitted
+	 * 
+	 * @return First row of result, represented in a {@link HashMap} mapping column
+	 *         names to values in form of {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public HashMap<String, DataElement> getFirstRow(String sql) throws SQLException, NotConnectedException {
+		return getFirstRow(sql, new Object[] {});
+	}
+
+	/**
+	 * Fetch all rows of result from database, answering from the
+	 * {@link QueryCache} if possible. Without a {@link QueryCache} set, this is
+	 * the same as {@link #getTable(String, Object...)}.
+	 * 
+	 * @param ttl    Time in milliseconds the result is cached for; {@code 0} for
+	 *               the default of the {@link QueryCache}
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link ArrayList} of rows; Each row is represented in a
+	 *         {@link HashMap} mapping column names to values in form of
+	 *         {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #setQueryCache(QueryCache)
+	 * 
+	 */
+	public ArrayList<HashMap<String, DataElement>> getTableCached(long ttl, String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		QueryCache cache = queryCache;
+		// Results inside a transaction might include uncommitted changes
+		if (cache == null || transaction.get() != null)
+			return getTable(sql, params);
+
+		ArrayList<HashMap<String, DataElement>> result = cache.get(sql, params);
+		if (result != null)
+			return result;
+
+		long generation = cache.generation();
+		result = getTable(sql, params);
+		cache.put(sql, params, result, ttl, generation);
+		return result;
+	}
+
+	/**
+	 * Fetch only first row of result from database, answering from the
+	 * {@link QueryCache} if possible. Without a {@link QueryCache} set, this is
+	 * the same as {@link #getFirstRow(String, Object...)}.
+	 * 
+	 * @param ttl    Time in milliseconds the result is cached for; {@code 0} for
+	 *               the default of the {@link QueryCache}
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return First row of result, represented in a {@link HashMap} mapping column
+	 *         names to values in form of {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #setQueryCache(QueryCache)
+	 * 
+	 */
+	public HashMap<String, DataElement> getFirstRowCached(long ttl, String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		ArrayList<HashMap<String, DataElement>> table = getTableCached(ttl, sql, params);
+
+		if (table.isEmpty())
+			return null;
+
+		return table.get(0);
+	}
+
+	/**
+	 * Invalidate the entries of the {@link QueryCache} affected by a statement
+	 * which was run through this connection. Inside a transaction, the written
+	 * table is only recorded and invalidated once the transaction commits, as
+	 * other threads would otherwise cache the old rows again before that.
+	 * 
+	 * @param sql The data modifying statement
+	 * 
+	 */
+	private void invalidateQueryCache(String sql) {
+		QueryCache cache = queryCache;
+		if (cache == null)
+			return;
+		Transaction current = transaction.get();
+		if (current != null)
+			current.recordWrite(sql);
+		else
+			cache.invalidateWrite(sql);
+	}
+
+	/**
+	 * Invalidate the entries of the {@link QueryCache} reading from the tables
+	 * written by a transaction
+	 * 
+	 * @param current The transaction
+	 * 
+	 */
+	private void invalidateQueryCache(Transaction current) {
+		QueryCache cache = queryCache;
+		if (cache == null)
+			return;
+		if (current.writesUnknownTable)
+			cache.invalidateAll();
+		else
+			for (String table : current.writtenTables)
+				cache.invalidateTable(table);
+	}
+
+	/**
+	 * Fetch all rows of result from database into a compact {@link ResultTable}.
+	 * All rows share a single {@link ColumnSchema} and store their values in a
+	 * flat array, which allocates far less per row than
+	 * {@link #getTable(String, Object...)}.
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link ResultTable} of rows; empty if the statement did not return
+	 *         a result
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public ResultTable getResultTable(String sql, Object... params) throws SQLException, NotConnectedException {
+		return query(sql, params, (statement, sqlresult, updateCount) -> readResultTable(sqlresult));
+	}
+
+	/**
+	 * Fetch all rows of result from database into a compact {@link ResultTable}
+	 * 
+	 * @param sql SQL command; Use of {@code ?} instead of non constant Parameters
+	 *            is not permitted
+	 * 
+	 * @return {@link ResultTable} of rows; empty if the statement did not return
+	 *         a result
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public ResultTable getResultTable(String sql) throws SQLException, NotConnectedException {
+		return getResultTable(sql, new Object[] {});
+	}
+
+	/**
+	 * Read all rows of a result into a {@link ResultTable}
+	 * 
+	 * @param sqlresult The {@link ResultSet}, or {@code null} if the statement did
+	 *                  not return a result
+	 * 
+	 * @return {@link ResultTable} of rows; empty if {@code sqlresult} is
+	 *         {@code null}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	ResultTable readResultTable(ResultSet sqlresult) throws SQLException {
+		if (sqlresult == null)
+			return new ResultTable(new ColumnSchema());
+
+		ColumnSchema schema = createSchema(sqlresult);
+		ResultTable result = new ResultTable(schema);
+		RowReader<Row> reader = RowReader.rows(schema);
+		while (sqlresult.next())
+			result.addRow(reader.read(sqlresult));
+		return result;
+	}
+
+	/**
+	 * Run several statements together and fetch all their results. If the driver
+	 * supports multiple statements per command (see
+	 * {@link #supportsMultiStatements()}) and all statements only read data, they
+	 * are sent in a single round trip. Otherwise, they are run one after another
+	 * on a single connection, which still saves acquiring a connection per
+	 * statement.<br>
+	 * A failing statement fails the whole pipeline; statements before it may
+	 * already have been run.
+	 * 
+	 * @param pipeline The statements and their parameters
+	 * 
+	 * @return {@link ResultTable} of each statement, in order; empty for
+	 *         statements which did not return a result
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public List<ResultTable> getResultTables(QueryPipeline pipeline) throws SQLException, NotConnectedException {
+		return pipeline.run(this);
+	}
+
+	/**
+	 * Tests whether the driver accepts several statements separated by
+	 * semicolons in a single command, returning one result per statement. Used
+	 * by {@link #getResultTables(QueryPipeline)} to send read-only pipelines in
+	 * a single round trip.
+	 * 
+	 * @return {@code false} by default
+	 * 
+	 */
+	protected boolean supportsMultiStatements() {
+		return false;
+	}
+
+	/**
+	 * Fetch all rows of a result from database into a
+	 * {@link SpillingResultTable}, which keeps rows on the heap up to
+	 * {@link #getSpillThreshold()} bytes and writes the remaining rows to a memory
+	 * mapped temporary file. Rows are fetched as described in
+	 * {@link #openCursor(String, Object...)}, so the driver does not hold the
+	 * whole result either.<br>
+	 * The returned table must be closed to delete the temporary file.
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link SpillingResultTable} of rows
+	 * @throws IOException           If writing the temporary file failed
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #setSpillThreshold(long)
+	 * @see #setSpillDirectory(Path)
+	 * 
+	 */
+	public SpillingResultTable getSpillingResultTable(String sql, Object... params)
+			throws IOException, SQLException, NotConnectedException {
+		AtomicReference<ColumnSchema> schema = new AtomicReference<>();
+		try (RowCursor<Row> cursor = openCursor(sql, sqlresult -> {
+			schema.set(createSchema(sqlresult));
+			return RowReader.rows(schema.get());
+		}, params)) {
+			SpillingResultTable result = new SpillingResultTable(schema.get(), spillThreshold, spillDirectory);
+			try {
+				while (cursor.hasNext())
+					result.addRow(cursor.next());
+				result.seal();
+			} catch (IOException | RuntimeException e) {
+				try {
+					result.close();
+				} catch (IOException closeError) {
+					e.addSuppressed(closeError);
+				}
+				throw e;
+			}
+			return result;
+		} catch (UncheckedSQLException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Page through the result of a query using keyset pagination. Each page is
+	 * fetched with a condition continuing after the key of the last row read,
+	 * e.g. {@code WHERE ID > ?}, so the database does not have to skip the rows
+	 * of all previous pages as with {@code OFFSET}. Walking a whole table takes
+	 * linear instead of quadratic time.<br>
+	 * The query is wrapped into a derived table, so it must not contain
+	 * {@code ORDER BY} or {@code LIMIT} itself. The key columns must be
+	 * {@code NOT NULL} and should be indexed.
+	 * 
+	 * @param settings Key columns, page size and whether to prefetch
+	 * @param sql      SQL Command; Use {@code ?} instead of non constant
+	 *                 Parameters
+	 * @param params   Parameters in Order to replace the {@code ?} symbols in
+	 *                 {@code sql}
+	 * 
+	 * @return A {@link KeysetPager} returning the pages in order
+	 * 
+	 */
+	public KeysetPager paginate(PagingSettings settings, String sql, Object... params) {
+		return new KeysetPager(this, settings, sql, params);
+	}
+
+	/**
+	 * Run a statement once for each set of parameters using JDBC batching, so
+	 * many rows are written in few round trips. Rows are sent in chunks of
+	 * {@link #getBatchSize()}.<br>
+	 * If the connection is in auto commit mode, the whole batch runs in a single
+	 * transaction which is rolled back if any row fails.
+	 * 
+	 * @param sql  SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param rows Parameters for each execution, in Order to replace the
+	 *             {@code ?} symbols in {@code sql}
+	 * 
+	 * @return The update count of each row, in order; drivers may report
+	 *         {@link java.sql.Statement#SUCCESS_NO_INFO} for rows they combined
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #setBatchSize(int)
+	 * 
+	 */
+	public int[] executeBatch(String sql, Iterable<Object[]> rows) throws SQLException, NotConnectedException {
+		enterStatement(sql);
+		try {
+			return executeBatch(sql, rows, acquireConnection(false));
+		} finally {
+			exitStatement();
+		}
+	}
+
+	/**
+	 * Run a statement once per row on a connection acquired through
+	 * {@link #acquireConnection(boolean)}, as described in
+	 * {@link #executeBatch(String, Iterable)}, and release the connection
+	 * afterwards
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	private int[] executeBatch(String sql, Iterable<Object[]> rows, Connection connection) throws SQLException {
+		int chunkSize = batchSize;
+		int[] counts = new int[16];
+		int executed = 0;
+
+		boolean timed = !queryListeners.isEmpty();
+		long start = timed ? System.nanoTime() : 0;
+		Throwable error = null;
+
+		try {
+			boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit)
+				connection.setAutoCommit(false);
+
+			Exception failure = null;
+			try (PreparedStatement statement = connection.prepareStatement(sql)) {
+				int pending = 0;
+				for (Object[] params : rows) {
+					bindParameters(statement, params);
+					statement.addBatch();
+
+					if (++pending == chunkSize) {
+						counts = append(counts, executed, statement.executeBatch());
+						executed += pending;
+						pending = 0;
+					}
+				}
+				if (pending > 0) {
+					counts = append(counts, executed, statement.executeBatch());
+					executed += pending;
+				}
+
+				if (autoCommit)
+					connection.commit();
+			} catch (SQLException | RuntimeException e) {
+				failure = e;
+				if (autoCommit)
+					try {
+						connection.rollback();
+					} catch (SQLException rollbackError) {
+						e.addSuppressed(rollbackError);
+					}
+				throw e;
+			} finally {
+				invalidateQueryCache(sql);
+				if (autoCommit)
+					try {
+						connection.setAutoCommit(true);
+					} catch (SQLException resetError) {
+						// Keep the failure of the batch as the cause
+						if (failure == null)
+							throw resetError;
+						failure.addSuppressed(resetError);
+					}
+			}
+		} catch (SQLException | RuntimeException e) {
+			error = e;
+			checkConnectionError(e, connection);
+			throw e;
+		} finally {
+			releaseConnection(connection);
+			if (timed) {
+				// Preparing and binding are interleaved with execution in a batch
+				long end = System.nanoTime();
+				fireQuery(sql, start, start, end, end, executed, error);
+			}
+		}
+
+		return Arrays.copyOf(counts, executed);
+	}
+
+	/**
+	 * Copy update counts of a chunk into the update counts of the whole batch,
+	 * growing the array if necessary
+	 * 
+	 * @param counts Update counts of the whole batch
+	 * @param offset Number of update counts already in {@code counts}
+	 * @param chunk  Update counts of the chunk
+	 * 
+	 * @return {@code counts}, or a larger copy of it
+	 * 
+	 */
+	private static int[] append(int[] counts, int offset, int[] chunk) {
+		if (offset + chunk.length > counts.length)
+			counts = Arrays.copyOf(counts, Math.max(counts.length * 2, offset + chunk.length));
+		System.arraycopy(chunk, 0, counts, offset, chunk.length);
+		return counts;
+	}
+
+	/**
+	 * Sets the number of rows sent to the database at once by
+	 * {@link #executeBatch(String, Iterable)}
+	 * 
+	 * @param batchSize Number of rows per chunk, at least {@code 1}
+	 * 
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be at least 1");
+		this.batchSize = batchSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Import all rows of a file into a table. The file is parsed while it is
+	 * read, and the rows are written in batches through the fastest way of the
+	 * driver, committing every {@link ImportSettings#getTransactionSize()}
+	 * rows. Memory usage does not depend on the size of the file.<br>
+	 * If the import fails, rows of already committed transactions stay in the
+	 * table.
+	 * 
+	 * @param file     The file
+	 * @param table    Name of the table, inserted into the statements as it is
+	 * @param settings Format of the file and settings of the import
+	 * 
+	 * @return The final {@link ImportProgress}, including the number of rows
+	 *         written
+	 * @throws IOException           If the file can not be read or parsed
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public ImportProgress importFile(Path file, String table, ImportSettings settings)
+			throws IOException, SQLException, NotConnectedException {
+		return new BulkImporter(this, table, settings).run(file);
+	}
+
+	/**
+	 * Import all rows read from a channel into a table, as described in
+	 * {@link #importFile(Path, String, ImportSettings)}. The channel is not
+	 * closed.
+	 * 
+	 * @param channel  The input, e.g. a stream wrapped through
+	 *                 {@link java.nio.channels.Channels#newChannel(java.io.InputStream)}
+	 * @param table    Name of the table, inserted into the statements as it is
+	 * @param settings Format of the input and settings of the import
+	 * 
+	 * @return The final {@link ImportProgress}, including the number of rows
+	 *         written
+	 * @throws IOException           If the input can not be read or parsed
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public ImportProgress importFrom(ReadableByteChannel channel, String table, ImportSettings settings)
+			throws IOException, SQLException, NotConnectedException {
+		return new BulkImporter(this, table, settings).run(channel, -1);
+	}
+
+	/**
+	 * Write the result of a query to a stream in a {@link FileFormat}, while the
+	 * rows are fetched. Rows are written through a reused buffer instead of being
+	 * read into memory first, so exports of any size run with constant memory.
+	 * Use {@link ExportSettings#setFetchSize(int)} to limit the number of rows the
+	 * driver holds at once.<br>
+	 * The stream is flushed, but not closed.
+	 * 
+	 * @param out      The output
+	 * @param settings Format of the output and settings of the export
+	 * @param sql      SQL Command; Use {@code ?} instead of non constant
+	 *                 Parameters
+	 * @param params   Parameters in Order to replace the {@code ?} symbols in
+	 *                 {@code sql}
+	 * 
+	 * @return The number of rows written
+	 * 
+	 * @throws IOException           If writing to the stream failed
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public long exportTo(OutputStream out, ExportSettings settings, String sql, Object... params)
+			throws IOException, SQLException, NotConnectedException {
+		long rows = settings.isGzip() ? ResultExporter.exportGzip(this, out, settings, sql, params)
+				: ResultExporter.export(this, Channels.newChannel(out), settings, sql, params);
+		out.flush();
+		return rows;
+	}
+
+	/**
+	 * Write the result of a query to a channel in a {@link FileFormat}, as
+	 * described in {@link #exportTo(OutputStream, ExportSettings, String, Object...)}.
+	 * The channel is not closed.
+	 * 
+	 * @param channel  The output, e.g. a {@link FileChannel}
+	 * @param settings Format of the output and settings of the export
+	 * @param sql      SQL Command; Use {@code ?} instead of non constant
+	 *                 Parameters
+	 * @param params   Parameters in Order to replace the {@code ?} symbols in
+	 *                 {@code sql}
+	 * 
+	 * @return The number of rows written
+	 * 
+	 * @throws IOException           If writing to the channel failed
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public long exportTo(WritableByteChannel channel, ExportSettings settings, String sql, Object... params)
+			throws IOException, SQLException, NotConnectedException {
+		if (!settings.isGzip())
+			return ResultExporter.export(this, channel, settings, sql, params);
+		return ResultExporter.exportGzip(this, Channels.newOutputStream(channel), settings, sql, params);
+	}
+
+	/**
+	 * Insert a batch of rows into a table as part of an import. Runs inside the
+	 * transaction of the import. Drivers may override this with a faster way to
+	 * insert many rows; by default, a prepared {@code INSERT} statement is run
+	 * once per row through {@link #executeBatch(String, Iterable)}.
+	 * 
+	 * @param table   Name of the table
+	 * @param columns Names of the columns, not quoted yet
+	 * @param rows    Values of each row in the order of {@code columns}
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #importFile(Path, String, ImportSettings)
+	 * 
+	 */
+	protected void insertRows(String table, String[] columns, List<Object[]> rows)
+			throws SQLException, NotConnectedException {
+		executeBatch(insertStatement(table, columns, 1), rows);
+	}
+
+	/**
+	 * Build an {@code INSERT} statement with placeholders for one or more rows
+	 * 
+	 * @param table   Name of the table
+	 * @param columns Names of the columns, quoted through
+	 *                {@link #quoteIdentifier(String)}
+	 * @param rows    Number of rows in the {@code VALUES} clause
+	 * 
+	 * @return The SQL text of the statement
+	 * 
+	 */
+	protected String insertStatement(String table, String[] columns, int rows) {
+		return BulkImporter.insertStatement(this, table, columns, rows);
+	}
+
+	/**
+	 * Quote the name of a column, e.g. taken from the header of an imported file
+	 * 
+	 * @param identifier The name
+	 * 
+	 * @return The name in double quotes, as defined by the SQL standard
+	 * 
+	 */
+	protected String quoteIdentifier(String identifier) {
+		return '"' + identifier.replace("\"", "\"\"") + '"';
+	}
+
+	/**
+	 * Fetch all rows of result from database without blocking the calling thread
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link CompletableFuture} completed with the result of
+	 *         {@link #getTable(String, Object...)}, or completed exceptionally
+	 *         with its {@link SQLException} or {@link NotConnectedException}
+	 * 
+	 * @see #setAsyncExecutor(Executor)
+	 * 
+	 */
+	public CompletableFuture<ArrayList<HashMap<String, DataElement>>> getTableAsync(String sql, Object... params) {
+		Object[] copy = params.clone();
+		return runAsync(() -> getTable(sql, copy));
+	}
+
+	/**
+	 * Fetch only first row of result from database without blocking the calling
+	 * thread
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link CompletableFuture} completed with the result of
+	 *         {@link #getFirstRow(String, Object...)}, or completed exceptionally
+	 *         with its {@link SQLException} or {@link NotConnectedException}
+	 * 
+	 * @see #setAsyncExecutor(Executor)
+	 * 
+	 */
+	public CompletableFuture<HashMap<String, DataElement>> getFirstRowAsync(String sql, Object... params) {
+		Object[] copy = params.clone();
+		return runAsync(() -> getFirstRow(sql, copy));
+	}
+
+	/**
+	 * Run any work against the database without blocking the calling thread
+	 * 
+	 * @param <T>  Type of the result
+	 * @param task The work to run
+	 * 
+	 * @return {@link CompletableFuture} completed with the result of
+	 *         {@code task}, or completed exceptionally with the exception it
+	 *         threw
+	 * 
+	 * @see #setAsyncExecutor(Executor)
+	 * 
+	 */
+	public <T> CompletableFuture<T> runAsync(DatabaseTask<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			getAsyncExecutor().execute(() -> {
+				try {
+					future.complete(task.run());
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Sets the {@link Executor} asynchronous queries run on. By default, each
+	 * query runs on its own virtual thread if the JVM supports them, or on a
+	 * shared cached thread pool otherwise.<br>
+	 * As each query blocks its thread while waiting for the database, the
+	 * {@link Executor} should allow as many concurrent tasks as queries are
+	 * expected to be in flight.
+	 * 
+	 * @param asyncExecutor The {@link Executor}; {@code null} to use the default
+	 * 
+	 */
+	public void setAsyncExecutor(Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	/**
+	 * Gets the {@link Executor} asynchronous queries run on
+	 * 
+	 * @return The {@link Executor} set through {@link #setAsyncExecutor(Executor)},
+	 *         or the default one
+	 * 
+	 */
+	public Executor getAsyncExecutor() {
+		Executor executor = asyncExecutor;
+		return executor == null ? AsyncExecutors.getDefault() : executor;
+	}
+
+	/**
+	 * Open a cursor iterating over the rows of a result while they are fetched
+	 * from the database. Memory usage does not depend on the size of the result
+	 * and the first row is available as soon as the database delivers it.<br>
+	 * The cursor keeps its connection busy until it is closed; use it in a
+	 * try-with-resources block. If the driver streams rows exclusively, like
+	 * MySql without cursor fetching, other statements can not run on the single
+	 * connection or in the transaction of the cursor before it is closed.
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link RowCursor} over the rows; Each row is represented in a
+	 *         {@link HashMap} mapping column names to values in form of
+	 *         {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #setFetchSize(int)
+	 * 
+	 */
+	public RowCursor<HashMap<String, DataElement>> openCursor(String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		return openCursor(sql, sqlresult -> RowReader.hashMaps(createSchema(sqlresult)), params);
+	}
+
+	/**
+	 * Fetch all rows of result from database and pass them to a callback one by
+	 * one while they are fetched. Memory usage does not depend on the size of
+	 * the result.<br>
+	 * As with {@link #openCursor(String, Object...)}, {@code consumer} may not be
+	 * able to run statements on the same connection, depending on the driver.
+	 * 
+	 * @param sql      SQL Command; Use {@code ?} instead of non constant
+	 *                 Parameters
+	 * @param consumer Called for each row; Each row is represented in a
+	 *                 {@link HashMap} mapping column names to values in form of
+	 *                 {@link DataElement DataElements}.
+	 * @param params   Parameters in Order to replace the {@code ?} symbols in
+	 *                 {@code sql}
+	 * 
+	 * @return The number of rows passed to {@code consumer}
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #setFetchSize(int)
+	 * 
+	 */
+	public long forEachRow(String sql, RowConsumer<HashMap<String, DataElement>> consumer, Object... params)
+			throws SQLException, NotConnectedException {
+		long rows = 0;
+		try (RowCursor<HashMap<String, DataElement>> cursor = openCursor(sql, params)) {
+			// Statements run by the consumer must not wait for a state change, which
+			// waits for the cursor in turn
+			int[] depth = statementDepth.get();
+			depth[0]++;
+			try {
+				while (cursor.hasNext()) {
+					consumer.accept(cursor.next());
+					rows++;
+				}
+			} finally {
+				depth[0]--;
+			}
+		} catch (UncheckedSQLException e) {
+			throw e.getCause();
+		}
+		return rows;
+	}
+
+	/**
+	 * Fetch the rows of a result as a {@link Stream} while they are fetched from
+	 * the database. The {@link Stream} keeps its connection busy until it is
+	 * closed; use it in a try-with-resources block.<br>
+	 * Errors while fetching rows are thrown as {@link UncheckedSQLException}.
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link Stream} of rows; Each row is represented in a
+	 *         {@link HashMap} mapping column names to values in form of
+	 *         {@link DataElement DataElements}.
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #setFetchSize(int)
+	 * 
+	 */
+	public Stream<HashMap<String, DataElement>> stream(String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		return openCursor(sql, params).stream();
+	}
+
+	/**
+	 * Open a cursor iterating over the rows of a result while they are fetched
+	 * from the database, mapping each row into an object as described in
+	 * {@link #getTable(Class, String, Object...)}.<br>
+	 * The cursor keeps its connection busy until it is closed; use it in a
+	 * try-with-resources block.
+	 * 
+	 * @param <T>    The class to map rows into
+	 * @param type   The class to map rows into
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link RowCursor} over the rows, each mapped into an object of
+	 *         {@code type}
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * @throws RowMappingException   If {@code type} can not be instantiated
+	 * 
+	 * @see #setFetchSize(int)
+	 * 
+	 */
+	public <T> RowCursor<T> openCursor(Class<T> type, String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		return openCursor(sql, sqlresult -> RowMappers.forClass(type, createSchema(sqlresult)), params);
+	}
+
+	/**
+	 * Fetch the rows of a result as a {@link Stream} while they are fetched from
+	 * the database, mapping each row into an object as described in
+	 * {@link #getTable(Class, String, Object...)}. The {@link Stream} keeps its
+	 * connection busy until it is closed; use it in a try-with-resources
+	 * block.<br>
+	 * Errors while fetching rows are thrown as {@link UncheckedSQLException}.
+	 * 
+	 * @param <T>    The class to map rows into
+	 * @param type   The class to map rows into
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return {@link Stream} of rows, each mapped into an object of {@code type}
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * @throws RowMappingException   If {@code type} can not be instantiated
+	 * 
+	 * @see #setFetchSize(int)
+	 * 
+	 */
+	public <T> Stream<T> stream(Class<T> type, String sql, Object... params)
+			throws SQLException, NotConnectedException {
+		return openCursor(type, sql, params).stream();
+	}
+
+	/**
+	 * Open a cursor over the rows of a result, converted by a {@link RowReader}
+	 * 
+	 * @param <T>     Type of the row representation
+	 * @param sql     SQL Command
+	 * @param readers Creates the {@link RowReader} for the {@link ResultSet}
+	 * @param params  Parameters in Order to replace the {@code ?} symbols in
+	 *                {@code sql}
+	 * 
+	 * @return The {@link RowCursor}
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	<T> RowCursor<T> openCursor(String sql, RowReaderFactory<T> readers, Object... params)
+			throws SQLException, NotConnectedException {
+		return openCursor(sql, fetchSize, readers, params);
+	}
+
+	/**
+	 * Open a cursor over the rows of a result, converted by a {@link RowReader},
+	 * with a given fetch size
+	 * 
+	 * @param <T>       Type of the row representation
+	 * @param sql       SQL Command
+	 * @param fetchSize Number of rows fetched at once; {@code 0} to use the
+	 *                  driver default
+	 * @param readers   Creates the {@link RowReader} for the {@link ResultSet}
+	 * @param params    Parameters in Order to replace the {@code ?} symbols in
+	 *                  {@code sql}
+	 * 
+	 * @return The {@link RowCursor}
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	<T> RowCursor<T> openCursor(String sql, int fetchSize, RowReaderFactory<T> readers, Object[] params)
+			throws SQLException, NotConnectedException {
+		enterStatement(sql);
+		boolean opened = false;
+		try {
+			RowCursor<T> cursor = openCursor(sql, fetchSize, readers, params,
+					acquireConnection(SqlTables.isReadOnly(sql)));
+			opened = true;
+			return cursor;
+		} finally {
+			// An open cursor stays registered until it is closed, possibly by
+			// another thread
+			if (opened)
+				statementDepth.get()[0]--;
+			else
+				exitStatement();
+		}
+	}
+
+	/**
+	 * Open a cursor on a connection acquired through
+	 * {@link #acquireConnection(boolean)}, which is released once the cursor is
+	 * closed
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	private <T> RowCursor<T> openCursor(String sql, int fetchSize, RowReaderFactory<T> readers, Object[] params,
+			Connection connection) throws SQLException {
+		boolean timed = !queryListeners.isEmpty();
+		long start = timed ? System.nanoTime() : 0;
+		long prepared = start;
+
+		PreparedStatement statement = null;
+		try {
+			statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			configureStreamingStatement(statement, fetchSize);
+			bindParameters(statement, params);
+			if (timed)
+				prepared = System.nanoTime();
+
+			ResultSet sqlresult = statement.executeQuery();
+			long executed = timed ? System.nanoTime() : 0;
+			try {
+				long preparedAt = prepared;
+				RowCursor<T> opened = new RowCursor<>(statement, sqlresult, readers.create(sqlresult), cursor -> {
+					streamingConnections.remove(connection);
+					try {
+						releaseConnection(connection);
+					} finally {
+						finishStatement();
+					}
+					if (timed)
+						fireQuery(sql, start, preparedAt, executed, executed + cursor.getFetchNanos(),
+								cursor.getRowCount(), cursor.getFailure());
+				}, timed);
+				if (isStreamingExclusive())
+					streamingConnections.add(connection);
+				return opened;
+			} catch (SQLException | RuntimeException e) {
+				sqlresult.close();
+				throw e;
+			}
+		} catch (SQLException | RuntimeException e) {
+			try {
+				if (statement != null)
+					statement.close();
+			} finally {
+				releaseConnection(connection);
+				if (timed) {
+					long end = System.nanoTime();
+					fireQuery(sql, start, prepared, prepared, end, 0, e);
+				}
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Create the {@link ColumnSchema} of a result, choosing the {@link ValueType}
+	 * of each column through {@link #getValueType(ResultSetMetaData, int)}
+	 * 
+	 * @param result The {@link ResultSet}
+	 * 
+	 * @return The {@link ColumnSchema} of {@code result}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	ColumnSchema createSchema(ResultSet result) throws SQLException {
+		ResultSetMetaData metadata = result.getMetaData();
+		String[] names = new String[metadata.getColumnCount()];
+		ValueType[] types = new ValueType[names.length];
+		for (int column = 0; column < names.length; column++) {
+			names[column] = metadata.getColumnName(column + 1);
+			types[column] = getValueType(metadata, column + 1);
+		}
+		return new ColumnSchema(names, types);
+	}
+
+	/**
+	 * Choose the Java type a column is read with. Drivers override this if their
+	 * JDBC types do not describe the stored values reliably.
+	 * 
+	 * @param metadata The {@link ResultSetMetaData} of the result
+	 * @param column   Index of the column, starting at {@code 1}
+	 * 
+	 * @return The {@link ValueType} to read the column with
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	protected ValueType getValueType(ResultSetMetaData metadata, int column) throws SQLException {
+		return ValueType.of(metadata, column);
+	}
+
+	/**
+	 * Configure a statement whose result is read through a {@link RowCursor}.
+	 * Drivers override this to enable their row streaming mode.
+	 * 
+	 * @param statement The statement
+	 * @param fetchSize The fetch size set through {@link #setFetchSize(int)};
+	 *                  {@code 0} to use the driver default
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	protected void configureStreamingStatement(PreparedStatement statement, int fetchSize) throws SQLException {
+		if (fetchSize > 0)
+			statement.setFetchSize(fetchSize);
+	}
+
+	/**
+	 * Whether a connection can not run other statements while a
+	 * {@link RowCursor} streams rows from it, as configured by
+	 * {@link #configureStreamingStatement(PreparedStatement, int)}. Statements
+	 * which would run on such a connection, e.g. on the single connection or in
+	 * the transaction of the cursor, fail early with an {@link SQLException}
+	 * then.
+	 * 
+	 * @return {@code true} if the connection is exclusive to the cursor
+	 * 
+	 */
+	protected boolean isStreamingExclusive() {
+		return false;
+	}
+
+	/**
+	 * Sets the number of rows fetched from the database at once when reading a
+	 * result through {@link #openCursor(String, Object...)},
+	 * {@link #forEachRow(String, RowConsumer, Object...)} or
+	 * {@link #stream(String, Object...)}
+	 * 
+	 * @param fetchSize Number of rows; {@code 0} to use the driver default
+	 * 
+	 */
+	public void setFetchSize(int fetchSize) {
+		if (fetchSize < 0)
+			throw new IllegalArgumentException("Fetch size must not be negative");
+		this.fetchSize = fetchSize;
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets the number of bytes the rows of a {@link SpillingResultTable} may use
+	 * on the heap before further rows are written to a temporary file. The size
+	 * of a row is estimated from its values.
+	 * 
+	 * @param spillThreshold Number of bytes; {@code 0} to write all rows to the
+	 *                       file
+	 * 
+	 * @see #getSpillingResultTable(String, Object...)
+	 * 
+	 */
+	public void setSpillThreshold(long spillThreshold) {
+		if (spillThreshold < 0)
+			throw new IllegalArgumentException("Spill threshold must not be negative");
+		this.spillThreshold = spillThreshold;
+	}
+
+	public long getSpillThreshold() {
+		return spillThreshold;
+	}
+
+	/**
+	 * Sets the directory the temporary files of {@link SpillingResultTable
+	 * SpillingResultTables} are created in
+	 * 
+	 * @param spillDirectory The directory; {@code null} for the default temporary
+	 *                       directory
+	 * 
+	 */
+	public void setSpillDirectory(Path spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	public Path getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	public boolean autoReconnectActive() {
+		return autoReconnect;
+	}
+
+	public void setAutoReconnect(boolean autoReconnect) {
+		this.autoReconnect = autoReconnect;
+	}
+
+	/**
+	 * Sets after which time an idle single connection is validated with
+	 * {@link Connection#isValid(int)} in the background. If it is dead and auto
+	 * reconnect is active, it is replaced before a request runs into it. Pooled
+	 * connections are validated as configured in
+	 * {@link PoolSettings#setKeepaliveInterval(long)} instead.<br>
+	 * Disabled by default. Takes effect on the next {@link #open()}.
+	 * 
+	 * @param keepaliveInterval Time in milliseconds; {@code 0} disables the
+	 *                          background validation
+	 * 
+	 */
+	public void setKeepaliveInterval(long keepaliveInterval) {
+		this.keepaliveInterval = keepaliveInterval;
+	}
+
+	public long getKeepaliveInterval() {
+		return keepaliveInterval;
+	}
+
+	/**
+	 * Sets the delays between reconnect attempts. After each failed attempt, the
+	 * delay doubles up to {@code maxDelay}, and a random part of up to half of
+	 * it is subtracted, so many clients do not reconnect at the same time.
+	 * Requests in the meantime fail with a {@link NotConnectedException} right
+	 * away.
+	 * 
+	 * @param initialDelay Delay after the first failed attempt in milliseconds
+	 * @param maxDelay     Upper bound of the delay in milliseconds
+	 * 
+	 */
+	public void setReconnectBackoff(long initialDelay, long maxDelay) {
+		if (initialDelay < 0 || maxDelay < initialDelay)
+			throw new IllegalArgumentException("Invalid reconnect delays " + initialDelay + "ms and " + maxDelay + "ms");
+		this.reconnectInitialDelay = initialDelay;
+		this.reconnectMaxDelay = maxDelay;
+	}
+
+	public long getReconnectInitialDelay() {
+		return reconnectInitialDelay;
+	}
+
+	public long getReconnectMaxDelay() {
+		return reconnectMaxDelay;
+	}
+
+	/**
+	 * Gets the number of reconnect attempts which failed since the connection was
+	 * last opened successfully
+	 * 
+	 * @return The number of consecutive failed reconnects
+	 * 
+	 */
+	public int getFailedReconnects() {
+		return failedReconnects.get();
+	}
+
+	/**
+	 * Sets how long a statement waits for the single connection while another
+	 * thread uses it, and how long {@link #open()}, {@link #close()} and
+	 * {@link #reconnect()} wait for running statements, open cursors and
+	 * transactions to finish. Statements still running after that fail once the
+	 * connection is closed.
+	 * 
+	 * @param lockTimeout Time in milliseconds
+	 * 
+	 */
+	public void setLockTimeout(long lockTimeout) {
+		if (lockTimeout < 0)
+			throw new IllegalArgumentException("Lock timeout must not be negative");
+		this.lockTimeout = lockTimeout;
+	}
+
+	public long getLockTimeout() {
+		return lockTimeout;
+	}
+
+	/**
+	 * Gets the single connection to the database. Statements run on it directly
+	 * are not coordinated with statements of other threads.
+	 * 
+	 * @return The {@link Connection}, or {@code null} if not connected or if
+	 *         pooling is enabled
+	 * 
+	 */
+	public Connection getConnection() {
+		return con;
+	}
+
+	/**
+	 * Enables/disables pooling. If enabled, {@link #open()} creates a
+	 * {@link ConnectionPool} and every query borrows its own connection from it,
+	 * so one {@link DatabaseConnection} can be used by multiple threads at
+	 * once.<br>
+	 * Session state like {@code USE database} only affects the connection it was
+	 * executed on.<br>
+	 * Takes effect on the next {@link #open()} or {@link #reconnect()}.
+	 * 
+	 * @param poolSettings Settings of the pool; {@code null} to use a single
+	 *                     connection
+	 * 
+	 */
+	public void setPoolSettings(PoolSettings poolSettings) {
+		this.poolSettings = poolSettings == null ? null : new PoolSettings(poolSettings);
+	}
+
+	/**
+	 * Gets the settings used to create the pool
+	 * 
+	 * @return A copy of the {@link PoolSettings}, or {@code null} if pooling is
+	 *         disabled
+	 * 
+	 */
+	public PoolSettings getPoolSettings() {
+		return poolSettings == null ? null : new PoolSettings(poolSettings);
+	}
+
+	/**
+	 * Gets the current connection pool, e.g. to monitor its usage
+	 * 
+	 * @return The {@link ConnectionPool}, or {@code null} if not connected or if
+	 *         pooling is disabled
+	 * 
+	 */
+	public ConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the maximum number of prepared statements cached per physical
+	 * connection. Statements are cached by their SQL text, so repeated queries
+	 * skip parsing and planning.<br>
+	 * Takes effect for connections opened afterwards; {@code 0} disables caching.
+	 * 
+	 * @param statementCacheSize Maximum number of cached statements per connection
+	 * 
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * Gets the hit, miss and eviction counters of the statement caches of all
+	 * connections
+	 * 
+	 * @return The {@link CacheStatistics} of the statement caches
+	 * 
+	 */
+	public CacheStatistics getStatementCacheStatistics() {
+		return statementCacheStatistics;
+	}
+
+	/**
+	 * Sets the cache used by {@link #getTableCached(long, String, Object...)} and
+	 * {@link #getFirstRowCached(long, String, Object...)}. Data modifying
+	 * statements run through this connection invalidate the affected entries;
+	 * changes made by other clients are only picked up once entries expire.
+	 * 
+	 * @param queryCache The {@link QueryCache}; {@code null} to disable caching
+	 * 
+	 */
+	public void setQueryCache(QueryCache queryCache) {
+		this.queryCache = queryCache;
+	}
+
+	public QueryCache getQueryCache() {
+		return queryCache;
+	}
+
+	/**
+	 * Start a transaction on the current thread. All statements the current
+	 * thread runs through this {@link DatabaseConnection} are part of the
+	 * transaction until it is ended through {@link #commit()} or
+	 * {@link #rollback()}; other threads are not affected if pooling is
+	 * enabled.<br>
+	 * While a transaction is active, the connection is never reopened
+	 * automatically, as the changes of the transaction would silently be lost.
+	 * 
+	 * @throws TransactionStateException If the current thread already has an
+	 *                                   active transaction
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see #inTransaction(TransactionCallback)
+	 * 
+	 */
+	public void begin() throws SQLException, NotConnectedException {
+		begin(KEEP_ISOLATION);
+	}
+
+	/**
+	 * Start a transaction on the current thread with a given isolation level, as
+	 * described in {@link #begin()}
+	 * 
+	 * @param isolationLevel One of the {@code TRANSACTION_*} isolation levels of
+	 *                       {@link Connection}; the connection is reset to its
+	 *                       previous level when the transaction ends
+	 * 
+	 * @throws TransactionStateException If the current thread already has an
+	 *                                   active transaction
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public void begin(int isolationLevel) throws SQLException, NotConnectedException {
+		if (transaction.get() != null)
+			throw new TransactionStateException("A transaction is already active on this thread");
+		// The transaction stays registered until it ends
+		enterStatement("BEGIN");
+		Connection connection;
+		try {
+			connection = borrowConnection(false);
+			if (streamingConnections.contains(connection)) {
+				giveBackConnection(connection);
+				throw streamingCursorOpen();
+			}
+		} catch (SQLException | RuntimeException e) {
+			exitStatement();
+			throw e;
+		}
+		try {
+			int previousIsolation = KEEP_ISOLATION;
+			if (isolationLevel != KEEP_ISOLATION) {
+				previousIsolation = connection.getTransactionIsolation();
+				connection.setTransactionIsolation(isolationLevel);
+			}
+			connection.setAutoCommit(false);
+			transaction.set(new Transaction(connection, previousIsolation));
+			activeTransactions.incrementAndGet();
+		} catch (SQLException | RuntimeException e) {
+			try {
+				releaseConnection(connection);
+			} finally {
+				exitStatement();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Commit the transaction of the current thread. The transaction ends even if
+	 * committing fails; it is rolled back in that case.
+	 * 
+	 * @throws TransactionStateException If the current thread has no active
+	 *                                   transaction
+	 * @throws SQLException
+	 * 
+	 */
+	public void commit() throws SQLException {
+		Transaction current = requireTransaction();
+		Exception failure = null;
+		try {
+			invalidateQueryCache(current);
+			current.connection.commit();
+			// Rows read by other threads before the commit may have been cached
+			// again in the meantime
+			invalidateQueryCache(current);
+		} catch (SQLException | RuntimeException e) {
+			failure = e;
+			try {
+				current.connection.rollback();
+			} catch (SQLException rollbackError) {
+				e.addSuppressed(rollbackError);
+			}
+			throw e;
+		} finally {
+			endTransaction(current, failure);
+		}
+	}
+
+	/**
+	 * Roll back the transaction of the current thread. The {@link QueryCache} is
+	 * left untouched, as the rolled back statements did not change anything.
+	 * 
+	 * @throws TransactionStateException If the current thread has no active
+	 *                                   transaction
+	 * @throws SQLException
+	 * 
+	 */
+	public void rollback() throws SQLException {
+		Transaction current = requireTransaction();
+		Exception failure = null;
+		try {
+			current.connection.rollback();
+		} catch (SQLException | RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			endTransaction(current, failure);
+		}
+	}
+
+	/**
+	 * Set an unnamed savepoint in the transaction of the current thread
+	 * 
+	 * @return The {@link Savepoint}
+	 * 
+	 * @throws TransactionStateException If the current thread has no active
+	 *                                   transaction
+	 * @throws SQLException
+	 * 
+	 */
+	public Savepoint setSavepoint() throws SQLException {
+		return requireTransaction().connection.setSavepoint();
+	}
+
+	/**
+	 * Set a named savepoint in the transaction of the current thread
+	 * 
+	 * @param name Name of the savepoint
+	 * 
+	 * @return The {@link Savepoint}
+	 * 
+	 * @throws TransactionStateException If the current thread has no active
+	 *                                   transaction
+	 * @throws SQLException
+	 * 
+	 */
+	public Savepoint setSavepoint(String name) throws SQLException {
+		return requireTransaction().connection.setSavepoint(name);
+	}
+
+	/**
+	 * Undo all changes of the transaction of the current thread made after a
+	 * savepoint was set. The transaction stays active.
+	 * 
+	 * @param savepoint The {@link Savepoint}
+	 * 
+	 * @throws TransactionStateException If the current thread has no active
+	 *                                   transaction
+	 * @throws SQLException
+	 * 
+	 */
+	public void rollback(Savepoint savepoint) throws SQLException {
+		requireTransaction().connection.rollback(savepoint);
+	}
+
+	/**
+	 * Remove a savepoint from the transaction of the current thread
+	 * 
+	 * @param savepoint The {@link Savepoint}
+	 * 
+	 * @throws TransactionStateException If the current thread has no active
+	 *                                   transaction
+	 * @throws SQLException
+	 * 
+	 */
+	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+		requireTransaction().connection.releaseSavepoint(savepoint);
+	}
+
+	/**
+	 * Run work inside a transaction, which is committed if the work completes and
+	 * rolled back if it throws. If the current thread already has an active
+	 * transaction, the work runs inside it and only its own changes are rolled
+	 * back through a savepoint.<br>
+	 * The work must not end the transaction itself.
+	 * 
+	 * @param <T>      Type of the result
+	 * @param callback The work to run
+	 * 
+	 * @return The result of {@code callback}
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public <T> T inTransaction(TransactionCallback<T> callback) throws SQLException, NotConnectedException {
+		return inTransaction(KEEP_ISOLATION, callback);
+	}
+
+	/**
+	 * Run work inside a transaction with a given isolation level, as described
+	 * in {@link #inTransaction(TransactionCallback)}. The isolation level is
+	 * ignored if the current thread already has an active transaction.
+	 * 
+	 * @param <T>            Type of the result
+	 * @param isolationLevel One of the {@code TRANSACTION_*} isolation levels of
+	 *                       {@link Connection}
+	 * @param callback       The work to run
+	 * 
+	 * @return The result of {@code callback}
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public <T> T inTransaction(int isolationLevel, TransactionCallback<T> callback)
+			throws SQLException, NotConnectedException {
+		Transaction current = transaction.get();
+		if (current != null) {
+			Savepoint savepoint = current.connection.setSavepoint();
+			T result;
+			try {
+				result = callback.run();
+			} catch (SQLException | NotConnectedException | RuntimeException | Error e) {
+				try {
+					current.connection.rollback(savepoint);
+				} catch (SQLException rollbackError) {
+					e.addSuppressed(rollbackError);
+				}
+				throw e;
+			}
+			current.connection.releaseSavepoint(savepoint);
+			return result;
+		}
+
+		begin(isolationLevel);
+		T result;
+		try {
+			result = callback.run();
+		} catch (SQLException | NotConnectedException | RuntimeException | Error e) {
+			try {
+				rollback();
+			} catch (SQLException rollbackError) {
+				e.addSuppressed(rollbackError);
+			}
+			throw e;
+		}
+		commit();
+		return result;
+	}
+
+	/**
+	 * Tests whether the current thread has an active transaction
+	 * 
+	 * @return {@code true} if a transaction is active on the current thread
+	 * 
+	 */
+	public boolean isInTransaction() {
+		return transaction.get() != null;
+	}
+
+	private Transaction requireTransaction() throws TransactionStateException {
+		Transaction current = transaction.get();
+		if (current == null)
+			throw new TransactionStateException("No transaction is active on this thread");
+		return current;
+	}
+
+	/**
+	 * Unpin the connection of a transaction, reset it to auto commit and give it
+	 * back. If resetting fails, the connection is closed, as later statements
+	 * would otherwise silently run in a transaction which is never committed.
+	 * The single connection is reopened in the background if auto reconnect is
+	 * active.
+	 * 
+	 * @param current The ended transaction
+	 * @param failure The error committing or rolling back the transaction, or
+	 *                {@code null}
+	 * 
+	 * @throws SQLException If resetting the connection failed and there was no
+	 *                      {@code failure}; added to {@code failure} otherwise
+	 * 
+	 */
+	private void endTransaction(Transaction current, Exception failure) throws SQLException {
+		transaction.remove();
+		activeTransactions.decrementAndGet();
+
+		Connection connection = current.connection;
+		SQLException resetError = null;
+		try {
+			connection.setAutoCommit(true);
+			if (current.previousIsolation != KEEP_ISOLATION)
+				connection.setTransactionIsolation(current.previousIsolation);
+		} catch (SQLException e) {
+			resetError = e;
+			try {
+				destroyConnection(connection);
+			} catch (SQLException closeError) {
+				e.addSuppressed(closeError);
+			}
+			if (autoReconnect && connection == con)
+				scheduleReconnect();
+		}
+		try {
+			releaseConnection(connection);
+		} finally {
+			exitStatement();
+		}
+
+		if (resetError == null)
+			return;
+		if (failure == null)
+			throw resetError;
+		failure.addSuppressed(resetError);
+	}
+
+	/**
+	 * Gets the registry of {@link ParameterConverter ParameterConverters} applied
+	 * to parameters of application types before they are bound
+	 * 
+	 * @return The {@link ParameterConverters} of this connection
+	 * 
+	 * @see #bindParameter(PreparedStatement, int, Object)
+	 * 
+	 */
+	public ParameterConverters getParameterConverters() {
+		return parameterConverters;
+	}
+
+	/**
+	 * Registers a {@link QueryListener} notified about every statement run
+	 * through this connection and about reconnects. Timings are only measured
+	 * while at least one listener is registered.
+	 * 
+	 * @param listener The {@link QueryListener}, e.g. a
+	 *                 {@link de.pentagonlp.database.metrics.QueryMetricsRegistry
+	 *                 QueryMetricsRegistry}
+	 * 
+	 */
+	public void addQueryListener(QueryListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("Listener must not be null");
+		queryListeners.addIfAbsent(listener);
+	}
+
+	/**
+	 * Unregisters a {@link QueryListener}
+	 * 
+	 * @param listener The {@link QueryListener} to remove
+	 * 
+	 * @return {@code true} if the listener was registered
+	 * 
+	 */
+	public boolean removeQueryListener(QueryListener listener) {
+		return queryListeners.remove(listener);
+	}
+
+	/**
+	 * An active transaction of a thread
+	 * 
+	 */
+	private static final class Transaction {
+
+		private final Connection connection;
+		/**
+		 * Isolation level to reset the connection to, or {@link #KEEP_ISOLATION}
+		 * 
+		 */
+		private final int previousIsolation;
+		/**
+		 * Normalized names of the tables written by the transaction, to invalidate
+		 * in the {@link QueryCache} once it commits
+		 * 
+		 */
+		private final HashSet<String> writtenTables = new HashSet<>();
+		/**
+		 * Whether the transaction ran a statement writing to a table which could
+		 * not be determined
+		 * 
+		 */
+		private boolean writesUnknownTable = false;
+
+		private Transaction(Connection connection, int previousIsolation) {
+			this.connection = connection;
+			this.previousIsolation = previousIsolation;
+		}
+
+		/**
+		 * Record the table written by a statement of the transaction
+		 * 
+		 * @param sql The data modifying statement
+		 * 
+		 */
+		private void recordWrite(String sql) {
+			if (writesUnknownTable)
+				return;
+			String table = SqlTables.writtenTable(sql);
+			if (table == null)
+				writesUnknownTable = true;
+			else
+				writtenTables.add(table);
+		}
+
 	}
 
 }
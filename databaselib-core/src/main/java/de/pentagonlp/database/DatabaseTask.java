@@ -0,0 +1,25 @@
+package de.pentagonlp.database;
+
+/**
+ * Work against the database to be run later, e.g. through
+ * {@link DatabaseConnection#runAsync(DatabaseTask)}
+ * 
+ * @author PentagonLP
+ * 
+ * @param <T> Type of the result
+ * 
+ */
+@FunctionalInterface
+public interface DatabaseTask<T> {
+
+	/**
+	 * Runs the task
+	 * 
+	 * @return The result of the task
+	 * 
+	 * @throws Exception
+	 * 
+	 */
+	T run() throws Exception;
+
+}
@@ -0,0 +1,161 @@
+package de.pentagonlp.database;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Settings of an export through
+ * {@link DatabaseConnection#exportTo(java.io.OutputStream, ExportSettings, String, Object...)}.<br>
+ * Setters return the {@link ExportSettings} object itself so calls can be
+ * chained.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class ExportSettings {
+
+	/**
+	 * Default size of the buffer the output is written through, in bytes
+	 * 
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final FileFormat format;
+	private boolean header = true;
+	private char delimiter = ',';
+	private Charset charset = StandardCharsets.UTF_8;
+	private boolean gzip = false;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private int fetchSize = 0;
+
+	/**
+	 * Creates {@link ExportSettings} with default values
+	 * 
+	 * @param format The format of the output
+	 * 
+	 */
+	public ExportSettings(FileFormat format) {
+		if (format == null)
+			throw new IllegalArgumentException("Format must not be null");
+		this.format = format;
+	}
+
+	public FileFormat getFormat() {
+		return format;
+	}
+
+	public boolean hasHeader() {
+		return header;
+	}
+
+	/**
+	 * Sets whether a {@link FileFormat#CSV} output starts with a line containing
+	 * the column names
+	 * 
+	 * @param header {@code true} to write a header line
+	 * 
+	 * @return This {@link ExportSettings} object
+	 * 
+	 */
+	public ExportSettings setHeader(boolean header) {
+		this.header = header;
+		return this;
+	}
+
+	public char getDelimiter() {
+		return delimiter;
+	}
+
+	/**
+	 * Sets the character separating the fields of a CSV file
+	 * 
+	 * @param delimiter The delimiter, e.g. {@code ';'} or {@code '\t'}
+	 * 
+	 * @return This {@link ExportSettings} object
+	 * 
+	 */
+	public ExportSettings setDelimiter(char delimiter) {
+		if (delimiter == '"' || delimiter == '\r' || delimiter == '\n')
+			throw new IllegalArgumentException("Invalid delimiter '" + delimiter + "'");
+		this.delimiter = delimiter;
+		return this;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Sets the encoding of the output. Characters the encoding can not represent
+	 * are replaced.
+	 * 
+	 * @param charset The encoding; UTF-8 by default
+	 * 
+	 * @return This {@link ExportSettings} object
+	 * 
+	 */
+	public ExportSettings setCharset(Charset charset) {
+		if (charset == null)
+			throw new IllegalArgumentException("Charset must not be null");
+		this.charset = charset;
+		return this;
+	}
+
+	public boolean isGzip() {
+		return gzip;
+	}
+
+	/**
+	 * Sets whether the output is compressed with gzip
+	 * 
+	 * @param gzip {@code true} to write gzip compressed output
+	 * 
+	 * @return This {@link ExportSettings} object
+	 * 
+	 */
+	public ExportSettings setGzip(boolean gzip) {
+		this.gzip = gzip;
+		return this;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Sets the size of the buffer the output is written through. The buffer is
+	 * reused for all rows, so it does not have to hold the whole output.
+	 * 
+	 * @param bufferSize Size in bytes
+	 * 
+	 * @return This {@link ExportSettings} object
+	 * 
+	 */
+	public ExportSettings setBufferSize(int bufferSize) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be at least 1");
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * Sets the number of rows fetched from the database at once
+	 * 
+	 * @param fetchSize Number of rows; {@code 0} to use
+	 *                  {@link DatabaseConnection#getFetchSize()}
+	 * 
+	 * @return This {@link ExportSettings} object
+	 * 
+	 */
+	public ExportSettings setFetchSize(int fetchSize) {
+		if (fetchSize < 0)
+			throw new IllegalArgumentException("Fetch size must not be negative");
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+}
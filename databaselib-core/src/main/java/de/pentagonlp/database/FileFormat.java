@@ -0,0 +1,26 @@
+package de.pentagonlp.database;
+
+/**
+ * Text formats rows can be imported from and exported to
+ * 
+ * @author PentagonLP
+ * 
+ */
+public enum FileFormat {
+
+	/**
+	 * Comma separated values as described in RFC 4180, optionally starting with
+	 * a line of column names. Fields containing the delimiter, quotes or line
+	 * breaks are enclosed in double quotes; an empty field without quotes is
+	 * {@code NULL}.
+	 * 
+	 */
+	CSV,
+	/**
+	 * Newline delimited JSON: One JSON object per line, mapping column names to
+	 * values
+	 * 
+	 */
+	NDJSON
+
+}
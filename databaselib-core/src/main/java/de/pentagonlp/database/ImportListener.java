@@ -0,0 +1,21 @@
+package de.pentagonlp.database;
+
+/**
+ * Receives the progress of an import, e.g. through
+ * {@link DatabaseConnection#importFile(java.nio.file.Path, String, ImportSettings)}
+ * 
+ * @author PentagonLP
+ * 
+ */
+@FunctionalInterface
+public interface ImportListener {
+
+	/**
+	 * Called on the importing thread after each batch of rows has been written
+	 * 
+	 * @param progress The progress of the import so far
+	 * 
+	 */
+	void onProgress(ImportProgress progress);
+
+}
@@ -0,0 +1,100 @@
+package de.pentagonlp.database;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the progress of an import
+ * 
+ * @author PentagonLP
+ * 
+ * @see ImportListener
+ * 
+ */
+public class ImportProgress {
+
+	private final long rows;
+	private final long bytes;
+	private final long totalBytes;
+	private final long elapsedNanos;
+
+	/**
+	 * Creates an {@link ImportProgress}
+	 * 
+	 * @param rows         Number of rows written so far
+	 * @param bytes        Number of bytes read so far
+	 * @param totalBytes   Size of the input in bytes, or {@code -1} if unknown
+	 * @param elapsedNanos Time since the import started in nanoseconds
+	 * 
+	 */
+	ImportProgress(long rows, long bytes, long totalBytes, long elapsedNanos) {
+		this.rows = rows;
+		this.bytes = bytes;
+		this.totalBytes = totalBytes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * Gets the number of bytes read so far. Input is read ahead in blocks, so
+	 * this may be slightly ahead of the rows written.
+	 * 
+	 * @return The number of bytes read
+	 * 
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Gets the size of the input
+	 * 
+	 * @return The size in bytes, or {@code -1} if unknown
+	 * 
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Gets the share of the input read so far
+	 * 
+	 * @return A value between {@code 0} and {@code 1}, or {@code -1} if the size
+	 *         of the input is unknown
+	 * 
+	 */
+	public double getFraction() {
+		if (totalBytes < 0)
+			return -1;
+		if (totalBytes == 0)
+			return 1;
+		return Math.min((double) bytes / totalBytes, 1);
+	}
+
+	/**
+	 * Gets the average number of rows written per second since the import
+	 * started
+	 * 
+	 * @return Rows per second
+	 * 
+	 */
+	public double getRowsPerSecond() {
+		if (elapsedNanos <= 0)
+			return 0;
+		return rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		String read = totalBytes < 0 ? bytes + " bytes" : String.format("%.1f%%", getFraction() * 100);
+		return String.format("%d rows (%s) in %.1fs, %.0f rows/s", rows, read,
+				elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1), getRowsPerSecond());
+	}
+
+}
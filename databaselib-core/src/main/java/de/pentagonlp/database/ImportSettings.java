@@ -0,0 +1,212 @@
+package de.pentagonlp.database;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Settings of an import through
+ * {@link DatabaseConnection#importFile(java.nio.file.Path, String, ImportSettings)}.<br>
+ * Setters return the {@link ImportSettings} object itself so calls can be
+ * chained.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class ImportSettings {
+
+	/**
+	 * Default number of rows committed at once
+	 * 
+	 */
+	public static final int DEFAULT_TRANSACTION_SIZE = 50_000;
+	/**
+	 * Default size of the buffer the input is read through, in bytes
+	 * 
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final FileFormat format;
+	private String[] columns;
+	private boolean header = true;
+	private char delimiter = ',';
+	private Charset charset = StandardCharsets.UTF_8;
+	private int batchSize = 0;
+	private int transactionSize = DEFAULT_TRANSACTION_SIZE;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+	private ImportListener listener;
+
+	/**
+	 * Creates {@link ImportSettings} with default values
+	 * 
+	 * @param format The format of the input
+	 * 
+	 */
+	public ImportSettings(FileFormat format) {
+		if (format == null)
+			throw new IllegalArgumentException("Format must not be null");
+		this.format = format;
+	}
+
+	public FileFormat getFormat() {
+		return format;
+	}
+
+	public String[] getColumns() {
+		return columns == null ? null : columns.clone();
+	}
+
+	/**
+	 * Sets the columns the values are written to. For {@link FileFormat#CSV},
+	 * the fields of each line are written to these columns in order; for
+	 * {@link FileFormat#NDJSON}, the values of these keys are written and all
+	 * other keys are ignored.
+	 * 
+	 * @param columns Names of the columns; {@code null} to take them from the
+	 *                header line of a CSV file, or from the keys of the first
+	 *                object of a NDJSON file
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setColumns(String... columns) {
+		this.columns = columns == null ? null : columns.clone();
+		return this;
+	}
+
+	public boolean hasHeader() {
+		return header;
+	}
+
+	/**
+	 * Sets whether the first line of a CSV file contains the column names. If
+	 * columns are set through {@link #setColumns(String...)}, the header line is
+	 * skipped.
+	 * 
+	 * @param header {@code true} if there is a header line
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setHeader(boolean header) {
+		this.header = header;
+		return this;
+	}
+
+	public char getDelimiter() {
+		return delimiter;
+	}
+
+	/**
+	 * Sets the character separating the fields of a CSV file
+	 * 
+	 * @param delimiter The delimiter, e.g. {@code ';'} or {@code '\t'}
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setDelimiter(char delimiter) {
+		if (delimiter == '"' || delimiter == '\r' || delimiter == '\n')
+			throw new IllegalArgumentException("Invalid delimiter '" + delimiter + "'");
+		this.delimiter = delimiter;
+		return this;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Sets the encoding of the input
+	 * 
+	 * @param charset The encoding; UTF-8 by default
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setCharset(Charset charset) {
+		if (charset == null)
+			throw new IllegalArgumentException("Charset must not be null");
+		this.charset = charset;
+		return this;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the number of rows sent to the database at once
+	 * 
+	 * @param batchSize Number of rows; {@code 0} to use
+	 *                  {@link DatabaseConnection#getBatchSize()}
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setBatchSize(int batchSize) {
+		if (batchSize < 0)
+			throw new IllegalArgumentException("Batch size must not be negative");
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	public int getTransactionSize() {
+		return transactionSize;
+	}
+
+	/**
+	 * Sets the number of rows committed at once. Larger transactions need fewer
+	 * synchronizations with the disk, but hold locks longer and lose more work
+	 * if the import fails.<br>
+	 * Ignored if the importing thread already has an active transaction; the
+	 * rows are then written as part of it.
+	 * 
+	 * @param transactionSize Number of rows, rounded up to whole batches
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setTransactionSize(int transactionSize) {
+		if (transactionSize < 1)
+			throw new IllegalArgumentException("Transaction size must be at least 1");
+		this.transactionSize = transactionSize;
+		return this;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Sets the size of the buffer the input is read through
+	 * 
+	 * @param bufferSize Size in bytes
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setBufferSize(int bufferSize) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be at least 1");
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	public ImportListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * Sets the listener receiving the progress of the import
+	 * 
+	 * @param listener The {@link ImportListener}; {@code null} for none
+	 * 
+	 * @return This {@link ImportSettings} object
+	 * 
+	 */
+	public ImportSettings setListener(ImportListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+}
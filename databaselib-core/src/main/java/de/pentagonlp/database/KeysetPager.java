@@ -0,0 +1,247 @@
+package de.pentagonlp.database;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import de.pentagonlp.database.exceptions.NotConnectedException;
+
+/**
+ * Walks through the result of a query page by page using keyset pagination:
+ * Each page continues after the key of the last row of the previous page
+ * ({@code WHERE key > ?}) instead of skipping rows through {@code OFFSET}, so
+ * every page costs the same no matter how far into the result it is.<br>
+ * <br>
+ * Pages are read in ascending order of the key columns. The pager is not
+ * thread-safe; it should be closed if it is abandoned before the last page, so
+ * a prefetched page is not fetched in vain.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#paginate(PagingSettings, String, Object...)
+ * 
+ */
+public class KeysetPager implements AutoCloseable {
+
+	private final DatabaseConnection connection;
+	private final String[] keyColumns;
+	private final int pageSize;
+	private final boolean prefetch;
+	private final Object[] params;
+	private final String firstStatement;
+	private final String nextStatement;
+
+	/**
+	 * Index of each key column in the result; {@code null} until the first page
+	 * was read
+	 * 
+	 */
+	private int[] keyIndices;
+	/**
+	 * Key values of the last row read, or {@code null} before the first page
+	 * 
+	 */
+	private Object[] lastKey;
+	private CompletableFuture<ResultTable> pending;
+	private boolean finished = false;
+
+	/**
+	 * Creates a {@link KeysetPager}
+	 * 
+	 * @param connection The connection to read the pages through
+	 * @param settings   Key columns and settings of the pagination
+	 * @param sql        The query to page through, without {@code ORDER BY} and
+	 *                   {@code LIMIT}
+	 * @param params     Parameters in Order to replace the {@code ?} symbols in
+	 *                   {@code sql}
+	 * 
+	 */
+	KeysetPager(DatabaseConnection connection, PagingSettings settings, String sql, Object[] params) {
+		this.connection = connection;
+		this.keyColumns = settings.getKeyColumns();
+		this.pageSize = settings.getPageSize();
+		this.prefetch = settings.isPrefetch();
+		this.params = params.clone();
+		String[] keys = new String[keyColumns.length];
+		for (int i = 0; i < keys.length; i++)
+			keys[i] = connection.quoteIdentifier(keyColumns[i]);
+		this.firstStatement = statement(sql, keys, true);
+		this.nextStatement = statement(sql, keys, false);
+	}
+
+	/**
+	 * Read the next page
+	 * 
+	 * @return The rows of the page in key order, or {@code null} if there are no
+	 *         more rows
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * @throws IllegalArgumentException If a key column is not part of the result,
+	 *                                  or is {@code NULL} in the last row of the
+	 *                                  page, which would end the pagination
+	 *                                  early
+	 * 
+	 */
+	public ResultTable nextPage() throws SQLException, NotConnectedException {
+		if (finished)
+			return null;
+		ResultTable page;
+		if (pending != null) {
+			CompletableFuture<ResultTable> future = pending;
+			pending = null;
+			page = await(future);
+		} else
+			page = fetch();
+
+		// A page which is not full is the last one
+		if (page.size() < pageSize)
+			finished = true;
+		if (page.isEmpty())
+			return null;
+
+		if (keyIndices == null)
+			keyIndices = findKeys(page.getSchema());
+		Row last = page.get(page.size() - 1);
+		Object[] key = new Object[keyIndices.length];
+		for (int i = 0; i < keyIndices.length; i++) {
+			key[i] = last.getValue(keyIndices[i]);
+			// No row is greater than NULL, so the next page would be empty
+			if (key[i] == null) {
+				close();
+				throw new IllegalArgumentException(
+						"Key column " + keyColumns[i] + " is NULL; key columns must be NOT NULL");
+			}
+		}
+		lastKey = key;
+
+		if (!finished && prefetch && !connection.isInTransaction())
+			pending = connection.runAsync(this::fetch);
+		return page;
+	}
+
+	/**
+	 * Stops prefetching. Does nothing if no page is being prefetched.
+	 * 
+	 */
+	@Override
+	public void close() {
+		finished = true;
+		if (pending != null) {
+			pending.cancel(false);
+			pending = null;
+		}
+	}
+
+	/**
+	 * Run the query for the page after {@link #lastKey}
+	 * 
+	 */
+	private ResultTable fetch() throws SQLException, NotConnectedException {
+		if (lastKey == null) {
+			Object[] first = new Object[params.length + 1];
+			System.arraycopy(params, 0, first, 0, params.length);
+			first[params.length] = pageSize;
+			return connection.getResultTable(firstStatement, first);
+		}
+		return connection.getResultTable(nextStatement, keysetParameters(params, lastKey, pageSize));
+	}
+
+	/**
+	 * Build the statement fetching a page. The parameters of the query are
+	 * followed by the key of the last row of the previous page, and the page
+	 * size.<br>
+	 * For keys of several columns, the condition continuing after the previous
+	 * page is expanded, e.g.
+	 * {@code a >= ? AND (a > ? OR a = ? AND b > ?)} for the key {@code (a, b)},
+	 * as not every database can use an index for row value comparisons.
+	 * 
+	 * @param sql   The query to page through
+	 * @param keys  Names of the key columns, quoted through
+	 *              {@link DatabaseConnection#quoteIdentifier(String)}
+	 * @param first {@code true} for the first page, which has no condition
+	 * 
+	 * @return The SQL text of the statement
+	 * 
+	 */
+	private static String statement(String sql, String[] keys, boolean first) {
+		StringBuilder statement = new StringBuilder("SELECT * FROM (").append(sql).append(") AS keyset_page");
+		if (!first) {
+			statement.append(" WHERE ");
+			if (keys.length > 1)
+				statement.append(keys[0]).append(" >= ? AND (");
+			for (int i = 0; i < keys.length; i++) {
+				if (i > 0)
+					statement.append(" OR ");
+				for (int j = 0; j < i; j++)
+					statement.append(keys[j]).append(" = ? AND ");
+				statement.append(keys[i]).append(" > ?");
+			}
+			if (keys.length > 1)
+				statement.append(')');
+		}
+		statement.append(" ORDER BY ");
+		for (int i = 0; i < keys.length; i++)
+			statement.append(i == 0 ? "" : ", ").append(keys[i]);
+		return statement.append(" LIMIT ?").toString();
+	}
+
+	/**
+	 * Build the parameters of a statement created by
+	 * {@link #statement(String, String[], boolean)}
+	 * 
+	 * @param params   Parameters of the query
+	 * @param key      Key values of the last row of the previous page
+	 * @param pageSize Number of rows per page
+	 * 
+	 * @return The parameters in order
+	 * 
+	 */
+	private static Object[] keysetParameters(Object[] params, Object[] key, int pageSize) {
+		// key[0] once for the range, then key[0..i] for each condition
+		int count = params.length + (key.length > 1 ? 1 : 0) + key.length * (key.length + 1) / 2 + 1;
+		Object[] result = new Object[count];
+		System.arraycopy(params, 0, result, 0, params.length);
+		int index = params.length;
+		if (key.length > 1)
+			result[index++] = key[0];
+		for (int i = 0; i < key.length; i++)
+			for (int j = 0; j <= i; j++)
+				result[index++] = key[j];
+		result[index] = pageSize;
+		return result;
+	}
+
+	private int[] findKeys(ColumnSchema schema) {
+		int[] indices = new int[keyColumns.length];
+		for (int i = 0; i < keyColumns.length; i++) {
+			indices[i] = schema.indexOf(keyColumns[i]);
+			if (indices[i] < 0)
+				throw new IllegalArgumentException("Key column " + keyColumns[i] + " is not part of the result");
+		}
+		return indices;
+	}
+
+	private static ResultTable await(CompletableFuture<ResultTable> future)
+			throws SQLException, NotConnectedException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for the next page", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException)
+				throw (SQLException) cause;
+			if (cause instanceof NotConnectedException)
+				throw (NotConnectedException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new SQLException("Prefetching the next page failed", cause);
+		}
+	}
+
+}
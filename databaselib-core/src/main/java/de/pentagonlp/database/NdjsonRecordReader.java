@@ -0,0 +1,218 @@
+package de.pentagonlp.database;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+
+/**
+ * Parses {@link FileFormat#NDJSON} records. Strings, numbers, booleans and
+ * {@code null} are read as {@link String}, {@link Long} or {@link BigDecimal},
+ * {@link Boolean} and {@code null}; nested objects and arrays are kept as JSON
+ * text.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class NdjsonRecordReader extends TextRecordReader {
+
+	private final StringBuilder text = new StringBuilder();
+
+	/**
+	 * Creates a {@link NdjsonRecordReader}
+	 * 
+	 * @param reader     The input
+	 * @param bufferSize Size of the buffer in characters
+	 * 
+	 */
+	NdjsonRecordReader(Reader reader, int bufferSize) {
+		super(reader, bufferSize);
+	}
+
+	/**
+	 * Read the next record. Empty lines are skipped.
+	 * 
+	 * @return The members of the object in order, or {@code null} at the end of
+	 *         the input
+	 * 
+	 * @throws IOException
+	 * 
+	 */
+	LinkedHashMap<String, Object> next() throws IOException {
+		skipWhitespace(true);
+		int c = read();
+		if (c < 0)
+			return null;
+		if (c != '{')
+			throw error("Expected a JSON object");
+
+		LinkedHashMap<String, Object> record = new LinkedHashMap<>();
+		skipWhitespace(false);
+		if (peek() == '}')
+			read();
+		else
+			while (true) {
+				skipWhitespace(false);
+				if (read() != '"')
+					throw error("Expected a key");
+				String key = readString();
+				skipWhitespace(false);
+				if (read() != ':')
+					throw error("Expected ':' after key \"" + key + "\"");
+				skipWhitespace(false);
+				record.put(key, readValue());
+				skipWhitespace(false);
+				c = read();
+				if (c == '}')
+					break;
+				if (c != ',')
+					throw error("Expected ',' or '}'");
+			}
+
+		// Nothing but whitespace may follow the object on its line
+		skipWhitespace(false);
+		c = read();
+		if (c >= 0 && c != '\n')
+			throw error("Expected a line break after the object");
+		return record;
+	}
+
+	private void skipWhitespace(boolean lineBreaks) throws IOException {
+		int c;
+		while ((c = peek()) == ' ' || c == '\t' || c == '\r' || lineBreaks && c == '\n')
+			read();
+	}
+
+	private Object readValue() throws IOException {
+		int c = peek();
+		switch (c) {
+		case '"':
+			read();
+			return readString();
+		case '{':
+		case '[':
+			text.setLength(0);
+			copyNested();
+			return text.toString();
+		case 't':
+			expectWord("true");
+			return Boolean.TRUE;
+		case 'f':
+			expectWord("false");
+			return Boolean.FALSE;
+		case 'n':
+			expectWord("null");
+			return null;
+		default:
+			if (c == '-' || c >= '0' && c <= '9')
+				return readNumber();
+			throw error("Unexpected value");
+		}
+	}
+
+	/**
+	 * Read a string after its opening quote
+	 * 
+	 */
+	private String readString() throws IOException {
+		text.setLength(0);
+		while (true) {
+			int c = read();
+			if (c < 0 || c == '\n')
+				throw error("Unterminated string");
+			if (c == '"')
+				return text.toString();
+			if (c != '\\') {
+				text.append((char) c);
+				continue;
+			}
+			c = read();
+			switch (c) {
+			case '"':
+			case '\\':
+			case '/':
+				text.append((char) c);
+				break;
+			case 'b':
+				text.append('\b');
+				break;
+			case 'f':
+				text.append('\f');
+				break;
+			case 'n':
+				text.append('\n');
+				break;
+			case 'r':
+				text.append('\r');
+				break;
+			case 't':
+				text.append('\t');
+				break;
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(read(), 16);
+					if (digit < 0)
+						throw error("Invalid unicode escape");
+					code = code * 16 + digit;
+				}
+				text.append((char) code);
+				break;
+			default:
+				throw error("Invalid escape sequence");
+			}
+		}
+	}
+
+	private Object readNumber() throws IOException {
+		text.setLength(0);
+		boolean integral = true;
+		int c;
+		while ((c = peek()) == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || c >= '0' && c <= '9') {
+			if (c == '.' || c == 'e' || c == 'E')
+				integral = false;
+			text.append((char) read());
+		}
+		try {
+			// Integers which do not fit into a long are kept exact as well
+			if (integral && text.length() < 19)
+				return Long.valueOf(text.toString());
+			return new BigDecimal(text.toString());
+		} catch (NumberFormatException e) {
+			throw error("Invalid number " + text);
+		}
+	}
+
+	/**
+	 * Copy a nested object or array into {@link #text} as it is
+	 * 
+	 */
+	private void copyNested() throws IOException {
+		int depth = 0;
+		boolean inString = false;
+		while (true) {
+			int c = read();
+			if (c < 0 || c == '\n')
+				throw error("Unterminated nested value");
+			text.append((char) c);
+			if (inString) {
+				if (c == '\\')
+					text.append((char) read());
+				else if (c == '"')
+					inString = false;
+			} else if (c == '"')
+				inString = true;
+			else if (c == '{' || c == '[')
+				depth++;
+			else if ((c == '}' || c == ']') && --depth == 0)
+				return;
+		}
+	}
+
+	private void expectWord(String word) throws IOException {
+		for (int i = 0; i < word.length(); i++)
+			if (read() != word.charAt(i))
+				throw error("Unexpected value");
+	}
+
+}
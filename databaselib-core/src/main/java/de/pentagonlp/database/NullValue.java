@@ -0,0 +1,72 @@
+package de.pentagonlp.database;
+
+import java.sql.Types;
+
+/**
+ * A typed SQL {@code NULL} to pass as a parameter. A plain {@code null}
+ * parameter is bound as {@link Types#NULL}, which some databases can not
+ * resolve to a column type, e.g. in {@code SELECT ? IS NULL} or in overloaded
+ * functions.<br>
+ * <br>
+ * Example: {@code getTable("UPDATE user SET age=? WHERE id=?", NullValue.INTEGER, 5)}
+ * 
+ * @author PentagonLP
+ * 
+ */
+public final class NullValue {
+
+	public static final NullValue INTEGER = new NullValue(Types.INTEGER);
+	public static final NullValue BIGINT = new NullValue(Types.BIGINT);
+	public static final NullValue DOUBLE = new NullValue(Types.DOUBLE);
+	public static final NullValue DECIMAL = new NullValue(Types.DECIMAL);
+	public static final NullValue BOOLEAN = new NullValue(Types.BOOLEAN);
+	public static final NullValue VARCHAR = new NullValue(Types.VARCHAR);
+	public static final NullValue VARBINARY = new NullValue(Types.VARBINARY);
+	public static final NullValue TIMESTAMP = new NullValue(Types.TIMESTAMP);
+	public static final NullValue DATE = new NullValue(Types.DATE);
+	public static final NullValue TIME = new NullValue(Types.TIME);
+
+	private final int sqlType;
+
+	private NullValue(int sqlType) {
+		this.sqlType = sqlType;
+	}
+
+	/**
+	 * Gets a {@code NULL} of any SQL type
+	 * 
+	 * @param sqlType The SQL type as defined in {@link Types}
+	 * 
+	 * @return The {@link NullValue}
+	 * 
+	 */
+	public static NullValue of(int sqlType) {
+		return new NullValue(sqlType);
+	}
+
+	/**
+	 * Gets the SQL type of this {@code NULL}
+	 * 
+	 * @return The SQL type as defined in {@link Types}
+	 * 
+	 */
+	public int getSqlType() {
+		return sqlType;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof NullValue && ((NullValue) other).sqlType == sqlType;
+	}
+
+	@Override
+	public int hashCode() {
+		return sqlType;
+	}
+
+	@Override
+	public String toString() {
+		return "NULL";
+	}
+
+}
@@ -0,0 +1,84 @@
+package de.pentagonlp.database;
+
+/**
+ * Settings of a keyset pagination through
+ * {@link DatabaseConnection#paginate(PagingSettings, String, Object...)}.<br>
+ * Setters return the {@link PagingSettings} object itself so calls can be
+ * chained.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class PagingSettings {
+
+	/**
+	 * Default number of rows per page
+	 * 
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 1000;
+
+	private final String[] keyColumns;
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	private boolean prefetch = false;
+
+	/**
+	 * Creates {@link PagingSettings} with default values
+	 * 
+	 * @param keyColumns The columns the rows are ordered by, most significant
+	 *                   first. Together, their values must be unique, and each
+	 *                   of them must be {@code NOT NULL}, as rows after a
+	 *                   {@code NULL} key can not be reached;
+	 *                   {@link KeysetPager#nextPage()} fails on {@code NULL}
+	 *                   keys.
+	 * 
+	 */
+	public PagingSettings(String... keyColumns) {
+		if (keyColumns == null || keyColumns.length == 0)
+			throw new IllegalArgumentException("At least one key column is required");
+		this.keyColumns = keyColumns.clone();
+	}
+
+	public String[] getKeyColumns() {
+		return keyColumns.clone();
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Sets the number of rows fetched per page
+	 * 
+	 * @param pageSize Number of rows
+	 * 
+	 * @return This {@link PagingSettings} object
+	 * 
+	 */
+	public PagingSettings setPageSize(int pageSize) {
+		if (pageSize < 1)
+			throw new IllegalArgumentException("Page size must be at least 1");
+		this.pageSize = pageSize;
+		return this;
+	}
+
+	public boolean isPrefetch() {
+		return prefetch;
+	}
+
+	/**
+	 * Sets whether the next page is fetched in the background through
+	 * {@link DatabaseConnection#runAsync(DatabaseTask)} while the current page is
+	 * processed. Pages requested inside a transaction are never prefetched, as
+	 * the background query could not use the connection of the transaction.
+	 * 
+	 * @param prefetch {@code true} to prefetch the next page
+	 * 
+	 * @return This {@link PagingSettings} object
+	 * 
+	 */
+	public PagingSettings setPrefetch(boolean prefetch) {
+		this.prefetch = prefetch;
+		return this;
+	}
+
+}
@@ -0,0 +1,29 @@
+package de.pentagonlp.database;
+
+/**
+ * Converts parameters of an application type into a value which can be bound
+ * to a statement, e.g. a {@link Long}, a {@link String} or a
+ * {@link NullValue}.
+ * 
+ * @author PentagonLP
+ * 
+ * @param <T> The application type
+ * 
+ * @see ParameterConverters
+ * 
+ */
+@FunctionalInterface
+public interface ParameterConverter<T> {
+
+	/**
+	 * Converts a parameter
+	 * 
+	 * @param value The parameter; never {@code null}
+	 * 
+	 * @return A value of a type bound natively, see
+	 *         {@link DatabaseConnection#bindParameter(java.sql.PreparedStatement, int, Object)}
+	 * 
+	 */
+	Object convert(T value);
+
+}
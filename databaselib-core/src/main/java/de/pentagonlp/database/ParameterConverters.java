@@ -0,0 +1,111 @@
+package de.pentagonlp.database;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link ParameterConverter ParameterConverters} for application
+ * types. A converter registered for a class also applies to its subclasses and
+ * implementations, unless a more specific converter is registered.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#getParameterConverters()
+ * 
+ */
+public class ParameterConverters {
+
+	/**
+	 * Marks classes without a converter in {@link #resolved}
+	 * 
+	 */
+	private static final ParameterConverter<Object> NONE = value -> value;
+
+	private final ConcurrentHashMap<Class<?>, ParameterConverter<?>> registered = new ConcurrentHashMap<>();
+	/**
+	 * Converter of each class looked up so far, including inherited converters
+	 * 
+	 */
+	private final ConcurrentHashMap<Class<?>, ParameterConverter<?>> resolved = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers a converter, replacing any converter registered for the same
+	 * class
+	 * 
+	 * @param <T>       The application type
+	 * @param type      Class of the application type
+	 * @param converter The {@link ParameterConverter}
+	 * 
+	 */
+	public <T> void register(Class<T> type, ParameterConverter<? super T> converter) {
+		registered.put(type, converter);
+		resolved.clear();
+	}
+
+	/**
+	 * Removes the converter registered for a class
+	 * 
+	 * @param type The class
+	 * 
+	 */
+	public void unregister(Class<?> type) {
+		registered.remove(type);
+		resolved.clear();
+	}
+
+	/**
+	 * Tests whether any converter is registered
+	 * 
+	 * @return {@code true} if no converter is registered
+	 * 
+	 */
+	public boolean isEmpty() {
+		return registered.isEmpty();
+	}
+
+	/**
+	 * Converts a parameter if a converter applies to its class
+	 * 
+	 * @param value The parameter; not {@code null}
+	 * 
+	 * @return The converted parameter, or {@code value} itself if no converter
+	 *         applies
+	 * 
+	 */
+	@SuppressWarnings("unchecked")
+	Object convert(Object value) {
+		ParameterConverter<Object> converter = (ParameterConverter<Object>) resolved
+				.computeIfAbsent(value.getClass(), this::resolve);
+		return converter == NONE ? value : converter.convert(value);
+	}
+
+	/**
+	 * Finds the converter of the closest superclass or interface of a class
+	 * 
+	 * @param type The class
+	 * 
+	 * @return The {@link ParameterConverter}, or {@link #NONE}
+	 * 
+	 */
+	private ParameterConverter<?> resolve(Class<?> type) {
+		// Breadth first, so closer superclasses and interfaces win
+		ArrayDeque<Class<?>> queue = new ArrayDeque<>();
+		HashSet<Class<?>> seen = new HashSet<>();
+		queue.add(type);
+		while (!queue.isEmpty()) {
+			Class<?> current = queue.poll();
+			if (!seen.add(current))
+				continue;
+			ParameterConverter<?> converter = registered.get(current);
+			if (converter != null)
+				return converter;
+			if (current.getSuperclass() != null)
+				queue.add(current.getSuperclass());
+			for (Class<?> implemented : current.getInterfaces())
+				queue.add(implemented);
+		}
+		return NONE;
+	}
+
+}
@@ -0,0 +1,271 @@
+package de.pentagonlp.database;
+
+/**
+ * Settings for a {@link ConnectionPool}. All durations are given in
+ * milliseconds.<br>
+ * Setters return the {@link PoolSettings} object itself so calls can be
+ * chained.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class PoolSettings {
+
+	/**
+	 * Default number of connections kept open even if they are idle
+	 * 
+	 */
+	public static final int DEFAULT_MINIMUM_SIZE = 1;
+	/**
+	 * Default maximum number of connections open at the same time
+	 * 
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10;
+	/**
+	 * Default time to wait for a free connection before giving up
+	 * 
+	 */
+	public static final long DEFAULT_MAX_WAIT = 30_000;
+	/**
+	 * Default time after which an idle connection is closed
+	 * 
+	 */
+	public static final long DEFAULT_IDLE_TIMEOUT = 600_000;
+	/**
+	 * Default time after which a connection is closed regardless of its usage
+	 * 
+	 */
+	public static final long DEFAULT_MAX_LIFETIME = 1_800_000;
+	/**
+	 * Default interval in which idle connections are evicted
+	 * 
+	 */
+	public static final long DEFAULT_EVICTION_INTERVAL = 30_000;
+	/**
+	 * Default time after which an idle connection is validated in the background
+	 * 
+	 */
+	public static final long DEFAULT_KEEPALIVE_INTERVAL = 60_000;
+	/**
+	 * Default timeout for validating a connection on borrow, in seconds
+	 * 
+	 */
+	public static final int DEFAULT_VALIDATION_TIMEOUT = 5;
+
+	private int minimumSize = DEFAULT_MINIMUM_SIZE;
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+	private long maxWait = DEFAULT_MAX_WAIT;
+	private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+	private long maxLifetime = DEFAULT_MAX_LIFETIME;
+	private long evictionInterval = DEFAULT_EVICTION_INTERVAL;
+	private long keepaliveInterval = DEFAULT_KEEPALIVE_INTERVAL;
+	private boolean validateOnBorrow = true;
+	private int validationTimeout = DEFAULT_VALIDATION_TIMEOUT;
+
+	/**
+	 * Creates {@link PoolSettings} with default values
+	 * 
+	 */
+	public PoolSettings() {
+	}
+
+	/**
+	 * Creates {@link PoolSettings} with a given minimum and maximum size and
+	 * default values for everything else
+	 * 
+	 * @param minimumSize Number of connections kept open even if they are idle
+	 * @param maximumSize Maximum number of connections open at the same time
+	 * 
+	 */
+	public PoolSettings(int minimumSize, int maximumSize) {
+		setMinimumSize(minimumSize);
+		setMaximumSize(maximumSize);
+	}
+
+	/**
+	 * Creates a copy of other {@link PoolSettings}
+	 * 
+	 * @param other The {@link PoolSettings} to copy
+	 * 
+	 */
+	public PoolSettings(PoolSettings other) {
+		this.minimumSize = other.minimumSize;
+		this.maximumSize = other.maximumSize;
+		this.maxWait = other.maxWait;
+		this.idleTimeout = other.idleTimeout;
+		this.maxLifetime = other.maxLifetime;
+		this.evictionInterval = other.evictionInterval;
+		this.keepaliveInterval = other.keepaliveInterval;
+		this.validateOnBorrow = other.validateOnBorrow;
+		this.validationTimeout = other.validationTimeout;
+	}
+
+	public int getMinimumSize() {
+		return minimumSize;
+	}
+
+	/**
+	 * Sets the number of connections kept open even if they are idle
+	 * 
+	 * @param minimumSize Minimum number of open connections, at least {@code 0}
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setMinimumSize(int minimumSize) {
+		if (minimumSize < 0)
+			throw new IllegalArgumentException("Minimum pool size must not be negative");
+		this.minimumSize = minimumSize;
+		return this;
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Sets the maximum number of connections open at the same time
+	 * 
+	 * @param maximumSize Maximum number of open connections, at least {@code 1}
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setMaximumSize(int maximumSize) {
+		if (maximumSize < 1)
+			throw new IllegalArgumentException("Maximum pool size must be at least 1");
+		this.maximumSize = maximumSize;
+		return this;
+	}
+
+	public long getMaxWait() {
+		return maxWait;
+	}
+
+	/**
+	 * Sets the time to wait for a free connection before giving up
+	 * 
+	 * @param maxWait Time to wait in milliseconds
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setMaxWait(long maxWait) {
+		this.maxWait = maxWait;
+		return this;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * Sets the time after which an idle connection is closed, as long as more
+	 * than {@link #getMinimumSize()} connections are open
+	 * 
+	 * @param idleTimeout Time in milliseconds; {@code 0} keeps idle connections
+	 *                    forever
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+		return this;
+	}
+
+	public long getMaxLifetime() {
+		return maxLifetime;
+	}
+
+	/**
+	 * Sets the time after which a connection is closed regardless of its usage.
+	 * Connections in use are closed as soon as they are returned to the pool.
+	 * 
+	 * @param maxLifetime Time in milliseconds; {@code 0} disables the limit
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+		return this;
+	}
+
+	public long getEvictionInterval() {
+		return evictionInterval;
+	}
+
+	/**
+	 * Sets the interval in which idle and expired connections are evicted and the
+	 * pool is refilled to {@link #getMinimumSize()}
+	 * 
+	 * @param evictionInterval Interval in milliseconds; {@code 0} disables the
+	 *                         background eviction
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setEvictionInterval(long evictionInterval) {
+		this.evictionInterval = evictionInterval;
+		return this;
+	}
+
+	public long getKeepaliveInterval() {
+		return keepaliveInterval;
+	}
+
+	/**
+	 * Sets after which time an idle connection is validated with
+	 * {@link java.sql.Connection#isValid(int)} in the background. Dead
+	 * connections are replaced before they are borrowed, and the traffic keeps
+	 * firewalls from dropping idle connections.<br>
+	 * Checked every {@link #getEvictionInterval()}.
+	 * 
+	 * @param keepaliveInterval Time in milliseconds; {@code 0} disables the
+	 *                          background validation
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setKeepaliveInterval(long keepaliveInterval) {
+		this.keepaliveInterval = keepaliveInterval;
+		return this;
+	}
+
+	public boolean isValidateOnBorrow() {
+		return validateOnBorrow;
+	}
+
+	/**
+	 * Enables/disables validating idle connections with
+	 * {@link java.sql.Connection#isValid(int)} before handing them out
+	 * 
+	 * @param validateOnBorrow Whether to validate connections on borrow
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setValidateOnBorrow(boolean validateOnBorrow) {
+		this.validateOnBorrow = validateOnBorrow;
+		return this;
+	}
+
+	public int getValidationTimeout() {
+		return validationTimeout;
+	}
+
+	/**
+	 * Sets the timeout for validating a connection
+	 * 
+	 * @param validationTimeout Timeout in seconds
+	 * 
+	 * @return This {@link PoolSettings} object
+	 * 
+	 */
+	public PoolSettings setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+		return this;
+	}
+
+}
@@ -0,0 +1,312 @@
+package de.pentagonlp.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache for results of read queries, keyed by SQL text and parameters. Entries
+ * expire after a time to live and the least recently used entries are evicted
+ * once the cache is full.<br>
+ * <br>
+ * When a data modifying statement runs through the {@link DatabaseConnection}
+ * the cache is attached to, all entries reading from the modified table are
+ * invalidated. If the modified table can not be determined, the whole cache is
+ * invalidated. Statements run inside a transaction invalidate their tables
+ * when the transaction commits.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#setQueryCache(QueryCache)
+ * @see DatabaseConnection#getTableCached(long, String, Object...)
+ * 
+ */
+public class QueryCache {
+
+	/**
+	 * Default maximum number of cached results
+	 * 
+	 */
+	public static final int DEFAULT_MAXIMUM_ENTRIES = 1000;
+	/**
+	 * Default time to live of cached results in milliseconds
+	 * 
+	 */
+	public static final long DEFAULT_TTL = 60_000;
+	/**
+	 * Default maximum number of rows of a cacheable result
+	 * 
+	 */
+	public static final int DEFAULT_MAXIMUM_ROWS = 10_000;
+
+	private final int maximumEntries;
+	private final long defaultTtl;
+	private final int maximumRows;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final CacheStatistics statistics = new CacheStatistics();
+
+	/**
+	 * Incremented on every invalidation, so results of queries which were
+	 * running during an invalidation are not cached
+	 * 
+	 */
+	private long generation = 0;
+
+	/**
+	 * Creates a {@link QueryCache} with default settings
+	 * 
+	 */
+	public QueryCache() {
+		this(DEFAULT_MAXIMUM_ENTRIES, DEFAULT_TTL, DEFAULT_MAXIMUM_ROWS);
+	}
+
+	/**
+	 * Creates a {@link QueryCache}
+	 * 
+	 * @param maximumEntries Maximum number of cached results
+	 * @param defaultTtl     Time to live in milliseconds of results cached
+	 *                       without an explicit time to live
+	 * @param maximumRows    Results with more rows are not cached, so a few large
+	 *                       results can not take up all memory
+	 * 
+	 */
+	public QueryCache(int maximumEntries, long defaultTtl, int maximumRows) {
+		if (maximumEntries < 1)
+			throw new IllegalArgumentException("Cache must hold at least 1 entry");
+		this.maximumEntries = maximumEntries;
+		this.defaultTtl = defaultTtl;
+		this.maximumRows = maximumRows;
+	}
+
+	/**
+	 * Gets a cached result
+	 * 
+	 * @param sql    SQL text of the query
+	 * @param params Parameters of the query
+	 * 
+	 * @return A copy of the cached result, or {@code null} if there is no valid
+	 *         entry
+	 * 
+	 */
+	ArrayList<HashMap<String, DataElement>> get(String sql, Object[] params) {
+		Key key = new Key(sql, params);
+		Entry entry;
+
+		lock.lock();
+		try {
+			entry = entries.get(key);
+			if (entry != null && entry.expires <= System.currentTimeMillis()) {
+				entries.remove(key);
+				statistics.recordEviction();
+				entry = null;
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (entry == null) {
+			statistics.recordMiss();
+			return null;
+		}
+		statistics.recordHit();
+		return copy(entry.rows);
+	}
+
+	/**
+	 * Gets the current generation, to be passed to
+	 * {@link #put(String, Object[], ArrayList, long, long)} after the query has
+	 * run
+	 * 
+	 * @return The current generation
+	 * 
+	 */
+	long generation() {
+		lock.lock();
+		try {
+			return generation;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Caches a result
+	 * 
+	 * @param sql        SQL text of the query
+	 * @param params     Parameters of the query
+	 * @param rows       The result; copied
+	 * @param ttl        Time to live in milliseconds; {@code 0} for the default
+	 * @param generation The generation from before the query ran; if the cache
+	 *                   was invalidated since, the result is not cached
+	 * 
+	 */
+	void put(String sql, Object[] params, ArrayList<HashMap<String, DataElement>> rows, long ttl,
+			long generation) {
+		if (rows.size() > maximumRows)
+			return;
+
+		Entry entry = new Entry(copy(rows), SqlTables.readTables(sql),
+				System.currentTimeMillis() + (ttl > 0 ? ttl : defaultTtl));
+
+		lock.lock();
+		try {
+			if (generation != this.generation)
+				return;
+
+			entries.put(new Key(sql, params.clone()), entry);
+			if (entries.size() > maximumEntries) {
+				Iterator<Key> eldest = entries.keySet().iterator();
+				eldest.next();
+				eldest.remove();
+				statistics.recordEviction();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invalidates all entries affected by a data modifying statement
+	 * 
+	 * @param sql The data modifying statement
+	 * 
+	 */
+	void invalidateWrite(String sql) {
+		String table = SqlTables.writtenTable(sql);
+		if (table == null)
+			invalidateAll();
+		else
+			invalidateTable(table);
+	}
+
+	/**
+	 * Invalidates all entries reading from a table
+	 * 
+	 * @param table Name of the table
+	 * 
+	 */
+	public void invalidateTable(String table) {
+		String normalized = SqlTables.normalize(table);
+
+		lock.lock();
+		try {
+			generation++;
+			Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+			while (iterator.hasNext())
+				if (iterator.next().getValue().readsFrom(normalized))
+					iterator.remove();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invalidates all entries
+	 * 
+	 */
+	public void invalidateAll() {
+		lock.lock();
+		try {
+			generation++;
+			entries.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of cached results, including expired ones not yet removed
+	 * 
+	 * @return The number of entries
+	 * 
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the hit, miss and eviction counters. Expired entries count as
+	 * evictions.
+	 * 
+	 * @return The {@link CacheStatistics} of this cache
+	 * 
+	 */
+	public CacheStatistics getStatistics() {
+		return statistics;
+	}
+
+	private static ArrayList<HashMap<String, DataElement>> copy(ArrayList<HashMap<String, DataElement>> rows) {
+		// DataElements are immutable, so copying the maps is enough
+		ArrayList<HashMap<String, DataElement>> copy = new ArrayList<>(rows.size());
+		for (HashMap<String, DataElement> row : rows)
+			copy.add(new HashMap<>(row));
+		return copy;
+	}
+
+	/**
+	 * SQL text and parameters of a query
+	 * 
+	 */
+	private static final class Key {
+
+		private final String sql;
+		private final Object[] params;
+		private final int hash;
+
+		private Key(String sql, Object[] params) {
+			this.sql = sql;
+			this.params = params;
+			this.hash = 31 * sql.hashCode() + Arrays.deepHashCode(params);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+			Key key = (Key) other;
+			return hash == key.hash && sql.equals(key.sql) && Arrays.deepEquals(params, key.params);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+	}
+
+	/**
+	 * A cached result
+	 * 
+	 */
+	private static final class Entry {
+
+		private final ArrayList<HashMap<String, DataElement>> rows;
+		private final HashSet<String> tables;
+		private final long expires;
+
+		private Entry(ArrayList<HashMap<String, DataElement>> rows, HashSet<String> tables, long expires) {
+			this.rows = rows;
+			this.tables = tables;
+			this.expires = expires;
+		}
+
+		private boolean readsFrom(String table) {
+			// Entries without known tables might read from any table
+			return tables.isEmpty() || tables.contains(table);
+		}
+
+	}
+
+}
@@ -0,0 +1,156 @@
+package de.pentagonlp.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.pentagonlp.database.exceptions.NotConnectedException;
+
+/**
+ * Several statements run together through
+ * {@link DatabaseConnection#getResultTables(QueryPipeline)}, so independent
+ * queries need as few round trips as the driver allows.<br>
+ * {@link #add(String, Object...)} returns the {@link QueryPipeline} object
+ * itself so calls can be chained.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class QueryPipeline {
+
+	private final ArrayList<String> statements = new ArrayList<>();
+	private final ArrayList<Object[]> parameters = new ArrayList<>();
+
+	/**
+	 * Add a statement
+	 * 
+	 * @param sql    SQL Command; Use {@code ?} instead of non constant Parameters
+	 * @param params Parameters in Order to replace the {@code ?} symbols in
+	 *               {@code sql}
+	 * 
+	 * @return This {@link QueryPipeline} object
+	 * 
+	 */
+	public QueryPipeline add(String sql, Object... params) {
+		if (sql == null)
+			throw new IllegalArgumentException("Statement must not be null");
+		statements.add(sql);
+		parameters.add(params.clone());
+		return this;
+	}
+
+	/**
+	 * Gets the number of statements
+	 * 
+	 * @return The number of statements added
+	 * 
+	 */
+	public int size() {
+		return statements.size();
+	}
+
+	/**
+	 * Run all statements, in a single round trip if the driver
+	 * {@link DatabaseConnection#supportsMultiStatements() supports it} and all
+	 * statements only read data, or one after another on a single connection
+	 * otherwise
+	 * 
+	 * @param connection The connection to run the statements on
+	 * 
+	 * @return {@link ResultTable} of each statement, in order
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 * @see DatabaseConnection#getResultTables(QueryPipeline)
+	 * 
+	 */
+	List<ResultTable> run(DatabaseConnection connection) throws SQLException, NotConnectedException {
+		int count = statements.size();
+		ArrayList<ResultTable> results = new ArrayList<>(count);
+		if (count == 0)
+			return results;
+
+		boolean readOnly = isReadOnly();
+		if (count > 1 && connection.supportsMultiStatements() && readOnly)
+			return connection.query(joinStatements(), joinParameters(), (statement, sqlresult, updateCount) -> {
+				results.add(connection.readResultTable(sqlresult));
+				for (int i = 1; i < count; i++)
+					// Closes the previous result
+					results.add(connection
+							.readResultTable(statement.getMoreResults() ? statement.getResultSet() : null));
+				return results;
+			});
+
+		connection.enterStatement(statements.get(0));
+		try {
+			Connection con = connection.acquireConnection(readOnly);
+			try {
+				for (int i = 0; i < count; i++)
+					results.add(connection.query(statements.get(i), parameters.get(i), Statement.NO_GENERATED_KEYS,
+							(statement, sqlresult, updateCount) -> connection.readResultTable(sqlresult), con, false));
+			} finally {
+				connection.releaseConnection(con);
+			}
+			return results;
+		} finally {
+			connection.exitStatement();
+		}
+	}
+
+	/**
+	 * Tests whether all statements only read data
+	 * 
+	 * @return {@code true} if {@link SqlTables#isReadOnly(String)} holds for
+	 *         every statement
+	 * 
+	 */
+	private boolean isReadOnly() {
+		for (String sql : statements)
+			if (!SqlTables.isReadOnly(sql))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Join all statements into a single multi-statement command
+	 * 
+	 * @return The statements separated by semicolons
+	 * 
+	 */
+	private String joinStatements() {
+		StringBuilder joined = new StringBuilder();
+		for (String sql : statements) {
+			String statement = sql.trim();
+			// A trailing semicolon would end the command with an empty statement
+			while (statement.endsWith(";"))
+				statement = statement.substring(0, statement.length() - 1).trim();
+			if (joined.length() > 0)
+				joined.append(";\n");
+			joined.append(statement);
+		}
+		return joined.toString();
+	}
+
+	/**
+	 * Join the parameters of all statements in order
+	 * 
+	 * @return The parameters of {@link #joinStatements()}
+	 * 
+	 */
+	private Object[] joinParameters() {
+		int count = 0;
+		for (Object[] params : parameters)
+			count += params.length;
+		Object[] joined = new Object[count];
+		int index = 0;
+		for (Object[] params : parameters) {
+			System.arraycopy(params, 0, joined, index, params.length);
+			index += params.length;
+		}
+		return joined;
+	}
+
+}
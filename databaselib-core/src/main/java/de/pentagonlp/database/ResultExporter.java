@@ -0,0 +1,434 @@
+package de.pentagonlp.database;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Base64;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import de.pentagonlp.database.exceptions.NotConnectedException;
+import de.pentagonlp.database.exceptions.UncheckedSQLException;
+
+/**
+ * Writes the rows of a {@link ResultSet} to a channel in a {@link FileFormat},
+ * running the exports of
+ * {@link DatabaseConnection#exportTo(WritableByteChannel, ExportSettings, String, Object...)}.
+ * Each row is formatted into a reused {@link StringBuilder} and encoded
+ * through reused buffers, so memory usage does not depend on the number of
+ * rows, and numbers are written without creating an object per value.<br>
+ * {@code NULL} is written as an empty field in {@link FileFormat#CSV}, while
+ * empty strings are quoted, matching what {@link CsvRecordReader} reads.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class ResultExporter {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final WritableByteChannel channel;
+	private final ExportSettings settings;
+	private final CharsetEncoder encoder;
+	private final StringBuilder line = new StringBuilder(256);
+	private final CharBuffer chars;
+	private final ByteBuffer bytes;
+
+	/**
+	 * Text written in front of the value of each column of a
+	 * {@link FileFormat#NDJSON} object, e.g. {@code ,"name":}
+	 * 
+	 */
+	private String[] keys;
+
+	/**
+	 * Creates a {@link ResultExporter}
+	 * 
+	 * @param channel  The output; not closed by the exporter
+	 * @param settings Settings of the export
+	 * 
+	 */
+	ResultExporter(WritableByteChannel channel, ExportSettings settings) {
+		this.channel = channel;
+		this.settings = settings;
+		this.encoder = settings.getCharset().newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		// The byte buffer has to hold at least one encoded character
+		int size = Math.max(settings.getBufferSize(), 16);
+		this.chars = CharBuffer.allocate(size);
+		this.bytes = ByteBuffer.allocate(size);
+	}
+
+	/**
+	 * Write the result of a query to a channel
+	 * 
+	 * @param connection The connection to run the query on
+	 * @param channel    The output; not closed
+	 * @param settings   Settings of the export
+	 * @param sql        SQL Command; Use {@code ?} instead of non constant
+	 *                   Parameters
+	 * @param params     Parameters in Order to replace the {@code ?} symbols in
+	 *                   {@code sql}
+	 * 
+	 * @return The number of rows written
+	 * 
+	 * @throws IOException
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	static long export(DatabaseConnection connection, WritableByteChannel channel, ExportSettings settings,
+			String sql, Object[] params) throws IOException, SQLException, NotConnectedException {
+		ResultExporter exporter = new ResultExporter(channel, settings);
+		int rowsFetched = settings.getFetchSize() > 0 ? settings.getFetchSize() : connection.getFetchSize();
+		long rows = 0;
+		try (RowCursor<Boolean> cursor = connection.openCursor(sql, rowsFetched,
+				sqlresult -> exporter.start(connection.createSchema(sqlresult)), params)) {
+			while (cursor.hasNext()) {
+				cursor.next();
+				rows++;
+			}
+		} catch (UncheckedSQLException e) {
+			throw e.getCause();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		exporter.finish();
+		return rows;
+	}
+
+	/**
+	 * Write the result of a query to a stream, compressed through GZIP. The
+	 * stream is not closed, but the {@link Deflater} is ended in any case.
+	 * 
+	 * @param connection The connection to run the query on
+	 * @param out        The output; not closed
+	 * @param settings   Settings of the export
+	 * @param sql        SQL Command; Use {@code ?} instead of non constant
+	 *                   Parameters
+	 * @param params     Parameters in Order to replace the {@code ?} symbols in
+	 *                   {@code sql}
+	 * 
+	 * @return The number of rows written
+	 * 
+	 * @throws IOException
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	static long exportGzip(DatabaseConnection connection, OutputStream out, ExportSettings settings, String sql,
+			Object[] params) throws IOException, SQLException, NotConnectedException {
+		GzipOutput gzip = new GzipOutput(out, settings.getBufferSize());
+		try {
+			long rows = export(connection, Channels.newChannel(gzip), settings, sql, params);
+			gzip.finish();
+			return rows;
+		} finally {
+			gzip.end();
+		}
+	}
+
+	/**
+	 * Start the export of a result, writing the header line if needed
+	 * 
+	 * @param schema The {@link ColumnSchema} of the result
+	 * 
+	 * @return A {@link RowReader} writing the current row and returning
+	 *         {@link Boolean#TRUE}
+	 * 
+	 * @throws UncheckedIOException If writing the header line failed
+	 * 
+	 */
+	RowReader<Boolean> start(ColumnSchema schema) {
+		int columns = schema.getColumnCount();
+		ValueType[] types = new ValueType[columns];
+		for (int column = 0; column < columns; column++)
+			types[column] = schema.getValueType(column);
+
+		if (settings.getFormat() == FileFormat.NDJSON) {
+			keys = new String[columns];
+			for (int column = 0; column < columns; column++) {
+				line.setLength(0);
+				line.append(column == 0 ? '{' : ',');
+				appendJsonString(schema.getColumnName(column));
+				keys[column] = line.append(':').toString();
+			}
+			return sqlresult -> {
+				writeJson(sqlresult, types);
+				return Boolean.TRUE;
+			};
+		}
+
+		char delimiter = settings.getDelimiter();
+		if (settings.hasHeader()) {
+			line.setLength(0);
+			for (int column = 0; column < columns; column++) {
+				if (column > 0)
+					line.append(delimiter);
+				appendCsvField(schema.getColumnName(column), delimiter);
+			}
+			writeLine();
+		}
+		return sqlresult -> {
+			writeCsv(sqlresult, types, delimiter);
+			return Boolean.TRUE;
+		};
+	}
+
+	/**
+	 * Write all remaining output to the channel. Must be called once after the
+	 * last row.
+	 * 
+	 * @throws IOException
+	 * 
+	 */
+	void finish() throws IOException {
+		((Buffer) chars).flip();
+		encode(true);
+		while (encoder.flush(bytes) == CoderResult.OVERFLOW)
+			drain();
+		drain();
+	}
+
+	private void writeCsv(ResultSet sqlresult, ValueType[] types, char delimiter) throws SQLException {
+		line.setLength(0);
+		for (int column = 0; column < types.length; column++) {
+			if (column > 0)
+				line.append(delimiter);
+			int index = column + 1;
+			switch (types[column]) {
+			case LONG:
+				long longValue = sqlresult.getLong(index);
+				if (!sqlresult.wasNull())
+					line.append(longValue);
+				break;
+			case DOUBLE:
+				double doubleValue = sqlresult.getDouble(index);
+				if (!sqlresult.wasNull())
+					line.append(doubleValue);
+				break;
+			case FLOAT:
+				float floatValue = sqlresult.getFloat(index);
+				if (!sqlresult.wasNull())
+					line.append(floatValue);
+				break;
+			case BYTES:
+				byte[] data = sqlresult.getBytes(index);
+				if (data != null)
+					line.append(Base64.getEncoder().encodeToString(data));
+				break;
+			default:
+				String text = sqlresult.getString(index);
+				if (text != null)
+					appendCsvField(text, delimiter);
+			}
+		}
+		writeLine();
+	}
+
+	private void writeJson(ResultSet sqlresult, ValueType[] types) throws SQLException {
+		line.setLength(0);
+		for (int column = 0; column < types.length; column++) {
+			line.append(keys[column]);
+			int index = column + 1;
+			switch (types[column]) {
+			case LONG:
+				long longValue = sqlresult.getLong(index);
+				if (sqlresult.wasNull())
+					line.append("null");
+				else
+					line.append(longValue);
+				break;
+			case DOUBLE:
+				double doubleValue = sqlresult.getDouble(index);
+				// JSON has no representation of NaN and infinity
+				if (sqlresult.wasNull() || Double.isNaN(doubleValue) || Double.isInfinite(doubleValue))
+					line.append("null");
+				else
+					line.append(doubleValue);
+				break;
+			case FLOAT:
+				float floatValue = sqlresult.getFloat(index);
+				if (sqlresult.wasNull() || Float.isNaN(floatValue) || Float.isInfinite(floatValue))
+					line.append("null");
+				else
+					line.append(floatValue);
+				break;
+			case DECIMAL:
+				BigDecimal decimal = sqlresult.getBigDecimal(index);
+				line.append(decimal == null ? "null" : decimal.toString());
+				break;
+			case BYTES:
+				byte[] data = sqlresult.getBytes(index);
+				if (data == null)
+					line.append("null");
+				else
+					line.append('"').append(Base64.getEncoder().encodeToString(data)).append('"');
+				break;
+			case OBJECT:
+				appendJsonObject(sqlresult.getObject(index));
+				break;
+			default:
+				String text = sqlresult.getString(index);
+				if (text == null)
+					line.append("null");
+				else
+					appendJsonString(text);
+			}
+		}
+		line.append(keys.length == 0 ? "{}" : "}");
+		writeLine();
+	}
+
+	private void appendJsonObject(Object value) {
+		if (value == null)
+			line.append("null");
+		else if (value instanceof Boolean)
+			line.append(((Boolean) value).booleanValue());
+		else if (value instanceof Double || value instanceof Float) {
+			double number = ((Number) value).doubleValue();
+			line.append(Double.isNaN(number) || Double.isInfinite(number) ? "null" : value.toString());
+		} else if (value instanceof Number)
+			line.append(value.toString());
+		else
+			appendJsonString(value.toString());
+	}
+
+	/**
+	 * Append a field, quoted if it is empty or contains the delimiter, a quote or
+	 * a line break
+	 * 
+	 */
+	private void appendCsvField(String text, char delimiter) {
+		boolean quote = text.isEmpty();
+		for (int i = 0; i < text.length() && !quote; i++) {
+			char c = text.charAt(i);
+			quote = c == delimiter || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			line.append(text);
+			return;
+		}
+		line.append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"')
+				line.append('"');
+			line.append(c);
+		}
+		line.append('"');
+	}
+
+	private void appendJsonString(String text) {
+		line.append('"');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '"':
+				line.append("\\\"");
+				break;
+			case '\\':
+				line.append("\\\\");
+				break;
+			case '\n':
+				line.append("\\n");
+				break;
+			case '\r':
+				line.append("\\r");
+				break;
+			case '\t':
+				line.append("\\t");
+				break;
+			case '\b':
+				line.append("\\b");
+				break;
+			case '\f':
+				line.append("\\f");
+				break;
+			default:
+				if (c < 0x20)
+					line.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+				else
+					line.append(c);
+			}
+		}
+		line.append('"');
+	}
+
+	/**
+	 * Terminate {@link #line} and pass it to the encoder
+	 * 
+	 * @throws UncheckedIOException If writing to the channel failed
+	 * 
+	 */
+	private void writeLine() {
+		line.append('\n');
+		try {
+			int offset = 0;
+			while (offset < line.length()) {
+				int count = Math.min(chars.remaining(), line.length() - offset);
+				line.getChars(offset, offset + count, chars.array(), chars.arrayOffset() + chars.position());
+				((Buffer) chars).position(chars.position() + count);
+				offset += count;
+
+				((Buffer) chars).flip();
+				encode(false);
+				// Keeps the first half of a surrogate pair split between chunks
+				chars.compact();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Encode the characters of the flipped {@link #chars}, writing the bytes to
+	 * the channel whenever the byte buffer is full
+	 * 
+	 */
+	private void encode(boolean endOfInput) throws IOException {
+		while (encoder.encode(chars, bytes, endOfInput) == CoderResult.OVERFLOW)
+			drain();
+	}
+
+	private void drain() throws IOException {
+		((Buffer) bytes).flip();
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+		((Buffer) bytes).clear();
+	}
+
+	/**
+	 * {@link GZIPOutputStream} which can free its {@link Deflater} without
+	 * closing the output, which belongs to the caller
+	 * 
+	 */
+	private static final class GzipOutput extends GZIPOutputStream {
+
+		GzipOutput(OutputStream out, int size) throws IOException {
+			super(out, size);
+		}
+
+		/**
+		 * Free the native memory of the {@link Deflater}; the stream can not be
+		 * written afterwards
+		 * 
+		 */
+		void end() {
+			def.end();
+		}
+
+	}
+
+}
@@ -0,0 +1,34 @@
+package de.pentagonlp.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads the result of a statement into its final representation
+ * 
+ * @author PentagonLP
+ * 
+ * @param <R> Type of the result representation
+ * 
+ */
+@FunctionalInterface
+interface ResultHandler<R> {
+
+	/**
+	 * Reads a result. The {@link ResultSet} is closed by the caller afterwards.
+	 * 
+	 * @param statement   The executed statement, e.g. to read generated keys
+	 * @param result      The {@link ResultSet}, or {@code null} if the statement
+	 *                    did not produce one
+	 * @param updateCount The update count of the statement, or {@code -1} if it
+	 *                    produced a {@link ResultSet}
+	 * 
+	 * @return The result representation
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	R handle(PreparedStatement statement, ResultSet result, int updateCount) throws SQLException;
+
+}
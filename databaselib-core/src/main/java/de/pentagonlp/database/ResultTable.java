@@ -0,0 +1,67 @@
+package de.pentagonlp.database;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.RandomAccess;
+
+/**
+ * Compact representation of a whole result. All {@link Row Rows} share a single
+ * {@link ColumnSchema} and store their values in a flat array, instead of one
+ * {@link java.util.HashMap HashMap} and one {@link DataElement} per cell.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#getResultTable(String, Object...)
+ * 
+ */
+public class ResultTable extends AbstractList<Row> implements RandomAccess {
+
+	private final ColumnSchema schema;
+	private final ArrayList<Row> rows;
+
+	/**
+	 * Creates an empty {@link ResultTable}
+	 * 
+	 * @param schema The column names of the result
+	 * 
+	 */
+	ResultTable(ColumnSchema schema) {
+		this.schema = schema;
+		this.rows = new ArrayList<>();
+	}
+
+	void addRow(Row row) {
+		rows.add(row);
+	}
+
+	/**
+	 * Gets the {@link ColumnSchema} shared by all rows
+	 * 
+	 * @return The {@link ColumnSchema}
+	 * 
+	 */
+	public ColumnSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Gets the first row
+	 * 
+	 * @return The first row, or {@code null} if the result is empty
+	 * 
+	 */
+	public Row getFirstRow() {
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	@Override
+	public Row get(int index) {
+		return rows.get(index);
+	}
+
+	@Override
+	public int size() {
+		return rows.size();
+	}
+
+}
@@ -0,0 +1,128 @@
+package de.pentagonlp.database;
+
+import java.util.HashMap;
+
+/**
+ * A single row of a {@link ResultTable}. Stores its values in a flat array
+ * indexed by column position; column names are resolved through the
+ * {@link ColumnSchema} shared by all rows of the result.<br>
+ * Columns are indexed starting at {@code 0}.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public final class Row {
+
+	private final ColumnSchema schema;
+	private final Object[] values;
+
+	/**
+	 * Creates a {@link Row}
+	 * 
+	 * @param schema The column names of the result the row belongs to
+	 * @param values The values of the row in column order; not copied
+	 * 
+	 */
+	Row(ColumnSchema schema, Object[] values) {
+		this.schema = schema;
+		this.values = values;
+	}
+
+	/**
+	 * Gets the {@link ColumnSchema} shared by all rows of the result
+	 * 
+	 * @return The {@link ColumnSchema}
+	 * 
+	 */
+	public ColumnSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Gets the value of a column
+	 * 
+	 * @param column Index of the column, starting at {@code 0}
+	 * 
+	 * @return The value wrapped in a {@link DataElement}
+	 * 
+	 */
+	public DataElement get(int column) {
+		return DataElement.of(values[column]);
+	}
+
+	/**
+	 * Gets the value of a column
+	 * 
+	 * @param name Name of the column
+	 * 
+	 * @return The value wrapped in a {@link DataElement}, or {@code null} if there
+	 *         is no column with that name
+	 * 
+	 */
+	public DataElement get(String name) {
+		int column = schema.indexOf(name);
+		return column < 0 ? null : get(column);
+	}
+
+	/**
+	 * Gets the raw value of a column as read from the database, without wrapping
+	 * it in a {@link DataElement}
+	 * 
+	 * @param column Index of the column, starting at {@code 0}
+	 * 
+	 * @return The value of the column
+	 * 
+	 */
+	public Object getValue(int column) {
+		return values[column];
+	}
+
+	/**
+	 * Tests whether the value of a column is {@code null}
+	 * 
+	 * @param column Index of the column, starting at {@code 0}
+	 * 
+	 * @return {@code true} if the value is {@code null}
+	 * 
+	 */
+	public boolean isNull(int column) {
+		return values[column] == null;
+	}
+
+	/**
+	 * Gets the number of columns
+	 * 
+	 * @return The number of columns
+	 * 
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * Converts the row into the representation used by
+	 * {@link DatabaseConnection#getTable(String, Object...)}
+	 * 
+	 * @return {@link HashMap} mapping column names to values in form of
+	 *         {@link DataElement DataElements}
+	 * 
+	 */
+	public HashMap<String, DataElement> toHashMap() {
+		HashMap<String, DataElement> result = new HashMap<>((int) (values.length / 0.75f) + 1);
+		for (int column = 0; column < values.length; column++)
+			result.put(schema.getColumnName(column), get(column));
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		for (int column = 0; column < values.length; column++) {
+			if (column > 0)
+				builder.append(", ");
+			builder.append(schema.getColumnName(column)).append('=').append(values[column]);
+		}
+		return builder.append('}').toString();
+	}
+
+}
@@ -0,0 +1,27 @@
+package de.pentagonlp.database;
+
+import java.sql.SQLException;
+
+/**
+ * Callback receiving the rows of a result one by one, e.g. through
+ * {@link DatabaseConnection#forEachRow(String, RowConsumer, Object...)}
+ * 
+ * @author PentagonLP
+ * 
+ * @param <T> Type of the row representation
+ * 
+ */
+@FunctionalInterface
+public interface RowConsumer<T> {
+
+	/**
+	 * Processes a single row
+	 * 
+	 * @param row The current row
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	void accept(T row) throws SQLException;
+
+}
@@ -0,0 +1,240 @@
+package de.pentagonlp.database;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import de.pentagonlp.database.exceptions.UncheckedSQLException;
+
+/**
+ * Iterates over the rows of a result while they are fetched from the database,
+ * instead of reading the whole result into memory first.<br>
+ * <br>
+ * The cursor keeps its connection busy until it is closed, so it should always
+ * be used in a try-with-resources block. It is closed automatically once the
+ * last row has been read.
+ * 
+ * @author PentagonLP
+ * 
+ * @param <T> Type of the row representation
+ * 
+ * @see DatabaseConnection#openCursor(String, Object...)
+ * 
+ */
+public class RowCursor<T> implements Iterator<T>, AutoCloseable {
+
+	private final PreparedStatement statement;
+	private final ResultSet result;
+	private final RowReader<T> reader;
+	private final Consumer<RowCursor<T>> onClose;
+	/**
+	 * Whether to measure the time spent fetching rows
+	 * 
+	 */
+	private final boolean timed;
+
+	/**
+	 * Whether the {@link ResultSet} was already advanced to the row returned by
+	 * the next call to {@link #next()}
+	 * 
+	 */
+	private boolean advanced = false;
+	private boolean hasRow = false;
+	private boolean closed = false;
+
+	private long rows = 0;
+	private long fetchNanos = 0;
+	private SQLException failure;
+
+	/**
+	 * Creates a {@link RowCursor} over a {@link ResultSet}
+	 * 
+	 * @param statement The statement the result belongs to; closed together with
+	 *                  the cursor
+	 * @param result    The result to iterate over
+	 * @param reader    Converts the rows of {@code result}
+	 * @param onClose   Called after the cursor has been closed, e.g. to give back
+	 *                  the connection
+	 * @param timed     Whether to measure the time spent fetching rows
+	 * 
+	 */
+	RowCursor(PreparedStatement statement, ResultSet result, RowReader<T> reader, Consumer<RowCursor<T>> onClose,
+			boolean timed) {
+		this.statement = statement;
+		this.result = result;
+		this.reader = reader;
+		this.onClose = onClose;
+		this.timed = timed;
+	}
+
+	/**
+	 * Tests whether there is another row
+	 * 
+	 * @return {@code true} if {@link #next()} will return another row
+	 * 
+	 * @throws UncheckedSQLException If fetching the next row failed
+	 * 
+	 */
+	@Override
+	public boolean hasNext() {
+		if (closed)
+			return false;
+		if (!advanced) {
+			long start = timed ? System.nanoTime() : 0;
+			try {
+				hasRow = result.next();
+			} catch (SQLException e) {
+				throw fail(e);
+			} finally {
+				if (timed)
+					fetchNanos += System.nanoTime() - start;
+			}
+			advanced = true;
+			if (!hasRow)
+				closeQuietly();
+		}
+		return hasRow;
+	}
+
+	/**
+	 * Fetches the next row
+	 * 
+	 * @return The next row
+	 * 
+	 * @throws NoSuchElementException If there are no more rows
+	 * @throws UncheckedSQLException  If fetching the next row failed
+	 * 
+	 */
+	@Override
+	public T next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		advanced = false;
+		long start = timed ? System.nanoTime() : 0;
+		try {
+			T row = reader.read(result);
+			rows++;
+			return row;
+		} catch (SQLException e) {
+			throw fail(e);
+		} finally {
+			if (timed)
+				fetchNanos += System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Wraps the remaining rows in a sequential {@link Stream}. Closing the
+	 * {@link Stream} closes this cursor.
+	 * 
+	 * @return A {@link Stream} of the remaining rows
+	 * 
+	 */
+	public Stream<T> stream() {
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						close();
+					} catch (SQLException e) {
+						throw new UncheckedSQLException(e);
+					}
+				});
+	}
+
+	/**
+	 * Tests whether the cursor was closed, either explicitly or because all rows
+	 * were read
+	 * 
+	 * @return {@code true} if the cursor is closed
+	 * 
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Closes the result and gives back the connection. Does nothing if the cursor
+	 * is already closed.
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	@Override
+	public void close() throws SQLException {
+		if (closed)
+			return;
+		closed = true;
+		try {
+			try {
+				result.close();
+			} finally {
+				statement.close();
+			}
+		} finally {
+			onClose.accept(this);
+		}
+	}
+
+	/**
+	 * Gets the number of rows read so far
+	 * 
+	 * @return The number of rows returned by {@link #next()}
+	 * 
+	 */
+	long getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * Gets the time spent fetching and reading rows, if measured
+	 * 
+	 * @return The time in nanoseconds
+	 * 
+	 */
+	long getFetchNanos() {
+		return fetchNanos;
+	}
+
+	/**
+	 * Gets the error fetching rows failed with
+	 * 
+	 * @return The {@link SQLException}, or {@code null} if fetching did not fail
+	 * 
+	 */
+	SQLException getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Closes the cursor after fetching rows failed
+	 * 
+	 * @param e The error fetching rows failed with
+	 * 
+	 * @return Never returns normally
+	 * 
+	 * @throws UncheckedSQLException Always, wrapping {@code e}
+	 * 
+	 */
+	private UncheckedSQLException fail(SQLException e) {
+		failure = e;
+		closeQuietly();
+		throw new UncheckedSQLException(e);
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (SQLException e) {
+			// Already failing or exhausted, nothing left to report
+		}
+	}
+
+}
@@ -0,0 +1,501 @@
+package de.pentagonlp.database;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.pentagonlp.database.exceptions.RowMappingException;
+
+/**
+ * Creates {@link RowReader RowReaders} mapping rows directly into records or
+ * POJOs.<br>
+ * <br>
+ * Columns are matched to properties by name, ignoring case and underscores, so
+ * a column {@code user_id} fills a property {@code userId}. Records are created
+ * through their canonical constructor; other classes through their no argument
+ * constructor, after which properties are set through their setter if there is
+ * one, or directly otherwise. Columns without a matching property are ignored,
+ * properties without a matching column or with a {@code NULL} value keep their
+ * default.<br>
+ * <br>
+ * Which column fills which property is resolved once per class and
+ * {@link ColumnSchema} into {@link MethodHandle MethodHandles} and cached, so
+ * mapping a row does not use reflection.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class RowMappers {
+
+	/**
+	 * Maximum number of different {@link ColumnSchema ColumnSchemas} cached per
+	 * class
+	 * 
+	 */
+	private static final int MAXIMUM_SCHEMAS = 32;
+
+	/**
+	 * Mapping of each class, attached to the class itself so it does not keep
+	 * the class and its class loader from being unloaded
+	 * 
+	 */
+	private static final ClassValue<ClassMapping<?>> MAPPINGS = new ClassValue<ClassMapping<?>>() {
+
+		@Override
+		protected ClassMapping<?> computeValue(Class<?> type) {
+			return new ClassMapping<>(type);
+		}
+
+	};
+
+	// Records only exist since Java 16, so they are accessed reflectively
+	private static final Method IS_RECORD;
+	private static final Method GET_RECORD_COMPONENTS;
+	private static final Method COMPONENT_NAME;
+	private static final Method COMPONENT_TYPE;
+
+	static {
+		Method isRecord = null, getRecordComponents = null, componentName = null, componentType = null;
+		try {
+			isRecord = Class.class.getMethod("isRecord");
+			getRecordComponents = Class.class.getMethod("getRecordComponents");
+			Class<?> component = Class.forName("java.lang.reflect.RecordComponent");
+			componentName = component.getMethod("getName");
+			componentType = component.getMethod("getType");
+		} catch (ReflectiveOperationException e) {
+			isRecord = null;
+		}
+		IS_RECORD = isRecord;
+		GET_RECORD_COMPONENTS = getRecordComponents;
+		COMPONENT_NAME = componentName;
+		COMPONENT_TYPE = componentType;
+	}
+
+	private RowMappers() {
+	}
+
+	/**
+	 * Gets a {@link RowReader} mapping rows of a result into objects of a class
+	 * 
+	 * @param <T>    The class to map rows into
+	 * @param type   The class to map rows into
+	 * @param schema The {@link ColumnSchema} of the result
+	 * 
+	 * @return The {@link RowReader}
+	 * 
+	 * @throws RowMappingException If the class can not be instantiated
+	 * 
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> RowReader<T> forClass(Class<T> type, ColumnSchema schema) {
+		ClassMapping<T> mapping = (ClassMapping<T>) MAPPINGS.get(type);
+		return mapping.reader(schema);
+	}
+
+	/**
+	 * Normalizes a column or property name for matching
+	 * 
+	 * @param name The name
+	 * 
+	 * @return The name in lower case without underscores
+	 * 
+	 */
+	private static String normalize(String name) {
+		return name.replace("_", "").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * A property of the mapped class which can be filled from a column
+	 * 
+	 */
+	private static final class Property {
+
+		private final Class<?> type;
+		/**
+		 * Index of the constructor parameter for records
+		 * 
+		 */
+		private final int parameter;
+		/**
+		 * Setter of type {@code (Object, Object)void} for POJOs
+		 * 
+		 */
+		private final MethodHandle setter;
+
+		private Property(Class<?> type, int parameter, MethodHandle setter) {
+			this.type = type;
+			this.parameter = parameter;
+			this.setter = setter;
+		}
+
+	}
+
+	/**
+	 * The properties and constructor of a mapped class, and its cached
+	 * {@link RowReader RowReaders} per {@link ColumnSchema}
+	 * 
+	 * @param <T> The mapped class
+	 * 
+	 */
+	private static final class ClassMapping<T> {
+
+		private final Class<T> type;
+		private final boolean record;
+		/**
+		 * Canonical constructor of type {@code (Object[])Object} for records, or
+		 * no argument constructor of type {@code ()Object} for POJOs
+		 * 
+		 */
+		private final MethodHandle constructor;
+		/**
+		 * Default values of the constructor parameters of records
+		 * 
+		 */
+		private final Object[] defaults;
+		private final HashMap<String, Property> properties = new HashMap<>();
+
+		private final ConcurrentHashMap<ColumnSchema, RowReader<T>> readers = new ConcurrentHashMap<>();
+
+		private ClassMapping(Class<T> type) {
+			this.type = type;
+			this.record = isRecord(type);
+
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			try {
+				if (record) {
+					Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+					Class<?>[] types = new Class<?>[components.length];
+					defaults = new Object[components.length];
+					for (int i = 0; i < components.length; i++) {
+						types[i] = (Class<?>) COMPONENT_TYPE.invoke(components[i]);
+						defaults[i] = defaultValue(types[i]);
+						properties.put(normalize((String) COMPONENT_NAME.invoke(components[i])),
+								new Property(types[i], i, null));
+					}
+
+					Constructor<T> canonical = type.getDeclaredConstructor(types);
+					canonical.setAccessible(true);
+					constructor = lookup.unreflectConstructor(canonical)
+							.asType(MethodType.methodType(Object.class, types))
+							.asSpreader(Object[].class, types.length);
+				} else {
+					Constructor<T> noArguments = type.getDeclaredConstructor();
+					noArguments.setAccessible(true);
+					constructor = lookup.unreflectConstructor(noArguments)
+							.asType(MethodType.methodType(Object.class));
+					defaults = null;
+					collectProperties(lookup);
+				}
+			} catch (NoSuchMethodException e) {
+				throw new RowMappingException(type.getName() + (record ? " has no canonical constructor"
+						: " has no constructor without arguments"), e);
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				throw new RowMappingException("Cannot map rows into " + type.getName(), e);
+			}
+		}
+
+		/**
+		 * Collects the fields of a POJO and its superclasses, using their setters
+		 * where available
+		 * 
+		 * @param lookup Used to create the setter {@link MethodHandle
+		 *               MethodHandles}
+		 * 
+		 * @throws IllegalAccessException
+		 * 
+		 */
+		private void collectProperties(MethodHandles.Lookup lookup) throws IllegalAccessException {
+			MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+
+			for (Class<?> current = type; current != null && current != Object.class; current = current
+					.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					String name = normalize(field.getName());
+					// Fields of subclasses hide fields of superclasses
+					if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic()
+							|| properties.containsKey(name))
+						continue;
+
+					MethodHandle setter;
+					Method method = findSetter(field);
+					if (method != null) {
+						// Public setters of non-public classes are not accessible either
+						method.setAccessible(true);
+						setter = lookup.unreflect(method);
+					} else {
+						field.setAccessible(true);
+						setter = lookup.unreflectSetter(field);
+					}
+					properties.put(name, new Property(field.getType(), -1, setter.asType(setterType)));
+				}
+			}
+		}
+
+		private Method findSetter(Field field) {
+			String name = "set" + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+			try {
+				Method method = type.getMethod(name, field.getType());
+				return Modifier.isStatic(method.getModifiers()) ? null : method;
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * Gets the {@link RowReader} for a result, resolving the columns to
+		 * properties if the {@link ColumnSchema} was not seen before
+		 * 
+		 * @param schema The {@link ColumnSchema} of the result
+		 * 
+		 * @return The {@link RowReader}
+		 * 
+		 */
+		private RowReader<T> reader(ColumnSchema schema) {
+			RowReader<T> reader = readers.get(schema);
+			if (reader != null)
+				return reader;
+			reader = createReader(schema);
+			if (readers.size() < MAXIMUM_SCHEMAS)
+				readers.putIfAbsent(schema, reader);
+			return reader;
+		}
+
+		private RowReader<T> createReader(ColumnSchema schema) {
+			int[] columns = new int[schema.getColumnCount()];
+			Property[] targets = new Property[columns.length];
+			ValueReader[] valueReaders = new ValueReader[columns.length];
+
+			int bound = 0;
+			for (int column = 0; column < columns.length; column++) {
+				Property property = properties.get(normalize(schema.getColumnName(column)));
+				// Only the first column matching a property fills it
+				if (property == null || contains(targets, bound, property))
+					continue;
+				columns[bound] = column + 1;
+				targets[bound] = property;
+				valueReaders[bound] = ValueReader.of(property.type, schema.getValueType(column));
+				bound++;
+			}
+
+			return record ? recordReader(bound, columns, targets, valueReaders)
+					: pojoReader(bound, columns, targets, valueReaders);
+		}
+
+		private RowReader<T> recordReader(int bound, int[] columns, Property[] targets, ValueReader[] valueReaders) {
+			int[] parameters = new int[bound];
+			for (int i = 0; i < bound; i++)
+				parameters[i] = targets[i].parameter;
+
+			return sqlresult -> {
+				Object[] arguments = defaults.clone();
+				for (int i = 0; i < bound; i++) {
+					Object value = valueReaders[i].read(sqlresult, columns[i]);
+					if (value != null)
+						arguments[parameters[i]] = value;
+				}
+				try {
+					return type.cast((Object) constructor.invokeExact(arguments));
+				} catch (Throwable e) {
+					throw failed(e);
+				}
+			};
+		}
+
+		private RowReader<T> pojoReader(int bound, int[] columns, Property[] targets, ValueReader[] valueReaders) {
+			MethodHandle[] setters = new MethodHandle[bound];
+			for (int i = 0; i < bound; i++)
+				setters[i] = targets[i].setter;
+
+			return sqlresult -> {
+				try {
+					Object instance = (Object) constructor.invokeExact();
+					for (int i = 0; i < bound; i++) {
+						Object value = valueReaders[i].read(sqlresult, columns[i]);
+						if (value != null)
+							setters[i].invokeExact(instance, value);
+					}
+					return type.cast(instance);
+				} catch (SQLException e) {
+					throw e;
+				} catch (Throwable e) {
+					throw failed(e);
+				}
+			};
+		}
+
+		private RowMappingException failed(Throwable e) {
+			if (e instanceof Error)
+				throw (Error) e;
+			if (e instanceof RowMappingException)
+				return (RowMappingException) e;
+			return new RowMappingException("Cannot map row into " + type.getName(), e);
+		}
+
+		private static boolean contains(Property[] properties, int length, Property property) {
+			for (int i = 0; i < length; i++)
+				if (properties[i] == property)
+					return true;
+			return false;
+		}
+
+		private static boolean isRecord(Class<?> type) {
+			if (IS_RECORD == null)
+				return false;
+			try {
+				return (Boolean) IS_RECORD.invoke(type);
+			} catch (ReflectiveOperationException e) {
+				return false;
+			}
+		}
+
+		private static Object defaultValue(Class<?> type) {
+			return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+		}
+
+	}
+
+	/**
+	 * Reads a column with the JDBC getter matching the Java type of the
+	 * property it fills
+	 * 
+	 */
+	@FunctionalInterface
+	private interface ValueReader {
+
+		/**
+		 * Reads a column of the current row
+		 * 
+		 * @param result The {@link ResultSet}
+		 * @param column Index of the column, starting at {@code 1}
+		 * 
+		 * @return The value, or {@code null} if it is {@code NULL}
+		 * 
+		 * @throws SQLException
+		 * 
+		 */
+		Object read(ResultSet result, int column) throws SQLException;
+
+		/**
+		 * Chooses the {@link ValueReader} for a property
+		 * 
+		 * @param type      Java type of the property
+		 * @param valueType {@link ValueType} of the column
+		 * 
+		 * @return The {@link ValueReader}
+		 * 
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		static ValueReader of(Class<?> type, ValueType valueType) {
+			if (type == Object.class)
+				return valueType::read;
+			if (type == DataElement.class)
+				return valueType::readElement;
+			if (type == String.class)
+				return ResultSet::getString;
+			if (type == int.class || type == Integer.class)
+				return (result, column) -> {
+					int value = result.getInt(column);
+					return result.wasNull() ? null : value;
+				};
+			if (type == long.class || type == Long.class)
+				return (result, column) -> {
+					long value = result.getLong(column);
+					return result.wasNull() ? null : value;
+				};
+			if (type == double.class || type == Double.class)
+				return (result, column) -> {
+					double value = result.getDouble(column);
+					return result.wasNull() ? null : value;
+				};
+			if (type == float.class || type == Float.class)
+				return (result, column) -> {
+					float value = result.getFloat(column);
+					return result.wasNull() ? null : value;
+				};
+			if (type == short.class || type == Short.class)
+				return (result, column) -> {
+					short value = result.getShort(column);
+					return result.wasNull() ? null : value;
+				};
+			if (type == byte.class || type == Byte.class)
+				return (result, column) -> {
+					byte value = result.getByte(column);
+					return result.wasNull() ? null : value;
+				};
+			if (type == boolean.class || type == Boolean.class)
+				return (result, column) -> {
+					boolean value = result.getBoolean(column);
+					return result.wasNull() ? null : value;
+				};
+			if (type == BigDecimal.class)
+				return ResultSet::getBigDecimal;
+			if (type == BigInteger.class)
+				return (result, column) -> {
+					BigDecimal value = result.getBigDecimal(column);
+					return value == null ? null : value.toBigInteger();
+				};
+			if (type == byte[].class)
+				return ResultSet::getBytes;
+			if (type == Timestamp.class || type == java.util.Date.class)
+				return ResultSet::getTimestamp;
+			if (type == java.sql.Date.class)
+				return ResultSet::getDate;
+			if (type == Time.class)
+				return ResultSet::getTime;
+			if (type == LocalDateTime.class)
+				return (result, column) -> {
+					Timestamp value = result.getTimestamp(column);
+					return value == null ? null : value.toLocalDateTime();
+				};
+			if (type == LocalDate.class)
+				return (result, column) -> {
+					java.sql.Date value = result.getDate(column);
+					return value == null ? null : value.toLocalDate();
+				};
+			if (type == LocalTime.class)
+				return (result, column) -> {
+					Time value = result.getTime(column);
+					return value == null ? null : value.toLocalTime();
+				};
+			if (type == Instant.class)
+				return (result, column) -> {
+					Timestamp value = result.getTimestamp(column);
+					return value == null ? null : value.toInstant();
+				};
+			if (type.isEnum())
+				return (result, column) -> {
+					String value = result.getString(column);
+					if (value == null)
+						return null;
+					try {
+						return Enum.valueOf((Class<? extends Enum>) type, value);
+					} catch (IllegalArgumentException e) {
+						throw new RowMappingException(
+								"'" + value + "' is no constant of " + type.getName() + " in column " + column, e);
+					}
+				};
+			return (result, column) -> result.getObject(column, type);
+		}
+
+	}
+
+}
@@ -0,0 +1,76 @@
+package de.pentagonlp.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+
+/**
+ * Converts the current row of a {@link ResultSet} into another representation.
+ * Created once per {@link ResultSet}, so work depending only on the
+ * {@link java.sql.ResultSetMetaData ResultSetMetaData} is done up front.
+ * 
+ * @author PentagonLP
+ * 
+ * @param <T> Type of the row representation
+ * 
+ */
+@FunctionalInterface
+interface RowReader<T> {
+
+	/**
+	 * Converts the row the {@link ResultSet} is currently positioned on
+	 * 
+	 * @param result The {@link ResultSet}
+	 * 
+	 * @return The converted row
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	T read(ResultSet result) throws SQLException;
+
+	/**
+	 * Creates a {@link RowReader} converting rows into {@link HashMap HashMaps}
+	 * mapping column names to {@link DataElement DataElements}
+	 * 
+	 * @param schema The {@link ColumnSchema} of the {@link ResultSet}
+	 * 
+	 * @return The {@link RowReader}
+	 * 
+	 */
+	static RowReader<HashMap<String, DataElement>> hashMaps(ColumnSchema schema) {
+		int columns = schema.getColumnCount();
+
+		// Avoid rehashing while filling the map
+		int capacity = (int) (columns / 0.75f) + 1;
+
+		return sqlresult -> {
+			HashMap<String, DataElement> currentrow = new HashMap<>(capacity);
+			for (int collumid = 1; collumid <= columns; collumid++)
+				currentrow.put(schema.getColumnName(collumid - 1),
+						schema.getValueType(collumid - 1).readElement(sqlresult, collumid));
+			return currentrow;
+		};
+	}
+
+	/**
+	 * Creates a {@link RowReader} converting rows into compact {@link Row Rows}
+	 * sharing a single {@link ColumnSchema}
+	 * 
+	 * @param schema The {@link ColumnSchema} of the {@link ResultSet}
+	 * 
+	 * @return The {@link RowReader}
+	 * 
+	 */
+	static RowReader<Row> rows(ColumnSchema schema) {
+		int columns = schema.getColumnCount();
+
+		return sqlresult -> {
+			Object[] values = new Object[columns];
+			for (int collumid = 1; collumid <= columns; collumid++)
+				values[collumid - 1] = schema.getValueType(collumid - 1).read(sqlresult, collumid);
+			return new Row(schema, values);
+		};
+	}
+
+}
@@ -0,0 +1,29 @@
+package de.pentagonlp.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Creates a {@link RowReader} for a {@link ResultSet}
+ * 
+ * @author PentagonLP
+ * 
+ * @param <T> Type of the row representation
+ * 
+ */
+@FunctionalInterface
+interface RowReaderFactory<T> {
+
+	/**
+	 * Creates a {@link RowReader} for a {@link ResultSet}
+	 * 
+	 * @param result The {@link ResultSet}
+	 * 
+	 * @return The {@link RowReader}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	RowReader<T> create(ResultSet result) throws SQLException;
+
+}
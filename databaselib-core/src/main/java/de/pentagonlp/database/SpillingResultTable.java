@@ -0,0 +1,436 @@
+package de.pentagonlp.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A whole result which keeps its {@link Row Rows} on the heap only up to a
+ * byte budget. Once the estimated size of the rows exceeds the budget, all
+ * further rows are written to a temporary file in a compact binary format,
+ * which is memory mapped for reading. Rows are still accessible by index, so
+ * results larger than the heap can be used like a {@link ResultTable}.<br>
+ * <br>
+ * Rows read from the file are decoded on every access. Values of types other
+ * than numbers, booleans, text, binary data and the {@code java.sql} date and
+ * time types are stored as their {@link Object#toString()}.<br>
+ * The table must be closed to delete the temporary file; it should always be
+ * used in a try-with-resources block.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#getSpillingResultTable(String, Object...)
+ * 
+ */
+public class SpillingResultTable extends AbstractList<Row> implements RandomAccess, Closeable {
+
+	/**
+	 * Largest part of the file mapped at once, as a single mapping is limited to
+	 * {@link Integer#MAX_VALUE} bytes
+	 * 
+	 */
+	private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+	private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+	private static final byte NULL = 0;
+	private static final byte LONG = 1;
+	private static final byte INTEGER = 2;
+	private static final byte SHORT = 3;
+	private static final byte BYTE = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte FLOAT = 6;
+	private static final byte BOOLEAN = 7;
+	private static final byte DECIMAL = 8;
+	private static final byte BIG_INTEGER = 9;
+	private static final byte BYTES = 10;
+	private static final byte TIMESTAMP = 11;
+	private static final byte DATE = 12;
+	private static final byte TIME = 13;
+	private static final byte STRING = 14;
+
+	private final ColumnSchema schema;
+	private final long memoryLimit;
+	private final Path directory;
+
+	private final ArrayList<Row> heapRows = new ArrayList<>();
+	private long heapBytes = 0;
+
+	private Path file;
+	private FileChannel channel;
+	private ByteBuffer writeBuffer;
+	private long written = 0;
+	/**
+	 * Position of each row in the file, followed by the end of the last row
+	 * 
+	 */
+	private long[] offsets;
+	private int spilledRows = 0;
+
+	/**
+	 * Mapped parts of the file, each starting at a row, and the index of the
+	 * first spilled row in each of them
+	 * 
+	 */
+	private ByteBuffer[] segments;
+	private int[] segmentRows;
+	private long[] segmentStarts;
+
+	private boolean closed = false;
+
+	/**
+	 * Creates an empty {@link SpillingResultTable}
+	 * 
+	 * @param schema      The column names of the result
+	 * @param memoryLimit Estimated number of bytes the rows may use on the heap
+	 * @param directory   Directory of the temporary file; {@code null} for the
+	 *                    default temporary directory
+	 * 
+	 */
+	SpillingResultTable(ColumnSchema schema, long memoryLimit, Path directory) {
+		this.schema = schema;
+		this.memoryLimit = memoryLimit;
+		this.directory = directory;
+	}
+
+	/**
+	 * Add a row, writing it to the file if the heap budget is used up
+	 * 
+	 * @param row The row
+	 * 
+	 * @throws IOException If writing the file failed
+	 * 
+	 */
+	void addRow(Row row) throws IOException {
+		if (channel == null) {
+			long size = estimateSize(row);
+			if (heapBytes + size <= memoryLimit) {
+				heapRows.add(row);
+				heapBytes += size;
+				return;
+			}
+			startSpilling();
+		}
+		if (spilledRows + 1 == offsets.length)
+			offsets = Arrays.copyOf(offsets, offsets.length * 2);
+		offsets[spilledRows++] = written + writeBuffer.position();
+		for (int column = 0; column < row.size(); column++)
+			writeValue(row.getValue(column));
+	}
+
+	/**
+	 * Finish adding rows and map the file for reading
+	 * 
+	 * @throws IOException If writing or mapping the file failed
+	 * 
+	 */
+	void seal() throws IOException {
+		if (channel == null)
+			return;
+		flush();
+		offsets[spilledRows] = written;
+
+		ArrayList<ByteBuffer> mapped = new ArrayList<>();
+		ArrayList<Integer> firstRows = new ArrayList<>();
+		ArrayList<Long> starts = new ArrayList<>();
+		int first = 0;
+		while (first < spilledRows) {
+			// Each part ends before the first row which would not fit into it
+			int end = first + 1;
+			while (end < spilledRows && offsets[end + 1] - offsets[first] <= MAX_SEGMENT_SIZE)
+				end++;
+			mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, offsets[first], offsets[end] - offsets[first]));
+			firstRows.add(first);
+			starts.add(offsets[first]);
+			first = end;
+		}
+		segments = mapped.toArray(new ByteBuffer[mapped.size()]);
+		segmentRows = new int[segments.length];
+		segmentStarts = new long[segments.length];
+		for (int i = 0; i < segments.length; i++) {
+			segmentRows[i] = firstRows.get(i);
+			segmentStarts[i] = starts.get(i);
+		}
+		writeBuffer = null;
+	}
+
+	/**
+	 * Gets the {@link ColumnSchema} shared by all rows
+	 * 
+	 * @return The {@link ColumnSchema}
+	 * 
+	 */
+	public ColumnSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Gets the first row
+	 * 
+	 * @return The first row, or {@code null} if the result is empty
+	 * 
+	 */
+	public Row getFirstRow() {
+		return isEmpty() ? null : get(0);
+	}
+
+	/**
+	 * Tests whether rows were written to a temporary file
+	 * 
+	 * @return {@code true} if the rows exceeded the heap budget
+	 * 
+	 */
+	public boolean isSpilled() {
+		return channel != null;
+	}
+
+	/**
+	 * Gets the number of rows kept on the heap
+	 * 
+	 * @return The number of rows which are not read from the temporary file
+	 * 
+	 */
+	public int getHeapRowCount() {
+		return heapRows.size();
+	}
+
+	/**
+	 * Gets a row. Rows kept on the heap are returned as they are, rows in the
+	 * temporary file are decoded into a new {@link Row}.
+	 * 
+	 * @param index Index of the row, starting at {@code 0}
+	 * 
+	 * @return The row
+	 * 
+	 * @throws IllegalStateException If the table was closed
+	 * 
+	 */
+	@Override
+	public Row get(int index) {
+		if (closed)
+			throw new IllegalStateException("Result table was closed");
+		if (index < heapRows.size())
+			return heapRows.get(index);
+		int spilled = index - heapRows.size();
+		if (spilled >= spilledRows || index < 0)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+
+		int segment = Arrays.binarySearch(segmentRows, spilled);
+		if (segment < 0)
+			segment = -segment - 2;
+		// Duplicates keep concurrent reads from sharing a position
+		ByteBuffer buffer = segments[segment].duplicate();
+		((Buffer) buffer).position((int) (offsets[spilled] - segmentStarts[segment]));
+
+		Object[] values = new Object[schema.getColumnCount()];
+		for (int column = 0; column < values.length; column++)
+			values[column] = readValue(buffer);
+		return new Row(schema, values);
+	}
+
+	@Override
+	public int size() {
+		return heapRows.size() + spilledRows;
+	}
+
+	/**
+	 * Closes the table and deletes its temporary file. Does nothing if the table
+	 * is already closed.
+	 * 
+	 * @throws IOException If the file could not be deleted
+	 * 
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		heapRows.clear();
+		segments = null;
+		offsets = null;
+		writeBuffer = null;
+		if (channel == null)
+			return;
+		try {
+			channel.close();
+		} finally {
+			// Opened with DELETE_ON_CLOSE, but not every platform supports it
+			// while the file is still mapped
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				file.toFile().deleteOnExit();
+			}
+		}
+	}
+
+	private void startSpilling() throws IOException {
+		file = directory == null ? Files.createTempFile("databaselib-", ".rows")
+				: Files.createTempFile(directory, "databaselib-", ".rows");
+		try {
+			channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+		offsets = new long[1024];
+	}
+
+	private void writeValue(Object value) throws IOException {
+		if (value == null) {
+			reserve(1).put(NULL);
+		} else if (value instanceof Long) {
+			reserve(9).put(LONG).putLong((Long) value);
+		} else if (value instanceof Integer) {
+			reserve(5).put(INTEGER).putInt((Integer) value);
+		} else if (value instanceof Short) {
+			reserve(3).put(SHORT).putShort((Short) value);
+		} else if (value instanceof Byte) {
+			reserve(2).put(BYTE).put((Byte) value);
+		} else if (value instanceof Double) {
+			reserve(9).put(DOUBLE).putDouble((Double) value);
+		} else if (value instanceof Float) {
+			reserve(5).put(FLOAT).putFloat((Float) value);
+		} else if (value instanceof Boolean) {
+			reserve(2).put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+		} else if (value instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) value;
+			reserve(5).put(DECIMAL).putInt(decimal.scale());
+			writeBytes(decimal.unscaledValue().toByteArray());
+		} else if (value instanceof BigInteger) {
+			reserve(1).put(BIG_INTEGER);
+			writeBytes(((BigInteger) value).toByteArray());
+		} else if (value instanceof byte[]) {
+			reserve(1).put(BYTES);
+			writeBytes((byte[]) value);
+		} else if (value instanceof Timestamp) {
+			Timestamp timestamp = (Timestamp) value;
+			reserve(13).put(TIMESTAMP).putLong(timestamp.getTime()).putInt(timestamp.getNanos());
+		} else if (value instanceof Date) {
+			reserve(9).put(DATE).putLong(((Date) value).getTime());
+		} else if (value instanceof Time) {
+			reserve(9).put(TIME).putLong(((Time) value).getTime());
+		} else {
+			reserve(1).put(STRING);
+			writeBytes(value.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private void writeBytes(byte[] data) throws IOException {
+		reserve(4).putInt(data.length);
+		if (data.length <= writeBuffer.capacity()) {
+			reserve(data.length).put(data);
+			return;
+		}
+		// Larger than the buffer, written directly
+		flush();
+		ByteBuffer source = ByteBuffer.wrap(data);
+		while (source.hasRemaining())
+			written += channel.write(source, written);
+	}
+
+	/**
+	 * Make sure the write buffer has space for a number of bytes
+	 * 
+	 */
+	private ByteBuffer reserve(int bytes) throws IOException {
+		if (writeBuffer.remaining() < bytes)
+			flush();
+		return writeBuffer;
+	}
+
+	private void flush() throws IOException {
+		((Buffer) writeBuffer).flip();
+		while (writeBuffer.hasRemaining())
+			written += channel.write(writeBuffer, written);
+		((Buffer) writeBuffer).clear();
+	}
+
+	private static Object readValue(ByteBuffer buffer) {
+		byte type = buffer.get();
+		switch (type) {
+		case NULL:
+			return null;
+		case LONG:
+			return buffer.getLong();
+		case INTEGER:
+			return buffer.getInt();
+		case SHORT:
+			return buffer.getShort();
+		case BYTE:
+			return buffer.get();
+		case DOUBLE:
+			return buffer.getDouble();
+		case FLOAT:
+			return buffer.getFloat();
+		case BOOLEAN:
+			return buffer.get() != 0;
+		case DECIMAL:
+			int scale = buffer.getInt();
+			return new BigDecimal(new BigInteger(readBytes(buffer)), scale);
+		case BIG_INTEGER:
+			return new BigInteger(readBytes(buffer));
+		case BYTES:
+			return readBytes(buffer);
+		case TIMESTAMP:
+			Timestamp timestamp = new Timestamp(buffer.getLong());
+			timestamp.setNanos(buffer.getInt());
+			return timestamp;
+		case DATE:
+			return new Date(buffer.getLong());
+		case TIME:
+			return new Time(buffer.getLong());
+		case STRING:
+			return new String(readBytes(buffer), StandardCharsets.UTF_8);
+		default:
+			throw new IllegalStateException("Corrupt result file: unknown value type " + type);
+		}
+	}
+
+	private static byte[] readBytes(ByteBuffer buffer) {
+		byte[] data = new byte[buffer.getInt()];
+		buffer.get(data);
+		return data;
+	}
+
+	/**
+	 * Estimate the heap size of a row, including the object headers of its
+	 * values
+	 * 
+	 */
+	private static long estimateSize(Row row) {
+		// Row, value array and the reference in the list
+		long size = 16 + 16 + 8L * row.size() + 8;
+		for (int column = 0; column < row.size(); column++) {
+			Object value = row.getValue(column);
+			if (value == null)
+				continue;
+			if (value instanceof String)
+				size += 40 + 2L * ((String) value).length();
+			else if (value instanceof byte[])
+				size += 16 + ((byte[]) value).length;
+			else if (value instanceof BigDecimal || value instanceof BigInteger)
+				size += 64;
+			else
+				size += 24;
+		}
+		return size;
+	}
+
+}
@@ -0,0 +1,111 @@
+package de.pentagonlp.database;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the names of the tables a SQL statement reads or writes and
+ * whether it only reads. Only a heuristic for cache invalidation and
+ * connection routing, not a SQL parser; schema prefixes and
+ * quoting are removed and names are compared case-insensitively.
+ * 
+ * @author PentagonLP
+ * 
+ */
+final class SqlTables {
+
+	private static final String NAME = "[`\"\\[]?[\\w$]+[`\"\\]]?(?:\\s*\\.\\s*[`\"\\[]?[\\w$]+[`\"\\]]?)?";
+
+	private static final Pattern READ = Pattern.compile(
+			"\\b(?:FROM|JOIN)\\s+(" + NAME + "(?:\\s*(?:AS\\s+)?\\w*\\s*,\\s*" + NAME + ")*)",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern WRITE = Pattern.compile("^\\s*(?:INSERT\\s+(?:OR\\s+\\w+\\s+)?(?:IGNORE\\s+)?INTO"
+			+ "|REPLACE\\s+INTO|UPDATE(?:\\s+OR\\s+\\w+)?(?:\\s+IGNORE)?|DELETE\\s+FROM|TRUNCATE(?:\\s+TABLE)?"
+			+ "|DROP\\s+TABLE(?:\\s+IF\\s+EXISTS)?|ALTER\\s+TABLE)\\s+(" + NAME + ")", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern SINGLE_NAME = Pattern.compile(NAME);
+
+	private static final Pattern SELECT = Pattern.compile("^[\\s(]*(?:SELECT|VALUES)\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern WITH = Pattern.compile("^\\s*WITH\\b", Pattern.CASE_INSENSITIVE);
+	private static final Pattern MODIFYING = Pattern.compile("\\b(?:INSERT|UPDATE|DELETE|REPLACE)\\b",
+			Pattern.CASE_INSENSITIVE);
+	private static final Pattern LOCKING = Pattern.compile("\\bFOR\\s+(?:UPDATE|SHARE)\\b|\\bLOCK\\s+IN\\s+SHARE\\s+MODE\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private SqlTables() {
+	}
+
+	/**
+	 * Gets the tables a query reads from
+	 * 
+	 * @param sql The query
+	 * 
+	 * @return The normalized names of all tables after {@code FROM} or
+	 *         {@code JOIN}
+	 * 
+	 */
+	static HashSet<String> readTables(String sql) {
+		HashSet<String> tables = new HashSet<>();
+		Matcher matcher = READ.matcher(sql);
+		while (matcher.find()) {
+			// "FROM a x, b y" lists several tables, possibly with aliases
+			for (String part : matcher.group(1).split(",")) {
+				Matcher name = SINGLE_NAME.matcher(part.trim());
+				if (name.lookingAt())
+					tables.add(normalize(name.group()));
+			}
+		}
+		return tables;
+	}
+
+	/**
+	 * Gets the table a data modifying statement writes to
+	 * 
+	 * @param sql The statement
+	 * 
+	 * @return The normalized name of the table, or {@code null} if it could not
+	 *         be determined
+	 * 
+	 */
+	static String writtenTable(String sql) {
+		Matcher matcher = WRITE.matcher(sql);
+		return matcher.find() ? normalize(matcher.group(1)) : null;
+	}
+
+	/**
+	 * Checks whether a statement only reads, so it may run on a read-only
+	 * connection
+	 * 
+	 * @param sql The statement
+	 * 
+	 * @return {@code true} for {@code SELECT} and {@code VALUES} statements and
+	 *         for {@code WITH} queries not containing a data modifying keyword,
+	 *         unless they lock rows ({@code FOR UPDATE}, {@code FOR SHARE})
+	 * 
+	 */
+	static boolean isReadOnly(String sql) {
+		boolean read = SELECT.matcher(sql).lookingAt()
+				|| WITH.matcher(sql).lookingAt() && !MODIFYING.matcher(sql).find();
+		return read && !LOCKING.matcher(sql).find();
+	}
+
+	/**
+	 * Removes quotes and schema prefixes from a table name and converts it to
+	 * lower case
+	 * 
+	 * @param name The table name as written in the statement
+	 * 
+	 * @return The normalized name
+	 * 
+	 */
+	static String normalize(String name) {
+		int dot = name.lastIndexOf('.');
+		if (dot >= 0)
+			name = name.substring(dot + 1);
+		return name.replaceAll("[`\"\\[\\]\\s]", "").toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,148 @@
+package de.pentagonlp.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of {@link PreparedStatement PreparedStatements} of
+ * a single physical {@link Connection}, keyed by their SQL text and whether
+ * they return generated keys.<br>
+ * Like the {@link Connection} itself, a {@link StatementCache} must only be
+ * used by one thread at a time.
+ * 
+ * @author PentagonLP
+ * 
+ */
+class StatementCache {
+
+	/**
+	 * Prefixed to the SQL text of statements returning generated keys; cannot
+	 * appear in valid SQL
+	 * 
+	 */
+	private static final String GENERATED_KEYS_PREFIX = "\u0000";
+
+	private final Connection connection;
+	private final int maximumSize;
+	private final CacheStatistics statistics;
+
+	private final LinkedHashMap<String, PreparedStatement> statements;
+
+	/**
+	 * Creates an empty {@link StatementCache}
+	 * 
+	 * @param connection  The {@link Connection} to prepare statements on
+	 * @param maximumSize Maximum number of statements kept open
+	 * @param statistics  Counters to record hits, misses and evictions in
+	 * 
+	 */
+	StatementCache(Connection connection, int maximumSize, CacheStatistics statistics) {
+		this.connection = connection;
+		this.maximumSize = maximumSize;
+		this.statistics = statistics;
+		this.statements = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Gets the cached {@link PreparedStatement} for a SQL text, or prepares and
+	 * caches a new one. The statement must not be closed by the caller; use
+	 * {@link #release(PreparedStatement)} after usage instead.
+	 * 
+	 * @param sql               The SQL text
+	 * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or
+	 *                          {@link Statement#NO_GENERATED_KEYS}
+	 * 
+	 * @return A {@link PreparedStatement} for {@code sql}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+		String key = key(sql, autoGeneratedKeys);
+		PreparedStatement statement = statements.get(key);
+		if (statement != null) {
+			statistics.recordHit();
+			return statement;
+		}
+
+		statistics.recordMiss();
+		statement = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+				? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+				: connection.prepareStatement(sql);
+		statements.put(key, statement);
+
+		if (statements.size() > maximumSize) {
+			Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+			PreparedStatement evicted = eldest.next().getValue();
+			eldest.remove();
+			statistics.recordEviction();
+			close(evicted);
+		}
+		return statement;
+	}
+
+	/**
+	 * Gives a statement obtained through {@link #prepare(String, int)} back
+	 * after a successful execution
+	 * 
+	 * @param statement The statement to give back
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	void release(PreparedStatement statement) throws SQLException {
+		statement.clearParameters();
+	}
+
+	/**
+	 * Removes a statement from the cache and closes it, e.g. after its execution
+	 * failed
+	 * 
+	 * @param sql               The SQL text the statement was prepared for
+	 * @param autoGeneratedKeys The flag the statement was prepared with
+	 * @param statement         The statement to remove
+	 * 
+	 */
+	void invalidate(String sql, int autoGeneratedKeys, PreparedStatement statement) {
+		statements.remove(key(sql, autoGeneratedKeys), statement);
+		close(statement);
+	}
+
+	/**
+	 * Closes and removes all cached statements
+	 * 
+	 */
+	void clear() {
+		for (PreparedStatement statement : statements.values())
+			close(statement);
+		statements.clear();
+	}
+
+	/**
+	 * Gets the number of statements currently cached
+	 * 
+	 * @return The number of cached statements
+	 * 
+	 */
+	int size() {
+		return statements.size();
+	}
+
+	private static String key(String sql, int autoGeneratedKeys) {
+		return autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? GENERATED_KEYS_PREFIX + sql : sql;
+	}
+
+	private static void close(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			// Statement is discarded anyway
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package de.pentagonlp.database;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Base of the parsers of {@link FileFormat FileFormats}. Reads the input
+ * through its own buffer, so records are parsed character by character without
+ * reading whole lines into memory first.
+ * 
+ * @author PentagonLP
+ * 
+ */
+abstract class TextRecordReader {
+
+	private final Reader reader;
+	private final char[] buffer;
+	private int position = 0;
+	private int limit = 0;
+	private long line = 1;
+
+	/**
+	 * Creates a {@link TextRecordReader}
+	 * 
+	 * @param reader     The input
+	 * @param bufferSize Size of the buffer in characters
+	 * 
+	 */
+	TextRecordReader(Reader reader, int bufferSize) {
+		this.reader = reader;
+		this.buffer = new char[bufferSize];
+	}
+
+	/**
+	 * Read the next character
+	 * 
+	 * @return The character, or {@code -1} at the end of the input
+	 * 
+	 * @throws IOException
+	 * 
+	 */
+	final int read() throws IOException {
+		if (position == limit && !fill())
+			return -1;
+		char c = buffer[position++];
+		if (c == '\n')
+			line++;
+		return c;
+	}
+
+	/**
+	 * Get the next character without consuming it
+	 * 
+	 * @return The character, or {@code -1} at the end of the input
+	 * 
+	 * @throws IOException
+	 * 
+	 */
+	final int peek() throws IOException {
+		if (position == limit && !fill())
+			return -1;
+		return buffer[position];
+	}
+
+	private boolean fill() throws IOException {
+		int read;
+		do
+			read = reader.read(buffer, 0, buffer.length);
+		while (read == 0);
+		if (read < 0)
+			return false;
+		position = 0;
+		limit = read;
+		return true;
+	}
+
+	/**
+	 * Create an error pointing at the current line of the input
+	 * 
+	 * @param message Description of the error
+	 * 
+	 * @return The {@link IOException}
+	 * 
+	 */
+	final IOException error(String message) {
+		return new IOException("Line " + line + ": " + message);
+	}
+
+}
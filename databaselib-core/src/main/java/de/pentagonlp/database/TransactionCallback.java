@@ -0,0 +1,31 @@
+package de.pentagonlp.database;
+
+import java.sql.SQLException;
+
+import de.pentagonlp.database.exceptions.NotConnectedException;
+
+/**
+ * Work run inside a transaction through
+ * {@link DatabaseConnection#inTransaction(TransactionCallback)}
+ * 
+ * @author PentagonLP
+ * 
+ * @param <T> Type of the result
+ * 
+ */
+@FunctionalInterface
+public interface TransactionCallback<T> {
+
+	/**
+	 * Runs the work. All statements run through the {@link DatabaseConnection}
+	 * on the calling thread are part of the transaction.
+	 * 
+	 * @return The result of the work
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	T run() throws SQLException, NotConnectedException;
+
+}
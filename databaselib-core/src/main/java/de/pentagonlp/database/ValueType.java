@@ -0,0 +1,222 @@
+package de.pentagonlp.database;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * The Java type a column is read from a {@link ResultSet} with. Chosen once per
+ * column from the {@link ResultSetMetaData}, so values are read with their
+ * native JDBC getter instead of {@link ResultSet#getString(int)}.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#getValueType(ResultSetMetaData, int)
+ * 
+ */
+public enum ValueType {
+
+	/**
+	 * Integers, read through {@link ResultSet#getLong(int)}
+	 * 
+	 */
+	LONG {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			long value = result.getLong(column);
+			return result.wasNull() ? null : Long.valueOf(value);
+		}
+
+		@Override
+		public DataElement readElement(ResultSet result, int column) throws SQLException {
+			long value = result.getLong(column);
+			return result.wasNull() ? new DataElement((String) null) : new DataElement(value);
+		}
+	},
+	/**
+	 * Double precision floating point numbers, read through
+	 * {@link ResultSet#getDouble(int)}
+	 * 
+	 */
+	DOUBLE {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			double value = result.getDouble(column);
+			return result.wasNull() ? null : Double.valueOf(value);
+		}
+
+		@Override
+		public DataElement readElement(ResultSet result, int column) throws SQLException {
+			double value = result.getDouble(column);
+			return result.wasNull() ? new DataElement((String) null) : new DataElement(value);
+		}
+	},
+	/**
+	 * Single precision floating point numbers, read through
+	 * {@link ResultSet#getFloat(int)} so they keep their shortest text form
+	 * 
+	 */
+	FLOAT {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			float value = result.getFloat(column);
+			return result.wasNull() ? null : Float.valueOf(value);
+		}
+
+		@Override
+		public DataElement readElement(ResultSet result, int column) throws SQLException {
+			float value = result.getFloat(column);
+			return result.wasNull() ? new DataElement((String) null) : new DataElement(value);
+		}
+	},
+	/**
+	 * Fixed point numbers, read through {@link ResultSet#getBigDecimal(int)}
+	 * 
+	 */
+	DECIMAL {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			return result.getBigDecimal(column);
+		}
+	},
+	/**
+	 * Binary data, read through {@link ResultSet#getBytes(int)}
+	 * 
+	 */
+	BYTES {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			return result.getBytes(column);
+		}
+	},
+	/**
+	 * Points in time, read through {@link ResultSet#getTimestamp(int)}
+	 * 
+	 */
+	TIMESTAMP {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			return result.getTimestamp(column);
+		}
+	},
+	/**
+	 * Dates, read through {@link ResultSet#getDate(int)}
+	 * 
+	 */
+	DATE {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			return result.getDate(column);
+		}
+	},
+	/**
+	 * Times of day, read through {@link ResultSet#getTime(int)}
+	 * 
+	 */
+	TIME {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			return result.getTime(column);
+		}
+	},
+	/**
+	 * Text, read through {@link ResultSet#getString(int)}
+	 * 
+	 */
+	STRING {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			return result.getString(column);
+		}
+	},
+	/**
+	 * Whatever the driver considers the native type, read through
+	 * {@link ResultSet#getObject(int)}
+	 * 
+	 */
+	OBJECT {
+		@Override
+		public Object read(ResultSet result, int column) throws SQLException {
+			return result.getObject(column);
+		}
+	};
+
+	/**
+	 * Reads a value from the current row of a {@link ResultSet}
+	 * 
+	 * @param result The {@link ResultSet}
+	 * @param column Index of the column, starting at {@code 1}
+	 * 
+	 * @return The value, or {@code null} if it is SQL {@code NULL}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	public abstract Object read(ResultSet result, int column) throws SQLException;
+
+	/**
+	 * Reads a value from the current row of a {@link ResultSet} into a
+	 * {@link DataElement}. Integers and floating point numbers are not boxed.
+	 * 
+	 * @param result The {@link ResultSet}
+	 * @param column Index of the column, starting at {@code 1}
+	 * 
+	 * @return The value wrapped in a {@link DataElement}
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	public DataElement readElement(ResultSet result, int column) throws SQLException {
+		return DataElement.of(read(result, column));
+	}
+
+	/**
+	 * Chooses the {@link ValueType} of a column by its JDBC type
+	 * 
+	 * @param metadata The {@link ResultSetMetaData} of the result
+	 * @param column   Index of the column, starting at {@code 1}
+	 * 
+	 * @return The {@link ValueType} to read the column with
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	public static ValueType of(ResultSetMetaData metadata, int column) throws SQLException {
+		switch (metadata.getColumnType(column)) {
+		case Types.BIGINT:
+			// Unsigned 64 bit integers do not fit into a long
+			return metadata.isSigned(column) ? LONG : DECIMAL;
+		case Types.BIT:
+		case Types.BOOLEAN:
+		case Types.TINYINT:
+		case Types.SMALLINT:
+		case Types.INTEGER:
+			return LONG;
+		case Types.REAL:
+			return FLOAT;
+		// JDBC FLOAT is double precision, only REAL is single precision
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return DOUBLE;
+		case Types.NUMERIC:
+		case Types.DECIMAL:
+			return DECIMAL;
+		case Types.BINARY:
+		case Types.VARBINARY:
+		case Types.LONGVARBINARY:
+		case Types.BLOB:
+			return BYTES;
+		case Types.TIMESTAMP:
+			return TIMESTAMP;
+		case Types.DATE:
+			// MySql reports YEAR columns as dates
+			return "YEAR".equalsIgnoreCase(metadata.getColumnTypeName(column)) ? STRING : DATE;
+		case Types.TIME:
+			return TIME;
+		default:
+			return STRING;
+		}
+	}
+
+}
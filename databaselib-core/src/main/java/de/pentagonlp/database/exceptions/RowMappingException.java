@@ -0,0 +1,36 @@
+package de.pentagonlp.database.exceptions;
+
+/**
+ * {@link RuntimeException} which is thrown if rows can not be mapped into
+ * objects of a class, e.g. because the class has no usable constructor or a
+ * value does not fit into its property
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class RowMappingException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a {@link RowMappingException}
+	 * 
+	 * @param text The Message of the {@link Exception}
+	 * 
+	 */
+	public RowMappingException(String text) {
+		super(text);
+	}
+
+	/**
+	 * Creates a {@link RowMappingException}
+	 * 
+	 * @param text  The Message of the {@link Exception}
+	 * @param cause The cause of the {@link Exception}
+	 * 
+	 */
+	public RowMappingException(String text, Throwable cause) {
+		super(text, cause);
+	}
+
+}
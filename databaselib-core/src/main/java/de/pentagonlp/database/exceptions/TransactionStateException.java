@@ -0,0 +1,27 @@
+package de.pentagonlp.database.exceptions;
+
+import java.sql.SQLException;
+
+/**
+ * {@link SQLException} which is thrown if an operation is not allowed in the
+ * current transaction state, e.g. committing without an active transaction or
+ * reconnecting while a transaction is active
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class TransactionStateException extends SQLException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a {@link TransactionStateException}
+	 * 
+	 * @param text The Message of the {@link Exception}
+	 * 
+	 */
+	public TransactionStateException(String text) {
+		super(text);
+	}
+
+}
@@ -0,0 +1,38 @@
+package de.pentagonlp.database.exceptions;
+
+import java.sql.SQLException;
+
+/**
+ * {@link RuntimeException} wrapping a {@link SQLException} which occured in a
+ * place where checked exceptions can not be thrown, e.g. while iterating over
+ * a {@link java.util.stream.Stream Stream} of rows
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a {@link UncheckedSQLException}
+	 * 
+	 * @param cause The {@link SQLException} to wrap
+	 * 
+	 */
+	public UncheckedSQLException(SQLException cause) {
+		super(cause);
+	}
+
+	/**
+	 * Gets the wrapped {@link SQLException}
+	 * 
+	 * @return The wrapped {@link SQLException}
+	 * 
+	 */
+	@Override
+	public SQLException getCause() {
+		return (SQLException) super.getCause();
+	}
+
+}
@@ -0,0 +1,147 @@
+package de.pentagonlp.database.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds. Values are counted in
+ * buckets growing exponentially with 8 linear sub-buckets each, so percentiles
+ * are accurate to about 12.5% while the histogram uses a fixed amount of
+ * memory. Values above roughly 18 minutes are counted in the last bucket.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/**
+	 * Largest tracked power of two in nanoseconds
+	 * 
+	 */
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value
+	 * 
+	 * @param nanos The latency in nanoseconds; negative values count as
+	 *              {@code 0}
+	 * 
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		counts.incrementAndGet(index(nanos));
+		count.increment();
+		sum.add(nanos);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+
+	/**
+	 * Gets the number of recorded values
+	 * 
+	 * @return The number of recorded values
+	 * 
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the largest recorded value
+	 * 
+	 * @return The largest value in nanoseconds, {@code 0} if there are none
+	 * 
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Gets the mean of all recorded values
+	 * 
+	 * @return The mean in nanoseconds, {@code 0} if there are none
+	 * 
+	 */
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) sum.sum() / count;
+	}
+
+	/**
+	 * Gets a percentile of the recorded values
+	 * 
+	 * @param percentile The percentile between {@code 0} and {@code 100}, e.g.
+	 *                   {@code 99} for p99
+	 * 
+	 * @return Upper bound of the bucket containing the percentile in
+	 *         nanoseconds, at most {@link #getMax()}; {@code 0} if there are no
+	 *         values
+	 * 
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+			total += counts.get(bucket);
+		if (total == 0)
+			return 0;
+
+		long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += counts.get(bucket);
+			if (seen >= target)
+				return Math.min(upperBound(bucket), getMax());
+		}
+		return getMax();
+	}
+
+	/**
+	 * Resets the histogram. Values recorded concurrently may get lost.
+	 * 
+	 */
+	public void reset() {
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+			counts.set(bucket, 0);
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	private static int index(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+		if (exponent == MAX_EXPONENT && value >= 1L << (MAX_EXPONENT + 1))
+			return BUCKETS - 1;
+		int sub = (int) ((value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	private static long upperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+		long sub = index % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BITS);
+		return ((SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, p50=%.3fms, p99=%.3fms, max=%.3fms", getCount(),
+				getPercentile(50) / (double) TimeUnit.MILLISECONDS.toNanos(1),
+				getPercentile(99) / (double) TimeUnit.MILLISECONDS.toNanos(1),
+				getMax() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+}
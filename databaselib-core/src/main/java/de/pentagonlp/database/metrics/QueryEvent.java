@@ -0,0 +1,90 @@
+package de.pentagonlp.database.metrics;
+
+/**
+ * Timings and outcome of a single statement. Times are measured in nanoseconds
+ * and split into three phases:
+ * <ul>
+ * <li>prepare: getting a prepared statement and binding the parameters</li>
+ * <li>execute: running the statement on the database</li>
+ * <li>fetch: reading the rows of the result</li>
+ * </ul>
+ * 
+ * @author PentagonLP
+ * 
+ */
+public final class QueryEvent {
+
+	private final String sql;
+	private final long prepareNanos;
+	private final long executeNanos;
+	private final long fetchNanos;
+	private final long rows;
+	private final Throwable error;
+
+	/**
+	 * Creates a {@link QueryEvent}
+	 * 
+	 * @param sql          SQL text of the statement
+	 * @param prepareNanos Time spent preparing the statement
+	 * @param executeNanos Time spent executing the statement
+	 * @param fetchNanos   Time spent reading the result
+	 * @param rows         Number of rows returned, or number of rows in a batch
+	 * @param error        The error the statement failed with; {@code null} if
+	 *                     it succeeded
+	 * 
+	 */
+	public QueryEvent(String sql, long prepareNanos, long executeNanos, long fetchNanos, long rows,
+			Throwable error) {
+		this.sql = sql;
+		this.prepareNanos = prepareNanos;
+		this.executeNanos = executeNanos;
+		this.fetchNanos = fetchNanos;
+		this.rows = rows;
+		this.error = error;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public long getPrepareNanos() {
+		return prepareNanos;
+	}
+
+	public long getExecuteNanos() {
+		return executeNanos;
+	}
+
+	public long getFetchNanos() {
+		return fetchNanos;
+	}
+
+	/**
+	 * Gets the time spent in all phases together
+	 * 
+	 * @return The total time in nanoseconds
+	 * 
+	 */
+	public long getTotalNanos() {
+		return prepareNanos + executeNanos + fetchNanos;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * Tests whether the statement failed
+	 * 
+	 * @return {@code true} if the statement failed
+	 * 
+	 */
+	public boolean isError() {
+		return error != null;
+	}
+
+}
@@ -0,0 +1,36 @@
+package de.pentagonlp.database.metrics;
+
+import de.pentagonlp.database.DatabaseConnection;
+
+/**
+ * Receives an event for every statement run through a
+ * {@link DatabaseConnection}. Listeners are called on the thread which ran the
+ * statement, so they should return quickly; exceptions thrown by listeners are
+ * ignored.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#addQueryListener(QueryListener)
+ * @see QueryMetricsRegistry
+ * 
+ */
+public interface QueryListener {
+
+	/**
+	 * Called after a statement finished, successfully or not
+	 * 
+	 * @param event Timings and outcome of the statement
+	 * 
+	 */
+	void onQuery(QueryEvent event);
+
+	/**
+	 * Called after the connection to the database was reopened
+	 * 
+	 * @param connection The {@link DatabaseConnection} which reconnected
+	 * 
+	 */
+	default void onReconnect(DatabaseConnection connection) {
+	}
+
+}
@@ -0,0 +1,148 @@
+package de.pentagonlp.database.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.pentagonlp.database.DatabaseConnection;
+
+/**
+ * {@link QueryListener} keeping {@link QueryStatistics} per normalized query in
+ * memory. To bound memory usage, queries beyond
+ * {@link #getMaximumQueries()} distinct normalized queries are counted
+ * together under {@link #OTHER}.
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseConnection#addQueryListener(QueryListener)
+ * 
+ */
+public class QueryMetricsRegistry implements QueryListener {
+
+	/**
+	 * Default maximum number of distinct normalized queries tracked
+	 * 
+	 */
+	public static final int DEFAULT_MAXIMUM_QUERIES = 1000;
+	/**
+	 * Key under which queries beyond the maximum number of tracked queries are
+	 * counted
+	 * 
+	 */
+	public static final String OTHER = "<other>";
+
+	private final int maximumQueries;
+
+	private final ConcurrentHashMap<String, QueryStatistics> statistics = new ConcurrentHashMap<>();
+	/**
+	 * Normalized form of each SQL text seen, so every text is only normalized
+	 * once
+	 * 
+	 */
+	private final ConcurrentHashMap<String, String> normalized = new ConcurrentHashMap<>();
+	private final LongAdder reconnects = new LongAdder();
+
+	/**
+	 * Creates a {@link QueryMetricsRegistry} tracking up to
+	 * {@link #DEFAULT_MAXIMUM_QUERIES} queries
+	 * 
+	 */
+	public QueryMetricsRegistry() {
+		this(DEFAULT_MAXIMUM_QUERIES);
+	}
+
+	/**
+	 * Creates a {@link QueryMetricsRegistry}
+	 * 
+	 * @param maximumQueries Maximum number of distinct normalized queries tracked
+	 * 
+	 */
+	public QueryMetricsRegistry(int maximumQueries) {
+		if (maximumQueries < 1)
+			throw new IllegalArgumentException("Registry must track at least 1 query");
+		this.maximumQueries = maximumQueries;
+	}
+
+	@Override
+	public void onQuery(QueryEvent event) {
+		String key = normalize(event.getSql());
+		QueryStatistics entry = statistics.get(key);
+		if (entry == null) {
+			if (statistics.size() >= maximumQueries)
+				key = OTHER;
+			entry = statistics.computeIfAbsent(key, QueryStatistics::new);
+		}
+		entry.record(event);
+	}
+
+	@Override
+	public void onReconnect(DatabaseConnection connection) {
+		reconnects.increment();
+	}
+
+	/**
+	 * Gets the statistics of a query
+	 * 
+	 * @param sql SQL text of the query; normalized before the lookup
+	 * 
+	 * @return The {@link QueryStatistics}, or {@code null} if the query did not
+	 *         run yet
+	 * 
+	 */
+	public QueryStatistics getStatistics(String sql) {
+		return statistics.get(normalize(sql));
+	}
+
+	/**
+	 * Gets the statistics of all queries, slowest first
+	 * 
+	 * @return The {@link QueryStatistics} of all queries, sorted descending by
+	 *         their p99 latency
+	 * 
+	 */
+	public List<QueryStatistics> getAllStatistics() {
+		List<QueryStatistics> result = new ArrayList<>(statistics.values());
+		result.sort(Comparator
+				.comparingLong((QueryStatistics entry) -> entry.getTotalLatency().getPercentile(99)).reversed());
+		return result;
+	}
+
+	/**
+	 * Gets the number of reconnects of all {@link DatabaseConnection
+	 * DatabaseConnections} this registry is registered at
+	 * 
+	 * @return The number of reconnects
+	 * 
+	 */
+	public long getReconnects() {
+		return reconnects.sum();
+	}
+
+	public int getMaximumQueries() {
+		return maximumQueries;
+	}
+
+	/**
+	 * Removes all statistics
+	 * 
+	 */
+	public void reset() {
+		statistics.clear();
+		normalized.clear();
+		reconnects.reset();
+	}
+
+	private String normalize(String sql) {
+		String result = normalized.get(sql);
+		if (result != null)
+			return result;
+		result = SqlNormalizer.normalize(sql);
+		// Statements with inlined values would fill the map without bound
+		if (normalized.size() < maximumQueries * 4)
+			normalized.put(sql, result);
+		return result;
+	}
+
+}
@@ -0,0 +1,113 @@
+package de.pentagonlp.database.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of all executions of one normalized query
+ * 
+ * @author PentagonLP
+ * 
+ * @see QueryMetricsRegistry
+ * 
+ */
+public class QueryStatistics {
+
+	private final String sql;
+
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+
+	private final LatencyHistogram prepare = new LatencyHistogram();
+	private final LatencyHistogram execute = new LatencyHistogram();
+	private final LatencyHistogram fetch = new LatencyHistogram();
+	private final LatencyHistogram total = new LatencyHistogram();
+
+	/**
+	 * Creates empty {@link QueryStatistics}
+	 * 
+	 * @param sql The normalized SQL text
+	 * 
+	 */
+	QueryStatistics(String sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * Adds an execution
+	 * 
+	 * @param event The {@link QueryEvent} of the execution
+	 * 
+	 */
+	void record(QueryEvent event) {
+		calls.increment();
+		if (event.isError())
+			errors.increment();
+		if (event.getRows() > 0)
+			rows.add(event.getRows());
+
+		prepare.record(event.getPrepareNanos());
+		execute.record(event.getExecuteNanos());
+		fetch.record(event.getFetchNanos());
+		total.record(event.getTotalNanos());
+	}
+
+	/**
+	 * Gets the normalized SQL text
+	 * 
+	 * @return The normalized SQL text
+	 * 
+	 * @see SqlNormalizer
+	 * 
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+
+	/**
+	 * Gets the number of rows returned by, or affected by, all executions
+	 * 
+	 * @return The number of rows
+	 * 
+	 */
+	public long getRows() {
+		return rows.sum();
+	}
+
+	public LatencyHistogram getPrepareLatency() {
+		return prepare;
+	}
+
+	public LatencyHistogram getExecuteLatency() {
+		return execute;
+	}
+
+	public LatencyHistogram getFetchLatency() {
+		return fetch;
+	}
+
+	/**
+	 * Gets the latency of all phases together
+	 * 
+	 * @return The {@link LatencyHistogram} of the total latency
+	 * 
+	 */
+	public LatencyHistogram getTotalLatency() {
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		return sql + ": calls=" + getCalls() + ", errors=" + getErrors() + ", rows=" + getRows() + ", total=["
+				+ total + "], prepare=[" + prepare + "], execute=[" + execute + "], fetch=[" + fetch + "]";
+	}
+
+}
@@ -0,0 +1,41 @@
+package de.pentagonlp.database.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces SQL text to its shape, so statements differing only in literal values
+ * are counted as the same query.<br>
+ * String and numeric literals are replaced by {@code ?}, lists of {@code ?}
+ * like in {@code IN (?, ?, ?)} are collapsed to {@code (?)} and whitespace is
+ * collapsed to single spaces.
+ * 
+ * @author PentagonLP
+ * 
+ */
+public final class SqlNormalizer {
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+	private static final Pattern NUMERIC_LITERAL = Pattern
+			.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?(?![\\w$])");
+	private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private SqlNormalizer() {
+	}
+
+	/**
+	 * Normalizes SQL text
+	 * 
+	 * @param sql The SQL text
+	 * 
+	 * @return The normalized SQL text
+	 * 
+	 */
+	public static String normalize(String sql) {
+		String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+		normalized = NUMERIC_LITERAL.matcher(normalized).replaceAll("?");
+		normalized = PLACEHOLDER_LIST.matcher(normalized).replaceAll("(?)");
+		return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+	}
+
+}
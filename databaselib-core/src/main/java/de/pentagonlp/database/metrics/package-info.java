@@ -0,0 +1,9 @@
+/**
+ * Package containing the instrumentation SPI of
+ * {@link de.pentagonlp.database.DatabaseConnection DatabaseConnection} and a
+ * built-in in-memory registry collecting per-query statistics.
+ * 
+ * @author PentagonLP
+ * 
+ */
+package de.pentagonlp.database.metrics;
@@ -0,0 +1,102 @@
+package de.pentagonlp.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for {@link ValueType}
+ * 
+ * @author PentagonLP
+ * 
+ */
+class ValueTypeTest {
+
+	/**
+	 * Makes sure columns are read with the getter matching their JDBC type
+	 * 
+	 */
+	@Test
+	void ofTest() throws SQLException {
+		assertEquals(ValueType.LONG, ValueType.of(metadata(Types.INTEGER, "INT"), 1), "INTEGER was not read as long");
+		assertEquals(ValueType.FLOAT, ValueType.of(metadata(Types.REAL, "REAL"), 1), "REAL was not read as float");
+		assertEquals(ValueType.DOUBLE, ValueType.of(metadata(Types.FLOAT, "FLOAT"), 1),
+				"FLOAT was not read as double");
+		assertEquals(ValueType.DOUBLE, ValueType.of(metadata(Types.DOUBLE, "DOUBLE"), 1),
+				"DOUBLE was not read as double");
+		assertEquals(ValueType.DECIMAL, ValueType.of(metadata(Types.DECIMAL, "DECIMAL"), 1),
+				"DECIMAL was not read as BigDecimal");
+		assertEquals(ValueType.STRING, ValueType.of(metadata(Types.DATE, "YEAR"), 1), "YEAR was not read as String");
+	}
+
+	/**
+	 * Makes sure {@link ValueType#FLOAT} keeps the shortest text form of single
+	 * precision values
+	 * 
+	 */
+	@Test
+	void floatTest() throws SQLException {
+		assertEquals("1.1", ValueType.FLOAT.readElement(result(1.1f), 1).toString(),
+				"ValueType.FLOAT did not read the value as float");
+		assertEquals(4, ValueType.FLOAT.readElement(result(4f), 1).toInt(),
+				"ValueType.FLOAT failed to cast an integral value to Int");
+		assertTrue(ValueType.FLOAT.readElement(result(null), 1).isNull(), "ValueType.FLOAT did not read NULL");
+		assertEquals(null, ValueType.FLOAT.read(result(null), 1), "ValueType.FLOAT did not read NULL");
+	}
+
+	/**
+	 * Creates {@link ResultSetMetaData} describing a single column
+	 * 
+	 * @param type     The JDBC type of the column
+	 * @param typeName The database specific type name of the column
+	 * 
+	 * @return The {@link ResultSetMetaData}
+	 * 
+	 */
+	private static ResultSetMetaData metadata(int type, String typeName) {
+		return (ResultSetMetaData) Proxy.newProxyInstance(ValueTypeTest.class.getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getColumnType":
+						return type;
+					case "getColumnTypeName":
+						return typeName;
+					case "isSigned":
+						return true;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	/**
+	 * Creates a {@link ResultSet} positioned on a row with a single
+	 * {@code float} column
+	 * 
+	 * @param value The value of the column, or {@code null} for SQL {@code NULL}
+	 * 
+	 * @return The {@link ResultSet}
+	 * 
+	 */
+	private static ResultSet result(Float value) {
+		return (ResultSet) Proxy.newProxyInstance(ValueTypeTest.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getFloat":
+						return value == null ? 0f : value;
+					case "wasNull":
+						return value == null;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+}
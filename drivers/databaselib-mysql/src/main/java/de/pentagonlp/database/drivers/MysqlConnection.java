@@ -3,10 +3,21 @@ package de.pentagonlp.database.drivers;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 
+import de.pentagonlp.database.DataElement;
+import de.pentagonlp.database.ValueType;
 import de.pentagonlp.database.drivertypes.DatabaseServerConnection;
+import de.pentagonlp.database.exceptions.CouldNotReadDatabaseConfigException;
 import de.pentagonlp.database.exceptions.InvalidConnectionDetailsException;
+import de.pentagonlp.database.exceptions.NotConnectedException;
 
 /**
  * Connection to a MySql Server
@@ -31,6 +42,17 @@ public class MysqlConnection extends DatabaseServerConnection {
 	 * Default password for default MySql user {@code root} is no password
 	 */
 	public static final String DEFAULT_PASSWORD = "";
+	/**
+	 * Maximum number of placeholders MySql accepts in a single prepared statement
+	 * 
+	 */
+	private static final int MAX_PLACEHOLDERS = 65_535;
+
+	/**
+	 * Driver options applied to every new connection
+	 * 
+	 */
+	private volatile MysqlSettings settings = new MysqlSettings();
 
 	/**
 	 * Creates a {@link MysqlConnection} with default connection details and
@@ -75,13 +97,199 @@ public class MysqlConnection extends DatabaseServerConnection {
 	}
 
 	/**
-	 * Create a new {@link Connection} to a MySql Server
+	 * Creates a {@link MysqlConnection} with given connection details, driver
+	 * options and value for {@code autoReconnect}
+	 * 
+	 * @param host          Hostname of the MySql Server
+	 * @param port          Port of the MySql Server
+	 * @param database      Database to use
+	 * @param username      Username to log into the MySql Server with
+	 * @param password      Password to log into the MySql Server with
+	 * @param autoReconnect Enables/disables auto reconnect for this connection
+	 * @param settings      Driver options, e.g.
+	 *                      {@link MysqlSettings#highThroughput()}
+	 * 
+	 */
+	public MysqlConnection(String host, int port, String database, String username, String password,
+			boolean autoReconnect, MysqlSettings settings) throws InvalidConnectionDetailsException {
+		super(host, port, database, username, password, autoReconnect);
+		this.settings = new MysqlSettings(settings);
+	}
+
+	/**
+	 * Create a new {@link Connection} to the MySql Server, applying the
+	 * {@link MysqlSettings}
 	 * 
 	 */
 	@Override
 	protected Connection createConnection() throws SQLException {
-		return DriverManager.getConnection("jdbc:mysql://" + getHost() + ":" + getPort() + "/" + getDatabase()
-				+ "?autoReconnect=true&useTimezone=true&serverTimezone=UTC", getUsername(), getPassword());
+		return createConnection(getHost(), getPort());
+	}
+
+	/**
+	 * Create a new {@link Connection} to a MySql replica, applying the
+	 * {@link MysqlSettings}
+	 * 
+	 */
+	@Override
+	protected Connection createConnection(String host, int port) throws SQLException {
+		Properties properties = settings.toProperties();
+		properties.setProperty("user", getUsername());
+		properties.setProperty("password", getPassword());
+		return DriverManager.getConnection("jdbc:mysql://" + host + ":" + port + "/" + getDatabase()
+				+ "?autoReconnect=true&useTimezone=true&serverTimezone=UTC", properties);
+	}
+
+	/**
+	 * Inserts rows through multi-row {@code INSERT ... VALUES (...), (...)}
+	 * statements, which MySql executes in one round trip and with one index
+	 * update pass per statement
+	 * 
+	 */
+	@Override
+	protected void insertRows(String table, String[] columns, List<Object[]> rows)
+			throws SQLException, NotConnectedException {
+		int perStatement = Math.max(1, Math.min(rows.size(), MAX_PLACEHOLDERS / columns.length));
+		for (int from = 0; from < rows.size(); from += perStatement) {
+			int to = Math.min(rows.size(), from + perStatement);
+			Object[] params = new Object[(to - from) * columns.length];
+			for (int i = from; i < to; i++)
+				System.arraycopy(rows.get(i), 0, params, (i - from) * columns.length, columns.length);
+			executeUpdate(insertStatement(table, columns, to - from), params);
+		}
+	}
+
+	/**
+	 * Quotes names in backticks, as double quotes enclose strings in MySql
+	 * unless {@code ANSI_QUOTES} is enabled
+	 * 
+	 */
+	@Override
+	protected String quoteIdentifier(String identifier) {
+		return '`' + identifier.replace("`", "``") + '`';
+	}
+
+	/**
+	 * Multiple statements per command are supported if
+	 * {@link MysqlSettings#setAllowMultiQueries(Boolean) enabled}. Not with
+	 * cursor fetching, as server side cursors can only be opened for a single
+	 * statement.
+	 * 
+	 */
+	@Override
+	protected boolean supportsMultiStatements() {
+		MysqlSettings settings = this.settings;
+		return Boolean.TRUE.equals(settings.getAllowMultiQueries())
+				&& !Boolean.TRUE.equals(settings.getUseCursorFetch());
+	}
+
+	/**
+	 * Enables MySql's row streaming mode, so rows of a cursor are read from the
+	 * network one by one instead of loading the whole result into memory. The
+	 * fetch size is ignored, as the driver only supports it with cursor based
+	 * fetching.<br>
+	 * If {@link MysqlSettings#setUseCursorFetch(Boolean) cursor fetching} is
+	 * enabled, rows are fetched in chunks of the fetch size instead.<br>
+	 * A streaming connection can not run other statements until the cursor is
+	 * closed, see {@link #isStreamingExclusive()}.
+	 * 
+	 */
+	@Override
+	protected void configureStreamingStatement(PreparedStatement statement, int fetchSize) throws SQLException {
+		MysqlSettings settings = this.settings;
+		if (Boolean.TRUE.equals(settings.getUseCursorFetch())) {
+			if (fetchSize <= 0)
+				fetchSize = settings.getDefaultFetchSize() != null && settings.getDefaultFetchSize() > 0
+						? settings.getDefaultFetchSize()
+						: MysqlSettings.DEFAULT_CURSOR_FETCH_SIZE;
+			statement.setFetchSize(fetchSize);
+		} else
+			statement.setFetchSize(Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Row streaming blocks the connection until the whole result was read or the
+	 * cursor is closed, so statements nested into a cursor on the single
+	 * connection or in a transaction fail. Server side cursors of
+	 * {@link MysqlSettings#setUseCursorFetch(Boolean) cursor fetching} do not.
+	 * 
+	 */
+	@Override
+	protected boolean isStreamingExclusive() {
+		return !Boolean.TRUE.equals(settings.getUseCursorFetch());
+	}
+
+	/**
+	 * Reads floating point numbers, date times and times as the text MySql sends,
+	 * so {@link DataElement#toString()} returns e.g. {@code 3} for a
+	 * {@code DOUBLE} and {@code 2024-01-01 12:00:00.500} for a
+	 * {@code DATETIME(3)} instead of the Java formatting of the parsed values.
+	 * Numeric and time casts parse the text on demand.
+	 * 
+	 */
+	@Override
+	protected ValueType getValueType(ResultSetMetaData metadata, int column) throws SQLException {
+		switch (metadata.getColumnType(column)) {
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+		case Types.TIMESTAMP:
+		case Types.TIME:
+			return ValueType.STRING;
+		default:
+			return super.getValueType(metadata, column);
+		}
+	}
+
+	/**
+	 * Loads the driver options from a configuration file<br>
+	 * <br>
+	 * Accepted parameters:<br>
+	 * {@code preset=high_throughput}<br>
+	 * Any option of {@link MysqlSettings} by its Connector/J name, e.g.
+	 * {@code useServerPrepStmts=true}, applied on top of the preset
+	 * 
+	 * @throws CouldNotReadDatabaseConfigException
+	 * 
+	 */
+	@Override
+	protected void loadDriverSettings(HashMap<String, DataElement> fileentries)
+			throws CouldNotReadDatabaseConfigException {
+		MysqlSettings filesettings = new MysqlSettings();
+		try {
+			if (fileentries.containsKey("preset"))
+				filesettings = MysqlSettings.preset(fileentries.get("preset").toString());
+			for (Map.Entry<String, DataElement> entry : fileentries.entrySet())
+				filesettings.set(entry.getKey(), entry.getValue().toString());
+		} catch (IllegalArgumentException e) {
+			throw new CouldNotReadDatabaseConfigException(e.getMessage());
+		}
+		settings = filesettings;
+	}
+
+	/**
+	 * Sets the driver options applied to every connection. Reconnects if already
+	 * connected, so the new options take effect.
+	 * 
+	 * @param settings The {@link MysqlSettings}, e.g.
+	 *                 {@link MysqlSettings#highThroughput()}
+	 * 
+	 * @throws InvalidConnectionDetailsException
+	 * 
+	 */
+	public void setSettings(MysqlSettings settings) throws InvalidConnectionDetailsException {
+		this.settings = new MysqlSettings(settings);
+		connectionDetailsUpdate();
+	}
+
+	/**
+	 * Gets the driver options applied to every connection
+	 * 
+	 * @return A copy of the {@link MysqlSettings}
+	 * 
+	 */
+	public MysqlSettings getSettings() {
+		return new MysqlSettings(settings);
 	}
 
 	/**
@@ -0,0 +1,459 @@
+package de.pentagonlp.database.drivers;
+
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Driver options of MySql Connector/J applied to every connection a
+ * {@link MysqlConnection} opens. Options left at {@code null} keep the default
+ * of the driver.<br>
+ * Setters return the {@link MysqlSettings} object itself so calls can be
+ * chained.<br>
+ * <br>
+ * {@link #highThroughput()} is a preset for many short statements and bulk
+ * loads over links with noticeable latency.
+ * 
+ * @author PentagonLP
+ * 
+ * @see MysqlConnection#setSettings(MysqlSettings)
+ * 
+ */
+public class MysqlSettings {
+
+	/**
+	 * Name of the {@link #highThroughput()} preset
+	 * 
+	 */
+	public static final String HIGH_THROUGHPUT = "high_throughput";
+
+	/**
+	 * Batches are rewritten into multi-row statements by default, so
+	 * {@link MysqlConnection#executeBatch(String, Iterable)} needs a single round
+	 * trip per chunk
+	 * 
+	 */
+	public static final boolean DEFAULT_REWRITE_BATCHED_STATEMENTS = true;
+
+	/**
+	 * Fetch size of cursors if {@link #setUseCursorFetch(Boolean) cursor
+	 * fetching} is enabled, but neither the connection nor these settings
+	 * specify one
+	 * 
+	 */
+	public static final int DEFAULT_CURSOR_FETCH_SIZE = 1000;
+
+	private Boolean useServerPrepStmts;
+	private Boolean cachePrepStmts;
+	private Integer prepStmtCacheSize;
+	private Integer prepStmtCacheSqlLimit;
+	private Boolean rewriteBatchedStatements = DEFAULT_REWRITE_BATCHED_STATEMENTS;
+	private Boolean allowMultiQueries;
+	private Boolean useCompression;
+	private Boolean useCursorFetch;
+	private Integer defaultFetchSize;
+	private Boolean tcpNoDelay;
+	private Integer tcpRcvBuf;
+	private Integer tcpSndBuf;
+
+	/**
+	 * Creates {@link MysqlSettings} keeping the defaults of the driver, except
+	 * for {@link #DEFAULT_REWRITE_BATCHED_STATEMENTS}
+	 * 
+	 */
+	public MysqlSettings() {
+	}
+
+	/**
+	 * Creates a copy of other {@link MysqlSettings}
+	 * 
+	 * @param other The {@link MysqlSettings} to copy
+	 * 
+	 */
+	public MysqlSettings(MysqlSettings other) {
+		this.useServerPrepStmts = other.useServerPrepStmts;
+		this.cachePrepStmts = other.cachePrepStmts;
+		this.prepStmtCacheSize = other.prepStmtCacheSize;
+		this.prepStmtCacheSqlLimit = other.prepStmtCacheSqlLimit;
+		this.rewriteBatchedStatements = other.rewriteBatchedStatements;
+		this.allowMultiQueries = other.allowMultiQueries;
+		this.useCompression = other.useCompression;
+		this.useCursorFetch = other.useCursorFetch;
+		this.defaultFetchSize = other.defaultFetchSize;
+		this.tcpNoDelay = other.tcpNoDelay;
+		this.tcpRcvBuf = other.tcpRcvBuf;
+		this.tcpSndBuf = other.tcpSndBuf;
+	}
+
+	/**
+	 * Creates the "high_throughput" preset:
+	 * <ul>
+	 * <li>Server side prepared statements, so repeated statements are only
+	 * parsed once and parameters are sent in the binary protocol</li>
+	 * <li>A driver side cache of 500 prepared statements of up to 2048
+	 * characters, for statements evicted from or bypassing the statement cache
+	 * of the {@link MysqlConnection}</li>
+	 * <li>Rewritten batches</li>
+	 * <li>{@code TCP_NODELAY} and socket buffers of 1 MiB, so large results and
+	 * batches fill links with a high latency</li>
+	 * </ul>
+	 * Compression is left disabled, as it costs CPU time on both ends and only
+	 * pays off on links with little bandwidth.
+	 * 
+	 * @return New {@link MysqlSettings} with the preset applied
+	 * 
+	 */
+	public static MysqlSettings highThroughput() {
+		return new MysqlSettings().setUseServerPrepStmts(true).setCachePrepStmts(true).setPrepStmtCacheSize(500)
+				.setPrepStmtCacheSqlLimit(2048).setRewriteBatchedStatements(true).setTcpNoDelay(true)
+				.setTcpRcvBuf(1024 * 1024).setTcpSndBuf(1024 * 1024);
+	}
+
+	/**
+	 * Creates a preset by its name
+	 * 
+	 * @param name {@value #HIGH_THROUGHPUT}, ignoring case
+	 * 
+	 * @return New {@link MysqlSettings} with the preset applied
+	 * 
+	 * @throws IllegalArgumentException If there is no preset with that name
+	 * 
+	 */
+	public static MysqlSettings preset(String name) {
+		switch (name.trim().toLowerCase(Locale.ROOT)) {
+		case HIGH_THROUGHPUT:
+			return highThroughput();
+		default:
+			throw new IllegalArgumentException("Unknown MySql preset '" + name + "'");
+		}
+	}
+
+	/**
+	 * Sets an option by the name Connector/J uses for it, as used in
+	 * configuration files
+	 * 
+	 * @param option Name of the option, e.g. {@code useServerPrepStmts}; case is
+	 *               ignored
+	 * @param value  Value of the option, e.g. {@code true}
+	 * 
+	 * @return {@code false} if there is no setting for that option
+	 * 
+	 * @throws IllegalArgumentException If the value is invalid for the option
+	 * 
+	 */
+	public boolean set(String option, String value) {
+		try {
+			return setOption(option.trim().toLowerCase(Locale.ROOT), value.trim());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(
+					String.format("Invalid value '%s' for option '%s'", value.trim(), option.trim()), e);
+		}
+	}
+
+	private boolean setOption(String option, String value) {
+		switch (option) {
+		case "useserverprepstmts":
+			setUseServerPrepStmts(parseBoolean(value));
+			return true;
+		case "cacheprepstmts":
+			setCachePrepStmts(parseBoolean(value));
+			return true;
+		case "prepstmtcachesize":
+			setPrepStmtCacheSize(Integer.parseInt(value));
+			return true;
+		case "prepstmtcachesqllimit":
+			setPrepStmtCacheSqlLimit(Integer.parseInt(value));
+			return true;
+		case "rewritebatchedstatements":
+			setRewriteBatchedStatements(parseBoolean(value));
+			return true;
+		case "allowmultiqueries":
+			setAllowMultiQueries(parseBoolean(value));
+			return true;
+		case "usecompression":
+			setUseCompression(parseBoolean(value));
+			return true;
+		case "usecursorfetch":
+			setUseCursorFetch(parseBoolean(value));
+			return true;
+		case "defaultfetchsize":
+			setDefaultFetchSize(Integer.parseInt(value));
+			return true;
+		case "tcpnodelay":
+			setTcpNoDelay(parseBoolean(value));
+			return true;
+		case "tcprcvbuf":
+			setTcpRcvBuf(Integer.parseInt(value));
+			return true;
+		case "tcpsndbuf":
+			setTcpSndBuf(Integer.parseInt(value));
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static boolean parseBoolean(String value) {
+		if (value.equalsIgnoreCase("true"))
+			return true;
+		if (value.equalsIgnoreCase("false"))
+			return false;
+		throw new IllegalArgumentException("Expected 'true' or 'false'");
+	}
+
+	/**
+	 * Creates the connection properties of the driver
+	 * 
+	 * @return New {@link Properties} containing all options which are not
+	 *         {@code null}
+	 * 
+	 */
+	Properties toProperties() {
+		Properties properties = new Properties();
+		put(properties, "useServerPrepStmts", useServerPrepStmts);
+		put(properties, "cachePrepStmts", cachePrepStmts);
+		put(properties, "prepStmtCacheSize", prepStmtCacheSize);
+		put(properties, "prepStmtCacheSqlLimit", prepStmtCacheSqlLimit);
+		put(properties, "rewriteBatchedStatements", rewriteBatchedStatements);
+		put(properties, "allowMultiQueries", allowMultiQueries);
+		put(properties, "useCompression", useCompression);
+		put(properties, "useCursorFetch", useCursorFetch);
+		put(properties, "defaultFetchSize", defaultFetchSize);
+		put(properties, "tcpNoDelay", tcpNoDelay);
+		put(properties, "tcpRcvBuf", tcpRcvBuf);
+		put(properties, "tcpSndBuf", tcpSndBuf);
+		return properties;
+	}
+
+	private static void put(Properties properties, String name, Object value) {
+		if (value != null)
+			properties.setProperty(name, value.toString());
+	}
+
+	public Boolean getUseServerPrepStmts() {
+		return useServerPrepStmts;
+	}
+
+	/**
+	 * Enables/disables server side prepared statements. Repeated statements are
+	 * only parsed once by the server and parameters are sent in the binary
+	 * protocol, at the cost of an additional round trip when preparing.
+	 * 
+	 * @param useServerPrepStmts {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setUseServerPrepStmts(Boolean useServerPrepStmts) {
+		this.useServerPrepStmts = useServerPrepStmts;
+		return this;
+	}
+
+	public Boolean getCachePrepStmts() {
+		return cachePrepStmts;
+	}
+
+	/**
+	 * Enables/disables the prepared statement cache of the driver. Mostly useful
+	 * if the statement cache of the connection is disabled or too small.
+	 * 
+	 * @param cachePrepStmts {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 * @see MysqlConnection#setStatementCacheSize(int)
+	 * 
+	 */
+	public MysqlSettings setCachePrepStmts(Boolean cachePrepStmts) {
+		this.cachePrepStmts = cachePrepStmts;
+		return this;
+	}
+
+	public Integer getPrepStmtCacheSize() {
+		return prepStmtCacheSize;
+	}
+
+	/**
+	 * Sets the number of prepared statements the driver caches per connection
+	 * 
+	 * @param prepStmtCacheSize {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setPrepStmtCacheSize(Integer prepStmtCacheSize) {
+		this.prepStmtCacheSize = prepStmtCacheSize;
+		return this;
+	}
+
+	public Integer getPrepStmtCacheSqlLimit() {
+		return prepStmtCacheSqlLimit;
+	}
+
+	/**
+	 * Sets the maximum length of statements the driver caches
+	 * 
+	 * @param prepStmtCacheSqlLimit Length in characters; {@code null} for the
+	 *                              default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setPrepStmtCacheSqlLimit(Integer prepStmtCacheSqlLimit) {
+		this.prepStmtCacheSqlLimit = prepStmtCacheSqlLimit;
+		return this;
+	}
+
+	public Boolean getRewriteBatchedStatements() {
+		return rewriteBatchedStatements;
+	}
+
+	/**
+	 * Enables/disables rewriting batches into multi-row statements
+	 * 
+	 * @param rewriteBatchedStatements {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 * @see #DEFAULT_REWRITE_BATCHED_STATEMENTS
+	 * 
+	 */
+	public MysqlSettings setRewriteBatchedStatements(Boolean rewriteBatchedStatements) {
+		this.rewriteBatchedStatements = rewriteBatchedStatements;
+		return this;
+	}
+
+	public Boolean getAllowMultiQueries() {
+		return allowMultiQueries;
+	}
+
+	/**
+	 * Enables/disables several statements separated by semicolons in a single
+	 * command. If enabled,
+	 * {@link MysqlConnection#getResultTables(de.pentagonlp.database.QueryPipeline)}
+	 * sends read-only pipelines in a single round trip.<br>
+	 * Disabled by default, as it also lets SQL injected through concatenated
+	 * values run additional statements.
+	 * 
+	 * @param allowMultiQueries {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setAllowMultiQueries(Boolean allowMultiQueries) {
+		this.allowMultiQueries = allowMultiQueries;
+		return this;
+	}
+
+	public Boolean getUseCompression() {
+		return useCompression;
+	}
+
+	/**
+	 * Enables/disables compression of the protocol. Saves bandwidth for large
+	 * results at the cost of CPU time on both ends.
+	 * 
+	 * @param useCompression {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setUseCompression(Boolean useCompression) {
+		this.useCompression = useCompression;
+		return this;
+	}
+
+	public Boolean getUseCursorFetch() {
+		return useCursorFetch;
+	}
+
+	/**
+	 * Enables/disables server side cursors. If enabled, cursors of the
+	 * connection fetch rows in chunks of the fetch size instead of streaming
+	 * them row by row, so other statements can be run on the connection while a
+	 * cursor is open.
+	 * 
+	 * @param useCursorFetch {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 * @see MysqlConnection#setFetchSize(int)
+	 * 
+	 */
+	public MysqlSettings setUseCursorFetch(Boolean useCursorFetch) {
+		this.useCursorFetch = useCursorFetch;
+		return this;
+	}
+
+	public Integer getDefaultFetchSize() {
+		return defaultFetchSize;
+	}
+
+	/**
+	 * Sets the fetch size of all statements of the driver
+	 * 
+	 * @param defaultFetchSize Number of rows; {@code null} for the default of the
+	 *                         driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setDefaultFetchSize(Integer defaultFetchSize) {
+		this.defaultFetchSize = defaultFetchSize;
+		return this;
+	}
+
+	public Boolean getTcpNoDelay() {
+		return tcpNoDelay;
+	}
+
+	/**
+	 * Enables/disables {@code TCP_NODELAY}, so small packets are sent without
+	 * waiting for more data
+	 * 
+	 * @param tcpNoDelay {@code null} for the default of the driver
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setTcpNoDelay(Boolean tcpNoDelay) {
+		this.tcpNoDelay = tcpNoDelay;
+		return this;
+	}
+
+	public Integer getTcpRcvBuf() {
+		return tcpRcvBuf;
+	}
+
+	/**
+	 * Sets the size of the socket receive buffer
+	 * 
+	 * @param tcpRcvBuf Size in bytes; {@code null} for the default of the
+	 *                  operating system
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setTcpRcvBuf(Integer tcpRcvBuf) {
+		this.tcpRcvBuf = tcpRcvBuf;
+		return this;
+	}
+
+	public Integer getTcpSndBuf() {
+		return tcpSndBuf;
+	}
+
+	/**
+	 * Sets the size of the socket send buffer
+	 * 
+	 * @param tcpSndBuf Size in bytes; {@code null} for the default of the
+	 *                  operating system
+	 * 
+	 * @return This {@link MysqlSettings} object
+	 * 
+	 */
+	public MysqlSettings setTcpSndBuf(Integer tcpSndBuf) {
+		this.tcpSndBuf = tcpSndBuf;
+		return this;
+	}
+
+}
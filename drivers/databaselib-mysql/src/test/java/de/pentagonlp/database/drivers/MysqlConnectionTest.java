@@ -1,15 +1,32 @@
 package de.pentagonlp.database.drivers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Properties;
 
 import org.junit.jupiter.api.Test;
 
 import de.pentagonlp.database.DataElement;
+import de.pentagonlp.database.RowCursor;
+import de.pentagonlp.database.ValueType;
+import de.pentagonlp.database.drivertypes.DatabaseServerConnection;
+import de.pentagonlp.database.drivertypes.LoadBalancing;
+import de.pentagonlp.database.exceptions.CouldNotReadDatabaseConfigException;
 import de.pentagonlp.database.exceptions.InvalidConnectionDetailsException;
 import de.pentagonlp.database.exceptions.NoConectionStatusChangeException;
 import de.pentagonlp.database.exceptions.NotConnectedException;
@@ -100,4 +117,193 @@ public class MysqlConnectionTest {
 		}
 	}
 
+	/**
+	 * Loads driver options from a configuration file without connecting
+	 * 
+	 */
+	@Test
+	public void settingsTest() throws Exception {
+		File config = new File("mysqlsettingstest.cfg");
+		Files.write(config.toPath(), Arrays.asList("# MySql settings", "host=localhost", "port=3306",
+				"database=", "username=root", "password=a=b", "preset=high_throughput", "prepStmtCacheSize=50",
+				"replicas=replica1:3307, replica2", "load_balancing=least_outstanding"));
+		MysqlConnection mysql = new MysqlConnection();
+
+		try {
+			mysql.loadConnectionDetailsFromFile(config);
+			Properties properties = mysql.getSettings().toProperties();
+			assertEquals("true", properties.getProperty("useServerPrepStmts"));
+			assertEquals("50", properties.getProperty("prepStmtCacheSize"),
+					"Option from configuration file did not override preset");
+			assertEquals("true", properties.getProperty("rewriteBatchedStatements"));
+			assertEquals(2, mysql.getReplicas().size());
+			assertEquals("replica1:3307", mysql.getReplicas().get(0).toString());
+			assertEquals("replica2:3306", mysql.getReplicas().get(1).toString(),
+					"Replica without port did not use the port of the primary server");
+			assertEquals(LoadBalancing.LEAST_OUTSTANDING, mysql.getLoadBalancing());
+
+			Files.write(config.toPath(), Arrays.asList("host=localhost", "port=3306", "database=", "username=root",
+					"password=", "useCompression=yes"));
+			assertThrows(CouldNotReadDatabaseConfigException.class, () -> mysql.loadConnectionDetailsFromFile(config));
+		} finally {
+			config.delete();
+		}
+	}
+
+	/**
+	 * Makes sure replicas are only accepted by drivers able to connect to them
+	 * 
+	 */
+	@Test
+	public void replicaSupportTest() throws Exception {
+		assertTrue(new MysqlConnection().supportsReplicas(), "MySql did not support replicas");
+
+		DatabaseServerConnection withoutReplicas = new DatabaseServerConnection("localhost", 3306, "", "root", "") {
+
+			@Override
+			protected Connection createConnection() throws SQLException {
+				throw new SQLException("Not connecting in this test");
+			}
+
+			@Override
+			public void setDefaultConnectionDetails() {
+			}
+
+		};
+		assertFalse(withoutReplicas.supportsReplicas(), "Driver without replica connections supported replicas");
+		assertThrows(InvalidConnectionDetailsException.class, () -> withoutReplicas.setReplicas("replica1"),
+				"Replicas were accepted by a driver without replica connections");
+		withoutReplicas.setReplicas();
+	}
+
+	/**
+	 * Makes sure statements nested into a streaming cursor on the single
+	 * connection fail early, while the connection is usable again once the cursor
+	 * is closed
+	 * 
+	 */
+	@Test
+	public void streamingTest() throws Exception {
+		MysqlConnection mysql = new MysqlConnection();
+		assertTrue(mysql.isStreamingExclusive(), "Row streaming did not block the connection");
+		mysql.setSettings(new MysqlSettings().setUseCursorFetch(true));
+		assertFalse(mysql.isStreamingExclusive(), "Cursor fetching blocked the connection");
+		mysql.setSettings(new MysqlSettings());
+
+		try {
+			mysql.open();
+			try (RowCursor<HashMap<String, DataElement>> cursor = mysql
+					.openCursor("SELECT 1 AS a UNION ALL SELECT 2")) {
+				assertTrue(cursor.hasNext());
+				SQLException e = assertThrows(SQLException.class, () -> mysql.getFirstRow("SELECT 3"),
+						"Statement ran on a connection with a streaming cursor");
+				assertTrue(e.getMessage().startsWith("A cursor is still streaming rows"),
+						"Nested statement did not fail with a clear error: " + e.getMessage());
+				assertEquals(1, cursor.next().get("a").toInt());
+				assertEquals(2, cursor.next().get("a").toInt());
+			}
+			assertEquals(3, mysql.getFirstRow("SELECT 3 AS a").get("a").toInt(),
+					"Connection was not usable after the cursor was closed");
+		} finally {
+			mysql.close();
+		}
+	}
+
+	/**
+	 * Makes sure floating point numbers and date times keep the text form MySql
+	 * sends, while still casting to numbers and timestamps
+	 * 
+	 */
+	@Test
+	public void textFormTest() throws Exception {
+		MysqlConnection mysql = new MysqlConnection();
+		ValueType doubleType = mysql.getValueType(metadata(Types.DOUBLE), 1);
+		DataElement number = doubleType.readElement(result("3"), 1);
+		assertEquals("3", number.toString(), "DOUBLE lost its MySql text form");
+		assertEquals(3.0, number.toDouble(), "DOUBLE failed to cast to Double");
+		assertEquals(3, number.toInt(), "DOUBLE failed to cast to Int");
+		assertEquals("1.1", mysql.getValueType(metadata(Types.REAL), 1).readElement(result("1.1"), 1).toString(),
+				"FLOAT lost its MySql text form");
+
+		DataElement datetime = mysql.getValueType(metadata(Types.TIMESTAMP), 1)
+				.readElement(result("2024-01-01 12:00:00.500"), 1);
+		assertEquals("2024-01-01 12:00:00.500", datetime.toString(), "DATETIME(3) lost its MySql text form");
+		assertEquals(Timestamp.valueOf("2024-01-01 12:00:00.5"), datetime.toTimestamp(),
+				"DATETIME(3) failed to cast to Timestamp");
+		assertEquals("12:00:00.500",
+				mysql.getValueType(metadata(Types.TIME), 1).readElement(result("12:00:00.500"), 1).toString(),
+				"TIME(3) lost its MySql text form");
+
+		assertEquals(ValueType.LONG, mysql.getValueType(metadata(Types.INTEGER), 1),
+				"Integers were not read natively");
+	}
+
+	/**
+	 * Creates {@link ResultSetMetaData} describing a single signed column
+	 * 
+	 * @param type The JDBC type of the column
+	 * 
+	 * @return The {@link ResultSetMetaData}
+	 * 
+	 */
+	private static ResultSetMetaData metadata(int type) {
+		return (ResultSetMetaData) Proxy.newProxyInstance(MysqlConnectionTest.class.getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getColumnType":
+						return type;
+					case "getColumnTypeName":
+						return "";
+					case "isSigned":
+						return true;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	/**
+	 * Creates a {@link ResultSet} positioned on a row with a single column, as
+	 * sent by MySql
+	 * 
+	 * @param text The text of the column
+	 * 
+	 * @return The {@link ResultSet}
+	 * 
+	 */
+	private static ResultSet result(String text) {
+		return (ResultSet) Proxy.newProxyInstance(MysqlConnectionTest.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+					if (method.getName().equals("getString"))
+						return text;
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	/**
+	 * Makes sure multiple statements per command are only used if enabled and
+	 * cursor fetching is off
+	 * 
+	 */
+	@Test
+	public void multiStatementTest() throws Exception {
+		MysqlConnection mysql = new MysqlConnection();
+		assertFalse(mysql.supportsMultiStatements(), "Multiple statements were allowed by default");
+		mysql.setSettings(new MysqlSettings().setAllowMultiQueries(true));
+		assertTrue(mysql.supportsMultiStatements());
+		assertEquals("true", mysql.getSettings().toProperties().getProperty("allowMultiQueries"));
+		mysql.setSettings(mysql.getSettings().setUseCursorFetch(true));
+		assertFalse(mysql.supportsMultiStatements(), "Multiple statements were used with cursor fetching");
+	}
+
+	/**
+	 * Makes sure names are quoted in backticks, escaping contained backticks
+	 * 
+	 */
+	@Test
+	public void quoteIdentifierTest() throws Exception {
+		MysqlConnection mysql = new MysqlConnection();
+		assertEquals("`User ``Name`", mysql.quoteIdentifier("User `Name"));
+	}
+
 }
@@ -2,13 +2,20 @@ package de.pentagonlp.database.drivers;
 
 import java.io.File;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.time.temporal.TemporalAccessor;
 import java.util.HashMap;
+import java.util.Map;
 
 import de.pentagonlp.database.DataElement;
 import de.pentagonlp.database.DatabaseConnection;
+import de.pentagonlp.database.ValueType;
 import de.pentagonlp.database.exceptions.CouldNotReadDatabaseConfigException;
 import de.pentagonlp.database.exceptions.InvalidConnectionDetailsException;
 
@@ -26,6 +33,12 @@ public class SqlLiteConnection extends DatabaseConnection {
 	 */
 	private String pathToFile;
 
+	/**
+	 * Pragmas applied to every new connection
+	 * 
+	 */
+	private volatile SqliteSettings settings = new SqliteSettings();
+
 	/**
 	 * Creates an Interface to open a Sqllite file
 	 * 
@@ -52,14 +65,99 @@ public class SqlLiteConnection extends DatabaseConnection {
 	}
 
 	/**
-	 * Creates a {@link Connection} to a Sqlite file
+	 * Creates an Interface to open a Sqllite file with given pragmas
+	 * 
+	 * @param pathToFile    The path to the file
+	 * @param autoReconnect Specifies whether the Interface will attempt to reopen
+	 *                      the file in case something goes wrong
+	 * @param settings      Pragmas applied to every connection, e.g.
+	 *                      {@link SqliteSettings#fast()}
+	 * 
+	 */
+	public SqlLiteConnection(String pathToFile, boolean autoReconnect, SqliteSettings settings)
+			throws InvalidConnectionDetailsException {
+		super(autoReconnect);
+		this.pathToFile = pathToFile;
+		this.settings = new SqliteSettings(settings);
+	}
+
+	/**
+	 * Creates an Interface to open a Sqllite file with given pragmas<br>
+	 * {@code autoReconnect} is set to {@code false}
+	 * 
+	 * @param pathToFile The path to the file
+	 * @param settings   Pragmas applied to every connection, e.g.
+	 *                   {@link SqliteSettings#fast()}
+	 * 
+	 */
+	public SqlLiteConnection(String pathToFile, SqliteSettings settings) throws InvalidConnectionDetailsException {
+		super();
+		this.pathToFile = pathToFile;
+		this.settings = new SqliteSettings(settings);
+	}
+
+	/**
+	 * Creates a {@link Connection} to a Sqlite file, applying the
+	 * {@link SqliteSettings}
 	 * 
 	 * @return A {@link Connection} to the Sqlite file
 	 * 
 	 */
 	@Override
 	protected Connection createConnection() throws SQLException {
-		return DriverManager.getConnection("jdbc:sqlite:" + pathToFile);
+		return DriverManager.getConnection("jdbc:sqlite:" + pathToFile, settings.toConfig().toProperties());
+	}
+
+	/**
+	 * Creates a read-only {@link Connection} to the Sqlite file, applying the
+	 * {@link SqliteSettings} except for those only a writer can change
+	 * 
+	 * @return A read-only {@link Connection} to the Sqlite file
+	 * 
+	 * @throws SQLException If the file does not exist or cannot be read
+	 * 
+	 */
+	protected Connection createReadOnlyConnection() throws SQLException {
+		return DriverManager.getConnection("jdbc:sqlite:" + pathToFile, settings.toReadOnlyConfig().toProperties());
+	}
+
+	/**
+	 * Reads all columns through {@link java.sql.ResultSet#getObject(int)
+	 * getObject}. Sqlite stores values dynamically typed, so the declared column
+	 * type does not reliably describe a value, but the driver returns each value
+	 * in its actual storage class.
+	 * 
+	 */
+	@Override
+	protected ValueType getValueType(ResultSetMetaData metadata, int column) {
+		return ValueType.OBJECT;
+	}
+
+	/**
+	 * Binds dates and times as text, like {@link Object#toString()} formats them.
+	 * The Sqlite driver would otherwise store them as milliseconds since the
+	 * epoch, which does not match values written as text before and can not be
+	 * compared to them.<br>
+	 * {@link BigDecimal} and {@link BigInteger} are bound as integer or real, as
+	 * Sqlite has no decimal storage class and the driver would bind them as text.
+	 * 
+	 */
+	@Override
+	protected void bindParameter(PreparedStatement statement, int index, Object param) throws SQLException {
+		if (param instanceof java.util.Date || param instanceof TemporalAccessor)
+			statement.setString(index, param.toString());
+		else if (param instanceof BigInteger)
+			bindParameter(statement, index, new BigDecimal((BigInteger) param));
+		else if (param instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) param;
+			try {
+				statement.setLong(index, decimal.longValueExact());
+			} catch (ArithmeticException e) {
+				// Fraction or out of the range of long
+				statement.setDouble(index, decimal.doubleValue());
+			}
+		} else
+			super.bindParameter(statement, index, param);
 	}
 
 	public void setConnectionDetails(String pathToFile) throws InvalidConnectionDetailsException {
@@ -67,11 +165,40 @@ public class SqlLiteConnection extends DatabaseConnection {
 		connectionDetailsUpdate();
 	}
 
+	/**
+	 * Sets the pragmas applied to every connection. Reconnects if already
+	 * connected, so the new settings take effect.
+	 * 
+	 * @param settings The {@link SqliteSettings}, e.g.
+	 *                 {@link SqliteSettings#durable()}
+	 * 
+	 * @throws InvalidConnectionDetailsException
+	 * 
+	 */
+	public void setSettings(SqliteSettings settings) throws InvalidConnectionDetailsException {
+		this.settings = new SqliteSettings(settings);
+		connectionDetailsUpdate();
+	}
+
+	/**
+	 * Gets the pragmas applied to every connection
+	 * 
+	 * @return A copy of the {@link SqliteSettings}
+	 * 
+	 */
+	public SqliteSettings getSettings() {
+		return new SqliteSettings(settings);
+	}
+
 	/**
 	 * Loads the connection details from a file, given through a path<br>
 	 * <br>
 	 * Accepted parameters:<br>
-	 * {@code path=PATHTOFILE}
+	 * {@code path=PATHTOFILE}<br>
+	 * Optional: {@code preset=durable|fast} and the pragmas
+	 * {@code journal_mode}, {@code synchronous}, {@code cache_size},
+	 * {@code mmap_size}, {@code temp_store}, {@code busy_timeout} and
+	 * {@code page_size}, applied on top of the preset
 	 * 
 	 * @param path Path to the configuration file
 	 * 
@@ -90,7 +217,11 @@ public class SqlLiteConnection extends DatabaseConnection {
 	 * Loads the connection details from a file, given through a {@link File}<br>
 	 * <br>
 	 * Accepted parameters:<br>
-	 * {@code path=PATHTOFILE}
+	 * {@code path=PATHTOFILE}<br>
+	 * Optional: {@code preset=durable|fast} and the pragmas
+	 * {@code journal_mode}, {@code synchronous}, {@code cache_size},
+	 * {@code mmap_size}, {@code temp_store}, {@code busy_timeout} and
+	 * {@code page_size}, applied on top of the preset
 	 * 
 	 * @param file The configuation file
 	 * 
@@ -104,11 +235,21 @@ public class SqlLiteConnection extends DatabaseConnection {
 			throws CouldNotReadDatabaseConfigException, IOException, InvalidConnectionDetailsException {
 		HashMap<String, DataElement> fileentries = readConfigurationFile(file);
 
-		if (fileentries.containsKey("path"))
-			pathToFile = fileentries.get("path").toString();
-		else
+		if (!fileentries.containsKey("path"))
 			throw new CouldNotReadDatabaseConfigException("Missing entry 'path' from configuration file");
 
+		SqliteSettings filesettings = new SqliteSettings();
+		try {
+			if (fileentries.containsKey("preset"))
+				filesettings = SqliteSettings.preset(fileentries.get("preset").toString());
+			for (Map.Entry<String, DataElement> entry : fileentries.entrySet())
+				filesettings.set(entry.getKey(), entry.getValue().toString());
+		} catch (IllegalArgumentException e) {
+			throw new CouldNotReadDatabaseConfigException(e.getMessage());
+		}
+
+		pathToFile = fileentries.get("path").toString();
+		settings = filesettings;
 		connectionDetailsUpdate();
 	}
 
@@ -0,0 +1,289 @@
+package de.pentagonlp.database.drivers;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import de.pentagonlp.database.ConnectionFactory;
+import de.pentagonlp.database.ConnectionPool;
+import de.pentagonlp.database.PoolSettings;
+import de.pentagonlp.database.exceptions.InvalidConnectionDetailsException;
+
+/**
+ * Interface to use a Sqlite file from many threads at once. Sqlite allows any
+ * number of readers next to a single writer in
+ * {@link org.sqlite.SQLiteConfig.JournalMode#WAL WAL} mode, so this interface
+ * keeps one writer connection and a {@link ConnectionPool} of read-only
+ * connections:
+ * <ul>
+ * <li>{@code SELECT}, {@code VALUES} and reading {@code WITH} queries run on a
+ * read-only connection</li>
+ * <li>All other statements wait for the writer connection in first-in,
+ * first-out order, instead of failing with {@code SQLITE_BUSY}</li>
+ * <li>Transactions run completely on the writer connection, so they read their
+ * own uncommitted writes</li>
+ * </ul>
+ * Requires a database file; every connection to {@code :memory:} would open its
+ * own database.
+ * 
+ * @author PentagonLP
+ * 
+ * @see SqliteSettings
+ * 
+ */
+public class SqlLiteReadWriteConnection extends SqlLiteConnection {
+
+	/**
+	 * Settings of the reader pool. Its maximum wait time also applies to
+	 * statements waiting for the writer connection.
+	 * 
+	 */
+	private volatile PoolSettings readPoolSettings = new PoolSettings(1,
+			Runtime.getRuntime().availableProcessors());
+	private volatile ConnectionPool readers;
+
+	/**
+	 * Pool each borrowed read connection has to be given back to
+	 * 
+	 */
+	private final ConcurrentHashMap<Connection, ConnectionPool> borrowedReads = new ConcurrentHashMap<>();
+
+	/**
+	 * Permit to use the writer connection, handed out in first-in, first-out
+	 * order
+	 * 
+	 */
+	private final Semaphore writeQueue = new Semaphore(1, true);
+	/**
+	 * Guards {@link #writer} and {@link #writerHolds}
+	 * 
+	 */
+	private final Object writerState = new Object();
+	/**
+	 * Thread holding the {@link #writeQueue} permit, which may borrow the writer
+	 * connection again, e.g. to write while reading through a writer cursor
+	 * 
+	 */
+	private Thread writer;
+	/**
+	 * Number of borrows of the writer connection not given back yet; the permit
+	 * is released when it drops to {@code 0}
+	 * 
+	 */
+	private int writerHolds;
+
+	private final ConnectionFactory readConnectionFactory = new ConnectionFactory() {
+
+		@Override
+		public Connection create() throws SQLException {
+			return createReadOnlyConnection();
+		}
+
+		@Override
+		public void destroy(Connection connection) throws SQLException {
+			destroyConnection(connection);
+		}
+
+	};
+
+	/**
+	 * Creates an Interface to open a Sqllite file with one writer and multiple
+	 * readers, using the {@link SqliteSettings#durable()} preset<br>
+	 * {@code autoReconnect} is set to {@code false}
+	 * 
+	 * @param pathToFile The path to the file
+	 * 
+	 */
+	public SqlLiteReadWriteConnection(String pathToFile) throws InvalidConnectionDetailsException {
+		super(pathToFile, SqliteSettings.durable());
+	}
+
+	/**
+	 * Creates an Interface to open a Sqllite file with one writer and multiple
+	 * readers<br>
+	 * {@code autoReconnect} is set to {@code false}
+	 * 
+	 * @param pathToFile The path to the file
+	 * @param settings   Pragmas applied to every connection; should use
+	 *                   {@link org.sqlite.SQLiteConfig.JournalMode#WAL WAL}, or
+	 *                   readers and the writer block each other
+	 * 
+	 */
+	public SqlLiteReadWriteConnection(String pathToFile, SqliteSettings settings)
+			throws InvalidConnectionDetailsException {
+		super(pathToFile, settings);
+	}
+
+	/**
+	 * Creates an Interface to open a Sqllite file with one writer and multiple
+	 * readers
+	 * 
+	 * @param pathToFile    The path to the file
+	 * @param autoReconnect Specifies whether the Interface will attempt to reopen
+	 *                      the file in case something goes wrong
+	 * @param settings      Pragmas applied to every connection; should use
+	 *                      {@link org.sqlite.SQLiteConfig.JournalMode#WAL WAL},
+	 *                      or readers and the writer block each other
+	 * 
+	 */
+	public SqlLiteReadWriteConnection(String pathToFile, boolean autoReconnect, SqliteSettings settings)
+			throws InvalidConnectionDetailsException {
+		super(pathToFile, autoReconnect, settings);
+	}
+
+	/**
+	 * Opens the reader pool once the writer connection has been opened, which
+	 * also creates the database file if necessary
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	@Override
+	protected void onOpen() throws SQLException {
+		readers = new ConnectionPool(readConnectionFactory, readPoolSettings);
+	}
+
+	/**
+	 * Closes the reader pool together with the writer connection. Readers in use
+	 * are closed as soon as they are given back.
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	@Override
+	protected void onClose() throws SQLException {
+		ConnectionPool readers = this.readers;
+		this.readers = null;
+		if (readers != null)
+			readers.close();
+	}
+
+	/**
+	 * Borrows a read-only connection for reading statements, or waits for the
+	 * writer connection otherwise. The thread already using the writer
+	 * connection borrows it again without waiting.
+	 * 
+	 * @throws SQLTimeoutException If the writer connection did not become
+	 *                             available within
+	 *                             {@link PoolSettings#getMaxWait()}
+	 * 
+	 */
+	@Override
+	protected Connection borrowConnection(boolean readOnly) throws SQLException {
+		ConnectionPool readers = this.readers;
+		if (readOnly && readers != null) {
+			Connection connection = readers.borrow();
+			borrowedReads.put(connection, readers);
+			return connection;
+		}
+
+		Thread current = Thread.currentThread();
+		boolean reentered;
+		synchronized (writerState) {
+			reentered = writer == current;
+			if (reentered)
+				writerHolds++;
+		}
+		if (!reentered) {
+			long maxWait = readPoolSettings.getMaxWait();
+			try {
+				if (!writeQueue.tryAcquire(maxWait, TimeUnit.MILLISECONDS))
+					throw new SQLTimeoutException(
+							"Timed out after " + maxWait + "ms waiting for the writer connection");
+			} catch (InterruptedException e) {
+				current.interrupt();
+				throw new SQLException("Interrupted while waiting for the writer connection", e);
+			}
+			synchronized (writerState) {
+				writer = current;
+				writerHolds = 1;
+			}
+		}
+		try {
+			return super.borrowConnection(false);
+		} catch (SQLException | RuntimeException | Error e) {
+			// Nothing was borrowed, so giveBackConnection will not free the writer
+			releaseWriter();
+			throw e;
+		}
+	}
+
+	@Override
+	protected void giveBackConnection(Connection connection) {
+		ConnectionPool owner = borrowedReads.remove(connection);
+		if (owner != null)
+			owner.release(connection);
+		else {
+			super.giveBackConnection(connection);
+			releaseWriter();
+		}
+	}
+
+	/**
+	 * Gives back one borrow of the writer connection, possibly from another
+	 * thread than the {@link #writer}, e.g. when a cursor is closed there.
+	 * Releases the permit once the last borrow is given back.
+	 * 
+	 */
+	private void releaseWriter() {
+		synchronized (writerState) {
+			if (--writerHolds > 0)
+				return;
+			writer = null;
+		}
+		writeQueue.release();
+	}
+
+	/**
+	 * Sets the settings of the reader pool. The writer is always a single
+	 * connection.<br>
+	 * Takes effect on the next {@link #open()} or {@link #reconnect()}.
+	 * 
+	 * @param poolSettings Settings of the reader pool; the maximum wait time
+	 *                     also applies to statements waiting for the writer
+	 * 
+	 */
+	@Override
+	public void setPoolSettings(PoolSettings poolSettings) {
+		if (poolSettings == null)
+			throw new IllegalArgumentException("The reader pool needs pool settings");
+		this.readPoolSettings = new PoolSettings(poolSettings);
+	}
+
+	/**
+	 * Gets the settings of the reader pool
+	 * 
+	 * @return A copy of the {@link PoolSettings} of the reader pool
+	 * 
+	 */
+	@Override
+	public PoolSettings getPoolSettings() {
+		return new PoolSettings(readPoolSettings);
+	}
+
+	/**
+	 * Gets the current reader pool, e.g. to monitor its usage
+	 * 
+	 * @return The {@link ConnectionPool} of read-only connections, or
+	 *         {@code null} if not connected
+	 * 
+	 */
+	@Override
+	public ConnectionPool getPool() {
+		return readers;
+	}
+
+	/**
+	 * Gets the number of threads currently waiting for the writer connection
+	 * 
+	 * @return An estimate of the length of the write queue
+	 * 
+	 */
+	public int getQueuedWriters() {
+		return writeQueue.getQueueLength();
+	}
+
+}
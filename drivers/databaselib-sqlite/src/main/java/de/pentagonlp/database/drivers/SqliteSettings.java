@@ -0,0 +1,342 @@
+package de.pentagonlp.database.drivers;
+
+import java.util.Locale;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+import org.sqlite.SQLiteConfig.TempStore;
+
+/**
+ * Pragmas applied to every connection a {@link SqlLiteConnection} opens.
+ * Settings left at {@code null} keep the default of Sqlite.<br>
+ * Setters return the {@link SqliteSettings} object itself so calls can be
+ * chained.<br>
+ * <br>
+ * Two presets are available:
+ * <ul>
+ * <li>{@link #durable()}: write-ahead log and full synchronization; committed
+ * transactions survive power loss, while readers and the writer no longer
+ * block each other</li>
+ * <li>{@link #fast()}: write-ahead log with normal synchronization, a larger
+ * page cache and memory mapped reads; committed transactions survive crashes
+ * of the application, but the last ones may be lost on power loss</li>
+ * </ul>
+ * 
+ * @author PentagonLP
+ * 
+ * @see SqlLiteConnection#setSettings(SqliteSettings)
+ * 
+ */
+public class SqliteSettings {
+
+	/**
+	 * Name of the {@link #durable()} preset
+	 * 
+	 */
+	public static final String DURABLE = "durable";
+	/**
+	 * Name of the {@link #fast()} preset
+	 * 
+	 */
+	public static final String FAST = "fast";
+
+	private JournalMode journalMode;
+	private SynchronousMode synchronous;
+	private Integer cacheSize;
+	private Long mmapSize;
+	private TempStore tempStore;
+	private Integer busyTimeout;
+	private Integer pageSize;
+
+	/**
+	 * Creates {@link SqliteSettings} keeping all defaults of Sqlite
+	 * 
+	 */
+	public SqliteSettings() {
+	}
+
+	/**
+	 * Creates a copy of other {@link SqliteSettings}
+	 * 
+	 * @param other The {@link SqliteSettings} to copy
+	 * 
+	 */
+	public SqliteSettings(SqliteSettings other) {
+		this.journalMode = other.journalMode;
+		this.synchronous = other.synchronous;
+		this.cacheSize = other.cacheSize;
+		this.mmapSize = other.mmapSize;
+		this.tempStore = other.tempStore;
+		this.busyTimeout = other.busyTimeout;
+		this.pageSize = other.pageSize;
+	}
+
+	/**
+	 * Creates the "durable" preset: write-ahead log, full synchronization, a
+	 * 16 MiB page cache, temporary tables in memory and a busy timeout of 5
+	 * seconds
+	 * 
+	 * @return New {@link SqliteSettings} with the preset applied
+	 * 
+	 */
+	public static SqliteSettings durable() {
+		return new SqliteSettings().setJournalMode(JournalMode.WAL).setSynchronous(SynchronousMode.FULL)
+				.setCacheSize(-16 * 1024).setTempStore(TempStore.MEMORY).setBusyTimeout(5000);
+	}
+
+	/**
+	 * Creates the "fast" preset: write-ahead log, normal synchronization, a 64
+	 * MiB page cache, 256 MiB of memory mapped I/O, temporary tables in memory
+	 * and a busy timeout of 5 seconds
+	 * 
+	 * @return New {@link SqliteSettings} with the preset applied
+	 * 
+	 */
+	public static SqliteSettings fast() {
+		return new SqliteSettings().setJournalMode(JournalMode.WAL).setSynchronous(SynchronousMode.NORMAL)
+				.setCacheSize(-64 * 1024).setMmapSize(256L * 1024 * 1024).setTempStore(TempStore.MEMORY)
+				.setBusyTimeout(5000);
+	}
+
+	/**
+	 * Creates a preset by its name
+	 * 
+	 * @param name {@value #DURABLE} or {@value #FAST}, ignoring case
+	 * 
+	 * @return New {@link SqliteSettings} with the preset applied
+	 * 
+	 * @throws IllegalArgumentException If there is no preset with that name
+	 * 
+	 */
+	public static SqliteSettings preset(String name) {
+		switch (name.trim().toLowerCase(Locale.ROOT)) {
+		case DURABLE:
+			return durable();
+		case FAST:
+			return fast();
+		default:
+			throw new IllegalArgumentException("Unknown Sqlite preset '" + name + "'");
+		}
+	}
+
+	/**
+	 * Sets a setting by its pragma name, as used in configuration files
+	 * 
+	 * @param pragma Name of the pragma, e.g. {@code journal_mode}
+	 * @param value  Value of the pragma, e.g. {@code WAL}
+	 * 
+	 * @return {@code false} if there is no setting for that pragma
+	 * 
+	 * @throws IllegalArgumentException If the value is invalid for the pragma
+	 * 
+	 */
+	public boolean set(String pragma, String value) {
+		try {
+			return setPragma(pragma.trim().toLowerCase(Locale.ROOT), value.trim());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(
+					String.format("Invalid value '%s' for pragma '%s'", value.trim(), pragma.trim()), e);
+		}
+	}
+
+	private boolean setPragma(String pragma, String value) {
+		String upper = value.toUpperCase(Locale.ROOT);
+		switch (pragma) {
+		case "journal_mode":
+			setJournalMode(JournalMode.valueOf(upper));
+			return true;
+		case "synchronous":
+			setSynchronous(SynchronousMode.valueOf(upper));
+			return true;
+		case "cache_size":
+			setCacheSize(Integer.parseInt(value));
+			return true;
+		case "mmap_size":
+			setMmapSize(Long.parseLong(value));
+			return true;
+		case "temp_store":
+			setTempStore(TempStore.valueOf(upper));
+			return true;
+		case "busy_timeout":
+			setBusyTimeout(Integer.parseInt(value));
+			return true;
+		case "page_size":
+			setPageSize(Integer.parseInt(value));
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Creates the {@link SQLiteConfig} to open connections with
+	 * 
+	 * @return A new {@link SQLiteConfig} with all settings which are not
+	 *         {@code null} applied
+	 * 
+	 */
+	SQLiteConfig toConfig() {
+		SQLiteConfig config = new SQLiteConfig();
+		if (journalMode != null)
+			config.setJournalMode(journalMode);
+		if (synchronous != null)
+			config.setSynchronous(synchronous);
+		if (cacheSize != null)
+			config.setCacheSize(cacheSize);
+		if (mmapSize != null)
+			config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, mmapSize.toString());
+		if (tempStore != null)
+			config.setTempStore(tempStore);
+		if (busyTimeout != null)
+			config.setBusyTimeout(busyTimeout);
+		if (pageSize != null)
+			config.setPageSize(pageSize);
+		return config;
+	}
+
+	/**
+	 * Creates the {@link SQLiteConfig} to open read-only connections with. The
+	 * journal mode and page size are left out, as they can only be changed by a
+	 * writing connection.
+	 * 
+	 * @return A new read-only {@link SQLiteConfig} with all other settings which
+	 *         are not {@code null} applied
+	 * 
+	 */
+	SQLiteConfig toReadOnlyConfig() {
+		SQLiteConfig config = new SqliteSettings(this).setJournalMode(null).setPageSize(null).toConfig();
+		config.setReadOnly(true);
+		return config;
+	}
+
+	public JournalMode getJournalMode() {
+		return journalMode;
+	}
+
+	/**
+	 * Sets the journal mode. {@link JournalMode#WAL} lets readers and a writer
+	 * work at the same time and needs fewer synchronizations per commit.
+	 * 
+	 * @param journalMode The journal mode; {@code null} for the default
+	 * 
+	 * @return This {@link SqliteSettings} object
+	 * 
+	 */
+	public SqliteSettings setJournalMode(JournalMode journalMode) {
+		this.journalMode = journalMode;
+		return this;
+	}
+
+	public SynchronousMode getSynchronous() {
+		return synchronous;
+	}
+
+	/**
+	 * Sets how often Sqlite waits for data to reach the disk.
+	 * {@link SynchronousMode#NORMAL} is safe against application crashes in
+	 * {@link JournalMode#WAL} mode, but may lose the last transactions on power
+	 * loss.
+	 * 
+	 * @param synchronous The synchronous mode; {@code null} for the default
+	 * 
+	 * @return This {@link SqliteSettings} object
+	 * 
+	 */
+	public SqliteSettings setSynchronous(SynchronousMode synchronous) {
+		this.synchronous = synchronous;
+		return this;
+	}
+
+	public Integer getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Sets the size of the page cache of each connection
+	 * 
+	 * @param cacheSize Number of pages if positive, or size in KiB if negative;
+	 *                  {@code null} for the default
+	 * 
+	 * @return This {@link SqliteSettings} object
+	 * 
+	 */
+	public SqliteSettings setCacheSize(Integer cacheSize) {
+		this.cacheSize = cacheSize;
+		return this;
+	}
+
+	public Long getMmapSize() {
+		return mmapSize;
+	}
+
+	/**
+	 * Sets the maximum number of bytes of the database file read through memory
+	 * mapped I/O, which avoids copying pages into the page cache
+	 * 
+	 * @param mmapSize Size in bytes, {@code 0} to disable; {@code null} for the
+	 *                 default
+	 * 
+	 * @return This {@link SqliteSettings} object
+	 * 
+	 */
+	public SqliteSettings setMmapSize(Long mmapSize) {
+		this.mmapSize = mmapSize;
+		return this;
+	}
+
+	public TempStore getTempStore() {
+		return tempStore;
+	}
+
+	/**
+	 * Sets where temporary tables and indices are stored
+	 * 
+	 * @param tempStore The storage location; {@code null} for the default
+	 * 
+	 * @return This {@link SqliteSettings} object
+	 * 
+	 */
+	public SqliteSettings setTempStore(TempStore tempStore) {
+		this.tempStore = tempStore;
+		return this;
+	}
+
+	public Integer getBusyTimeout() {
+		return busyTimeout;
+	}
+
+	/**
+	 * Sets how long a connection waits for a lock held by another connection
+	 * before failing with {@code SQLITE_BUSY}
+	 * 
+	 * @param busyTimeout Timeout in milliseconds; {@code null} for the default
+	 * 
+	 * @return This {@link SqliteSettings} object
+	 * 
+	 */
+	public SqliteSettings setBusyTimeout(Integer busyTimeout) {
+		this.busyTimeout = busyTimeout;
+		return this;
+	}
+
+	public Integer getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * Sets the page size. Only takes effect when the database file is created,
+	 * or after a {@code VACUUM} outside of {@link JournalMode#WAL} mode.
+	 * 
+	 * @param pageSize Page size in bytes, a power of two between {@code 512} and
+	 *                 {@code 65536}; {@code null} for the default
+	 * 
+	 * @return This {@link SqliteSettings} object
+	 * 
+	 */
+	public SqliteSettings setPageSize(Integer pageSize) {
+		this.pageSize = pageSize;
+		return this;
+	}
+
+}
@@ -1,12 +1,66 @@
 package de.pentagonlp.database.drivers;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.Test;
 
+import de.pentagonlp.database.ConnectionPool;
+import de.pentagonlp.database.DataElement;
+import de.pentagonlp.database.ExportSettings;
+import de.pentagonlp.database.FileFormat;
+import de.pentagonlp.database.ImportProgress;
+import de.pentagonlp.database.ImportSettings;
+import de.pentagonlp.database.KeysetPager;
+import de.pentagonlp.database.NullValue;
+import de.pentagonlp.database.PagingSettings;
+import de.pentagonlp.database.PoolSettings;
+import de.pentagonlp.database.QueryCache;
+import de.pentagonlp.database.QueryPipeline;
+import de.pentagonlp.database.ResultTable;
+import de.pentagonlp.database.Row;
+import de.pentagonlp.database.RowCursor;
+import de.pentagonlp.database.SpillingResultTable;
+import de.pentagonlp.database.exceptions.CouldNotReadDatabaseConfigException;
 import de.pentagonlp.database.exceptions.InvalidConnectionDetailsException;
 import de.pentagonlp.database.exceptions.NoConectionStatusChangeException;
+import de.pentagonlp.database.exceptions.NotConnectedException;
+import de.pentagonlp.database.exceptions.TransactionStateException;
+import de.pentagonlp.database.metrics.QueryMetricsRegistry;
+import de.pentagonlp.database.metrics.QueryStatistics;
 
 /**
  * Test class for {@link SqlLiteConnection}
@@ -30,4 +84,1319 @@ class SqlLiteConnectionTest {
 		new File("test.db").delete();
 	}
 
+	/**
+	 * Creates a pooled {@link SqlLiteConnection} and runs queries from multiple
+	 * threads at once
+	 * 
+	 */
+	@Test
+	void poolTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("pooltest.db");
+		sqllite.setPoolSettings(new PoolSettings(2, 4).setMaxWait(5000));
+		sqllite.open();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (1, 'foobar'), (2, '5')");
+
+			ArrayList<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++)
+				results.add(executor.submit(() -> sqllite.getFirstRow("SELECT * FROM test WHERE ID=?", 1).get("Data")
+						.toString()));
+			for (Future<String> result : results)
+				assertEquals("foobar", result.get(), "getFirstRow() fetched wrong data from pooled connection");
+
+			assertTrue(sqllite.getPool().getTotalConnections() <= 4, "Pool opened more connections than allowed");
+			assertEquals(0, sqllite.getPool().getActiveConnections(), "Pool did not get all connections back");
+		} finally {
+			executor.shutdown();
+			sqllite.close();
+			new File("pooltest.db").delete();
+		}
+	}
+
+	/**
+	 * Runs the same query multiple times and makes sure the prepared statement is
+	 * reused and released again on reconnect
+	 * 
+	 */
+	@Test
+	void statementCacheTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("cachetest.db");
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (1, 'foobar')");
+
+			long hits = sqllite.getStatementCacheStatistics().getHits();
+			for (int i = 0; i < 10; i++)
+				assertEquals("foobar", sqllite.getFirstRow("SELECT * FROM test WHERE ID=?", 1).get("Data").toString(),
+						"getFirstRow() fetched wrong data with cached statement");
+			assertEquals(hits + 9, sqllite.getStatementCacheStatistics().getHits(),
+					"Statement was not reused from the cache");
+
+			// Cached statements must not keep the table locked
+			sqllite.getFirstRow("DROP TABLE test");
+
+			sqllite.reconnect();
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			assertEquals(null, sqllite.getFirstRow("SELECT * FROM test WHERE ID=?", 1),
+					"getFirstRow() fetched results from empty table");
+		} finally {
+			sqllite.close();
+			new File("cachetest.db").delete();
+		}
+	}
+
+	/**
+	 * Streams a result through a cursor, a callback and a {@link Stream}
+	 * 
+	 */
+	@Test
+	void streamTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("streamtest.db");
+		sqllite.setFetchSize(16);
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			for (int i = 1; i <= 100; i++)
+				sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (?, ?)", i, "row" + i);
+
+			try (RowCursor<HashMap<String, DataElement>> cursor = sqllite
+					.openCursor("SELECT * FROM test ORDER BY ID ASC")) {
+				assertEquals("row1", cursor.next().get("Data").toString(), "openCursor(): first row is wrong");
+				int rows = 1;
+				while (cursor.hasNext()) {
+					cursor.next();
+					rows++;
+				}
+				assertEquals(100, rows, "openCursor() returned more or less rows than it should have");
+				assertTrue(cursor.isClosed(), "openCursor(): cursor was not closed after the last row");
+			}
+
+			long[] sum = { 0 };
+			assertEquals(50, sqllite.forEachRow("SELECT * FROM test WHERE ID>?", row -> sum[0] += row.get("ID").toLong(),
+					50), "forEachRow() passed more or less rows than it should have");
+			assertEquals(3775, sum[0], "forEachRow() passed wrong rows");
+
+			try (Stream<HashMap<String, DataElement>> rows = sqllite.stream("SELECT * FROM test")) {
+				assertEquals(100, rows.count(), "stream() returned more or less rows than it should have");
+			}
+		} finally {
+			sqllite.close();
+			new File("streamtest.db").delete();
+		}
+	}
+
+	/**
+	 * Fetches a result as a compact {@link ResultTable} and accesses it by column
+	 * index and name
+	 * 
+	 */
+	@Test
+	void resultTableTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("resulttabletest.db");
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			assertTrue(sqllite.getResultTable("SELECT * FROM test").isEmpty(),
+					"getResultTable() fetched results from empty table");
+
+			sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (1, 'foobar'), (2, '5'), (3, NULL)");
+
+			ResultTable table = sqllite.getResultTable("SELECT * FROM test ORDER BY ID ASC");
+			assertEquals(3, table.size(), "getResultTable() fetched more or less rows than it should have");
+			assertEquals(1, table.getSchema().indexOf("Data"), "getResultTable(): wrong column index");
+			assertEquals("foobar", table.get(0).get("Data").toString(), "getResultTable(): lookup by name failed");
+			assertEquals(5, table.get(1).get(1).toInt(), "getResultTable(): lookup by index failed");
+			assertTrue(table.get(2).get("Data").isNull(), "getResultTable(): NULL was not fetched as null");
+			assertEquals(table.get(0).getSchema(), table.get(2).getSchema(), "Rows do not share their schema");
+			assertEquals(sqllite.getTable("SELECT * FROM test WHERE ID=?", 1).get(0).get("Data").toString(),
+					table.get(0).toHashMap().get("Data").toString(), "toHashMap() differs from getTable()");
+		} finally {
+			sqllite.close();
+			new File("resulttabletest.db").delete();
+		}
+	}
+
+	/**
+	 * Fetches values of different types and makes sure they are stored in their
+	 * native type
+	 * 
+	 */
+	@Test
+	void nativeTypesTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("typestest.db");
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Amount REAL, Data TEXT, Raw BLOB)");
+			sqllite.getFirstRow("INSERT INTO test (ID, Amount, Data, Raw) VALUES (1, 2.5, '7', X'0102'), (2, NULL, NULL, NULL)");
+
+			HashMap<String, DataElement> row = sqllite.getFirstRow("SELECT * FROM test WHERE ID=1");
+			assertEquals(Long.valueOf(1), row.get("ID").getValue(), "INTEGER was not fetched as long");
+			assertEquals(Double.valueOf(2.5), row.get("Amount").getValue(), "REAL was not fetched as double");
+			assertEquals("7", row.get("Data").getValue(), "TEXT was not fetched as String");
+			assertEquals(7, row.get("Data").toInt(), "TEXT failed to cast to Int");
+			assertEquals("2.5", row.get("Amount").toString(), "REAL failed to cast to String");
+			assertEquals(2, row.get("Raw").toBytes()[1], "BLOB was not fetched as byte[]");
+			assertTrue(row.get("ID").toBoolean(), "INTEGER 1 failed to cast to Boolean");
+
+			row = sqllite.getFirstRow("SELECT * FROM test WHERE ID=2");
+			assertTrue(row.get("Amount").isNull(), "NULL REAL should pass DataElement.isNull() check, but doesn't");
+			assertTrue(row.get("Data").isNull(), "NULL TEXT should pass DataElement.isNull() check, but doesn't");
+
+			assertEquals(2.5, sqllite.getResultTable("SELECT Amount FROM test WHERE ID=1").get(0).getValue(0),
+					"getResultTable(): REAL was not fetched as double");
+		} finally {
+			sqllite.close();
+			new File("typestest.db").delete();
+		}
+	}
+
+	/**
+	 * Makes sure floating point values keep the text form of the database and
+	 * cast to integers and booleans like integer values do
+	 * 
+	 */
+	@Test
+	void floatingPointTest() throws Exception {
+		assertEquals("3.0", new DataElement(3.0).toString(), "Integral double failed to cast to String");
+		assertEquals("-2.0", new DataElement(-2.0f).toString(), "Integral float failed to cast to String");
+		assertEquals("1.0E20", new DataElement(1e20).toString(), "Large double failed to cast to String");
+		assertEquals("2.5", new DataElement(2.5).toString(), "Double failed to cast to String");
+		assertEquals("1.1", new DataElement(1.1f).toString(), "Float did not keep its shortest text form");
+		assertEquals(Float.valueOf(1.1f), DataElement.of(Float.valueOf(1.1f)).getValue(),
+				"Float was not stored as float");
+
+		assertEquals(3, new DataElement(3.0).toByte(), "Integral double failed to cast to Byte");
+		assertEquals(3, new DataElement(3.0).toInt(), "Integral double failed to cast to Int");
+		assertEquals(3L, new DataElement(3.0f).toLong(), "Integral float failed to cast to Long");
+		assertEquals(1L << 62, new DataElement((double) (1L << 62)).toLong(), "Large double failed to cast to Long");
+		assertThrows(NumberFormatException.class, () -> new DataElement(2.5).toInt(),
+				"Double with fraction was cast to Int");
+		assertThrows(NumberFormatException.class, () -> new DataElement(1.5f).toLong(),
+				"Float with fraction was cast to Long");
+		assertThrows(NumberFormatException.class, () -> new DataElement(300.0).toByte(),
+				"Double out of range was cast to Byte");
+		assertThrows(NumberFormatException.class, () -> new DataElement(0x1p63).toLong(),
+				"Double out of range was cast to Long");
+		assertThrows(NumberFormatException.class, () -> new DataElement(Double.NaN).toInt(), "NaN was cast to Int");
+
+		assertTrue(new DataElement(1.0).toBoolean(), "Double 1 failed to cast to Boolean");
+		assertTrue(new DataElement(1.0f).toBoolean(), "Float 1 failed to cast to Boolean");
+		assertFalse(new DataElement(0.0).toBoolean(), "Double 0 was cast to true");
+
+		SqlLiteConnection sqllite = new SqlLiteConnection("floatingpointtest.db");
+		sqllite.open();
+		try {
+			HashMap<String, DataElement> row = sqllite.getFirstRow("SELECT 3.0 AS x, 1e20 AS y, -1e19 AS z");
+			assertEquals("3.0", row.get("x").toString(), "getFirstRow(): 3.0 did not keep the text form of SQLite");
+			assertEquals("1.0E20", row.get("y").toString(), "getFirstRow(): 1e20 did not keep the text form of SQLite");
+			assertEquals("-1.0E19", row.get("z").toString(), "getFirstRow(): -1e19 did not keep the text form of SQLite");
+			assertTrue(row.get("y").equals("1.0E20"), "getFirstRow(): 1e20 was not equal to its text form");
+			assertEquals(3, row.get("x").toInt(), "getFirstRow(): 3.0 failed to cast to Int");
+			assertThrows(NumberFormatException.class, () -> row.get("y").toLong(), "getFirstRow(): 1e20 was cast to Long");
+			assertThrows(NumberFormatException.class, () -> row.get("z").toLong(), "getFirstRow(): -1e19 was cast to Long");
+		} finally {
+			sqllite.close();
+			new File("floatingpointtest.db").delete();
+		}
+	}
+
+	/**
+	 * Inserts rows through a batch and makes sure a failing batch is rolled back
+	 * 
+	 */
+	@Test
+	void batchTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("batchtest.db");
+		sqllite.setBatchSize(64);
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+
+			ArrayList<Object[]> rows = new ArrayList<>();
+			for (int i = 1; i <= 1000; i++)
+				rows.add(new Object[] { i, "row" + i });
+			int[] counts = sqllite.executeBatch("INSERT INTO test (ID, Data) VALUES (?, ?)", rows);
+			assertEquals(1000, counts.length, "executeBatch() returned more or less update counts than rows");
+			assertEquals(1000, sqllite.getFirstRow("SELECT COUNT(*) AS c FROM test").get("c").toInt(),
+					"executeBatch() inserted more or less rows than it should have");
+
+			// Duplicate primary key in the last row
+			ArrayList<Object[]> failing = new ArrayList<>();
+			failing.add(new Object[] { 1001, "new" });
+			failing.add(new Object[] { 1, "duplicate" });
+			assertThrows(SQLException.class,
+					() -> sqllite.executeBatch("INSERT INTO test (ID, Data) VALUES (?, ?)", failing),
+					"executeBatch() did not fail on duplicate key");
+			assertEquals(null, sqllite.getFirstRow("SELECT * FROM test WHERE ID=?", 1001),
+					"executeBatch() did not roll back the failed batch");
+		} finally {
+			sqllite.close();
+			new File("batchtest.db").delete();
+		}
+	}
+
+	/**
+	 * Runs queries asynchronously and makes sure errors complete the future
+	 * exceptionally
+	 * 
+	 */
+	@Test
+	void asyncTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("asynctest.db");
+		sqllite.setPoolSettings(new PoolSettings(1, 4));
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (1, 'foobar')");
+
+			ArrayList<CompletableFuture<HashMap<String, DataElement>>> futures = new ArrayList<>();
+			for (int i = 0; i < 32; i++)
+				futures.add(sqllite.getFirstRowAsync("SELECT * FROM test WHERE ID=?", 1));
+			for (CompletableFuture<HashMap<String, DataElement>> future : futures)
+				assertEquals("foobar", future.get().get("Data").toString(),
+						"getFirstRowAsync() fetched wrong data");
+
+			assertEquals(1, sqllite.getTableAsync("SELECT * FROM test").get().size(),
+					"getTableAsync() fetched more or less rows than it should have");
+
+			ExecutionException error = assertThrows(ExecutionException.class,
+					() -> sqllite.getTableAsync("SELECT * FROM missing").get(),
+					"getTableAsync() did not fail on missing table");
+			assertTrue(error.getCause() instanceof SQLException, "getTableAsync() failed with wrong exception");
+		} finally {
+			sqllite.close();
+			new File("asynctest.db").delete();
+		}
+	}
+
+	/**
+	 * Caches query results and makes sure they are invalidated by writes to the
+	 * same table
+	 * 
+	 */
+	@Test
+	void queryCacheTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("querycachetest.db");
+		QueryCache cache = new QueryCache();
+		sqllite.setQueryCache(cache);
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			sqllite.getFirstRow("CREATE TABLE other (ID INTEGER PRIMARY KEY)");
+			sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (1, 'foobar')");
+
+			assertEquals("foobar", sqllite.getFirstRowCached(0, "SELECT * FROM test WHERE ID=?", 1).get("Data")
+					.toString(), "getFirstRowCached() fetched wrong data");
+			assertEquals("foobar", sqllite.getFirstRowCached(0, "SELECT * FROM test WHERE ID=?", 1).get("Data")
+					.toString(), "getFirstRowCached() fetched wrong data from cache");
+			assertEquals(1, cache.getStatistics().getHits(), "Result was not answered from the cache");
+
+			// Writes to other tables keep the entry
+			sqllite.getFirstRow("INSERT INTO other (ID) VALUES (1)");
+			assertEquals(1, cache.size(), "Write to other table invalidated the cache");
+
+			sqllite.getFirstRow("UPDATE test SET Data=? WHERE ID=?", "changed", 1);
+			assertEquals("changed", sqllite.getFirstRowCached(0, "SELECT * FROM test WHERE ID=?", 1).get("Data")
+					.toString(), "getFirstRowCached() fetched stale data after update");
+		} finally {
+			sqllite.close();
+			new File("querycachetest.db").delete();
+		}
+	}
+
+	/**
+	 * Makes sure rows cached by another thread while a transaction is running
+	 * are not answered from the cache after it commits
+	 * 
+	 */
+	@Test
+	void queryCacheTransactionTest() throws Exception {
+		SqlLiteReadWriteConnection sqllite = new SqlLiteReadWriteConnection("querycachetransactiontest.db");
+		QueryCache cache = new QueryCache();
+		sqllite.setQueryCache(cache);
+		sqllite.open();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			sqllite.executeUpdate("INSERT INTO test (ID, Data) VALUES (1, 'old')");
+
+			sqllite.begin();
+			sqllite.executeUpdate("UPDATE test SET Data=? WHERE ID=?", "new", 1);
+			assertEquals("old", executor.submit(() -> sqllite
+					.getFirstRowCached(0, "SELECT * FROM test WHERE ID=?", 1).get("Data").toString()).get(),
+					"Other thread read uncommitted data");
+			assertEquals(1, cache.size(), "Other thread did not cache the committed data");
+			sqllite.commit();
+
+			assertEquals("new", sqllite.getFirstRowCached(0, "SELECT * FROM test WHERE ID=?", 1).get("Data")
+					.toString(), "getFirstRowCached() fetched data cached before the commit");
+
+			sqllite.getFirstRowCached(0, "SELECT * FROM test WHERE ID=?", 1);
+			sqllite.begin();
+			sqllite.executeUpdate("UPDATE test SET Data=? WHERE ID=?", "rolled back", 1);
+			sqllite.rollback();
+			assertEquals(1, cache.size(), "Rolled back transaction invalidated the cache");
+		} finally {
+			executor.shutdown();
+			sqllite.close();
+			new File("querycachetransactiontest.db").delete();
+			new File("querycachetransactiontest.db-wal").delete();
+			new File("querycachetransactiontest.db-shm").delete();
+		}
+	}
+
+	/**
+	 * Records query metrics and makes sure queries differing only in literals are
+	 * counted together
+	 * 
+	 */
+	@Test
+	void metricsTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("metricstest.db");
+		QueryMetricsRegistry metrics = new QueryMetricsRegistry();
+		sqllite.addQueryListener(metrics);
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (1, 'foo')");
+			sqllite.getFirstRow("INSERT INTO test (ID, Data) VALUES (2, 'bar')");
+			for (int i = 0; i < 10; i++)
+				sqllite.getTable("SELECT * FROM test WHERE ID < ?", 3);
+			assertThrows(SQLException.class, () -> sqllite.getTable("SELECT * FROM missing"));
+
+			QueryStatistics inserts = metrics.getStatistics("INSERT INTO test (ID, Data) VALUES (3, 'baz')");
+			assertEquals(2, inserts.getCalls(), "Inserts with different literals were not counted together");
+			assertEquals(2, inserts.getRows(), "Inserted rows were not counted");
+
+			QueryStatistics selects = metrics.getStatistics("SELECT * FROM test WHERE ID < ?");
+			assertEquals(10, selects.getCalls(), "Selects were not counted");
+			assertEquals(20, selects.getRows(), "Returned rows were not counted");
+			assertTrue(selects.getTotalLatency().getPercentile(50) <= selects.getTotalLatency().getMax(),
+					"p50 latency is greater than max latency");
+
+			assertEquals(1, metrics.getStatistics("SELECT * FROM missing").getErrors(), "Error was not counted");
+
+			sqllite.reconnect();
+			assertEquals(1, metrics.getReconnects(), "Reconnect was not counted");
+		} finally {
+			sqllite.close();
+			new File("metricstest.db").delete();
+		}
+	}
+
+	/**
+	 * Binds parameters of different types and makes sure Sqlite stores them in
+	 * the matching storage class
+	 * 
+	 */
+	@Test
+	void parameterBindingTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("bindingtest.db");
+		sqllite.getParameterConverters().register(UUID.class, uuid -> uuid.getMostSignificantBits());
+		sqllite.open();
+
+		try {
+			sqllite.getFirstRow("CREATE TABLE test (A, B, C, D, E, F, G, H)");
+			sqllite.getFirstRow("INSERT INTO test VALUES (?, ?, ?, ?, ?, ?, ?, ?)", 1, 2L, 2.5, "text",
+					new byte[] { 1, 2 }, null, NullValue.INTEGER, new UUID(42, 0));
+
+			HashMap<String, DataElement> types = sqllite.getFirstRow("SELECT typeof(A) AS A, typeof(B) AS B, "
+					+ "typeof(C) AS C, typeof(D) AS D, typeof(E) AS E, typeof(F) AS F, typeof(G) AS G, "
+					+ "typeof(H) AS H FROM test");
+			assertEquals("integer", types.get("A").toString(), "Integer was not bound as integer");
+			assertEquals("integer", types.get("B").toString(), "Long was not bound as integer");
+			assertEquals("real", types.get("C").toString(), "Double was not bound as real");
+			assertEquals("text", types.get("D").toString(), "String was not bound as text");
+			assertEquals("blob", types.get("E").toString(), "byte[] was not bound as blob");
+			assertEquals("null", types.get("F").toString(), "null was not bound as null");
+			assertEquals("null", types.get("G").toString(), "NullValue was not bound as null");
+			assertEquals("integer", types.get("H").toString(), "Converter was not applied");
+			assertEquals(42, sqllite.getFirstRow("SELECT H FROM test").get("H").toLong(),
+					"Converter returned wrong value");
+
+			assertEquals(1, sqllite.getTable("SELECT * FROM test WHERE A=? AND C=?", 1L, new BigDecimal("2.5"))
+					.size(), "Lookup with numeric parameters did not match");
+		} finally {
+			sqllite.close();
+			new File("bindingtest.db").delete();
+		}
+	}
+
+	/**
+	 * Reads update counts and generated keys and makes sure statements returning
+	 * rows are read regardless of their first keyword
+	 * 
+	 */
+	@Test
+	void writeResultsTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("writetest.db");
+		sqllite.open();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY AUTOINCREMENT, Data TEXT)");
+
+			ArrayList<DataElement> keys = sqllite.insertReturningKeys("INSERT INTO test (Data) VALUES (?)", "foo");
+			assertEquals(1, keys.size(), "insertReturningKeys() returned wrong number of keys");
+			assertEquals(1, keys.get(0).toInt(), "insertReturningKeys() returned wrong key");
+			assertEquals(2, sqllite.insertReturningKeys("INSERT INTO test (Data) VALUES (?)", "bar").get(0).toInt(),
+					"insertReturningKeys() returned wrong key");
+
+			assertEquals(2, sqllite.executeUpdate("UPDATE test SET Data=?", "changed"),
+					"executeUpdate() returned wrong update count");
+			assertEquals(0, sqllite.executeUpdate("DELETE FROM test WHERE ID=?", 42),
+					"executeUpdate() returned wrong update count");
+
+			assertEquals(2, sqllite.getTable("WITH ids AS (SELECT ID FROM test) SELECT * FROM ids").size(),
+					"getTable() did not read result of WITH statement");
+			assertEquals(2, sqllite.getTable("  select * from test").size(),
+					"getTable() did not read result of lower case statement");
+			assertEquals(1, sqllite.getFirstRow("PRAGMA table_info(test)").get("pk").toInt(),
+					"getFirstRow() did not read result of PRAGMA statement");
+		} finally {
+			sqllite.close();
+			new File("writetest.db").delete();
+		}
+	}
+
+	/**
+	 * Maps rows into objects, both through {@code getTable} and through a stream
+	 * 
+	 */
+	@Test
+	void rowMapperTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("mappertest.db");
+		sqllite.open();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, user_name TEXT, Score REAL, "
+					+ "State TEXT, Unmapped TEXT)");
+			sqllite.executeUpdate("INSERT INTO test VALUES (1, 'foo', 2.5, 'ACTIVE', 'x')");
+			sqllite.executeUpdate("INSERT INTO test VALUES (2, 'bar', NULL, 'BLOCKED', 'y')");
+
+			ArrayList<TestUser> users = sqllite.getTable(TestUser.class, "SELECT * FROM test ORDER BY ID");
+			assertEquals(2, users.size(), "getTable() mapped more or less rows than it should have");
+			assertEquals(1, users.get(0).id, "Column was not mapped into field");
+			assertEquals("foo", users.get(0).userName, "Column was not mapped through setter");
+			assertEquals(2.5, users.get(0).score, "Column was not mapped into primitive field");
+			assertEquals(TestUser.State.ACTIVE, users.get(0).state, "Column was not mapped into enum");
+			assertEquals(0, users.get(1).score, "NULL did not keep the default value");
+
+			try (Stream<TestUser> stream = sqllite.stream(TestUser.class, "SELECT ID, State FROM test")) {
+				assertEquals(1, stream.filter(user -> user.state == TestUser.State.BLOCKED).count(),
+						"stream() mapped wrong data");
+			}
+
+			assertEquals("bar", sqllite.getFirstRow(TestUser.class, "SELECT * FROM test WHERE ID=?", 2).userName,
+					"getFirstRow() mapped wrong data");
+		} finally {
+			sqllite.close();
+			new File("mappertest.db").delete();
+		}
+	}
+
+	/**
+	 * Commits and rolls back transactions, including nested ones, and makes sure
+	 * the connection is not reopened during a transaction
+	 * 
+	 */
+	@Test
+	void transactionTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("transactiontest.db", true);
+		sqllite.setPoolSettings(new PoolSettings(1, 2));
+		sqllite.open();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+
+			sqllite.inTransaction(() -> {
+				for (int i = 0; i < 100; i++)
+					sqllite.executeUpdate("INSERT INTO test (ID, Data) VALUES (?, ?)", i, "foo");
+				return null;
+			});
+			assertEquals(100, sqllite.getTable("SELECT * FROM test").size(), "Transaction was not committed");
+			assertFalse(sqllite.isInTransaction(), "Transaction is still active after commit");
+
+			assertThrows(IllegalStateException.class, () -> sqllite.inTransaction(() -> {
+				sqllite.executeUpdate("DELETE FROM test");
+				throw new IllegalStateException();
+			}));
+			assertEquals(100, sqllite.getTable("SELECT * FROM test").size(), "Transaction was not rolled back");
+
+			sqllite.begin(Connection.TRANSACTION_SERIALIZABLE);
+			sqllite.executeUpdate("DELETE FROM test WHERE ID < ?", 50);
+			assertThrows(SQLException.class, () -> sqllite.inTransaction(() -> {
+				sqllite.executeUpdate("DELETE FROM test");
+				return sqllite.getTable("SELECT * FROM missing");
+			}));
+			assertEquals(50, sqllite.getTable("SELECT * FROM test").size(),
+					"Nested transaction did not roll back to its savepoint");
+			assertThrows(TransactionStateException.class, () -> sqllite.begin(),
+					"Second transaction was started on the same thread");
+			assertThrows(TransactionStateException.class, () -> sqllite.reconnect(),
+					"Connection was reopened during a transaction");
+			sqllite.rollback();
+			assertEquals(100, sqllite.getTable("SELECT * FROM test").size(), "Transaction was not rolled back");
+
+			assertThrows(TransactionStateException.class, () -> sqllite.commit(),
+					"Transaction was committed without being started");
+			assertEquals(0, sqllite.getPool().getActiveConnections(), "Connection was not given back");
+		} finally {
+			sqllite.close();
+			new File("transactiontest.db").delete();
+		}
+	}
+
+	/**
+	 * Makes sure a connection which could not be reset to auto commit after a
+	 * transaction is closed instead of silently running later writes in a
+	 * transaction which is never committed
+	 * 
+	 */
+	@Test
+	void transactionResetFailureTest() throws Exception {
+		AtomicBoolean failReset = new AtomicBoolean();
+		SqlLiteConnection sqllite = new SqlLiteConnection("transactionresettest.db") {
+
+			@Override
+			protected Connection createConnection() throws SQLException {
+				Connection connection = super.createConnection();
+				return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+							if (failReset.get() && method.getName().equals("setAutoCommit") && (Boolean) args[0])
+								throw new SQLException("Reset failed");
+							try {
+								return method.invoke(connection, args);
+							} catch (InvocationTargetException e) {
+								throw e.getCause();
+							}
+						});
+			}
+
+		};
+		sqllite.open();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+
+			sqllite.begin();
+			sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)", "foo");
+			failReset.set(true);
+			SQLException e = assertThrows(SQLException.class, () -> sqllite.commit(),
+					"Failure to reset auto commit was swallowed");
+			assertEquals("Reset failed", e.getMessage());
+			failReset.set(false);
+			assertFalse(sqllite.isInTransaction(), "Transaction is still active after commit");
+			assertThrows(SQLException.class, () -> sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)", "bar"),
+					"Connection stuck in a transaction was used again");
+
+			sqllite.reconnect();
+			assertEquals(1, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test").get("Amount").toInt(),
+					"Committed row was lost");
+		} finally {
+			sqllite.close();
+			new File("transactionresettest.db").delete();
+		}
+	}
+
+	/**
+	 * Loads a preset and pragmas from a configuration file and makes sure they
+	 * are applied to the connection, also after changing the settings
+	 * 
+	 */
+	@Test
+	void settingsTest() throws Exception {
+		File config = new File("settingstest.cfg");
+		Files.write(config.toPath(),
+				Arrays.asList("# Sqlite settings", "path=settingstest.db", "", "preset=fast", "synchronous=off"));
+		SqlLiteConnection sqllite = new SqlLiteConnection("unused.db");
+		sqllite.loadConnectionDetailsFromFile(config);
+		sqllite.open();
+
+		try {
+			assertEquals("wal", sqllite.getFirstRow("PRAGMA journal_mode").get("journal_mode").toString());
+			assertEquals(0, sqllite.getFirstRow("PRAGMA synchronous").get("synchronous").toInt(),
+					"Pragma from configuration file did not override preset");
+			assertEquals(256L * 1024 * 1024, sqllite.getFirstRow("PRAGMA mmap_size").get("mmap_size").toLong());
+			assertEquals(5000, sqllite.getFirstRow("PRAGMA busy_timeout").get("timeout").toInt());
+
+			sqllite.setSettings(SqliteSettings.durable().setCacheSize(-1024));
+			assertEquals(2, sqllite.getFirstRow("PRAGMA synchronous").get("synchronous").toInt(),
+					"Settings were not applied on reconnect");
+			assertEquals(-1024, sqllite.getFirstRow("PRAGMA cache_size").get("cache_size").toInt());
+
+			Files.write(config.toPath(), Arrays.asList("path=settingstest.db", "journal_mode=fastest"));
+			assertThrows(CouldNotReadDatabaseConfigException.class, () -> sqllite.loadConnectionDetailsFromFile(config));
+		} finally {
+			sqllite.close();
+			config.delete();
+			new File("settingstest.db").delete();
+			new File("settingstest.db-wal").delete();
+			new File("settingstest.db-shm").delete();
+		}
+	}
+
+	/**
+	 * Writes and reads from many threads through a
+	 * {@link SqlLiteReadWriteConnection}, making sure no write is lost, reads use
+	 * the read-only reader pool and transactions read their own writes
+	 * 
+	 */
+	@Test
+	void readWriteTest() throws Exception {
+		SqlLiteReadWriteConnection sqllite = new SqlLiteReadWriteConnection("readwritetest.db");
+		// No reader is opened in advance, so there is one only if reads used it
+		sqllite.setPoolSettings(new PoolSettings(0, 4));
+		sqllite.open();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+
+			ArrayList<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int thread = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 50; i++) {
+						if (thread % 2 == 0)
+							sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)", "foo");
+						else
+							sqllite.getTable("SELECT COUNT(*) AS Amount FROM test");
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures)
+				future.get();
+			assertEquals(200, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test").get("Amount").toInt(),
+					"Concurrent writes were lost");
+			assertTrue(sqllite.getPool().getTotalConnections() >= 1, "Reads did not use the reader pool");
+			assertEquals(0, sqllite.getQueuedWriters());
+
+			Connection reader = sqllite.getPool().borrow();
+			try {
+				assertThrows(SQLException.class, () -> reader.createStatement().execute("DELETE FROM test"),
+						"Reader connection is not read-only");
+			} finally {
+				sqllite.getPool().release(reader);
+			}
+
+			sqllite.inTransaction(() -> {
+				sqllite.executeUpdate("DELETE FROM test WHERE ID > ?", 100);
+				assertEquals(100, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test").get("Amount").toInt(),
+						"Transaction did not read its own writes");
+				return null;
+			});
+			assertEquals(100, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test").get("Amount").toInt());
+		} finally {
+			executor.shutdown();
+			sqllite.close();
+			new File("readwritetest.db").delete();
+			new File("readwritetest.db-wal").delete();
+			new File("readwritetest.db-shm").delete();
+		}
+	}
+
+	/**
+	 * Makes sure a thread writing through a writer cursor can write again
+	 * instead of waiting for itself
+	 * 
+	 */
+	@Test
+	void readWriteReentrantTest() throws Exception {
+		SqlLiteReadWriteConnection sqllite = new SqlLiteReadWriteConnection("readwritereentranttest.db");
+		sqllite.setPoolSettings(new PoolSettings(0, 2).setMaxWait(2000));
+		sqllite.open();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			// PRAGMA statements are not read-only, so the cursor holds the writer
+			assertEquals(1, sqllite.forEachRow("PRAGMA user_version", row -> {
+				try {
+					sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)", "foo");
+				} catch (NotConnectedException e) {
+					throw new SQLException(e);
+				}
+			}));
+			assertEquals(1, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test").get("Amount").toInt(),
+					"Write nested into a writer cursor was lost");
+
+			// The writer is free again for other threads
+			CompletableFuture.runAsync(() -> {
+				try {
+					sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)", "bar");
+				} catch (SQLException | NotConnectedException e) {
+					throw new RuntimeException(e);
+				}
+			}).get(10, TimeUnit.SECONDS);
+			assertEquals(0, sqllite.getQueuedWriters());
+		} finally {
+			sqllite.close();
+			new File("readwritereentranttest.db").delete();
+			new File("readwritereentranttest.db-wal").delete();
+			new File("readwritereentranttest.db-shm").delete();
+		}
+	}
+
+	/**
+	 * Makes sure a failed borrow of the writer connection does not keep the
+	 * writer blocked for later writes
+	 * 
+	 */
+	@Test
+	void readWriteFailedBorrowTest() throws Exception {
+		SqlLiteReadWriteConnection sqllite = new SqlLiteReadWriteConnection("readwritefailtest.db");
+		sqllite.setPoolSettings(new PoolSettings(1, 2).setMaxWait(500));
+
+		try {
+			assertThrows(SQLException.class, () -> sqllite.borrowConnection(false),
+					"Borrowed the writer connection while not connected");
+			sqllite.open();
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			assertEquals(1, sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)", "foo"),
+					"Write failed after a failed borrow of the writer connection");
+			assertEquals(0, sqllite.getQueuedWriters());
+		} finally {
+			sqllite.close();
+			new File("readwritefailtest.db").delete();
+			new File("readwritefailtest.db-wal").delete();
+			new File("readwritefailtest.db-shm").delete();
+		}
+	}
+
+	/**
+	 * Makes sure dead connections are replaced in the background, both the single
+	 * connection and idle pooled ones, and reconnects back off after a failure
+	 * 
+	 */
+	@Test
+	void keepaliveTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("keepalivetest.db", true);
+		QueryMetricsRegistry metrics = new QueryMetricsRegistry();
+		sqllite.addQueryListener(metrics);
+		sqllite.setKeepaliveInterval(20);
+		sqllite.open();
+
+		try {
+			Connection dead = sqllite.getConnection();
+			dead.close();
+			long deadline = System.currentTimeMillis() + 5000;
+			while (sqllite.getConnection() == dead || sqllite.getConnection() == null)
+				if (System.currentTimeMillis() > deadline)
+					throw new AssertionError("Dead connection was not replaced in the background");
+				else
+					Thread.sleep(10);
+			assertEquals(1, metrics.getReconnects());
+			assertEquals(1, sqllite.getFirstRow("SELECT 1 AS One").get("One").toInt());
+		} finally {
+			sqllite.close();
+			new File("keepalivetest.db").delete();
+		}
+
+		AtomicInteger created = new AtomicInteger();
+		ConnectionPool pool = new ConnectionPool(() -> {
+			created.incrementAndGet();
+			return DriverManager.getConnection("jdbc:sqlite::memory:");
+		}, new PoolSettings(1, 2).setEvictionInterval(20).setKeepaliveInterval(20));
+		try {
+			Connection idle = pool.borrow();
+			pool.release(idle);
+			idle.close();
+			long deadline = System.currentTimeMillis() + 5000;
+			while (created.get() < 2)
+				if (System.currentTimeMillis() > deadline)
+					throw new AssertionError("Dead idle connection was not replaced in the background");
+				else
+					Thread.sleep(10);
+			assertEquals(1, pool.getTotalConnections());
+		} finally {
+			pool.close();
+		}
+
+		SqlLiteConnection unreachable = new SqlLiteConnection("missing/keepalivetest.db", true);
+		unreachable.setReconnectBackoff(60_000, 60_000);
+		assertThrows(SQLException.class, () -> unreachable.getTable("SELECT 1"));
+		assertThrows(NotConnectedException.class, () -> unreachable.getTable("SELECT 1"),
+				"Reconnect was attempted again before the backoff delay was over");
+		assertEquals(1, unreachable.getFailedReconnects());
+	}
+
+	/**
+	 * Makes sure connections still in use while the pool is replaced by a
+	 * reconnect go back to their own pool, and do not unlock the single
+	 * connection used afterwards
+	 * 
+	 */
+	@Test
+	void reconnectWhileBorrowedTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("reconnectborrowedtest.db");
+		sqllite.setPoolSettings(new PoolSettings(1, 2));
+		sqllite.setLockTimeout(100);
+		sqllite.open();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+			sqllite.executeUpdate("INSERT INTO test (Data) VALUES ('foo'), ('bar')");
+
+			RowCursor<HashMap<String, DataElement>> pooled = sqllite.openCursor("SELECT ID FROM test");
+			ConnectionPool oldPool = sqllite.getPool();
+			sqllite.setPoolSettings(null);
+			sqllite.reconnect();
+
+			try (RowCursor<HashMap<String, DataElement>> single = sqllite.openCursor("SELECT ID FROM test")) {
+				pooled.close();
+				assertEquals(0, oldPool.getTotalConnections(), "Connection of the old pool was not closed");
+				ExecutionException e = assertThrows(ExecutionException.class,
+						() -> executor.submit(() -> sqllite.getFirstRow("SELECT 1 AS One")).get(),
+						"Connection of the old pool unlocked the single connection");
+				assertTrue(e.getCause() instanceof SQLException);
+			}
+			assertEquals(1, executor.submit(() -> sqllite.getFirstRow("SELECT 1 AS One").get("One").toInt()).get());
+		} finally {
+			executor.shutdown();
+			sqllite.close();
+			new File("reconnectborrowedtest.db").delete();
+		}
+	}
+
+	/**
+	 * Runs statements, transactions and nested cursors from many threads while
+	 * reconnecting, and makes sure a reconnect waits for open cursors
+	 * 
+	 */
+	@Test
+	void concurrencyTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("concurrencytest.db");
+		sqllite.open();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER PRIMARY KEY, Data TEXT)");
+
+			ArrayList<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int thread = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 50; i++) {
+						switch (thread % 4) {
+						case 0:
+							sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)", "foo");
+							break;
+						case 1:
+							sqllite.inTransaction(() -> sqllite.executeUpdate("INSERT INTO test (Data) VALUES (?)",
+									"bar"));
+							break;
+						case 2:
+							// Statements nested in a cursor of the same thread
+							sqllite.forEachRow("SELECT ID FROM test LIMIT 2", row -> {
+								try {
+									sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test");
+								} catch (NotConnectedException e) {
+									throw new SQLException(e);
+								}
+							});
+							break;
+						default:
+							sqllite.getTable("SELECT COUNT(*) AS Amount FROM test");
+						}
+					}
+					return null;
+				}));
+			}
+			for (int i = 0; i < 20; i++) {
+				sqllite.reconnect();
+				Thread.sleep(2);
+			}
+			for (Future<?> future : futures)
+				future.get();
+			assertEquals(200, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test").get("Amount").toInt());
+
+			// A reconnect waits for open cursors
+			CompletableFuture<Long> cursorRows = CompletableFuture.supplyAsync(() -> {
+				try (RowCursor<HashMap<String, DataElement>> cursor = sqllite.openCursor("SELECT ID FROM test")) {
+					Thread.sleep(200);
+					long rows = 0;
+					for (; cursor.hasNext(); cursor.next())
+						rows++;
+					return rows;
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}, executor);
+			Thread.sleep(50);
+			long start = System.nanoTime();
+			sqllite.reconnect();
+			assertTrue(System.nanoTime() - start > 100_000_000L, "Reconnect did not wait for the open cursor");
+			assertEquals(200, cursorRows.get().longValue());
+		} finally {
+			executor.shutdown();
+			sqllite.close();
+			new File("concurrencytest.db").delete();
+		}
+	}
+
+	/**
+	 * Imports CSV and NDJSON files in batches, including quoted fields and
+	 * objects with missing or extra fields, and makes sure only the failing
+	 * transaction of an import is rolled back
+	 * 
+	 */
+	@Test
+	void importTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("importtest.db");
+		sqllite.open();
+		File csv = new File("importtest.csv");
+		File ndjson = new File("importtest.ndjson");
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER, \"User Name\" TEXT, Score REAL)");
+
+			StringBuilder content = new StringBuilder("ID,User Name,Score\r\n");
+			content.append("1,\"Doe, John\",1.5\r\n");
+			content.append("2,\"Say \"\"hi\"\"\nthere\",\r\n");
+			for (int i = 3; i <= 2500; i++)
+				content.append(i).append(",user").append(i).append(',').append(i / 2.0).append("\n");
+			Files.write(csv.toPath(), content.toString().getBytes("UTF-8"));
+
+			ArrayList<ImportProgress> progress = new ArrayList<>();
+			ImportProgress result = sqllite.importFile(csv.toPath(), "test", new ImportSettings(FileFormat.CSV)
+					.setBatchSize(100).setTransactionSize(1000).setListener(progress::add));
+			assertEquals(2500, result.getRows());
+			assertEquals(csv.length(), result.getBytes());
+			assertEquals(25, progress.size());
+			assertEquals(100, progress.get(0).getRows());
+			assertTrue(result.getRowsPerSecond() > 0);
+
+			HashMap<String, DataElement> row = sqllite.getFirstRow("SELECT * FROM test WHERE ID = 1");
+			assertEquals("Doe, John", row.get("User Name").toString());
+			assertEquals(1.5, row.get("Score").toDouble());
+			row = sqllite.getFirstRow("SELECT * FROM test WHERE ID = 2");
+			assertEquals("Say \"hi\"\nthere", row.get("User Name").toString());
+			assertTrue(row.get("Score").isNull());
+
+			Files.write(ndjson.toPath(),
+					("{\"ID\": 3001, \"User Name\": \"J\\u00f6rg\", \"Score\": 2e1}\n\n"
+							+ "{\"Score\": -0.25, \"ID\": 3002, \"Extra\": {\"a\": [1, \"}\"]}}\n").getBytes("UTF-8"));
+			result = sqllite.importFile(ndjson.toPath(), "test",
+					new ImportSettings(FileFormat.NDJSON).setColumns("ID", "User Name", "Score"));
+			assertEquals(2, result.getRows());
+			assertEquals("J\u00f6rg", sqllite.getFirstRow("SELECT * FROM test WHERE ID = 3001").get("User Name").toString());
+			row = sqllite.getFirstRow("SELECT * FROM test WHERE ID = 3002");
+			assertTrue(row.get("User Name").isNull());
+			assertEquals(-0.25, row.get("Score").toDouble());
+
+			// Committed transactions stay, the failing one is rolled back
+			Files.write(csv.toPath(), "ID,User Name\n4001,a\n4002,b\n4003\n".getBytes("UTF-8"));
+			assertThrows(IOException.class, () -> sqllite.importFile(csv.toPath(), "test",
+					new ImportSettings(FileFormat.CSV).setBatchSize(1).setTransactionSize(1)));
+			assertEquals(2, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM test WHERE ID > 4000").get("Amount")
+					.toInt());
+			assertFalse(sqllite.isInTransaction());
+		} finally {
+			sqllite.close();
+			csv.delete();
+			ndjson.delete();
+			new File("importtest.db").delete();
+		}
+	}
+
+	/**
+	 * Exports results as CSV, NDJSON and gzip compressed CSV, and makes sure the
+	 * exported files can be imported again
+	 * 
+	 */
+	@Test
+	void exportTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("exporttest.db");
+		sqllite.open();
+		File csv = new File("exporttest.csv");
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER, Name TEXT, Score REAL)");
+			sqllite.executeUpdate("INSERT INTO test VALUES (1, 'Doe, John', 1.5), (2, ?, NULL), (3, '', 2)",
+					"Say \"hi\"\nthere \uD83D\uDE00");
+			ArrayList<Object[]> rows = new ArrayList<>();
+			for (int i = 4; i <= 2000; i++)
+				rows.add(new Object[] { i, "user" + i, i / 4.0 });
+			sqllite.executeBatch("INSERT INTO test VALUES (?, ?, ?)", rows);
+
+			// A small buffer splits rows and surrogate pairs between writes
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			assertEquals(2000, sqllite.exportTo(out, new ExportSettings(FileFormat.CSV).setBufferSize(7),
+					"SELECT * FROM test ORDER BY ID"));
+			String text = new String(out.toByteArray(), "UTF-8");
+			assertTrue(text.startsWith("ID,Name,Score\n1,\"Doe, John\",1.5\n2,\"Say \"\"hi\"\"\nthere \uD83D\uDE00\",\n"
+					+ "3,\"\",2.0\n4,user4,1.0\n"), text.substring(0, 100));
+			assertTrue(text.endsWith("\n2000,user2000,500.0\n"));
+
+			out.reset();
+			assertEquals(2, sqllite.exportTo(out, new ExportSettings(FileFormat.NDJSON).setFetchSize(1),
+					"SELECT ID, Name AS \"User \"\"Name\"\"\", Score FROM test WHERE ID IN (?, ?) ORDER BY ID", 1, 2));
+			assertEquals("{\"ID\":1,\"User \\\"Name\\\"\":\"Doe, John\",\"Score\":1.5}\n"
+					+ "{\"ID\":2,\"User \\\"Name\\\"\":\"Say \\\"hi\\\"\\nthere \uD83D\uDE00\",\"Score\":null}\n",
+					new String(out.toByteArray(), "UTF-8"));
+
+			// Gzip compressed output contains the same text
+			out.reset();
+			sqllite.exportTo(out, new ExportSettings(FileFormat.CSV).setGzip(true), "SELECT * FROM test ORDER BY ID");
+			ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+			try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+				byte[] buffer = new byte[4096];
+				int read;
+				while ((read = in.read(buffer)) > 0)
+					unzipped.write(buffer, 0, read);
+			}
+			assertEquals(text, new String(unzipped.toByteArray(), "UTF-8"));
+
+			// Exported files can be imported again
+			try (FileChannel channel = FileChannel.open(csv.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				assertEquals(2000, sqllite.exportTo(channel, new ExportSettings(FileFormat.CSV).setDelimiter(';'),
+						"SELECT * FROM test"));
+			}
+			sqllite.executeUpdate("CREATE TABLE copy (ID INTEGER, Name TEXT, Score REAL)");
+			sqllite.importFile(csv.toPath(), "copy", new ImportSettings(FileFormat.CSV).setDelimiter(';'));
+			assertEquals(0, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM (SELECT * FROM test EXCEPT "
+					+ "SELECT * FROM copy)").get("Amount").toInt());
+			assertEquals("", sqllite.getFirstRow("SELECT * FROM copy WHERE ID = 3").get("Name").toString());
+			assertTrue(sqllite.getFirstRow("SELECT * FROM copy WHERE ID = 2").get("Score").isNull());
+
+			// The connection is free again after a failed export
+			assertThrows(SQLException.class, () -> sqllite.exportTo(new ByteArrayOutputStream(),
+					new ExportSettings(FileFormat.CSV), "SELECT * FROM missing"));
+			assertEquals(2000, sqllite.getFirstRow("SELECT COUNT(*) AS Amount FROM copy").get("Amount").toInt());
+		} finally {
+			sqllite.close();
+			csv.delete();
+			new File("exporttest.db").delete();
+		}
+	}
+
+	/**
+	 * Reads results into a {@link SpillingResultTable} which fit into memory,
+	 * partially spill to a file or are written to the file completely
+	 * 
+	 */
+	@Test
+	void spillingResultTableTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("spilltest.db");
+		sqllite.open();
+		Path directory = Files.createTempDirectory("spilltest");
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER, Name TEXT, Score REAL, Data BLOB)");
+			ArrayList<Object[]> rows = new ArrayList<>();
+			for (int i = 1; i <= 5000; i++)
+				rows.add(new Object[] { i, i % 7 == 0 ? null : "user \u00e4" + i, i / 4.0,
+						i % 5 == 0 ? null : new byte[] { (byte) i, 0, (byte) -i } });
+			sqllite.executeBatch("INSERT INTO test VALUES (?, ?, ?, ?)", rows);
+			ResultTable expected = sqllite.getResultTable("SELECT * FROM test ORDER BY ID");
+
+			// Fits into the default budget
+			try (SpillingResultTable table = sqllite.getSpillingResultTable("SELECT * FROM test ORDER BY ID")) {
+				assertFalse(table.isSpilled());
+				assertEquals(5000, table.size());
+			}
+
+			sqllite.setSpillThreshold(50_000);
+			sqllite.setSpillDirectory(directory);
+			SpillingResultTable spilled = sqllite.getSpillingResultTable("SELECT * FROM test WHERE ID > ? ORDER BY ID", 0);
+			try {
+				assertTrue(spilled.isSpilled());
+				assertTrue(spilled.getHeapRowCount() > 0 && spilled.getHeapRowCount() < 1000);
+				assertEquals(5000, spilled.size());
+				assertEquals(expected.getSchema(), spilled.getSchema());
+
+				// Random access, then sequential access
+				for (int i : new int[] { 4999, 0, spilled.getHeapRowCount(), 2500, spilled.getHeapRowCount() - 1 })
+					assertRowEquals(expected.get(i), spilled.get(i));
+				int index = 0;
+				for (Row row : spilled)
+					assertRowEquals(expected.get(index++), row);
+				assertEquals(5000, index);
+				assertEquals(4999.0 / 4, spilled.get(4998).get("Score").toDouble());
+				assertTrue(spilled.get(6).isNull(1));
+			} finally {
+				spilled.close();
+			}
+			assertThrows(IllegalStateException.class, () -> spilled.get(0));
+			assertEquals(0, Files.list(directory).count(), "Spill file was not deleted on close");
+
+			// Everything is written to the file
+			sqllite.setSpillThreshold(0);
+			try (SpillingResultTable table = sqllite.getSpillingResultTable("SELECT * FROM test ORDER BY ID")) {
+				assertEquals(0, table.getHeapRowCount());
+				assertRowEquals(expected.get(123), table.get(123));
+			}
+			try (SpillingResultTable table = sqllite.getSpillingResultTable("SELECT * FROM test WHERE ID < 0")) {
+				assertTrue(table.isEmpty());
+				assertEquals(null, table.getFirstRow());
+			}
+			assertEquals(0, Files.list(directory).count());
+		} finally {
+			sqllite.close();
+			Files.deleteIfExists(directory);
+			new File("spilltest.db").delete();
+		}
+	}
+
+	/**
+	 * Pages through results by composite and single keys, with prefetching and
+	 * inside a transaction, and makes sure invalid keys fail
+	 * 
+	 */
+	@Test
+	void paginationTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("pagingtest.db");
+		sqllite.open();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (A INTEGER, B INTEGER, Name TEXT, PRIMARY KEY (A, B))");
+			ArrayList<Object[]> rows = new ArrayList<>();
+			// Inserted out of order, so only the key orders the pages
+			for (int i = 2499; i >= 0; i--)
+				rows.add(new Object[] { i / 7, i % 7, "user" + i });
+			sqllite.executeBatch("INSERT INTO test VALUES (?, ?, ?)", rows);
+
+			// Composite key with prefetching
+			int pages = 0, read = 0;
+			try (KeysetPager pager = sqllite.paginate(new PagingSettings("A", "B").setPageSize(100).setPrefetch(true),
+					"SELECT * FROM test")) {
+				ResultTable page;
+				while ((page = pager.nextPage()) != null) {
+					pages++;
+					for (Row row : page) {
+						assertEquals(read / 7, row.get("A").toInt());
+						assertEquals(read % 7, row.get("B").toInt());
+						read++;
+					}
+				}
+				assertEquals(null, pager.nextPage());
+			}
+			assertEquals(25, pages);
+			assertEquals(2500, read);
+
+			// Single key with parameters and a partial last page, inside a transaction
+			sqllite.begin();
+			try (KeysetPager pager = sqllite.paginate(new PagingSettings("Name").setPageSize(300).setPrefetch(true),
+					"SELECT Name FROM test WHERE B <> ?", 0)) {
+				ArrayList<String> names = new ArrayList<>();
+				ResultTable page;
+				while ((page = pager.nextPage()) != null) {
+					assertTrue(page.size() == 300 || pager.nextPage() == null);
+					for (Row row : page)
+						names.add(row.get("Name").toString());
+				}
+				assertEquals(2500 - 358, names.size());
+				ArrayList<String> sorted = new ArrayList<>(names);
+				sorted.sort(null);
+				assertEquals(sorted, names);
+			} finally {
+				sqllite.commit();
+			}
+
+			try (KeysetPager pager = sqllite.paginate(new PagingSettings("Missing"), "SELECT * FROM test")) {
+				assertThrows(IllegalArgumentException.class, pager::nextPage);
+			}
+
+			// Sqlite sorts NULL first, so a page ending on a NULL key holds only NULL keys
+			try (KeysetPager pager = sqllite.paginate(new PagingSettings("K").setPageSize(10),
+					"SELECT CASE WHEN A < 10 THEN NULL ELSE A END AS K FROM test")) {
+				assertThrows(IllegalArgumentException.class, pager::nextPage,
+						"NULL key did not fail the pagination");
+				assertEquals(null, pager.nextPage(), "Pager was not finished after a NULL key");
+			}
+		} finally {
+			sqllite.close();
+			new File("pagingtest.db").delete();
+		}
+	}
+
+	/**
+	 * Runs several queries through a {@link QueryPipeline} and makes sure the
+	 * connection is given back if one of them fails
+	 * 
+	 */
+	@Test
+	void pipelineTest() throws Exception {
+		SqlLiteConnection sqllite = new SqlLiteConnection("pipelinetest.db");
+		sqllite.open();
+
+		try {
+			sqllite.executeUpdate("CREATE TABLE test (ID INTEGER, Name TEXT)");
+			sqllite.executeUpdate("INSERT INTO test VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+
+			List<ResultTable> results = sqllite.getResultTables(new QueryPipeline()
+					.add("SELECT Name FROM test WHERE ID = ?;", 2).add("SELECT COUNT(*) AS Amount FROM test")
+					.add("UPDATE test SET Name = ? WHERE ID = ?", "z", 3).add("SELECT * FROM test WHERE ID > ?", 1));
+			assertEquals(4, results.size());
+			assertEquals("b", results.get(0).getFirstRow().get("Name").toString());
+			assertEquals(3, results.get(1).getFirstRow().get("Amount").toInt());
+			assertTrue(results.get(2).isEmpty());
+			assertEquals(2, results.get(3).size());
+			assertEquals("z", results.get(3).get(1).get("Name").toString());
+
+			assertTrue(sqllite.getResultTables(new QueryPipeline()).isEmpty());
+			assertThrows(SQLException.class, () -> sqllite
+					.getResultTables(new QueryPipeline().add("SELECT 1").add("SELECT * FROM missing")));
+			// The connection was given back after the failure
+			assertEquals(1, sqllite.getResultTables(new QueryPipeline().add("SELECT 1 AS One")).get(0).getFirstRow()
+					.get("One").toInt());
+		} finally {
+			sqllite.close();
+			new File("pipelinetest.db").delete();
+		}
+	}
+
+	/**
+	 * Asserts that two rows hold the same values, comparing binary values by
+	 * content
+	 * 
+	 * @param expected The expected row
+	 * @param actual   The actual row
+	 * 
+	 */
+	private static void assertRowEquals(Row expected, Row actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int column = 0; column < expected.size(); column++)
+			if (expected.getValue(column) instanceof byte[])
+				assertArrayEquals((byte[]) expected.getValue(column), (byte[]) actual.getValue(column));
+			else
+				assertEquals(expected.getValue(column), actual.getValue(column));
+	}
+
+	/**
+	 * Target of {@link #rowMapperTest()}
+	 * 
+	 */
+	static class TestUser {
+
+		enum State {
+			ACTIVE, BLOCKED
+		}
+
+		private int id;
+		private String userName;
+		private double score;
+		private State state;
+
+		public void setUserName(String userName) {
+			this.userName = userName;
+		}
+
+	}
+
 }
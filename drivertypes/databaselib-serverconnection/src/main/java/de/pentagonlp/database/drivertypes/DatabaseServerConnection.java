@@ -2,16 +2,38 @@ package de.pentagonlp.database.drivertypes;
 
 import java.io.File;
 import java.io.IOException;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import de.pentagonlp.database.ConnectionFactory;
+import de.pentagonlp.database.ConnectionPool;
 import de.pentagonlp.database.DataElement;
 import de.pentagonlp.database.DatabaseConnection;
+import de.pentagonlp.database.PoolSettings;
+import de.pentagonlp.database.TransactionCallback;
 import de.pentagonlp.database.exceptions.CouldNotReadDatabaseConfigException;
 import de.pentagonlp.database.exceptions.InvalidConnectionDetailsException;
+import de.pentagonlp.database.exceptions.NotConnectedException;
 
 /**
- * Superclass for all database connections connecting to an IP server
+ * Superclass for all database connections connecting to an IP server<br>
+ * <br>
+ * Besides the primary server, read replicas can be configured through
+ * {@link #setReplicas(String...)} if the driver supports them. Reading statements outside of transactions
+ * are then routed to the replicas, using the same database and credentials as
+ * the primary server; writes and transactions always run on the primary
+ * server. Replicas may lag behind the primary server, so reads which have to
+ * see preceding writes should run through {@link #onPrimary(TransactionCallback)}.
  * 
  * @author PentagonLP
  * 
@@ -50,6 +72,41 @@ public abstract class DatabaseServerConnection extends DatabaseConnection {
 	 */
 	private String password;
 
+	/**
+	 * Time an unreachable replica is skipped by default
+	 * 
+	 */
+	public static final long DEFAULT_REPLICA_RETRY_DELAY = 30_000;
+
+	/**
+	 * Configured replicas, used from the next {@link #open()} on
+	 * 
+	 */
+	private volatile List<Replica> replicas = Collections.emptyList();
+	/**
+	 * Replicas reads are currently routed to
+	 * 
+	 */
+	private volatile List<Replica> openReplicas = Collections.emptyList();
+	private volatile LoadBalancing loadBalancing = LoadBalancing.ROUND_ROBIN;
+	private volatile PoolSettings replicaPoolSettings = new PoolSettings(0, PoolSettings.DEFAULT_MAXIMUM_SIZE);
+	private volatile long replicaRetryDelay = DEFAULT_REPLICA_RETRY_DELAY;
+	private volatile boolean readFromReplicas = true;
+
+	/**
+	 * Set while the current thread runs {@link #onPrimary(TransactionCallback)}
+	 * 
+	 */
+	private final ThreadLocal<Boolean> primaryReads = new ThreadLocal<>();
+	private final AtomicInteger nextReplica = new AtomicInteger();
+	/**
+	 * Replica and pool each borrowed read connection belongs to. The pool of a
+	 * replica is replaced on reconnect, while reads may still use connections of
+	 * the old one.
+	 * 
+	 */
+	private final ConcurrentHashMap<Connection, BorrowedRead> borrowedReads = new ConcurrentHashMap<>();
+
 	/**
 	 * Creates a new {@link DatabaseServerConnection} with default connection
 	 * details and {@code autoReconnect = false}
@@ -124,6 +181,326 @@ public abstract class DatabaseServerConnection extends DatabaseConnection {
 		}
 	}
 
+	/**
+	 * Opens the connection pools of all replicas once the connection to the
+	 * primary server has been opened. A replica which cannot be reached is
+	 * skipped until {@link #setReplicaRetryDelay(long) its retry delay} is over.
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	@Override
+	protected void onOpen() throws SQLException {
+		List<Replica> replicas = this.replicas;
+		for (Replica replica : replicas) {
+			replica.markHealthy();
+			try {
+				replica.pool = new ConnectionPool(createReplicaFactory(replica), replicaPoolSettings);
+			} catch (SQLException e) {
+				replica.markUnhealthy(TimeUnit.MILLISECONDS.toNanos(replicaRetryDelay));
+				replica.pool = new ConnectionPool(createReplicaFactory(replica),
+						new PoolSettings(replicaPoolSettings).setMinimumSize(0));
+			}
+		}
+		openReplicas = replicas;
+	}
+
+	/**
+	 * Closes the connection pools of all replicas together with the connection
+	 * to the primary server
+	 * 
+	 * @throws SQLException
+	 * 
+	 */
+	@Override
+	protected void onClose() throws SQLException {
+		List<Replica> replicas = openReplicas;
+		openReplicas = Collections.emptyList();
+		for (Replica replica : replicas)
+			replica.pool.close();
+	}
+
+	/**
+	 * Open a new physical connection to a replica, using the database and
+	 * credentials of this connection. Drivers override this to support read
+	 * replicas; {@link #setReplicas(String...)} is rejected otherwise.
+	 * 
+	 * @param host Hostname of the replica
+	 * @param port Port of the replica
+	 * 
+	 * @return The new {@link Connection}
+	 * 
+	 * @throws SQLException
+	 * @throws SQLFeatureNotSupportedException If the driver does not support
+	 *                                         replicas
+	 * 
+	 */
+	protected Connection createConnection(String host, int port) throws SQLException {
+		throw new SQLFeatureNotSupportedException(getClass().getSimpleName() + " does not support read replicas");
+	}
+
+	/**
+	 * Tests whether the driver supports read replicas, i.e. overrides
+	 * {@link #createConnection(String, int)}
+	 * 
+	 * @return {@code true} if replicas can be used
+	 * 
+	 */
+	public boolean supportsReplicas() {
+		for (Class<?> type = getClass(); type != DatabaseServerConnection.class; type = type.getSuperclass())
+			try {
+				type.getDeclaredMethod("createConnection", String.class, int.class);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// Not overridden on this level
+			}
+		return false;
+	}
+
+	private ConnectionFactory createReplicaFactory(Replica replica) {
+		return new ConnectionFactory() {
+
+			@Override
+			public Connection create() throws SQLException {
+				return createConnection(replica.getHost(), replica.getPort());
+			}
+
+			@Override
+			public void destroy(Connection connection) throws SQLException {
+				destroyConnection(connection);
+			}
+
+		};
+	}
+
+	/**
+	 * Borrows a connection to a healthy replica for reads, unless reads are
+	 * forced to the primary server. Falls back to the primary server if no
+	 * replica can be reached.
+	 * 
+	 */
+	@Override
+	protected Connection borrowConnection(boolean readOnly) throws SQLException {
+		if (readOnly && readFromReplicas && primaryReads.get() == null) {
+			List<Replica> replicas = openReplicas;
+			for (int attempt = 0; attempt < replicas.size(); attempt++) {
+				Replica replica = pickReplica(replicas);
+				if (replica == null)
+					break;
+
+				replica.outstanding.incrementAndGet();
+				try {
+					ConnectionPool pool = replica.pool;
+					Connection connection = pool.borrow();
+					borrowedReads.put(connection, new BorrowedRead(replica, pool));
+					return connection;
+				} catch (SQLTimeoutException e) {
+					// Replica is busy, not down
+					replica.outstanding.decrementAndGet();
+					break;
+				} catch (SQLException e) {
+					replica.outstanding.decrementAndGet();
+					replica.markUnhealthy(TimeUnit.MILLISECONDS.toNanos(replicaRetryDelay));
+				}
+			}
+		}
+		return super.borrowConnection(readOnly);
+	}
+
+	@Override
+	protected void giveBackConnection(Connection connection) {
+		BorrowedRead read = borrowedReads.remove(connection);
+		if (read == null) {
+			super.giveBackConnection(connection);
+			return;
+		}
+		read.replica.outstanding.decrementAndGet();
+		read.pool.release(connection);
+	}
+
+	/**
+	 * Picks the replica to route a read to
+	 * 
+	 * @param replicas The open replicas
+	 * 
+	 * @return A healthy replica, or {@code null} if there is none
+	 * 
+	 */
+	private Replica pickReplica(List<Replica> replicas) {
+		int size = replicas.size();
+		if (size == 0)
+			return null;
+		int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+
+		if (loadBalancing == LoadBalancing.ROUND_ROBIN) {
+			for (int i = 0; i < size; i++) {
+				Replica replica = replicas.get((start + i) % size);
+				if (replica.isHealthy())
+					return replica;
+			}
+			return null;
+		}
+
+		// Starting at a rotating index spreads ties evenly
+		Replica best = null;
+		int fewest = Integer.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			Replica replica = replicas.get((start + i) % size);
+			int outstanding = replica.outstanding.get();
+			if (outstanding < fewest && replica.isHealthy()) {
+				best = replica;
+				fewest = outstanding;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Runs a callback with all reads of the current thread routed to the primary
+	 * server, e.g. to read data which was just written and might not have
+	 * reached the replicas yet
+	 * 
+	 * @param <T>      Type of the result
+	 * @param callback The work to run
+	 * 
+	 * @return The result of the callback
+	 * 
+	 * @throws SQLException
+	 * @throws NotConnectedException
+	 * 
+	 */
+	public <T> T onPrimary(TransactionCallback<T> callback) throws SQLException, NotConnectedException {
+		Boolean previous = primaryReads.get();
+		primaryReads.set(Boolean.TRUE);
+		try {
+			return callback.run();
+		} finally {
+			if (previous == null)
+				primaryReads.remove();
+		}
+	}
+
+	/**
+	 * Sets the read replicas. They use the database and credentials of the
+	 * primary server. Reconnects if already connected, so the replicas are used
+	 * right away.
+	 * 
+	 * @param endpoints Replicas as {@code HOST:PORT}, or {@code HOST} to use the
+	 *                  port of the primary server; none to disable replicas
+	 * 
+	 * @throws InvalidConnectionDetailsException If an endpoint is malformed,
+	 *                                           the driver does not support
+	 *                                           replicas or reconnecting failed
+	 * 
+	 * @see #supportsReplicas()
+	 * 
+	 */
+	public void setReplicas(String... endpoints) throws InvalidConnectionDetailsException {
+		replicas = parseReplicas(endpoints);
+		connectionDetailsUpdate();
+	}
+
+	private List<Replica> parseReplicas(String... endpoints) throws InvalidConnectionDetailsException {
+		ArrayList<Replica> parsed = new ArrayList<>(endpoints.length);
+		boolean supported = supportsReplicas();
+		for (String endpoint : endpoints) {
+			endpoint = endpoint.trim();
+			if (endpoint.isEmpty())
+				continue;
+			if (!supported)
+				throw new InvalidConnectionDetailsException(
+						getClass().getSimpleName() + " does not support read replicas");
+			int colon = endpoint.lastIndexOf(':');
+			try {
+				if (colon < 0)
+					parsed.add(new Replica(endpoint, port));
+				else
+					parsed.add(new Replica(endpoint.substring(0, colon),
+							Integer.parseInt(endpoint.substring(colon + 1))));
+			} catch (NumberFormatException e) {
+				throw new InvalidConnectionDetailsException("Invalid replica '" + endpoint + "'");
+			}
+		}
+		return Collections.unmodifiableList(parsed);
+	}
+
+	/**
+	 * Gets the configured read replicas
+	 * 
+	 * @return The {@link Replica Replicas}, e.g. to monitor their health and
+	 *         usage
+	 * 
+	 */
+	public List<Replica> getReplicas() {
+		return replicas;
+	}
+
+	/**
+	 * Sets how reads are distributed among the replicas
+	 * 
+	 * @param loadBalancing The {@link LoadBalancing} strategy, by default
+	 *                      {@link LoadBalancing#ROUND_ROBIN}
+	 * 
+	 */
+	public void setLoadBalancing(LoadBalancing loadBalancing) {
+		if (loadBalancing == null)
+			throw new IllegalArgumentException("Load balancing must not be null");
+		this.loadBalancing = loadBalancing;
+	}
+
+	public LoadBalancing getLoadBalancing() {
+		return loadBalancing;
+	}
+
+	/**
+	 * Sets the settings of the connection pool of each replica<br>
+	 * Takes effect on the next {@link #open()} or {@link #reconnect()}.
+	 * 
+	 * @param replicaPoolSettings Settings of the pool of each replica; by default
+	 *                            no connections are kept open while idle
+	 * 
+	 */
+	public void setReplicaPoolSettings(PoolSettings replicaPoolSettings) {
+		this.replicaPoolSettings = new PoolSettings(replicaPoolSettings);
+	}
+
+	public PoolSettings getReplicaPoolSettings() {
+		return new PoolSettings(replicaPoolSettings);
+	}
+
+	/**
+	 * Sets how long a replica which could not be reached is skipped before it is
+	 * tried again. Meanwhile, its reads run on the other replicas or the primary
+	 * server.
+	 * 
+	 * @param replicaRetryDelay Delay in milliseconds
+	 * 
+	 */
+	public void setReplicaRetryDelay(long replicaRetryDelay) {
+		this.replicaRetryDelay = replicaRetryDelay;
+	}
+
+	public long getReplicaRetryDelay() {
+		return replicaRetryDelay;
+	}
+
+	/**
+	 * Enables/disables routing reads to the replicas for all threads
+	 * 
+	 * @param readFromReplicas {@code false} to run all statements on the primary
+	 *                         server
+	 * 
+	 * @see #onPrimary(TransactionCallback)
+	 * 
+	 */
+	public void setReadFromReplicas(boolean readFromReplicas) {
+		this.readFromReplicas = readFromReplicas;
+	}
+
+	public boolean isReadFromReplicas() {
+		return readFromReplicas;
+	}
+
 	/**
 	 * Set default connection details. Implemented by the driver as default
 	 * connection details for different database servers are different
@@ -140,6 +517,10 @@ public abstract class DatabaseServerConnection extends DatabaseConnection {
 	 * {@code database=DATABASE}<br>
 	 * {@code username=USERNAME}<br>
 	 * {@code password=PASSWORD}<br>
+	 * Optional: {@code replicas=HOST:PORT,HOST:PORT,...}<br>
+	 * Optional: {@code load_balancing=round_robin|least_outstanding}<br>
+	 * Drivers may accept further parameters, see
+	 * {@link #loadDriverSettings(HashMap)}<br>
 	 * 
 	 * @param path Path to the configuration file
 	 * 
@@ -163,6 +544,10 @@ public abstract class DatabaseServerConnection extends DatabaseConnection {
 	 * {@code database=DATABASE}<br>
 	 * {@code username=USERNAME}<br>
 	 * {@code password=PASSWORD}<br>
+	 * Optional: {@code replicas=HOST:PORT,HOST:PORT,...}<br>
+	 * Optional: {@code load_balancing=round_robin|least_outstanding}<br>
+	 * Drivers may accept further parameters, see
+	 * {@link #loadDriverSettings(HashMap)}<br>
 	 * 
 	 * @param file The configuation file
 	 * 
@@ -204,10 +589,37 @@ public abstract class DatabaseServerConnection extends DatabaseConnection {
 		else
 			throw new CouldNotReadDatabaseConfigException("Missing entry 'password' from configuratioon file");
 
+		try {
+			replicas = fileentries.containsKey("replicas")
+					? parseReplicas(fileentries.get("replicas").toString().split(","))
+					: Collections.emptyList();
+			if (fileentries.containsKey("load_balancing"))
+				loadBalancing = LoadBalancing
+						.valueOf(fileentries.get("load_balancing").toString().trim().toUpperCase(Locale.ROOT));
+		} catch (InvalidConnectionDetailsException | IllegalArgumentException e) {
+			throw new CouldNotReadDatabaseConfigException(e.getMessage());
+		}
+
+		loadDriverSettings(fileentries);
 		connectionDetailsUpdate();
 
 	}
 
+	/**
+	 * Loads driver specific settings from the entries of a configuration file.
+	 * Called by {@link #loadConnectionDetailsFromFile(File)} before reconnecting;
+	 * does nothing by default.
+	 * 
+	 * @param fileentries All entries of the configuration file
+	 * 
+	 * @throws CouldNotReadDatabaseConfigException If an entry has an invalid
+	 *                                             value
+	 * 
+	 */
+	protected void loadDriverSettings(HashMap<String, DataElement> fileentries)
+			throws CouldNotReadDatabaseConfigException {
+	}
+
 	/**
 	 * Gets the hostname of the database server
 	 * 
@@ -274,4 +686,20 @@ public abstract class DatabaseServerConnection extends DatabaseConnection {
 		return password;
 	}
 
+	/**
+	 * A connection borrowed from the pool of a replica
+	 * 
+	 */
+	private static final class BorrowedRead {
+
+		private final Replica replica;
+		private final ConnectionPool pool;
+
+		private BorrowedRead(Replica replica, ConnectionPool pool) {
+			this.replica = replica;
+			this.pool = pool;
+		}
+
+	}
+
 }
@@ -0,0 +1,25 @@
+package de.pentagonlp.database.drivertypes;
+
+/**
+ * Strategies to pick the replica a read is routed to
+ * 
+ * @author PentagonLP
+ * 
+ * @see DatabaseServerConnection#setLoadBalancing(LoadBalancing)
+ * 
+ */
+public enum LoadBalancing {
+
+	/**
+	 * Use the healthy replicas in turn
+	 * 
+	 */
+	ROUND_ROBIN,
+	/**
+	 * Use the healthy replica with the fewest reads in progress, which adapts to
+	 * replicas of different speed
+	 * 
+	 */
+	LEAST_OUTSTANDING;
+
+}
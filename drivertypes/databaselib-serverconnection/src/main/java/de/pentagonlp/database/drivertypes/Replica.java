@@ -0,0 +1,106 @@
+package de.pentagonlp.database.drivertypes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.pentagonlp.database.ConnectionPool;
+
+/**
+ * A read replica of a {@link DatabaseServerConnection} and its connection pool
+ * 
+ * @author PentagonLP
+ * 
+ */
+public class Replica {
+
+	private final String host;
+	private final int port;
+
+	/**
+	 * Pool of connections to the replica, {@code null} while not connected
+	 * 
+	 */
+	volatile ConnectionPool pool;
+	final AtomicInteger outstanding = new AtomicInteger();
+	/**
+	 * {@link System#nanoTime()} until which the replica is not used
+	 * 
+	 */
+	private volatile long unhealthyUntil;
+	private volatile boolean unhealthy = false;
+
+	/**
+	 * Creates a {@link Replica}
+	 * 
+	 * @param host Hostname of the replica
+	 * @param port Port of the replica
+	 * 
+	 */
+	Replica(String host, int port) {
+		this.host = host;
+		this.port = port;
+	}
+
+	/**
+	 * Stop routing reads to the replica for a while
+	 * 
+	 * @param nanos Time to wait before the replica is tried again
+	 * 
+	 */
+	void markUnhealthy(long nanos) {
+		unhealthyUntil = System.nanoTime() + nanos;
+		unhealthy = true;
+	}
+
+	/**
+	 * Route reads to the replica again
+	 * 
+	 */
+	void markHealthy() {
+		unhealthy = false;
+	}
+
+	/**
+	 * Whether reads are routed to the replica. Unhealthy replicas are tried
+	 * again once their waiting time is over.
+	 * 
+	 * @return {@code false} if connecting to the replica failed recently
+	 * 
+	 */
+	public boolean isHealthy() {
+		return !unhealthy || System.nanoTime() - unhealthyUntil >= 0;
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * Gets the number of reads currently running on the replica
+	 * 
+	 * @return The number of borrowed connections to the replica
+	 * 
+	 */
+	public int getOutstanding() {
+		return outstanding.get();
+	}
+
+	/**
+	 * Gets the current connection pool of the replica, e.g. to monitor its usage
+	 * 
+	 * @return The {@link ConnectionPool}, or {@code null} if not connected
+	 * 
+	 */
+	public ConnectionPool getPool() {
+		return pool;
+	}
+
+	@Override
+	public String toString() {
+		return host + ":" + port;
+	}
+
+}